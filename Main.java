@@ -2,6 +2,8 @@ import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
 import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
 import be.ipam.menegon.model.exceptions.TruckNotSettedException;
 import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.report.ReportCache;
+import be.ipam.menegon.model.report.ReportFormat;
 import be.ipam.menegon.model.truck.Camion;
 import be.ipam.menegon.model.truck.Chargeable;
 import be.ipam.menegon.model.truck.Palette;
@@ -29,6 +31,7 @@ public class Main {
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
         Map<String, Loadmaster> loadmasters = new HashMap<>();
+        ReportCache reports = new ReportCache();
 
         while (true) {
             System.out.println("\n1. Ajouter un Loadmaster");
@@ -209,15 +212,21 @@ public class Main {
                                 boolean validUnload = false;
                                 while (!validUnload) {
                                     try {
-                                        System.out.print("Entrez l'ID du camion : ");
+                                        System.out.print("Entrez l'ID du camion (laisser vide pour rechercher l'élément) : ");
                                         String camionIdToUnload = scanner.nextLine();
                                         System.out.print("Entrez l'ID de l'élément : ");
                                         String itemIdToUnload = scanner.nextLine();
 
-                                        // Créer un élément de type Vrac ou Palette pour décharger
-                                        Chargeable itemToUnload = new Vrac(itemIdToUnload, 1, 0.1); // Poids et volume valides
-                                        loadmaster.unloadItem(camionIdToUnload, itemToUnload);
-                                        System.out.println("Élément déchargé avec succès.");
+                                        if (camionIdToUnload.trim().isEmpty()) {
+                                            // Décharger l'élément du camion qui le contient, où qu'il soit
+                                            Chargeable unloaded = Loadmaster.unloadItemById(itemIdToUnload);
+                                            System.out.println("Élément déchargé avec succès : " + unloaded);
+                                        } else {
+                                            // Créer un élément de type Vrac ou Palette pour décharger
+                                            Chargeable itemToUnload = new Vrac(itemIdToUnload, 1, 0.1); // Poids et volume valides
+                                            loadmaster.unloadItem(camionIdToUnload, itemToUnload);
+                                            System.out.println("Élément déchargé avec succès.");
+                                        }
                                         validUnload = true;
                                     } catch (IllegalArgumentException e) {
                                         System.out.println("Erreur : " + e.getMessage());
@@ -240,7 +249,7 @@ public class Main {
                                     System.out.println("Camion non trouvé.");
                                 } else {
                                     System.out.println("Éléments dans le camion " + camionIdToView + ":");
-                                    List<Chargeable> load = camionToView.getLoad();
+                                    List<Chargeable> load = camionToView.getLoadView();
                                     for (int i = 0; i < load.size(); i++) {
                                         System.out.println(load.get(i).toString());
                                     }
@@ -256,30 +265,8 @@ public class Main {
                                 if (camionForDetails == null) {
                                     System.out.println("Camion non trouvé.");
                                 } else {
-                                    System.out.println("Détails du camion " + camionIdForDetails + ":");
-                                    System.out.printf("Poids actuel : %d kg%n", camionForDetails.getCurrentWeight());
-                                    System.out.printf("Volume actuel : %.2f m³%n", camionForDetails.getCurrentVolume());
-
-                                    System.out.println("Éléments triés par ID :");
-                                    List<Chargeable> sortedById = camionForDetails.getLoadSortedById();
-                                    for (int i = 0; i < sortedById.size(); i++) {
-                                        Chargeable item = sortedById.get(i);
-                                        System.out.println(item.toString());
-                                    }
-
-                                    System.out.println("Éléments triés par poids croissant :");
-                                    List<Chargeable> sortedByWeight = camionForDetails.getLoadSortedByWeight();
-                                    for (int i = 0; i < sortedByWeight.size(); i++) {
-                                        Chargeable item = sortedByWeight.get(i);
-                                        System.out.println(item.toString());
-                                    }
-
-                                    System.out.println("Éléments triés par volume croissant :");
-                                    List<Chargeable> sortedByVolume = camionForDetails.getLoadSortedByVolume();
-                                    for (int i = 0; i < sortedByVolume.size(); i++) {
-                                        Chargeable item = sortedByVolume.get(i);
-                                        System.out.println(item.toString());
-                                    }
+                                    // Le rapport n'est rendu à nouveau que si le camion a changé depuis le dernier affichage
+                                    System.out.print(reports.get(camionForDetails, ReportFormat.TEXT).getContent());
                                 }
                                 break;
 
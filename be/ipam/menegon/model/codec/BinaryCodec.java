@@ -0,0 +1,422 @@
+package be.ipam.menegon.model.codec;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.loadmaster.LoadmasterSnapshot;
+import be.ipam.menegon.model.storage.ItemArena;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Codec binaire compact des types du modèle, partagé par la persistance, la réplication et les
+ * interfaces réseau. Les données sont écrites et lues directement dans un {@link ByteBuffer},
+ * sans objet intermédiaire ni réflexion.
+ *
+ * Encodage :
+ * <ul>
+ *     <li>entiers : varint (7 bits par octet), en zigzag pour les valeurs signées ;</li>
+ *     <li>volumes : virgule fixe au millionième de m³ (cm³), encodés en varint ;</li>
+ *     <li>chaînes : longueur en octets UTF-8 (varint, -1 pour null) suivie des octets ;</li>
+ *     <li>valeurs : double IEEE 754 sur 8 octets ;</li>
+ *     <li>heures limites de départ : octet 0 sans échéance, sinon octet 1 suivi de l'heure en varint signé ;</li>
+ *     <li>élément : étiquette de type de {@link ItemArena}, ID, poids, volume, valeur, heure limite de départ ;</li>
+ *     <li>camion : ID, poids et volume maximums, version, nombre d'éléments, éléments dans l'ordre de chargement ;</li>
+ *     <li>Loadmaster : nom, séquence, nombre de camions, camions.</li>
+ * </ul>
+ * Un message commence par l'octet de version du schéma ({@link #writeHeader(ByteBuffer)}).
+ * Les éléments d'un type personnalisé sont décodés en {@link CustomItem}.
+ *
+ * @author Dylan Menegon
+ */
+public final class BinaryCodec {
+    /** Version du schéma écrite en tête de chaque message. */
+    public static final byte SCHEMA_VERSION = 3;
+    /** Nombre d'unités de volume encodées par m³. */
+    public static final long VOLUME_SCALE = 1_000_000L;
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * Écrit l'octet de version du schéma.
+     *
+     * @param buffer Le tampon de destination.
+     * @throws BufferOverflowException Si le tampon est plein.
+     */
+    public static void writeHeader(ByteBuffer buffer) {
+        buffer.put(SCHEMA_VERSION);
+    }
+
+    /**
+     * Lit et vérifie l'octet de version du schéma.
+     *
+     * @param buffer Le tampon source.
+     * @throws IllegalArgumentException Si la version n'est pas prise en charge.
+     */
+    public static void readHeader(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Version de schéma non prise en charge : " + version + ".");
+        }
+    }
+
+    /**
+     * Encode un élément.
+     *
+     * @param buffer Le tampon de destination.
+     * @param item L'élément à encoder. Ne peut pas être null.
+     * @throws BufferOverflowException Si le tampon n'a pas la place d'accueillir l'élément ; voir {@link #encodedSize(Chargeable)}.
+     */
+    public static void encodeItem(ByteBuffer buffer, Chargeable item) {
+        buffer.put(typeOf(item));
+        writeString(buffer, item.getId());
+        writeSignedVarint(buffer, item.getWeight());
+        writeVolume(buffer, item.getVolume());
+        buffer.putDouble(item.getValue());
+        writeDeadline(buffer, item.getLatestDeparture());
+    }
+
+    /**
+     * Décode un élément.
+     *
+     * @param buffer Le tampon source.
+     * @return Un {@link Vrac}, une {@link Palette} ou un {@link CustomItem}.
+     * @throws IllegalArgumentException Si l'étiquette de type est inconnue.
+     * @throws BufferUnderflowException Si le tampon ne contient pas un élément complet.
+     */
+    public static Chargeable decodeItem(ByteBuffer buffer) {
+        byte type = buffer.get();
+        String id = readString(buffer);
+        int weight = (int) readSignedVarint(buffer);
+        double volume = readVolume(buffer);
+        double value = buffer.getDouble();
+        long latestDeparture = readDeadline(buffer);
+        switch (type) {
+            case ItemArena.TYPE_VRAC:
+                return new Vrac(id, weight, volume, value, latestDeparture);
+            case ItemArena.TYPE_PALETTE:
+                return new Palette(id, weight, volume, value, latestDeparture);
+            case ItemArena.TYPE_CUSTOM:
+                return new CustomItem(id, weight, volume, value, latestDeparture);
+            default:
+                throw new IllegalArgumentException("Type d'élément inconnu : " + type + ".");
+        }
+    }
+
+    /**
+     * Retourne le nombre d'octets qu'occupe un élément encodé.
+     *
+     * @param item L'élément.
+     * @return La taille encodée de l'élément, en octets.
+     */
+    public static int encodedSize(Chargeable item) {
+        return 1 + stringSize(item.getId()) + varintSize(zigzag(item.getWeight()))
+                + varintSize(zigzag(toFixedPoint(item.getVolume()))) + Double.BYTES
+                + deadlineSize(item.getLatestDeparture());
+    }
+
+    /**
+     * Encode une suite d'éléments à partir d'une position donnée, tant que le tampon a de la place.
+     * Un élément n'est jamais écrit à moitié : l'appelant vide le tampon et reprend à l'indice retourné.
+     *
+     * @param buffer Le tampon de destination.
+     * @param items Les éléments à encoder.
+     * @param from L'indice du premier élément à encoder.
+     * @return L'indice du premier élément qui n'a pas été encodé ({@code items.size()} si tous l'ont été).
+     */
+    public static int encodeItems(ByteBuffer buffer, List<? extends Chargeable> items, int from) {
+        int i = from;
+        while (i < items.size() && encodedSize(items.get(i)) <= buffer.remaining()) {
+            encodeItem(buffer, items.get(i++));
+        }
+        return i;
+    }
+
+    /**
+     * Décode tous les éléments complets du tampon. Les octets d'un élément incomplet restent dans le tampon,
+     * à compléter avant l'appel suivant.
+     *
+     * @param buffer Le tampon source.
+     * @param action L'action appliquée à chaque élément décodé.
+     * @return Le nombre d'éléments décodés.
+     * @throws IllegalArgumentException Si une étiquette de type est inconnue.
+     */
+    public static int decodeItems(ByteBuffer buffer, Consumer<? super Chargeable> action) {
+        int count = 0;
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            Chargeable item;
+            try {
+                item = decodeItem(buffer);
+            } catch (BufferUnderflowException e) {
+                buffer.position(start);
+                break;
+            }
+            action.accept(item);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Encode un camion et son chargement.
+     *
+     * @param buffer Le tampon de destination.
+     * @param camion L'état du camion.
+     * @throws BufferOverflowException Si le tampon n'a pas la place d'accueillir le camion.
+     */
+    public static void encodeCamion(ByteBuffer buffer, CamionSnapshot camion) {
+        writeString(buffer, camion.getId());
+        writeSignedVarint(buffer, camion.getMaxWeight());
+        writeVolume(buffer, camion.getMaxVolume());
+        writeVarint(buffer, camion.getVersion());
+        writeVarint(buffer, camion.size());
+        for (Chargeable item : camion.getLoad()) {
+            encodeItem(buffer, item);
+        }
+    }
+
+    /**
+     * Décode un camion et recharge ses éléments dans l'ordre.
+     *
+     * @param buffer Le tampon source.
+     * @param loadmaster Le Loadmaster auquel rattacher le camion. Le camion n'est pas ajouté à sa liste.
+     * @return Le camion décodé.
+     * @throws IllegalArgumentException Si les données sont invalides ou si le chargement dépasse les capacités du camion.
+     */
+    public static Camion decodeCamion(ByteBuffer buffer, Loadmaster loadmaster) {
+        String id = readString(buffer);
+        int maxWeight = (int) readSignedVarint(buffer);
+        double maxVolume = readVolume(buffer);
+        readVarint(buffer); // La version repart de zéro sur le camion reconstruit
+        int count = (int) readVarint(buffer);
+        Camion camion = new Camion(id, maxWeight, maxVolume, loadmaster);
+        try {
+            for (int i = 0; i < count; i++) {
+                camion.load(decodeItem(buffer));
+            }
+        } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+            throw new IllegalArgumentException("Le chargement encodé du camion " + id + " dépasse ses capacités.", e);
+        }
+        return camion;
+    }
+
+    /**
+     * Encode tous les camions d'un Loadmaster.
+     *
+     * @param buffer Le tampon de destination.
+     * @param loadmaster L'état du Loadmaster.
+     * @throws BufferOverflowException Si le tampon n'a pas la place d'accueillir le Loadmaster.
+     */
+    public static void encodeLoadmaster(ByteBuffer buffer, LoadmasterSnapshot loadmaster) {
+        writeString(buffer, loadmaster.getNom());
+        writeVarint(buffer, loadmaster.getSequence());
+        writeVarint(buffer, loadmaster.getCamions().size());
+        for (CamionSnapshot camion : loadmaster.getCamions().values()) {
+            encodeCamion(buffer, camion);
+        }
+    }
+
+    /**
+     * Décode un Loadmaster et lui ajoute ses camions, ce qui les enregistre dans l'annuaire de la flotte.
+     *
+     * @param buffer Le tampon source.
+     * @return Le Loadmaster décodé.
+     * @throws IllegalArgumentException Si les données sont invalides ou si un camion est déjà géré par un autre Loadmaster.
+     */
+    public static Loadmaster decodeLoadmaster(ByteBuffer buffer) {
+        Loadmaster loadmaster = new Loadmaster(readString(buffer));
+        readVarint(buffer);
+        int count = (int) readVarint(buffer);
+        for (int i = 0; i < count; i++) {
+            loadmaster.addCamion(decodeCamion(buffer, loadmaster));
+        }
+        return loadmaster;
+    }
+
+    /**
+     * Retourne l'étiquette de type d'un élément.
+     *
+     * @param item L'élément.
+     * @return {@link ItemArena#TYPE_VRAC}, {@link ItemArena#TYPE_PALETTE} ou {@link ItemArena#TYPE_CUSTOM}.
+     */
+    public static byte typeOf(Chargeable item) {
+        if (item instanceof Vrac) {
+            return ItemArena.TYPE_VRAC;
+        }
+        if (item instanceof Palette) {
+            return ItemArena.TYPE_PALETTE;
+        }
+        return ItemArena.TYPE_CUSTOM;
+    }
+
+    static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Entier encodé trop long.");
+    }
+
+    static void writeSignedVarint(ByteBuffer buffer, long value) {
+        writeVarint(buffer, zigzag(value));
+    }
+
+    static long readSignedVarint(ByteBuffer buffer) {
+        long raw = readVarint(buffer);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static void writeVolume(ByteBuffer buffer, double volume) {
+        writeSignedVarint(buffer, toFixedPoint(volume));
+    }
+
+    private static double readVolume(ByteBuffer buffer) {
+        return (double) readSignedVarint(buffer) / VOLUME_SCALE;
+    }
+
+    private static void writeDeadline(ByteBuffer buffer, long latestDeparture) {
+        if (latestDeparture == Long.MAX_VALUE) {
+            buffer.put((byte) 0);
+        } else {
+            buffer.put((byte) 1);
+            writeSignedVarint(buffer, latestDeparture);
+        }
+    }
+
+    private static long readDeadline(ByteBuffer buffer) {
+        byte present = buffer.get();
+        if (present == 0) {
+            return Long.MAX_VALUE;
+        }
+        if (present != 1) {
+            throw new IllegalArgumentException("Heure limite de départ encodée invalide.");
+        }
+        return readSignedVarint(buffer);
+    }
+
+    private static int deadlineSize(long latestDeparture) {
+        return latestDeparture == Long.MAX_VALUE ? 1 : 1 + varintSize(zigzag(latestDeparture));
+    }
+
+    /**
+     * Écrit une chaîne en UTF-8 directement dans le tampon, sans tableau intermédiaire.
+     */
+    static void writeString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            writeSignedVarint(buffer, -1);
+            return;
+        }
+        writeSignedVarint(buffer, utf8Length(value));
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (cp >> 18)));
+                buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // Demi-paire isolée, remplacée comme le fait String.getBytes
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = (int) readSignedVarint(buffer);
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static int stringSize(String value) {
+        if (value == null) {
+            return varintSize(zigzag(-1));
+        }
+        int length = utf8Length(value);
+        return varintSize(zigzag(length)) + length;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long toFixedPoint(double volume) {
+        return Math.round(volume * VOLUME_SCALE);
+    }
+}
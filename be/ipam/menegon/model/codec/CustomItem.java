@@ -0,0 +1,103 @@
+package be.ipam.menegon.model.codec;
+
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.Objects;
+
+/**
+ * Élément chargeable décodé par {@link BinaryCodec}, ou recopié d'une {@link be.ipam.menegon.model.storage.ItemArena},
+ * dont le type d'origine n'est ni un vrac ni une palette.
+ * Seuls son ID, son poids, son volume, sa valeur et son heure limite de départ sont connus.
+ *
+ * @author Dylan Menegon
+ */
+public final class CustomItem implements Chargeable {
+    private final String id;
+    private final int weight;
+    private final double volume;
+    private final double value;
+    private final long latestDeparture;
+
+    /**
+     * Constructeur pour initialiser un élément décodé.
+     *
+     * @param id L'identifiant de l'élément.
+     * @param weight Le poids de l'élément.
+     * @param volume Le volume de l'élément.
+     */
+    public CustomItem(String id, int weight, double volume) {
+        this(id, weight, volume, 1);
+    }
+
+    /**
+     * Constructeur pour initialiser un élément décodé avec sa valeur.
+     *
+     * @param id L'identifiant de l'élément.
+     * @param weight Le poids de l'élément.
+     * @param volume Le volume de l'élément.
+     * @param value La valeur de l'élément.
+     */
+    public CustomItem(String id, int weight, double volume, double value) {
+        this(id, weight, volume, value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructeur pour initialiser un élément décodé avec sa valeur et son heure limite de départ.
+     *
+     * @param id L'identifiant de l'élément.
+     * @param weight Le poids de l'élément.
+     * @param volume Le volume de l'élément.
+     * @param value La valeur de l'élément.
+     * @param latestDeparture L'heure de départ la plus tardive acceptable, ou {@link Long#MAX_VALUE} sans échéance.
+     */
+    public CustomItem(String id, int weight, double volume, double value, long latestDeparture) {
+        this.id = id;
+        this.weight = weight;
+        this.volume = volume;
+        this.value = value;
+        this.latestDeparture = latestDeparture;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public double getVolume() {
+        return volume;
+    }
+
+    @Override
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public long getLatestDeparture() {
+        return latestDeparture;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, weight, volume);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CustomItem that = (CustomItem) o;
+        return weight == that.weight && Double.compare(that.volume, volume) == 0 && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public String toString() {
+        return "CustomItem [ID=" + id + ", Weight=" + weight + " kg, Volume=" + volume + " m³]";
+    }
+}
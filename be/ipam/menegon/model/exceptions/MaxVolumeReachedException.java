@@ -1,5 +1,6 @@
 package be.ipam.menegon.model.exceptions;
 
+import be.ipam.menegon.model.monitoring.ExceptionEvent;
 import be.ipam.menegon.model.truck.Chargeable;
 
 public class MaxVolumeReachedException extends Exception {
@@ -14,4 +15,13 @@ public class MaxVolumeReachedException extends Exception {
     public Chargeable getItem() {
         return item;
     }
+
+    // Mesure la capture de la pile d'appels, appelée par le constructeur de Throwable
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        ExceptionEvent event = new ExceptionEvent();
+        Throwable filled = super.fillInStackTrace();
+        event.complete(getClass());
+        return filled;
+    }
 }
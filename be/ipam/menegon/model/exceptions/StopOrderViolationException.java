@@ -0,0 +1,27 @@
+package be.ipam.menegon.model.exceptions;
+
+import be.ipam.menegon.model.monitoring.ExceptionEvent;
+import be.ipam.menegon.model.truck.Chargeable;
+
+public class StopOrderViolationException extends Exception {
+    private final Chargeable item;
+
+    // Constructeur avec message et objet Chargeable
+    public StopOrderViolationException(String message, Chargeable item) {
+        super(message);
+        this.item = item;
+    }
+
+    public Chargeable getItem() {
+        return item;
+    }
+
+    // Mesure la capture de la pile d'appels, appelée par le constructeur de Throwable
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        ExceptionEvent event = new ExceptionEvent();
+        Throwable filled = super.fillInStackTrace();
+        event.complete(getClass());
+        return filled;
+    }
+}
@@ -0,0 +1,192 @@
+package be.ipam.menegon.model.export;
+
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Export en continu du contenu d'un {@link Loadmaster} (tous ses camions et tous leurs éléments)
+ * vers un fichier, en CSV, en JSON Lines ou dans un format binaire compact.
+ *
+ * L'export part d'un instantané cohérent du Loadmaster. Les camions sont répartis en segments écrits
+ * en parallèle dans des fichiers temporaires, chacun à travers un tampon direct réutilisé d'un export
+ * à l'autre ; les segments sont ensuite concaténés dans le fichier cible par transfert direct entre
+ * canaux ({@link FileChannel#transferTo}), sans repasser par le tas. La mémoire utilisée ne dépend donc
+ * pas de la taille du fichier produit, seulement du nombre de tampons et du plus gros camion.
+ *
+ * @author Dylan Menegon
+ */
+public class ManifestExporter implements AutoCloseable {
+    /** Taille par défaut de chaque tampon direct, en octets. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int SEGMENTS_PER_THREAD = 4;
+
+    private final int parallelism;
+    private final ExecutorService workers;
+    private final BlockingQueue<ManifestWriter> writers;
+
+    /**
+     * Constructeur pour initialiser un exportateur qui utilise tous les processeurs disponibles.
+     */
+    public ManifestExporter() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructeur pour initialiser un exportateur.
+     *
+     * @param parallelism Le nombre de segments écrits en même temps. Doit être strictement positif.
+     * @param bufferSize La taille de chaque tampon direct, en octets. Doit être d'au moins 16 octets.
+     * @throws IllegalArgumentException Si le parallélisme ou la taille des tampons est invalide.
+     */
+    public ManifestExporter(int parallelism, int bufferSize) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Le parallélisme doit être strictement positif.");
+        }
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("La taille des tampons doit être d'au moins 16 octets.");
+        }
+        this.parallelism = parallelism;
+        // Un tampon par thread, plus celui de l'en-tête
+        this.writers = new ArrayBlockingQueue<>(parallelism + 1);
+        for (int i = 0; i <= parallelism; i++) {
+            writers.add(new ManifestWriter(ByteBuffer.allocateDirect(bufferSize)));
+        }
+        this.workers = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "manifest-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Exporte tous les camions d'un Loadmaster dans un fichier, qui est créé ou remplacé.
+     *
+     * @param loadmaster Le Loadmaster à exporter. Ne peut pas être null.
+     * @param target Le fichier à produire. Ne peut pas être null.
+     * @param format Le format du manifeste. Ne peut pas être null.
+     * @return La taille du fichier produit, en octets.
+     * @throws IOException Si le fichier ou un segment temporaire ne peut pas être écrit.
+     * @throws IllegalArgumentException Si un paramètre est null.
+     */
+    public long export(Loadmaster loadmaster, Path target, ManifestFormat format) throws IOException {
+        if (loadmaster == null || target == null || format == null) {
+            throw new IllegalArgumentException("Le Loadmaster, le fichier cible et le format sont obligatoires.");
+        }
+        List<CamionSnapshot> camions = new ArrayList<>(loadmaster.snapshot().getCamions().values());
+        Path directory = target.toAbsolutePath().getParent();
+
+        // Découpage des camions en segments contigus, écrits en parallèle
+        int segmentCount = Math.max(1, Math.min(camions.size(), parallelism * SEGMENTS_PER_THREAD));
+        List<Path> segments = new ArrayList<>(segmentCount);
+        List<Future<?>> tasks = new ArrayList<>(segmentCount);
+        try {
+            for (int s = 0; s < segmentCount; s++) {
+                Path segment = Files.createTempFile(directory, "manifest-", ".part");
+                segments.add(segment);
+                List<CamionSnapshot> part = camions.subList(s * camions.size() / segmentCount,
+                        (s + 1) * camions.size() / segmentCount);
+                tasks.add(workers.submit(() -> writeSegment(segment, part, format)));
+            }
+            for (Future<?> task : tasks) {
+                await(task);
+            }
+
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ManifestWriter writer = borrow();
+                try {
+                    writer.open(out);
+                    format.writeHeader(writer);
+                    writer.flush();
+                } finally {
+                    writers.add(writer);
+                }
+                for (Path segment : segments) {
+                    try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                        long size = in.size();
+                        long position = 0;
+                        while (position < size) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+                return out.size();
+            }
+        } finally {
+            for (Future<?> task : tasks) {
+                task.cancel(true);
+            }
+            for (Path segment : segments) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    /**
+     * Arrête les threads d'export.
+     */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    private Void writeSegment(Path segment, List<CamionSnapshot> camions, ManifestFormat format) throws IOException {
+        ManifestWriter writer = borrow();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writer.open(channel);
+            for (CamionSnapshot camion : camions) {
+                format.writeCamion(writer, camion, camion.getLoad());
+            }
+            writer.flush();
+            return null;
+        } finally {
+            writers.add(writer);
+        }
+    }
+
+    private ManifestWriter borrow() {
+        try {
+            return writers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("L'export a été interrompu.", e);
+        }
+    }
+
+    private static void await(Future<?> task) throws IOException {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("L'export a été interrompu.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
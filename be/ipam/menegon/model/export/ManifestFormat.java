@@ -0,0 +1,151 @@
+package be.ipam.menegon.model.export;
+
+import be.ipam.menegon.model.codec.BinaryCodec;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Format d'un manifeste exporté par {@link ManifestExporter}.
+ *
+ * @author Dylan Menegon
+ */
+public enum ManifestFormat {
+    /**
+     * Une ligne par élément, précédée des colonnes de son camion ; un camion vide occupe une ligne
+     * dont les colonnes d'élément sont vides.
+     */
+    CSV {
+        @Override
+        void writeHeader(ManifestWriter out) throws IOException {
+            out.line().append("camion_id,max_weight,max_volume,current_weight,current_volume,item_type,item_id,weight,volume");
+            out.writeLine();
+        }
+
+        @Override
+        void writeCamion(ManifestWriter out, CamionSnapshot camion, List<Chargeable> load) throws IOException {
+            if (load.isEmpty()) {
+                appendCamion(out.line(), camion).append(",,,,");
+                out.writeLine();
+            }
+            for (Chargeable item : load) {
+                StringBuilder line = appendCamion(out.line(), camion).append(',');
+                appendCsv(line, item.getClass().getSimpleName()).append(',');
+                appendCsv(line, item.getId()).append(',')
+                        .append(item.getWeight()).append(',')
+                        .append(item.getVolume());
+                out.writeLine();
+            }
+        }
+
+        private StringBuilder appendCamion(StringBuilder line, CamionSnapshot camion) {
+            return appendCsv(line, camion.getId()).append(',')
+                    .append(camion.getMaxWeight()).append(',')
+                    .append(camion.getMaxVolume()).append(',')
+                    .append(camion.getCurrentWeight()).append(',')
+                    .append(camion.getCurrentVolume());
+        }
+    },
+    /**
+     * Un objet JSON par ligne : une ligne {@code "record":"camion"} pour chaque camion,
+     * suivie d'une ligne {@code "record":"item"} pour chacun de ses éléments.
+     */
+    JSON_LINES {
+        @Override
+        void writeHeader(ManifestWriter out) {
+        }
+
+        @Override
+        void writeCamion(ManifestWriter out, CamionSnapshot camion, List<Chargeable> load) throws IOException {
+            StringBuilder line = out.line().append("{\"record\":\"camion\",\"id\":");
+            appendJson(line, camion.getId())
+                    .append(",\"maxWeight\":").append(camion.getMaxWeight())
+                    .append(",\"maxVolume\":").append(camion.getMaxVolume())
+                    .append(",\"currentWeight\":").append(camion.getCurrentWeight())
+                    .append(",\"currentVolume\":").append(camion.getCurrentVolume())
+                    .append(",\"items\":").append(load.size())
+                    .append('}');
+            out.writeLine();
+            for (Chargeable item : load) {
+                line = out.line().append("{\"record\":\"item\",\"camion\":");
+                appendJson(line, camion.getId()).append(",\"type\":");
+                appendJson(line, item.getClass().getSimpleName()).append(",\"id\":");
+                appendJson(line, item.getId())
+                        .append(",\"weight\":").append(item.getWeight())
+                        .append(",\"volume\":").append(item.getVolume())
+                        .append('}');
+                out.writeLine();
+            }
+        }
+    },
+    /**
+     * Format binaire compact : l'en-tête {@code LMEX} suivi de la version du schéma de {@link BinaryCodec},
+     * puis pour chaque camion son ID (précédé de sa longueur en octets UTF-8), ses capacités, son poids
+     * et son volume, le nombre d'éléments, et chaque élément encodé par {@link BinaryCodec#encodeItem}.
+     */
+    BINARY {
+        @Override
+        void writeHeader(ManifestWriter out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeByte(BINARY_VERSION);
+        }
+
+        @Override
+        void writeCamion(ManifestWriter out, CamionSnapshot camion, List<Chargeable> load) throws IOException {
+            out.writeString(camion.getId());
+            out.writeInt(camion.getMaxWeight());
+            out.writeDouble(camion.getMaxVolume());
+            out.writeInt(camion.getCurrentWeight());
+            out.writeDouble(camion.getCurrentVolume());
+            out.writeInt(load.size());
+            out.writeItems(load);
+        }
+    };
+
+    /** Signature {@code LMEX} au début d'un manifeste binaire. */
+    public static final int MAGIC = 0x4C4D4558;
+    /** Version du format binaire, celle du schéma de {@link BinaryCodec} qui encode les éléments. */
+    public static final byte BINARY_VERSION = BinaryCodec.SCHEMA_VERSION;
+
+    abstract void writeHeader(ManifestWriter out) throws IOException;
+
+    abstract void writeCamion(ManifestWriter out, CamionSnapshot camion, List<Chargeable> load) throws IOException;
+
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    private static StringBuilder appendJson(StringBuilder line, String value) {
+        if (value == null) {
+            return line.append("null");
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        return line.append('"');
+    }
+}
@@ -0,0 +1,154 @@
+package be.ipam.menegon.model.export;
+
+import be.ipam.menegon.model.codec.BinaryCodec;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Écriture d'un manifeste dans un canal à travers un tampon direct réutilisé :
+ * le tampon est vidé dans le canal dès qu'il est plein, si bien que la mémoire utilisée
+ * ne dépend pas de la taille du manifeste.
+ *
+ * @author Dylan Menegon
+ */
+final class ManifestWriter {
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder;
+    private final StringBuilder line; // Ligne de texte en cours, réutilisée d'un enregistrement à l'autre
+    private WritableByteChannel channel;
+    private long written;
+
+    ManifestWriter(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.encoder = StandardCharsets.UTF_8.newEncoder();
+        this.line = new StringBuilder(256);
+    }
+
+    /**
+     * Associe le tampon à un nouveau canal.
+     */
+    void open(WritableByteChannel channel) {
+        this.channel = channel;
+        this.written = 0;
+        buffer.clear();
+    }
+
+    /**
+     * Retourne la ligne de texte en cours, vidée, à remplir avant d'appeler {@link #writeLine()}.
+     */
+    StringBuilder line() {
+        line.setLength(0);
+        return line;
+    }
+
+    /**
+     * Encode la ligne en cours en UTF-8, suivie d'un saut de ligne.
+     */
+    void writeLine() throws IOException {
+        line.append('\n');
+        CharBuffer chars = CharBuffer.wrap(line);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+    }
+
+    void writeByte(int value) throws IOException {
+        ensure(1);
+        buffer.put((byte) value);
+    }
+
+    void writeInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    void writeDouble(double value) throws IOException {
+        ensure(8);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Écrit une chaîne précédée de sa longueur en octets (int), ou -1 pour une chaîne null.
+     */
+    void writeString(String value) throws IOException {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        writeBytes(bytes);
+    }
+
+    /**
+     * Encode des éléments avec {@link BinaryCodec#encodeItem}. Un élément plus grand que le tampon
+     * est encodé à part puis copié par morceaux.
+     */
+    void writeItems(List<? extends Chargeable> items) throws IOException {
+        int next = 0;
+        while (next < items.size()) {
+            int encoded = BinaryCodec.encodeItems(buffer, items, next);
+            if (encoded > next) {
+                next = encoded;
+            } else if (buffer.position() > 0) {
+                drain();
+            } else {
+                Chargeable item = items.get(next++);
+                ByteBuffer large = ByteBuffer.allocate(BinaryCodec.encodedSize(item));
+                BinaryCodec.encodeItem(large, item);
+                writeBytes(large.array());
+            }
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensure(1);
+            int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+    }
+
+    /**
+     * Vide le tampon dans le canal et retourne le nombre total d'octets écrits depuis {@link #open}.
+     */
+    long flush() throws IOException {
+        drain();
+        return written;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,53 @@
+package be.ipam.menegon.model.history;
+
+/**
+ * Résolutions auxquelles l'historique d'utilisation agrège le taux de remplissage des camions.
+ * Chaque résolution conserve un nombre fixe d'intervalles : les plus anciens sont écrasés par les nouveaux.
+ * Les intervalles sont alignés sur l'époque Unix, donc en UTC pour les jours.
+ *
+ * @author Dylan Menegon
+ */
+public enum Resolution {
+    /** Intervalles d'une minute, sur les 12 dernières heures. */
+    MINUTE(60_000L, 12 * 60),
+    /** Intervalles d'une heure, sur les 31 derniers jours. */
+    HOUR(3_600_000L, 31 * 24),
+    /** Intervalles d'un jour, sur la dernière année. */
+    DAY(86_400_000L, 366);
+
+    private final long millis;
+    private final int capacity;
+
+    Resolution(long millis, int capacity) {
+        this.millis = millis;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Retourne la durée d'un intervalle.
+     *
+     * @return La durée d'un intervalle, en millisecondes.
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * Retourne le nombre d'intervalles conservés par camion.
+     *
+     * @return Le nombre d'intervalles conservés.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Retourne le début de l'intervalle qui contient un instant donné.
+     *
+     * @param time L'instant, en millisecondes depuis l'époque Unix.
+     * @return Le début de l'intervalle, en millisecondes depuis l'époque Unix.
+     */
+    public long bucketOf(long time) {
+        return Math.floorDiv(time, millis) * millis;
+    }
+}
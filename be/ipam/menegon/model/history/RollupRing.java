@@ -0,0 +1,94 @@
+package be.ipam.menegon.model.history;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tampon circulaire des agrégats d'un camion à une résolution donnée, stockés dans des tableaux primitifs.
+ * L'intervalle qui commence à {@code start} occupe toujours la case {@code (start / durée) % capacité} :
+ * un nouvel intervalle écrase donc celui qui le précède d'une capacité entière.
+ * Les ajouts doivent se faire dans l'ordre chronologique.
+ *
+ * @author Dylan Menegon
+ */
+final class RollupRing {
+    /** Octets occupés par un intervalle : début, minimum, maximum, somme pondérée et durée couverte. */
+    static final int BUCKET_BYTES = Long.BYTES + 2 * Float.BYTES + Double.BYTES + Integer.BYTES;
+
+    private final Resolution resolution;
+    private final long[] starts;
+    private final float[] mins;
+    private final float[] maxs;
+    private final double[] sums; // Taux de remplissage multiplié par sa durée, en millisecondes
+    private final int[] covered; // Durée couverte, en millisecondes
+
+    RollupRing(Resolution resolution) {
+        this.resolution = resolution;
+        int capacity = resolution.getCapacity();
+        this.starts = new long[capacity];
+        this.mins = new float[capacity];
+        this.maxs = new float[capacity];
+        this.sums = new double[capacity];
+        this.covered = new int[capacity];
+        Arrays.fill(starts, Long.MIN_VALUE);
+    }
+
+    /**
+     * Enregistre un taux de remplissage maintenu de {@code from} (inclus) à {@code to} (exclu).
+     * Si les deux instants sont égaux, le taux compte pour le minimum et le maximum de son intervalle, sans durée.
+     */
+    void add(long from, long to, double ratio) {
+        long millis = resolution.getMillis();
+        long last = resolution.bucketOf(to > from ? to - 1 : from);
+        // Seuls les derniers intervalles d'une longue période restent dans le tampon
+        long first = Math.max(resolution.bucketOf(from), last - (starts.length - 1) * millis);
+        for (long start = first; start <= last; start += millis) {
+            int slot = slot(start);
+            if (starts[slot] != start) {
+                starts[slot] = start;
+                mins[slot] = Float.POSITIVE_INFINITY;
+                maxs[slot] = Float.NEGATIVE_INFINITY;
+                sums[slot] = 0;
+                covered[slot] = 0;
+            }
+            long duration = Math.max(0, Math.min(to, start + millis) - Math.max(from, start));
+            mins[slot] = Math.min(mins[slot], (float) ratio);
+            maxs[slot] = Math.max(maxs[slot], (float) ratio);
+            sums[slot] += ratio * duration;
+            covered[slot] += (int) duration;
+        }
+    }
+
+    /**
+     * Ajoute à la liste les agrégats des intervalles qui commencent entre {@code from} (inclus) et {@code to} (exclu),
+     * en tenant compte du taux courant, maintenu de {@code pendingFrom} jusqu'à {@code now} mais pas encore enregistré.
+     */
+    void query(long from, long to, long pendingFrom, long now, double pendingRatio, List<UtilisationAggregate> result) {
+        long millis = resolution.getMillis();
+        long newest = resolution.bucketOf(now);
+        long first = resolution.bucketOf(Math.max(from, newest - (starts.length - 1) * millis));
+        for (long start = first; start < to && start <= newest; start += millis) {
+            int slot = slot(start);
+            boolean stored = starts[slot] == start;
+            double min = stored ? mins[slot] : Double.POSITIVE_INFINITY;
+            double max = stored ? maxs[slot] : Double.NEGATIVE_INFINITY;
+            double sum = stored ? sums[slot] : 0;
+            long duration = stored ? covered[slot] : 0;
+            long pending = Math.min(now, start + millis) - Math.max(pendingFrom, start);
+            if (pending > 0) {
+                min = Math.min(min, pendingRatio);
+                max = Math.max(max, pendingRatio);
+                sum += pendingRatio * pending;
+                duration += pending;
+            }
+            if (stored || pending > 0) {
+                double average = duration > 0 ? sum / duration : (min + max) / 2;
+                result.add(new UtilisationAggregate(start, resolution, min, max, average));
+            }
+        }
+    }
+
+    private int slot(long start) {
+        return (int) Math.floorMod(Math.floorDiv(start, resolution.getMillis()), (long) starts.length);
+    }
+}
@@ -0,0 +1,113 @@
+package be.ipam.menegon.model.history;
+
+import be.ipam.menegon.model.truck.CamionSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Historique d'utilisation d'un camion : les derniers relevés bruts dans un tampon circulaire
+ * de tableaux primitifs, et un {@link RollupRing} par {@link Resolution}.
+ * La mémoire occupée est fixée à la création et ne dépend pas du nombre de modifications.
+ *
+ * @author Dylan Menegon
+ */
+final class TruckHistory {
+    /** Octets occupés par un relevé brut : instant, poids et volume. */
+    static final int SAMPLE_BYTES = Long.BYTES + Integer.BYTES + Double.BYTES;
+
+    private final int maxWeight;
+    private final double maxVolume;
+    private final long[] times;
+    private final int[] weights;
+    private final double[] volumes;
+    private final RollupRing[] rollups;
+    private int head; // Case du prochain relevé
+    private int count;
+    private long version = Long.MIN_VALUE;
+    private long lastTime;
+    private double lastRatio;
+
+    TruckHistory(int maxWeight, double maxVolume, int sampleCapacity) {
+        this.maxWeight = maxWeight;
+        this.maxVolume = maxVolume;
+        this.times = new long[sampleCapacity];
+        this.weights = new int[sampleCapacity];
+        this.volumes = new double[sampleCapacity];
+        this.rollups = new RollupRing[Resolution.values().length];
+        for (Resolution resolution : Resolution.values()) {
+            rollups[resolution.ordinal()] = new RollupRing(resolution);
+        }
+    }
+
+    /**
+     * Enregistre l'état d'un camion, sauf s'il n'est pas plus récent que le dernier état enregistré.
+     * Un instant antérieur au dernier relevé (horloge recalée) est ramené à celui-ci.
+     */
+    synchronized void record(long time, CamionSnapshot camion) {
+        if (camion.getVersion() <= version) {
+            return;
+        }
+        version = camion.getVersion();
+        double ratio = fillRatio(camion.getCurrentWeight(), camion.getCurrentVolume());
+        if (count > 0) {
+            time = Math.max(time, lastTime);
+            for (RollupRing rollup : rollups) {
+                rollup.add(lastTime, time, lastRatio);
+            }
+        }
+        for (RollupRing rollup : rollups) {
+            rollup.add(time, time, ratio);
+        }
+        times[head] = time;
+        weights[head] = camion.getCurrentWeight();
+        volumes[head] = camion.getCurrentVolume();
+        head = (head + 1) % times.length;
+        count = Math.min(count + 1, times.length);
+        lastTime = time;
+        lastRatio = ratio;
+    }
+
+    synchronized List<UtilisationSample> samples(long from, long to) {
+        List<UtilisationSample> result = new ArrayList<>();
+        // Les relevés sont triés par instant : recherche dichotomique du premier relevé de la période
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[slot(middle)] < from) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int i = low; i < count && times[slot(i)] < to; i++) {
+            int slot = slot(i);
+            result.add(new UtilisationSample(times[slot], weights[slot], volumes[slot],
+                    fillRatio(weights[slot], volumes[slot])));
+        }
+        return result;
+    }
+
+    synchronized List<UtilisationAggregate> aggregates(Resolution resolution, long from, long to, long now) {
+        List<UtilisationAggregate> result = new ArrayList<>();
+        if (count > 0) {
+            rollups[resolution.ordinal()].query(from, to, lastTime, Math.max(now, lastTime), lastRatio, result);
+        }
+        return result;
+    }
+
+    /**
+     * Retourne l'indice dans les tableaux du i-ème relevé conservé, du plus ancien au plus récent.
+     */
+    private int slot(int i) {
+        return Math.floorMod(head - count + i, times.length);
+    }
+
+    private double fillRatio(int weight, double volume) {
+        // Un camion de capacité nulle ne peut rien charger : sa capacité n'entre pas dans le taux
+        double weightRatio = maxWeight > 0 ? (double) weight / maxWeight : 0;
+        double volumeRatio = maxVolume > 0 ? volume / maxVolume : 0;
+        return Math.max(weightRatio, volumeRatio);
+    }
+}
@@ -0,0 +1,74 @@
+package be.ipam.menegon.model.history;
+
+/**
+ * Taux de remplissage d'un camion agrégé sur un intervalle d'une {@link Resolution} donnée.
+ * La moyenne est pondérée par la durée pendant laquelle chaque niveau de chargement a été maintenu.
+ *
+ * @author Dylan Menegon
+ */
+public final class UtilisationAggregate {
+    private final long start;
+    private final Resolution resolution;
+    private final double min;
+    private final double max;
+    private final double average;
+
+    UtilisationAggregate(long start, Resolution resolution, double min, double max, double average) {
+        this.start = start;
+        this.resolution = resolution;
+        this.min = min;
+        this.max = max;
+        this.average = average;
+    }
+
+    /**
+     * Retourne le début de l'intervalle.
+     *
+     * @return Le début de l'intervalle, en millisecondes depuis l'époque Unix.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Retourne la résolution de l'intervalle.
+     *
+     * @return La résolution.
+     */
+    public Resolution getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Retourne le taux de remplissage minimal atteint pendant l'intervalle.
+     *
+     * @return Le taux minimal.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Retourne le taux de remplissage maximal atteint pendant l'intervalle.
+     *
+     * @return Le taux maximal.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Retourne le taux de remplissage moyen sur la partie de l'intervalle pendant laquelle le camion était suivi.
+     *
+     * @return Le taux moyen.
+     */
+    public double getAverage() {
+        return average;
+    }
+
+    @Override
+    public String toString() {
+        return "UtilisationAggregate [Start=" + start + ", Resolution=" + resolution + ", Min=" + min
+                + ", Max=" + max + ", Average=" + average + "]";
+    }
+}
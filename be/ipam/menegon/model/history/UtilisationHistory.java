@@ -0,0 +1,196 @@
+package be.ipam.menegon.model.history;
+
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.loadmaster.LoadmasterListener;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Historique de l'utilisation des camions d'un {@link Loadmaster}, pour en tracer l'évolution
+ * sur une tournée comme sur plusieurs mois.
+ *
+ * Chaque modification d'un camion notifiée par le Loadmaster (chargement, déchargement ou correction
+ * du poids ou du volume chargé, y compris directement sur le camion) est relevée (instant, poids et volume)
+ * dans un tampon circulaire de taille fixe propre au camion ; le taux de remplissage qui en résulte est
+ * aussi agrégé à la minute, à l'heure et au jour (minimum, maximum et moyenne pondérée par la durée),
+ * chaque résolution conservant un nombre fixe d'intervalles. La mémoire occupée par camion est donc
+ * connue à l'avance ({@link #bytesPerTruck(int)}), quel que soit le nombre de modifications.
+ *
+ * L'historique d'un camion est abandonné quand le camion est retiré du Loadmaster.
+ *
+ * @author Dylan Menegon
+ */
+public class UtilisationHistory implements LoadmasterListener, AutoCloseable {
+    /** Nombre de relevés bruts conservés par défaut pour chaque camion. */
+    public static final int DEFAULT_SAMPLE_CAPACITY = 256;
+
+    private final Loadmaster loadmaster;
+    private final int sampleCapacity;
+    private final LongSupplier clock;
+    private final Map<String, TruckHistory> histories;
+
+    /**
+     * Constructeur pour initialiser l'historique d'un Loadmaster, daté par l'horloge système.
+     *
+     * @param loadmaster Le Loadmaster à suivre. Ne peut pas être null.
+     */
+    public UtilisationHistory(Loadmaster loadmaster) {
+        this(loadmaster, DEFAULT_SAMPLE_CAPACITY, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructeur pour initialiser l'historique d'un Loadmaster.
+     *
+     * @param loadmaster Le Loadmaster à suivre. Ne peut pas être null.
+     * @param sampleCapacity Le nombre de relevés bruts conservés par camion. Doit être strictement positif.
+     * @param clock L'horloge qui date les relevés, en millisecondes depuis l'époque Unix. Ne peut pas être null.
+     * @throws IllegalArgumentException Si un paramètre est invalide.
+     */
+    public UtilisationHistory(Loadmaster loadmaster, int sampleCapacity, LongSupplier clock) {
+        if (loadmaster == null || clock == null) {
+            throw new IllegalArgumentException("Le Loadmaster et l'horloge sont obligatoires.");
+        }
+        if (sampleCapacity <= 0) {
+            throw new IllegalArgumentException("Le nombre de relevés conservés doit être strictement positif.");
+        }
+        this.loadmaster = loadmaster;
+        this.sampleCapacity = sampleCapacity;
+        this.clock = clock;
+        this.histories = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Commence le suivi : s'abonne au Loadmaster puis relève l'état actuel de ses camions.
+     *
+     * @return Cet historique, pour enchaîner les appels.
+     */
+    public UtilisationHistory start() {
+        loadmaster.addListener(this);
+        for (CamionSnapshot camion : loadmaster.snapshot().getCamions().values()) {
+            // Un état déjà notifié entre l'abonnement et l'instantané est plus récent et n'est pas écrasé
+            record(camion);
+        }
+        return this;
+    }
+
+    /**
+     * Retourne le nombre d'octets occupés par les tableaux de l'historique d'un camion.
+     *
+     * @param sampleCapacity Le nombre de relevés bruts conservés par camion.
+     * @return La taille de l'historique d'un camion, en octets.
+     */
+    public static long bytesPerTruck(int sampleCapacity) {
+        long bytes = (long) sampleCapacity * TruckHistory.SAMPLE_BYTES;
+        for (Resolution resolution : Resolution.values()) {
+            bytes += (long) resolution.getCapacity() * RollupRing.BUCKET_BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Retourne les identifiants des camions suivis.
+     *
+     * @return Un ensemble non modifiable des identifiants.
+     */
+    public Set<String> getCamionIds() {
+        return Collections.unmodifiableSet(histories.keySet());
+    }
+
+    /**
+     * Retourne les relevés bruts encore conservés d'un camion, faits entre deux instants.
+     *
+     * @param camionId L'identifiant du camion.
+     * @param from Le début de la période (inclus), en millisecondes depuis l'époque Unix.
+     * @param to La fin de la période (exclue), en millisecondes depuis l'époque Unix.
+     * @return Les relevés, du plus ancien au plus récent.
+     * @throws IllegalArgumentException Si le camion n'est pas suivi ou si la période est invalide.
+     */
+    public List<UtilisationSample> getSamples(String camionId, long from, long to) {
+        checkPeriod(from, to);
+        return history(camionId).samples(from, to);
+    }
+
+    /**
+     * Retourne les agrégats d'un camion encore conservés à une résolution donnée, pour les intervalles
+     * qui commencent entre deux instants. L'intervalle en cours tient compte du chargement actuel jusqu'à maintenant.
+     *
+     * @param camionId L'identifiant du camion.
+     * @param resolution La résolution des agrégats. Ne peut pas être null.
+     * @param from Le début de la période (inclus), en millisecondes depuis l'époque Unix.
+     * @param to La fin de la période (exclue), en millisecondes depuis l'époque Unix.
+     * @return Les agrégats des intervalles où le camion était suivi, du plus ancien au plus récent.
+     * @throws IllegalArgumentException Si le camion n'est pas suivi ou si un paramètre est invalide.
+     */
+    public List<UtilisationAggregate> getAggregates(String camionId, Resolution resolution, long from, long to) {
+        if (resolution == null) {
+            throw new IllegalArgumentException("La résolution ne peut pas être nulle.");
+        }
+        checkPeriod(from, to);
+        return history(camionId).aggregates(resolution, from, to, clock.getAsLong());
+    }
+
+    /**
+     * Arrête le suivi du Loadmaster. Les historiques déjà relevés restent consultables.
+     */
+    @Override
+    public void close() {
+        loadmaster.removeListener(this);
+    }
+
+    @Override
+    public void camionAdded(CamionSnapshot camion) {
+        record(camion);
+    }
+
+    @Override
+    public void camionRemoved(String camionId) {
+        histories.remove(camionId);
+    }
+
+    @Override
+    public void itemLoaded(CamionSnapshot camion, Chargeable item) {
+        record(camion);
+    }
+
+    @Override
+    public void itemsLoaded(CamionSnapshot camion, List<Chargeable> items) {
+        record(camion);
+    }
+
+    @Override
+    public void itemsUnloaded(CamionSnapshot camion, List<Chargeable> items) {
+        record(camion);
+    }
+
+    @Override
+    public void capacityAdjusted(CamionSnapshot camion) {
+        record(camion);
+    }
+
+    private void record(CamionSnapshot camion) {
+        histories.computeIfAbsent(camion.getId(),
+                id -> new TruckHistory(camion.getMaxWeight(), camion.getMaxVolume(), sampleCapacity))
+                .record(clock.getAsLong(), camion);
+    }
+
+    private TruckHistory history(String camionId) {
+        TruckHistory history = camionId == null ? null : histories.get(camionId);
+        if (history == null) {
+            throw new IllegalArgumentException("Le camion " + camionId + " n'est pas suivi.");
+        }
+        return history;
+    }
+
+    private static void checkPeriod(long from, long to) {
+        if (from > to) {
+            throw new IllegalArgumentException("Le début de la période ne peut pas dépasser sa fin.");
+        }
+    }
+}
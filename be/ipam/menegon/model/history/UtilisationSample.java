@@ -0,0 +1,63 @@
+package be.ipam.menegon.model.history;
+
+/**
+ * Charge d'un camion relevée juste après une modification de son chargement.
+ *
+ * @author Dylan Menegon
+ */
+public final class UtilisationSample {
+    private final long time;
+    private final int weight;
+    private final double volume;
+    private final double fillRatio;
+
+    UtilisationSample(long time, int weight, double volume, double fillRatio) {
+        this.time = time;
+        this.weight = weight;
+        this.volume = volume;
+        this.fillRatio = fillRatio;
+    }
+
+    /**
+     * Retourne l'instant de la modification.
+     *
+     * @return L'instant, en millisecondes depuis l'époque Unix.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Retourne le poids chargé après la modification.
+     *
+     * @return Le poids chargé.
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Retourne le volume chargé après la modification.
+     *
+     * @return Le volume chargé.
+     */
+    public double getVolume() {
+        return volume;
+    }
+
+    /**
+     * Retourne le taux de remplissage après la modification, c'est-à-dire le plus élevé
+     * des rapports entre le poids et le volume chargés et les capacités du camion.
+     *
+     * @return Le taux de remplissage, entre 0 et 1.
+     */
+    public double getFillRatio() {
+        return fillRatio;
+    }
+
+    @Override
+    public String toString() {
+        return "UtilisationSample [Time=" + time + ", Weight=" + weight + " kg, Volume=" + volume
+                + " m³, Fill=" + fillRatio + "]";
+    }
+}
@@ -0,0 +1,340 @@
+package be.ipam.menegon.model.knapsack;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.exceptions.TruckNotSettedException;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.monitoring.PackingEvent;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Choisit, parmi des éléments candidats trop nombreux pour un camion, le sous-ensemble de plus grande valeur
+ * ({@link Chargeable#getValue()}) qui respecte à la fois la marge de poids et la marge de volume du camion.
+ *
+ * Les petites instances sont résolues par programmation dynamique sur une grille poids × volume :
+ * les poids sont divisés par leur plus grand commun diviseur et les volumes exprimés dans la plus grande
+ * unité décimale (du m³ au cm³) qui les représente tous exactement. Si aucune unité ne tient dans la grille,
+ * les volumes des éléments sont arrondis vers le haut, ce qui garde une solution réalisable mais pas
+ * forcément optimale. Chaque élément met à jour la grille par blocs traités en parallèle.
+ *
+ * Les instances trop grandes pour la grille sont résolues par une approximation gloutonne : les éléments
+ * sont pris par valeur décroissante rapportée à la part de la capacité la plus sollicitée,
+ * et la solution est comparée au meilleur élément pris seul.
+ *
+ * @author Dylan Menegon
+ */
+public class KnapsackLoader {
+    /** Nombre maximal de cases de la grille poids × volume par défaut. */
+    public static final int DEFAULT_MAX_CELLS = 1 << 20;
+    /** Nombre maximal de décisions mémorisées (éléments × cases) par défaut, soit 16 Mo. */
+    public static final long DEFAULT_MAX_DECISIONS = 1L << 27;
+
+    private static final int BLOCK_CELLS = 1 << 12; // Multiple de 64 : un bloc ne partage aucun mot de décisions
+    private static final long MAX_DECISION_BITS = (long) Integer.MAX_VALUE << 6; // Taille maximale d'un tableau de long
+    private static final double TOLERANCE = 1e-9;
+
+    private final int maxCells;
+    private final long maxDecisions;
+
+    /**
+     * Constructeur pour initialiser un solveur avec les limites par défaut.
+     */
+    public KnapsackLoader() {
+        this(DEFAULT_MAX_CELLS, DEFAULT_MAX_DECISIONS);
+    }
+
+    /**
+     * Constructeur pour initialiser un solveur.
+     *
+     * @param maxCells Le nombre maximal de cases de la grille de programmation dynamique. Doit être d'au moins 4.
+     * @param maxDecisions Le nombre maximal de décisions mémorisées, soit le nombre d'éléments multiplié par
+     *                     le nombre de cases. Au-delà, l'approximation gloutonne est utilisée. Doit être positif.
+     * @throws IllegalArgumentException Si une limite est invalide.
+     */
+    public KnapsackLoader(int maxCells, long maxDecisions) {
+        if (maxCells < 4 || maxDecisions < 0) {
+            throw new IllegalArgumentException("Les limites du solveur sont invalides.");
+        }
+        this.maxCells = maxCells;
+        this.maxDecisions = maxDecisions;
+    }
+
+    /**
+     * Choisit le sous-ensemble de plus grande valeur qui tient dans les marges d'un camion, puis le charge
+     * en une seule opération avec {@link Loadmaster#loadItems(String, List)}.
+     *
+     * @param loadmaster Le Loadmaster du camion. Ne peut pas être null.
+     * @param camionId L'identifiant du camion.
+     * @param candidates Les éléments candidats. Ne peut pas être null.
+     * @return La solution chargée.
+     * @throws TruckNotSettedException Si le camion n'existe pas.
+     * @throws MaxWeightReachedException Si le camion a été chargé entre-temps et que le poids ne tient plus.
+     * @throws MaxVolumeReachedException Si le camion a été chargé entre-temps et que le volume ne tient plus.
+     * @throws IllegalArgumentException Si un paramètre est null ou si un élément choisi est déjà chargé.
+     */
+    public KnapsackSolution loadBest(Loadmaster loadmaster, String camionId, Collection<? extends Chargeable> candidates)
+            throws TruckNotSettedException, MaxWeightReachedException, MaxVolumeReachedException {
+        if (loadmaster == null) {
+            throw new IllegalArgumentException("Le Loadmaster ne peut pas être null.");
+        }
+        Camion camion = camionId == null ? null : loadmaster.getCamions().get(camionId);
+        if (camion == null) {
+            throw new TruckNotSettedException("Le camion avec l'ID " + camionId + " n'est pas défini.");
+        }
+        PackingEvent event = new PackingEvent(camionId, "knapsack");
+        KnapsackSolution solution = null;
+        try {
+            CamionSnapshot state = camion.snapshot();
+            solution = solve(state.getMaxWeight() - state.getCurrentWeight(),
+                    state.getMaxVolume() - state.getCurrentVolume(), candidates);
+            solution = trim(solution, state.getCurrentVolume(), state.getMaxVolume());
+            loadmaster.loadItems(camionId, solution.getItems());
+            event.succeed(solution.getItems().size());
+            return solution;
+        } catch (MaxWeightReachedException | MaxVolumeReachedException | RuntimeException e) {
+            event.fail(solution == null ? 0 : solution.getItems().size(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Choisit le sous-ensemble de plus grande valeur dont le poids et le volume totaux tiennent dans les marges données.
+     * Les éléments null, de valeur nulle ou trop grands pour les marges sont ignorés.
+     *
+     * @param weightCapacity La marge de poids.
+     * @param volumeCapacity La marge de volume.
+     * @param candidates Les éléments candidats. Ne peut pas être null.
+     * @return La solution, dont les éléments sont dans l'ordre des candidats.
+     * @throws IllegalArgumentException Si la liste des candidats est null.
+     */
+    public KnapsackSolution solve(int weightCapacity, double volumeCapacity, Collection<? extends Chargeable> candidates) {
+        if (candidates == null) {
+            throw new IllegalArgumentException("La liste des candidats ne peut pas être nulle.");
+        }
+        List<Chargeable> items = new ArrayList<>(candidates.size());
+        for (Chargeable item : candidates) {
+            if (item != null && item.getValue() > 0 && item.getWeight() >= 0 && item.getVolume() >= 0
+                    && item.getWeight() <= weightCapacity && item.getVolume() <= volumeCapacity + TOLERANCE) {
+                items.add(item);
+            }
+        }
+        if (items.isEmpty()) {
+            return new KnapsackSolution(items, true);
+        }
+
+        // Mise à l'échelle des poids par leur plus grand commun diviseur
+        int divisor = 0;
+        for (Chargeable item : items) {
+            divisor = gcd(divisor, item.getWeight());
+        }
+        divisor = Math.max(divisor, 1);
+        long rows = weightCapacity / divisor + 1;
+        long columns = maxCells / rows;
+        if (columns >= 2) {
+            // Mise à l'échelle des volumes : unité décimale exacte si possible, sinon arrondi vers le haut
+            double unit = exactUnit(items, volumeCapacity, columns - 1);
+            boolean exact = unit > 0;
+            if (!exact) {
+                unit = volumeCapacity / (columns - 1);
+            }
+            int volumeSlots = unit > 0 ? (int) Math.min(columns - 1, Math.floor(volumeCapacity / unit + TOLERANCE)) : 0;
+            long cells = rows * (volumeSlots + 1);
+            if ((long) items.size() * stride(cells) <= Math.min(maxDecisions, MAX_DECISION_BITS)) {
+                return dynamic(items, divisor, (int) rows, volumeSlots, unit, exact);
+            }
+        }
+        return greedy(items, weightCapacity, volumeCapacity);
+    }
+
+    /**
+     * Programmation dynamique : la case (w, v) contient la meilleure valeur atteignable avec au plus w unités
+     * de poids et v unités de volume. Un bit par élément et par case mémorise si l'élément a été pris.
+     */
+    private static KnapsackSolution dynamic(List<Chargeable> items, int divisor, int rows, int volumeSlots,
+                                            double unit, boolean exact) {
+        int n = items.size();
+        int columns = volumeSlots + 1;
+        int cells = rows * columns;
+        long stride = stride(cells);
+        long[] taken = new long[(int) ((n * stride) >>> 6)];
+        int[] weights = new int[n];
+        int[] volumes = new int[n];
+        for (int i = 0; i < n; i++) {
+            Chargeable item = items.get(i);
+            weights[i] = item.getWeight() / divisor;
+            volumes[i] = unit > 0 ? (int) Math.ceil(item.getVolume() / unit - TOLERANCE) : 0;
+        }
+
+        double[][] tables = {new double[cells], new double[cells]};
+        int blocks = (cells + BLOCK_CELLS - 1) / BLOCK_CELLS;
+        for (int i = 0; i < n; i++) {
+            double[] previous = tables[i & 1];
+            double[] next = tables[(i + 1) & 1];
+            int weight = weights[i];
+            int volume = volumes[i];
+            int shift = weight * columns + volume;
+            double value = items.get(i).getValue();
+            long base = i * stride;
+            IntStream range = IntStream.range(0, blocks);
+            (blocks > 1 ? range.parallel() : range).forEach(block -> {
+                int end = Math.min(cells, (block + 1) * BLOCK_CELLS);
+                for (int cell = block * BLOCK_CELLS; cell < end; cell++) {
+                    double best = previous[cell];
+                    if (cell / columns >= weight && cell % columns >= volume) {
+                        double with = previous[cell - shift] + value;
+                        if (with > best) {
+                            best = with;
+                            long bit = base + cell;
+                            taken[(int) (bit >>> 6)] |= 1L << (bit & 63);
+                        }
+                    }
+                    next[cell] = best;
+                }
+            });
+        }
+
+        // Reconstitution du sous-ensemble à partir de la case des marges complètes
+        boolean[] chosen = new boolean[n];
+        int cell = cells - 1;
+        for (int i = n - 1; i >= 0; i--) {
+            long bit = i * stride + cell;
+            if ((taken[(int) (bit >>> 6)] & (1L << (bit & 63))) != 0) {
+                chosen[i] = true;
+                cell -= weights[i] * columns + volumes[i];
+            }
+        }
+        List<Chargeable> result = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (chosen[i]) {
+                result.add(items.get(i));
+            }
+        }
+        return new KnapsackSolution(result, exact);
+    }
+
+    /**
+     * Approximation gloutonne par valeur rapportée à la part de la capacité la plus sollicitée.
+     */
+    private static KnapsackSolution greedy(List<Chargeable> items, int weightCapacity, double volumeCapacity) {
+        int n = items.size();
+        double[] density = new double[n];
+        Chargeable single = null;
+        for (int i = 0; i < n; i++) {
+            Chargeable item = items.get(i);
+            double share = Math.max(weightCapacity > 0 ? (double) item.getWeight() / weightCapacity : 0,
+                    volumeCapacity > 0 ? item.getVolume() / volumeCapacity : 0);
+            density[i] = share > 0 ? item.getValue() / share : Double.POSITIVE_INFINITY;
+            if (single == null || item.getValue() > single.getValue()) {
+                single = item;
+            }
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.parallelSort(order, Comparator.comparingDouble((Integer i) -> density[i]).reversed()
+                .thenComparingInt(i -> i));
+
+        boolean[] chosen = new boolean[n];
+        int weight = 0;
+        double volume = 0;
+        double value = 0;
+        for (Integer i : order) {
+            Chargeable item = items.get(i);
+            if (weight + item.getWeight() <= weightCapacity && volume + item.getVolume() <= volumeCapacity) {
+                chosen[i] = true;
+                weight += item.getWeight();
+                volume += item.getVolume();
+                value += item.getValue();
+            }
+        }
+        List<Chargeable> result = new ArrayList<>();
+        if (single.getValue() > value && single.getVolume() <= volumeCapacity) {
+            result.add(single);
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (chosen[i]) {
+                    result.add(items.get(i));
+                }
+            }
+        }
+        return new KnapsackSolution(result, false);
+    }
+
+    /**
+     * Retire les éléments de plus faible valeur tant que le chargement, cumulé comme le fait le camion,
+     * dépasserait son volume maximum à cause des arrondis.
+     */
+    private static KnapsackSolution trim(KnapsackSolution solution, double currentVolume, double maxVolume) {
+        List<Chargeable> items = new ArrayList<>(solution.getItems());
+        boolean trimmed = false;
+        while (!fits(items, currentVolume, maxVolume)) {
+            Chargeable lowest = items.get(0);
+            for (Chargeable item : items) {
+                if (item.getValue() < lowest.getValue()) {
+                    lowest = item;
+                }
+            }
+            items.remove(lowest);
+            trimmed = true;
+        }
+        return trimmed ? new KnapsackSolution(items, false) : solution;
+    }
+
+    private static boolean fits(List<Chargeable> items, double currentVolume, double maxVolume) {
+        double volume = currentVolume;
+        for (Chargeable item : items) {
+            volume += item.getVolume();
+            if (volume > maxVolume) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retourne la plus grande unité décimale, du m³ au cm³, dont tous les volumes sont des multiples
+     * et qui découpe la marge de volume en au plus {@code maxSlots} unités, ou 0 si aucune ne convient.
+     */
+    private static double exactUnit(List<Chargeable> items, double volumeCapacity, long maxSlots) {
+        for (double unit = 1; unit >= 1e-6 - TOLERANCE; unit /= 10) {
+            if (volumeCapacity / unit > maxSlots + TOLERANCE) {
+                return 0;
+            }
+            boolean multiple = true;
+            for (int i = 0; i < items.size() && multiple; i++) {
+                double units = items.get(i).getVolume() / unit;
+                multiple = Math.abs(units - Math.rint(units)) <= TOLERANCE * Math.max(1, units);
+            }
+            if (multiple) {
+                return unit;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Nombre de bits réservés à chaque élément, arrondi au multiple de 64 supérieur.
+     */
+    private static long stride(long cells) {
+        return (cells + 63) & ~63L;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,87 @@
+package be.ipam.menegon.model.knapsack;
+
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sous-ensemble d'éléments choisi par {@link KnapsackLoader}, avec sa valeur, son poids et son volume totaux.
+ *
+ * @author Dylan Menegon
+ */
+public final class KnapsackSolution {
+    private final List<Chargeable> items;
+    private final double value;
+    private final int weight;
+    private final double volume;
+    private final boolean exact;
+
+    KnapsackSolution(List<Chargeable> items, boolean exact) {
+        this.items = Collections.unmodifiableList(items);
+        double totalValue = 0;
+        int totalWeight = 0;
+        double totalVolume = 0;
+        for (Chargeable item : items) {
+            totalValue += item.getValue();
+            totalWeight += item.getWeight();
+            totalVolume += item.getVolume();
+        }
+        this.value = totalValue;
+        this.weight = totalWeight;
+        this.volume = totalVolume;
+        this.exact = exact;
+    }
+
+    /**
+     * Retourne les éléments choisis, dans l'ordre des candidats.
+     *
+     * @return Une liste non modifiable des éléments choisis.
+     */
+    public List<Chargeable> getItems() {
+        return items;
+    }
+
+    /**
+     * Retourne la valeur totale des éléments choisis.
+     *
+     * @return La valeur totale.
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Retourne le poids total des éléments choisis.
+     *
+     * @return Le poids total.
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Retourne le volume total des éléments choisis.
+     *
+     * @return Le volume total.
+     */
+    public double getVolume() {
+        return volume;
+    }
+
+    /**
+     * Indique si la solution est optimale, c'est-à-dire obtenue par programmation dynamique
+     * sans arrondir les volumes des éléments.
+     *
+     * @return {@code true} si aucun autre sous-ensemble n'a une plus grande valeur, {@code false} pour une approximation.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    @Override
+    public String toString() {
+        return "KnapsackSolution [Items=" + items.size() + ", Value=" + value + ", Weight=" + weight
+                + " kg, Volume=" + volume + " m³, Exact=" + exact + "]";
+    }
+}
@@ -0,0 +1,318 @@
+package be.ipam.menegon.model.loadmaster;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.exceptions.TruckNotSettedException;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Tableau des départs des camions d'un {@link Loadmaster}, qui place chaque élément dans le camion partant
+ * le plus tôt parmi ceux qui partent au plus tard à l'heure limite de l'élément et qui ont encore la place de le prendre.
+ *
+ * Les camions qui ont un créneau de départ occupent, par heure de départ croissante, les feuilles d'un arbre
+ * de segments dont chaque nœud retient la plus grande marge de poids et la plus grande marge de volume de son
+ * sous-arbre. Les créneaux compatibles avec une heure limite forment un intervalle de feuilles trouvé par
+ * dichotomie ; la recherche du premier camion de l'intervalle qui a la place écarte d'un coup les sous-arbres
+ * où aucun camion n'a assez de marge de poids ou de volume. Quand l'une des deux marges suffit à départager
+ * les camions, un placement coûte ainsi un temps logarithmique en nombre de camions.
+ *
+ * Les marges sont tenues à jour par les modifications des camions notifiées par le Loadmaster. L'arbre est
+ * reconstruit au placement qui suit l'ajout ou le retrait d'un camion, ou le changement d'un créneau de départ.
+ * Les camions dont le départ est passé selon l'horloge du tableau ne reçoivent plus d'éléments.
+ *
+ * @author Dylan Menegon
+ */
+public class DepartureBoard implements LoadmasterListener, AutoCloseable {
+    private static final double VOLUME_TOLERANCE = 1e-9; // Les marges de volume sont arrondies, la feuille tranche
+
+    private final Loadmaster loadmaster;
+    private final LongSupplier clock;
+    private final Map<String, Integer> slots; // Feuille de chaque camion du tableau
+    private CamionSnapshot[] states; // Feuilles de l'arbre, par heure de départ croissante
+    private long[] departures;
+    private int[] weightHeadrooms; // Nœuds de l'arbre : la racine en 1, les enfants de i en 2i et 2i+1
+    private double[] volumeHeadrooms;
+    private int count;
+    private boolean dirty;
+
+    /**
+     * Constructeur pour initialiser le tableau des départs d'un Loadmaster, réglé sur l'horloge système.
+     *
+     * @param loadmaster Le Loadmaster dont les camions reçoivent les éléments. Ne peut pas être null.
+     */
+    public DepartureBoard(Loadmaster loadmaster) {
+        this(loadmaster, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructeur pour initialiser le tableau des départs d'un Loadmaster.
+     *
+     * @param loadmaster Le Loadmaster dont les camions reçoivent les éléments. Ne peut pas être null.
+     * @param clock L'horloge qui indique les camions déjà partis, en millisecondes depuis l'époque Unix. Ne peut pas être null.
+     * @throws IllegalArgumentException Si un paramètre est null.
+     */
+    public DepartureBoard(Loadmaster loadmaster, LongSupplier clock) {
+        if (loadmaster == null || clock == null) {
+            throw new IllegalArgumentException("Le Loadmaster et l'horloge sont obligatoires.");
+        }
+        this.loadmaster = loadmaster;
+        this.clock = clock;
+        this.slots = new HashMap<>();
+        this.dirty = true;
+    }
+
+    /**
+     * Commence le suivi : s'abonne au Loadmaster, dont les camions seront relevés au premier placement.
+     *
+     * @return Ce tableau, pour enchaîner les appels.
+     */
+    public DepartureBoard start() {
+        loadmaster.addListener(this);
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Arrête le suivi du Loadmaster.
+     */
+    @Override
+    public void close() {
+        loadmaster.removeListener(this);
+    }
+
+    /**
+     * Place un élément en respectant son heure limite de départ (voir {@link Chargeable#getLatestDeparture()}).
+     *
+     * @param item L'élément à placer. Ne peut pas être null.
+     * @return L'identifiant du camion qui a reçu l'élément, ou {@code null} si aucun camion compatible n'a la place.
+     * @throws IllegalArgumentException Si l'élément est null, ou si un élément avec le même ID est déjà chargé dans un camion de la flotte.
+     */
+    public String assign(Chargeable item) {
+        if (item == null) {
+            throw new IllegalArgumentException("L'article à placer ne peut pas être nul.");
+        }
+        return assign(item, item.getLatestDeparture());
+    }
+
+    /**
+     * Place un élément dans le camion qui part le plus tôt, sans être déjà parti, parmi ceux qui partent
+     * au plus tard à l'heure donnée et qui ont la place de le prendre.
+     *
+     * @param item L'élément à placer. Ne peut pas être null.
+     * @param latestDeparture L'heure de départ la plus tardive acceptable, en millisecondes depuis l'époque Unix.
+     * @return L'identifiant du camion qui a reçu l'élément, ou {@code null} si aucun camion compatible n'a la place.
+     * @throws IllegalArgumentException Si l'élément est null, ou si un élément avec le même ID est déjà chargé dans un camion de la flotte.
+     */
+    public String assign(Chargeable item, long latestDeparture) {
+        if (item == null) {
+            throw new IllegalArgumentException("L'article à placer ne peut pas être nul.");
+        }
+        while (true) {
+            String camionId = findCamion(item.getWeight(), item.getVolume(), latestDeparture);
+            if (camionId == null) {
+                return null;
+            }
+            // Le chargement se fait hors du verrou du tableau, que les notifications prennent sous le verrou du camion
+            try {
+                loadmaster.loadItem(camionId, item);
+                return camionId;
+            } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+                // Marges dépassées par un chargement concurrent
+                Camion camion = loadmaster.getCamions().get(camionId);
+                if (camion == null) {
+                    invalidate();
+                } else {
+                    refresh(camion.snapshot());
+                }
+            } catch (TruckNotSettedException e) {
+                invalidate();
+            }
+        }
+    }
+
+    /**
+     * Retourne le camion où {@link #assign(Chargeable, long)} placerait un élément, sans le charger.
+     *
+     * @param weight Le poids de l'élément.
+     * @param volume Le volume de l'élément.
+     * @param latestDeparture L'heure de départ la plus tardive acceptable, en millisecondes depuis l'époque Unix.
+     * @return L'identifiant du camion, ou {@code null} si aucun camion compatible n'a la place.
+     */
+    public synchronized String findCamion(int weight, double volume, long latestDeparture) {
+        if (dirty) {
+            rebuild();
+        }
+        int from = lowerBound(clock.getAsLong());
+        int to = latestDeparture == Long.MAX_VALUE ? count : lowerBound(latestDeparture + 1);
+        if (from >= to) {
+            return null;
+        }
+        int slot = search(1, 0, states.length, from, to, weight, volume);
+        return slot < 0 ? null : states[slot].getId();
+    }
+
+    /**
+     * Retourne le nombre de camions qui ont un créneau de départ, partis ou non.
+     *
+     * @return Le nombre de camions du tableau.
+     */
+    public synchronized int size() {
+        if (dirty) {
+            rebuild();
+        }
+        return count;
+    }
+
+    @Override
+    public void camionAdded(CamionSnapshot camion) {
+        invalidate();
+    }
+
+    @Override
+    public void camionRemoved(String camionId) {
+        invalidate();
+    }
+
+    @Override
+    public void departureScheduled(String camionId, long departure) {
+        invalidate();
+    }
+
+    @Override
+    public void itemLoaded(CamionSnapshot camion, Chargeable item) {
+        refresh(camion);
+    }
+
+    @Override
+    public void itemsLoaded(CamionSnapshot camion, List<Chargeable> items) {
+        refresh(camion);
+    }
+
+    @Override
+    public void itemsUnloaded(CamionSnapshot camion, List<Chargeable> items) {
+        refresh(camion);
+    }
+
+    @Override
+    public void capacityAdjusted(CamionSnapshot camion) {
+        refresh(camion);
+    }
+
+    private synchronized void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Met à jour les marges d'un camion, sauf si sa feuille porte déjà une version plus récente.
+     */
+    private synchronized void refresh(CamionSnapshot camion) {
+        if (dirty) {
+            return;
+        }
+        Integer slot = slots.get(camion.getId());
+        if (slot == null || camion.getVersion() < states[slot].getVersion()) {
+            return;
+        }
+        states[slot] = camion;
+        int node = states.length + slot;
+        weightHeadrooms[node] = camion.getMaxWeight() - camion.getCurrentWeight();
+        volumeHeadrooms[node] = camion.getMaxVolume() - camion.getCurrentVolume();
+        for (node >>= 1; node >= 1; node >>= 1) {
+            pull(node);
+        }
+    }
+
+    /**
+     * Retourne la première feuille de l'intervalle [from, to) dont le camion peut prendre l'élément, ou -1.
+     */
+    private int search(int node, int nodeFrom, int nodeTo, int from, int to, int weight, double volume) {
+        if (nodeTo <= from || nodeFrom >= to
+                || weightHeadrooms[node] < weight || volumeHeadrooms[node] + VOLUME_TOLERANCE < volume) {
+            return -1;
+        }
+        if (nodeTo - nodeFrom == 1) {
+            // Mêmes comparaisons que le Loadmaster au chargement
+            CamionSnapshot camion = states[nodeFrom];
+            return camion.getCurrentWeight() + weight <= camion.getMaxWeight()
+                    && camion.getCurrentVolume() + volume <= camion.getMaxVolume() ? nodeFrom : -1;
+        }
+        int middle = (nodeFrom + nodeTo) >>> 1;
+        int found = search(2 * node, nodeFrom, middle, from, to, weight, volume);
+        return found >= 0 ? found : search(2 * node + 1, middle, nodeTo, from, to, weight, volume);
+    }
+
+    private int lowerBound(long departure) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departures[middle] < departure) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void pull(int node) {
+        weightHeadrooms[node] = Math.max(weightHeadrooms[2 * node], weightHeadrooms[2 * node + 1]);
+        volumeHeadrooms[node] = Math.max(volumeHeadrooms[2 * node], volumeHeadrooms[2 * node + 1]);
+    }
+
+    /**
+     * Relève les créneaux et l'état des camions du Loadmaster. Seuls des champs publiés sans verrou sont lus,
+     * le verrou du tableau étant pris par les notifications sous le verrou des camions.
+     */
+    private void rebuild() {
+        List<Camion> scheduled = new ArrayList<>();
+        for (Camion camion : new ArrayList<>(loadmaster.getCamions().values())) {
+            if (camion.hasDeparture()) {
+                scheduled.add(camion);
+            }
+        }
+        long[] keys = new long[scheduled.size()];
+        Integer[] sorted = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            // Le créneau est lu une seule fois : il peut changer pendant le tri
+            keys[i] = scheduled.get(i).getDeparture();
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> keys[a] != keys[b] ? Long.compare(keys[a], keys[b])
+                : scheduled.get(a).getId().compareTo(scheduled.get(b).getId()));
+        int leaves = 1;
+        while (leaves < sorted.length) {
+            leaves <<= 1;
+        }
+        count = sorted.length;
+        states = new CamionSnapshot[leaves];
+        departures = new long[count];
+        weightHeadrooms = new int[2 * leaves];
+        volumeHeadrooms = new double[2 * leaves];
+        Arrays.fill(weightHeadrooms, Integer.MIN_VALUE);
+        Arrays.fill(volumeHeadrooms, Double.NEGATIVE_INFINITY);
+        slots.clear();
+        for (int slot = 0; slot < count; slot++) {
+            int i = sorted[slot];
+            CamionSnapshot camion = scheduled.get(i).snapshot();
+            states[slot] = camion;
+            departures[slot] = keys[i];
+            slots.put(camion.getId(), slot);
+            weightHeadrooms[leaves + slot] = camion.getMaxWeight() - camion.getCurrentWeight();
+            volumeHeadrooms[leaves + slot] = camion.getMaxVolume() - camion.getCurrentVolume();
+        }
+        for (int node = leaves - 1; node >= 1; node--) {
+            pull(node);
+        }
+        dirty = false;
+    }
+}
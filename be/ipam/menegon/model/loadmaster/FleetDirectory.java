@@ -0,0 +1,86 @@
+package be.ipam.menegon.model.loadmaster;
+
+import be.ipam.menegon.model.monitoring.FleetUtilisationEvent;
+import be.ipam.menegon.model.monitoring.RegistrationEvent;
+import be.ipam.menegon.model.truck.Camion;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Annuaire de la flotte : associe l'identifiant de chaque camion au Loadmaster qui le gère.
+ * Un identifiant de camion ne peut appartenir qu'à un seul Loadmaster à la fois.
+ * L'annuaire est partagé par tous les Loadmasters et peut être consulté depuis plusieurs threads.
+ *
+ * @author Dylan Menegon
+ */
+public final class FleetDirectory {
+    private static final ConcurrentMap<String, Loadmaster> owners = new ConcurrentHashMap<>();
+
+    static {
+        FleetUtilisationEvent.register();
+    }
+
+    private FleetDirectory() {
+    }
+
+    /**
+     * Retourne le Loadmaster qui gère un camion.
+     *
+     * @param camionId L'identifiant du camion.
+     * @return Le Loadmaster du camion, ou {@code null} si aucun Loadmaster ne gère ce camion.
+     */
+    public static Loadmaster getOwner(String camionId) {
+        if (camionId == null) {
+            return null;
+        }
+        return owners.get(camionId);
+    }
+
+    /**
+     * Retourne un camion de la flotte à partir de son identifiant, quel que soit son Loadmaster.
+     *
+     * @param camionId L'identifiant du camion.
+     * @return Le camion, ou {@code null} si aucun Loadmaster ne gère ce camion.
+     */
+    public static Camion findCamion(String camionId) {
+        Loadmaster owner = getOwner(camionId);
+        return owner == null ? null : owner.getCamions().get(camionId);
+    }
+
+    /**
+     * Retourne le nombre de camions enregistrés dans la flotte.
+     *
+     * @return Le nombre de camions de la flotte.
+     */
+    public static int size() {
+        return owners.size();
+    }
+
+    /**
+     * Retourne les Loadmasters qui gèrent au moins un camion de la flotte.
+     *
+     * @return Un ensemble non modifiable des Loadmasters.
+     */
+    public static Set<Loadmaster> getLoadmasters() {
+        return Collections.unmodifiableSet(new HashSet<>(owners.values()));
+    }
+
+    static boolean register(String camionId, Loadmaster owner) {
+        RegistrationEvent event = new RegistrationEvent(camionId, "register");
+        return event.complete(owners.putIfAbsent(camionId, owner) == null);
+    }
+
+    static boolean unregister(String camionId, Loadmaster owner) {
+        RegistrationEvent event = new RegistrationEvent(camionId, "unregister");
+        return event.complete(owners.remove(camionId, owner));
+    }
+
+    static boolean transfer(String camionId, Loadmaster from, Loadmaster to) {
+        RegistrationEvent event = new RegistrationEvent(camionId, "transfer");
+        return event.complete(owners.replace(camionId, from, to));
+    }
+}
@@ -0,0 +1,53 @@
+package be.ipam.menegon.model.loadmaster;
+
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.Chargeable;
+
+/**
+ * Emplacement d'un élément chargé dans la flotte : le Loadmaster et le camion qui le contiennent.
+ *
+ * @author Dylan Menegon
+ */
+public final class ItemLocation {
+    private final Loadmaster loadmaster;
+    private final Camion camion;
+    private final Chargeable item;
+
+    ItemLocation(Loadmaster loadmaster, Camion camion, Chargeable item) {
+        this.loadmaster = loadmaster;
+        this.camion = camion;
+        this.item = item;
+    }
+
+    /**
+     * Retourne le Loadmaster qui gère le camion contenant l'élément.
+     *
+     * @return Le Loadmaster de l'élément.
+     */
+    public Loadmaster getLoadmaster() {
+        return loadmaster;
+    }
+
+    /**
+     * Retourne le camion qui contient l'élément.
+     *
+     * @return Le camion de l'élément.
+     */
+    public Camion getCamion() {
+        return camion;
+    }
+
+    /**
+     * Retourne l'élément tel qu'il a été chargé.
+     *
+     * @return L'élément chargé.
+     */
+    public Chargeable getItem() {
+        return item;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemLocation [Item=" + item.getId() + ", Loadmaster=" + loadmaster.getNom() + ", Camion=" + camion.getId() + "]";
+    }
+}
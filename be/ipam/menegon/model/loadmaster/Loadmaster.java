@@ -2,14 +2,29 @@ package be.ipam.menegon.model.loadmaster;
 
 import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
 import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.exceptions.StopOrderViolationException;
 import be.ipam.menegon.model.exceptions.TruckNotSettedException;
+import be.ipam.menegon.model.monitoring.LoadEvent;
+import be.ipam.menegon.model.monitoring.PackingEvent;
 import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
 import be.ipam.menegon.model.truck.Chargeable;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Représente un Loadmaster qui gère une collection de camions.
@@ -19,9 +34,15 @@ import java.util.Set;
  * @author Dylan Menegon
  */
 public class Loadmaster {
-    private final Map<String, Camion> camions;
+    private final ConcurrentMap<String, Camion> camions; // Lue et modifiée sans verrou commun, y compris par les transferts
     private String nom;
-    private static final Set<String> usedCamionIds = new HashSet<>();
+    private final AtomicLong sequence; // Nombre de modifications publiées par les camions gérés
+    private volatile LoadmasterSnapshot assembled; // Dernière version assemblée pour les lecteurs concurrents
+    // Emplacement de chaque élément chargé via un Loadmaster, pour toute la flotte
+    private static final ConcurrentMap<String, ItemLocation> itemLocations = new ConcurrentHashMap<>();
+    private final List<LoadmasterListener> listeners;
+    private final PendingQueue pending; // Éléments en attente de place dans un camion
+    private final AtomicLong pendingSequence;
 
     /**
      * Constructeur pour initialiser un Loadmaster avec un nom.
@@ -34,7 +55,33 @@ public class Loadmaster {
             throw new IllegalArgumentException("Le nom du Loadmaster ne peut pas être vide.");
         }
         this.nom = nom.trim().toUpperCase();
-        camions = new HashMap<>();
+        camions = new ConcurrentHashMap<>();
+        sequence = new AtomicLong();
+        listeners = new CopyOnWriteArrayList<>();
+        pending = new PendingQueue();
+        pendingSequence = new AtomicLong();
+    }
+
+    /**
+     * Abonne un observateur aux modifications effectuées à travers ce Loadmaster.
+     *
+     * @param listener L'observateur. Ne peut pas être null.
+     * @throws IllegalArgumentException Si l'observateur est null.
+     */
+    public void addListener(LoadmasterListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("L'observateur ne peut pas être null.");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Désabonne un observateur.
+     *
+     * @param listener L'observateur à désabonner.
+     */
+    public void removeListener(LoadmasterListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -50,13 +97,18 @@ public class Loadmaster {
         if (camions.containsKey(camion.getId())) {
             throw new IllegalArgumentException("Le camion existe déjà dans ce Loadmaster.");
         }
-        synchronized (usedCamionIds) {  // Synchronisation pour éviter les accès concurrents
-            if (usedCamionIds.contains(camion.getId())) {
-                throw new IllegalArgumentException("Le camion avec cet ID est déjà pris en charge par un autre Loadmaster.");
+        if (!FleetDirectory.register(camion.getId(), this)) {
+            throw new IllegalArgumentException("Le camion avec cet ID est déjà pris en charge par un autre Loadmaster.");
+        }
+        synchronized (camion) {
+            camions.put(camion.getId(), camion);
+            camion.setLoadmaster(this);
+            sequence.incrementAndGet();
+            for (LoadmasterListener listener : listeners) {
+                listener.camionAdded(camion.snapshot());
             }
-            usedCamionIds.add(camion.getId());
         }
-        camions.put(camion.getId(), camion);
+        fillFromPending(camion);
     }
 
     /**
@@ -69,13 +121,82 @@ public class Loadmaster {
         if (id == null || id.trim().isEmpty()) {
             throw new IllegalArgumentException("L'identifiant du camion ne peut pas être vide.");
         }
-        if (!camions.containsKey(id)) {
+        // Le FleetDirectory départage un retrait et un transfert concurrents du même camion
+        Camion camion = camions.get(id);
+        if (camion == null || !FleetDirectory.unregister(id, this)) {
+            throw new IllegalArgumentException("Le camion avec cet identifiant n'existe pas.");
+        }
+        synchronized (camion) {
+            camions.remove(id, camion);
+            sequence.incrementAndGet();
+            for (LoadmasterListener listener : listeners) {
+                listener.camionRemoved(id);
+            }
+            // Sous le verrou du camion, aucun chargement concurrent ne modifie le chargement parcouru
+            for (Chargeable item : camion.getLoadView()) {
+                forgetLocation(camion, item);
+            }
+        }
+    }
+
+    /**
+     * Transfère un camion et tout son chargement vers un autre Loadmaster.
+     * Le changement de propriétaire est enregistré en une seule opération atomique dans le {@link FleetDirectory}.
+     *
+     * @param id L'identifiant du camion à transférer.
+     * @param target Le Loadmaster qui doit recevoir le camion. Ne peut pas être null ni être ce Loadmaster.
+     * @throws IllegalArgumentException Si le camion n'existe pas dans ce Loadmaster ou si le Loadmaster cible est invalide.
+     */
+    public void transferCamion(String id, Loadmaster target) {
+        if (target == null || target == this) {
+            throw new IllegalArgumentException("Le Loadmaster cible doit être un autre Loadmaster.");
+        }
+        Camion camion = id == null ? null : camions.get(id);
+        if (camion == null) {
             throw new IllegalArgumentException("Le camion avec cet identifiant n'existe pas.");
         }
-        synchronized (usedCamionIds) {
-            usedCamionIds.remove(id);
+        if (!FleetDirectory.transfer(id, this, target)) {
+            throw new IllegalArgumentException("Le camion avec cet ID est déjà pris en charge par un autre Loadmaster.");
+        }
+        synchronized (camion) {
+            camions.remove(id, camion);
+            target.camions.put(id, camion);
+            camion.setLoadmaster(target);
+            sequence.incrementAndGet();
+            target.sequence.incrementAndGet();
+            for (LoadmasterListener listener : listeners) {
+                listener.camionRemoved(id);
+            }
+            for (LoadmasterListener listener : target.listeners) {
+                listener.camionAdded(camion.snapshot());
+            }
+            // Les emplacements changent de propriétaire avant qu'un chargement par la cible ne puisse s'intercaler
+            for (Chargeable item : camion.getLoadView()) {
+                itemLocations.computeIfPresent(item.getId(),
+                        (itemId, location) -> location.getCamion() == camion ? new ItemLocation(target, camion, item) : location);
+            }
+        }
+        target.fillFromPending(camion);
+    }
+
+    /**
+     * Fixe le créneau de départ d'un camion et en avertit les observateurs.
+     *
+     * @param camionId L'identifiant du camion.
+     * @param departure L'heure de départ, en millisecondes depuis l'époque Unix, ou {@link Camion#NO_DEPARTURE} pour retirer le créneau.
+     * @throws IllegalArgumentException Si le camion avec l'ID spécifié n'existe pas.
+     */
+    public void scheduleDeparture(String camionId, long departure) {
+        Camion camion = camionId == null ? null : camions.get(camionId);
+        if (camion == null) {
+            throw new IllegalArgumentException("Le camion avec l'ID " + camionId + " n'existe pas.");
+        }
+        synchronized (camion) {
+            camion.setDeparture(departure);
+            for (LoadmasterListener listener : listeners) {
+                listener.departureScheduled(camionId, departure);
+            }
         }
-        camions.remove(id);
     }
 
     /**
@@ -86,6 +207,7 @@ public class Loadmaster {
      * @throws MaxWeightReachedException Si le poids total du camion dépasse la capacité maximale après le chargement.
      * @throws MaxVolumeReachedException Si le volume total du camion dépasse la capacité maximale après le chargement.
      * @throws TruckNotSettedException Si le camion avec l'ID spécifié n'existe pas.
+     * @throws IllegalArgumentException Si un élément avec le même ID est déjà chargé dans un camion de la flotte.
      */
     public void loadItem(String camionId, Chargeable item)
             throws MaxWeightReachedException, MaxVolumeReachedException, TruckNotSettedException {
@@ -93,13 +215,70 @@ public class Loadmaster {
         if (camion == null) {
             throw new TruckNotSettedException("Le camion avec l'ID " + camionId + " n'est pas défini.");
         }
-        if (camion.getCurrentWeight() + item.getWeight() > camion.getMaxWeight()) {
-            throw new MaxWeightReachedException("Le poids maximum du camion est atteint.", item);
+        synchronized (camion) {
+            checkOwned(camionId, camion);
+            checkFits(camion, camion.getCurrentWeight(), camion.getCurrentVolume(), Collections.singletonList(item), "load");
+            ItemLocation location = new ItemLocation(this, camion, item);
+            ItemLocation existing = itemLocations.putIfAbsent(item.getId(), location);
+            if (existing != null) {
+                throw new IllegalArgumentException("L'article avec l'ID " + item.getId()
+                        + " est déjà chargé dans le camion " + existing.getCamion().getId() + ".");
+            }
+            try {
+                camion.load(item);
+            } catch (MaxWeightReachedException | MaxVolumeReachedException | RuntimeException e) {
+                itemLocations.remove(item.getId(), location);
+                throw e;
+            }
         }
-        if (camion.getCurrentVolume() + item.getVolume() > camion.getMaxVolume()) {
-            throw new MaxVolumeReachedException("Le volume maximum du camion est atteint.", item);
+    }
+
+    /**
+     * Charge plusieurs éléments dans un camion spécifié en une seule opération : soit tous les éléments
+     * sont chargés, soit aucun ne l'est (voir {@link Camion#loadAll(List)}).
+     *
+     * @param camionId L'identifiant du camion dans lequel charger les éléments.
+     * @param items Les éléments à charger. Ne peut pas être null ni contenir null.
+     * @throws MaxWeightReachedException Si le poids total du camion dépasse la capacité maximale après le chargement.
+     * @throws MaxVolumeReachedException Si le volume total du camion dépasse la capacité maximale après le chargement.
+     * @throws TruckNotSettedException Si le camion avec l'ID spécifié n'existe pas.
+     * @throws IllegalArgumentException Si la liste ou un élément est null, ou si un élément avec le même ID
+     *                                  est déjà chargé dans un camion de la flotte.
+     */
+    public void loadItems(String camionId, List<? extends Chargeable> items)
+            throws MaxWeightReachedException, MaxVolumeReachedException, TruckNotSettedException {
+        Camion camion = camions.get(camionId);
+        if (camion == null) {
+            throw new TruckNotSettedException("Le camion avec l'ID " + camionId + " n'est pas défini.");
+        }
+        if (items == null) {
+            throw new IllegalArgumentException("La liste des articles à charger ne peut pas être nulle.");
+        }
+        synchronized (camion) {
+            checkOwned(camionId, camion);
+            checkFits(camion, camion.getCurrentWeight(), camion.getCurrentVolume(), items, "loadAll");
+            List<ItemLocation> locations = new ArrayList<>(items.size());
+            try {
+                for (Chargeable item : items) {
+                    if (item == null) {
+                        throw new IllegalArgumentException("L'article à charger ne peut pas être nul.");
+                    }
+                    ItemLocation location = new ItemLocation(this, camion, item);
+                    ItemLocation existing = itemLocations.putIfAbsent(item.getId(), location);
+                    if (existing != null) {
+                        throw new IllegalArgumentException("L'article avec l'ID " + item.getId()
+                                + " est déjà chargé dans le camion " + existing.getCamion().getId() + ".");
+                    }
+                    locations.add(location);
+                }
+                camion.loadAll(items);
+            } catch (MaxWeightReachedException | MaxVolumeReachedException | RuntimeException e) {
+                for (ItemLocation location : locations) {
+                    itemLocations.remove(location.getItem().getId(), location);
+                }
+                throw e;
+            }
         }
-        camion.load(item);
     }
 
     /**
@@ -118,10 +297,583 @@ public class Loadmaster {
             throw new IllegalArgumentException("L'article à décharger ne peut pas être nul.");
         }
         camion.unload(item);
+        forgetLocation(camion, item);
+        fillFromPending(camion);
+    }
+
+    /**
+     * Charge un élément destiné à un arrêt de livraison dans un camion spécifié.
+     *
+     * @param camionId L'identifiant du camion dans lequel charger l'élément.
+     * @param item L'élément à charger.
+     * @param stop Le numéro de l'arrêt, dans l'ordre de la tournée.
+     * @throws MaxWeightReachedException Si le poids total du camion dépasse la capacité maximale après le chargement.
+     * @throws MaxVolumeReachedException Si le volume total du camion dépasse la capacité maximale après le chargement.
+     * @throws StopOrderViolationException Si le camion est en mode LIFO et qu'un arrêt antérieur est déjà chargé.
+     * @throws TruckNotSettedException Si le camion avec l'ID spécifié n'existe pas.
+     * @throws IllegalArgumentException Si un élément avec le même ID est déjà chargé dans un camion de la flotte.
+     * @see Camion#load(Chargeable, int)
+     */
+    public void loadItem(String camionId, Chargeable item, int stop)
+            throws MaxWeightReachedException, MaxVolumeReachedException, StopOrderViolationException, TruckNotSettedException {
+        Camion camion = camions.get(camionId);
+        if (camion == null) {
+            throw new TruckNotSettedException("Le camion avec l'ID " + camionId + " n'est pas défini.");
+        }
+        synchronized (camion) {
+            checkOwned(camionId, camion);
+            checkFits(camion, camion.getCurrentWeight(), camion.getCurrentVolume(), Collections.singletonList(item), "loadStop");
+            ItemLocation location = new ItemLocation(this, camion, item);
+            ItemLocation existing = itemLocations.putIfAbsent(item.getId(), location);
+            if (existing != null) {
+                throw new IllegalArgumentException("L'article avec l'ID " + item.getId()
+                        + " est déjà chargé dans le camion " + existing.getCamion().getId() + ".");
+            }
+            try {
+                camion.load(item, stop);
+            } catch (MaxWeightReachedException | MaxVolumeReachedException | StopOrderViolationException | RuntimeException e) {
+                itemLocations.remove(item.getId(), location);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Décharge en une seule opération tous les éléments d'un arrêt de livraison d'un camion spécifié.
+     *
+     * @param camionId L'identifiant du camion.
+     * @param stop Le numéro de l'arrêt.
+     * @return Les éléments déchargés.
+     * @throws IllegalArgumentException Si le camion avec l'ID spécifié n'existe pas.
+     */
+    public List<Chargeable> unloadStop(String camionId, int stop) {
+        Camion camion = camions.get(camionId);
+        if (camion == null) {
+            throw new IllegalArgumentException("Le camion avec l'ID " + camionId + " n'existe pas.");
+        }
+        List<Chargeable> unloaded = camion.unloadStop(stop);
+        for (Chargeable item : unloaded) {
+            forgetLocation(camion, item);
+        }
+        if (!unloaded.isEmpty()) {
+            fillFromPending(camion);
+        }
+        return unloaded;
+    }
+
+    /**
+     * Décharge de tous les camions les éléments qui satisfont un critère.
+     * Les camions sont traités en parallèle ; chacun est compacté en un seul passage
+     * et sa capacité n'est ajustée qu'une fois (voir {@link Camion#unloadIf(java.util.function.Predicate)}).
+     * Le critère peut donc être appelé simultanément depuis plusieurs threads.
+     *
+     * @param filter Le critère des éléments à décharger. Ne peut pas être null.
+     * @return Les éléments déchargés, par identifiant de camion. Les camions dont rien n'a été déchargé sont absents.
+     * @throws IllegalArgumentException Si le critère est null.
+     */
+    public Map<String, List<Chargeable>> unloadIf(Predicate<? super Chargeable> filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Le critère de déchargement ne peut pas être null.");
+        }
+        Map<String, List<Chargeable>> unloaded = new ConcurrentHashMap<>();
+        new ArrayList<>(camions.values()).parallelStream().forEach(camion -> {
+            List<Chargeable> removed = camion.unloadIf(filter);
+            if (!removed.isEmpty()) {
+                for (Chargeable item : removed) {
+                    forgetLocation(camion, item);
+                }
+                unloaded.put(camion.getId(), removed);
+                fillFromPending(camion);
+            }
+        });
+        return unloaded;
+    }
+
+    /**
+     * Applique en une seule opération des déchargements puis des chargements à plusieurs camions, par exemple
+     * pour reporter sur la flotte réelle un scénario de planification. Les verrous des camions concernés sont
+     * pris dans l'ordre de leurs identifiants, puis tout est vérifié avant la moindre modification : soit tous
+     * les camions sont modifiés, soit aucun ne l'est. Un élément peut passer d'un camion concerné à un autre.
+     * Chaque camion est déchargé puis chargé par lot, avec une seule notification par lot.
+     *
+     * @param versions La version attendue de chaque camion concerné (voir {@link Camion#getVersion()}). Ne peut pas être null.
+     * @param unloads Les éléments à décharger, par identifiant de camion : les instances chargées. Ne peut pas être null.
+     * @param loads Les éléments à charger, par identifiant de camion, dans l'ordre de chargement. Ne peut pas être null.
+     * @throws TruckNotSettedException Si un camion concerné n'est pas géré par ce Loadmaster.
+     * @throws IllegalStateException Si un camion concerné n'est plus à la version attendue.
+     * @throws MaxWeightReachedException Si le poids maximum d'un camion est dépassé après l'opération.
+     * @throws MaxVolumeReachedException Si le volume maximum d'un camion est dépassé après l'opération.
+     * @throws IllegalArgumentException Si la version d'un camion concerné manque, si un élément à décharger n'est pas
+     *                                  chargé dans son camion, ou si un élément à charger porte l'ID d'un élément
+     *                                  chargé que l'opération ne décharge pas.
+     */
+    public void applyChanges(Map<String, Long> versions, Map<String, List<Chargeable>> unloads,
+                             Map<String, List<Chargeable>> loads)
+            throws TruckNotSettedException, MaxWeightReachedException, MaxVolumeReachedException {
+        if (versions == null || unloads == null || loads == null) {
+            throw new IllegalArgumentException("Les modifications à appliquer ne peuvent pas être nulles.");
+        }
+        Set<String> ids = new TreeSet<>(versions.keySet());
+        ids.addAll(unloads.keySet());
+        ids.addAll(loads.keySet());
+        List<Camion> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (versions.get(id) == null) {
+                throw new IllegalArgumentException("La version attendue du camion " + id + " est inconnue.");
+            }
+            Camion camion = camions.get(id);
+            if (camion == null) {
+                throw new TruckNotSettedException("Le camion avec l'ID " + id + " n'est pas défini.");
+            }
+            ordered.add(camion);
+        }
+        withLocks(ordered, 0, () -> applyLocked(ordered, versions, unloads, loads));
+        for (Camion camion : ordered) {
+            fillFromPending(camion);
+        }
+    }
+
+    @FunctionalInterface
+    private interface LockedAction {
+        void run() throws TruckNotSettedException, MaxWeightReachedException, MaxVolumeReachedException;
+    }
+
+    /**
+     * Prend les verrous des camions dans l'ordre de la liste, ce qui exclut tout interblocage entre deux appels
+     * qui suivent le même ordre, puis exécute l'action.
+     */
+    private static void withLocks(List<Camion> ordered, int from, LockedAction action)
+            throws TruckNotSettedException, MaxWeightReachedException, MaxVolumeReachedException {
+        if (from == ordered.size()) {
+            action.run();
+            return;
+        }
+        synchronized (ordered.get(from)) {
+            withLocks(ordered, from + 1, action);
+        }
+    }
+
+    private void applyLocked(List<Camion> ordered, Map<String, Long> versions,
+                             Map<String, List<Chargeable>> unloads,
+                             Map<String, List<Chargeable>> loads)
+            throws TruckNotSettedException, MaxWeightReachedException, MaxVolumeReachedException {
+        Map<Chargeable, Camion> leaving = new IdentityHashMap<>();
+        for (Camion camion : ordered) {
+            String id = camion.getId();
+            checkOwned(id, camion);
+            if (camion.getVersion() != versions.get(id)) {
+                throw new IllegalStateException("Le camion " + id + " a été modifié depuis l'instantané.");
+            }
+            Set<Chargeable> loaded = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Chargeable item : camion.getLoadView()) {
+                loaded.add(item);
+            }
+            int weight = camion.getCurrentWeight();
+            double volume = camion.getCurrentVolume();
+            for (Chargeable item : unloads.getOrDefault(id, Collections.emptyList())) {
+                if (item == null || !loaded.contains(item)) {
+                    throw new IllegalArgumentException("L'article à décharger n'est pas trouvé dans le camion.");
+                }
+                leaving.put(item, camion);
+                weight -= item.getWeight();
+                volume -= item.getVolume();
+            }
+            checkFits(camion, weight, volume, loads.getOrDefault(id, Collections.emptyList()), "loadAll");
+        }
+
+        // Les emplacements sont réservés avant toute modification ; un doublon annule les réservations déjà faites
+        List<ItemLocation> previous = new ArrayList<>();
+        List<ItemLocation> registered = new ArrayList<>();
+        for (Camion camion : ordered) {
+            for (Chargeable item : loads.getOrDefault(camion.getId(), Collections.emptyList())) {
+                ItemLocation location = new ItemLocation(this, camion, item);
+                ItemLocation existing = itemLocations.get(item.getId());
+                boolean moved = existing != null && leaving.get(existing.getItem()) == existing.getCamion();
+                boolean reserved = moved
+                        ? itemLocations.replace(item.getId(), existing, location)
+                        : (existing = itemLocations.putIfAbsent(item.getId(), location)) == null;
+                if (!reserved) {
+                    for (int i = registered.size() - 1; i >= 0; i--) {
+                        ItemLocation done = registered.get(i);
+                        if (previous.get(i) == null) {
+                            itemLocations.remove(done.getItem().getId(), done);
+                        } else {
+                            itemLocations.replace(done.getItem().getId(), done, previous.get(i));
+                        }
+                    }
+                    throw new IllegalArgumentException("L'article avec l'ID " + item.getId() + " est déjà chargé dans le camion "
+                            + (existing == null ? camion.getId() : existing.getCamion().getId()) + ".");
+                }
+                previous.add(moved ? existing : null);
+                registered.add(location);
+            }
+        }
+
+        // Tout a été vérifié sous les verrous : les modifications ne peuvent plus être refusées
+        for (Camion camion : ordered) {
+            if (!unloads.getOrDefault(camion.getId(), Collections.emptyList()).isEmpty()) {
+                camion.unloadIf(item -> leaving.get(item) == camion);
+            }
+        }
+        for (Camion camion : ordered) {
+            List<Chargeable> items = loads.getOrDefault(camion.getId(), Collections.emptyList());
+            if (!items.isEmpty()) {
+                camion.loadAll(items);
+            }
+        }
+        for (Map.Entry<Chargeable, Camion> entry : leaving.entrySet()) {
+            Chargeable item = entry.getKey();
+            itemLocations.computeIfPresent(item.getId(), (itemId, location) ->
+                    location.getItem() == item && location.getCamion() == entry.getValue() ? null : location);
+        }
+    }
+
+    /**
+     * Met en attente un élément qui ne tient actuellement dans aucun camion, par exemple après un refus
+     * de {@link #loadItem(String, Chargeable)}. L'élément est chargé automatiquement dans le premier camion
+     * de ce Loadmaster où il trouve de la place : dès maintenant si un camion a assez de marge, sinon quand un
+     * déchargement libère de la capacité ou qu'un camion est ajouté. Les éléments en attente passent par
+     * priorité décroissante, puis par échéance croissante, puis par ordre d'arrivée.
+     *
+     * La notification est appelée une fois l'élément chargé, par le thread qui a libéré la place,
+     * après la libération du verrou du camion. Elle doit être brève et ne doit pas lever d'exception.
+     *
+     * @param item L'élément à charger. Ne peut pas être null.
+     * @param priority La priorité de l'élément : les plus grandes passent en premier.
+     * @param deadline L'échéance de l'élément, par exemple en millisecondes depuis l'époque Unix : à priorité égale, les plus proches passent en premier.
+     * @param onLoaded La notification qui reçoit l'emplacement de l'élément une fois chargé. Ne peut pas être null.
+     * @throws IllegalArgumentException Si un paramètre est null, ou si un élément avec le même ID est déjà chargé ou en attente.
+     */
+    public void enqueueItem(Chargeable item, int priority, long deadline, Consumer<ItemLocation> onLoaded) {
+        if (item == null || item.getId() == null || onLoaded == null) {
+            throw new IllegalArgumentException("L'article, son ID et la notification sont obligatoires.");
+        }
+        ItemLocation existing = itemLocations.get(item.getId());
+        if (existing != null) {
+            throw new IllegalArgumentException("L'article avec l'ID " + item.getId()
+                    + " est déjà chargé dans le camion " + existing.getCamion().getId() + ".");
+        }
+        if (!pending.add(new PendingQueue.Entry(item, priority, deadline, pendingSequence.getAndIncrement(), onLoaded))) {
+            throw new IllegalArgumentException("L'article avec l'ID " + item.getId() + " est déjà en attente.");
+        }
+        for (Camion camion : new ArrayList<>(camions.values())) {
+            if (!pending.contains(item.getId())) {
+                break;
+            }
+            if (camion.getCurrentWeight() + item.getWeight() <= camion.getMaxWeight()
+                    && camion.getCurrentVolume() + item.getVolume() <= camion.getMaxVolume()) {
+                fillFromPending(camion);
+            }
+        }
+    }
+
+    /**
+     * Retire un élément de la file d'attente sans le charger.
+     *
+     * @param itemId L'identifiant de l'élément.
+     * @return L'élément retiré, ou {@code null} s'il n'était pas en attente.
+     */
+    public Chargeable cancelPending(String itemId) {
+        PendingQueue.Entry entry = itemId == null ? null : pending.remove(itemId);
+        return entry == null ? null : entry.getItem();
+    }
+
+    /**
+     * Retourne le nombre d'éléments en attente de place.
+     *
+     * @return Le nombre d'éléments en attente.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Retrouve le camion qui contient un élément, parmi tous les camions de tous les Loadmasters.
+     * Seuls les éléments chargés via {@link #loadItem(String, Chargeable)} sont localisés.
+     *
+     * @param itemId L'identifiant de l'élément.
+     * @return L'emplacement de l'élément, ou {@code null} s'il n'est chargé dans aucun camion.
+     */
+    public static ItemLocation findItem(String itemId) {
+        if (itemId == null) {
+            return null;
+        }
+        return itemLocations.get(itemId);
+    }
+
+    /**
+     * Décharge un élément du camion qui le contient, quel que soit son Loadmaster.
+     *
+     * @param itemId L'identifiant de l'élément à décharger.
+     * @return L'élément déchargé.
+     * @throws IllegalArgumentException Si aucun camion de la flotte ne contient cet élément.
+     */
+    public static Chargeable unloadItemById(String itemId) {
+        ItemLocation location = findItem(itemId);
+        if (location == null) {
+            throw new IllegalArgumentException("L'article avec l'ID " + itemId + " n'est chargé dans aucun camion.");
+        }
+        location.getLoadmaster().unloadItem(location.getCamion().getId(), location.getItem());
+        return location.getItem();
+    }
+
+    /**
+     * Charge dans un camion les meilleurs éléments en attente qui tiennent dans sa marge, puis notifie leur chargement.
+     */
+    private void fillFromPending(Camion camion) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        PackingEvent event = new PackingEvent(camion.getId(), "pending");
+        List<PendingQueue.Entry> loaded = new ArrayList<>();
+        List<ItemLocation> locations = new ArrayList<>();
+        synchronized (camion) {
+            if (camion.getLoadmaster() != this || camions.get(camion.getId()) != camion) {
+                // Camion retiré ou transféré entre-temps
+                return;
+            }
+            List<PendingQueue.Entry> retry = new ArrayList<>();
+            PendingQueue.Entry entry;
+            while ((entry = pending.pollFitting(camion.getMaxWeight() - camion.getCurrentWeight(),
+                    camion.getMaxVolume() - camion.getCurrentVolume())) != null) {
+                Chargeable item = entry.getItem();
+                ItemLocation location = new ItemLocation(this, camion, item);
+                if (itemLocations.putIfAbsent(item.getId(), location) != null) {
+                    // Un élément de même ID a été chargé entre-temps : celui-ci reste en attente
+                    retry.add(entry);
+                    continue;
+                }
+                try {
+                    camion.load(item);
+                } catch (MaxWeightReachedException | MaxVolumeReachedException | RuntimeException e) {
+                    itemLocations.remove(item.getId(), location);
+                    retry.add(entry);
+                    continue;
+                }
+                loaded.add(entry);
+                locations.add(location);
+            }
+            for (PendingQueue.Entry skipped : retry) {
+                pending.add(skipped);
+            }
+        }
+        event.succeed(loaded.size());
+        for (int i = 0; i < loaded.size(); i++) {
+            loaded.get(i).getOnLoaded().accept(locations.get(i));
+        }
+    }
+
+    /**
+     * Vérifie, verrou du camion détenu, que le camion n'a été ni retiré ni transféré depuis sa lecture dans la carte :
+     * ses éléments sont alors localisés chez ce Loadmaster, et un transfert ne peut s'intercaler.
+     */
+    private void checkOwned(String camionId, Camion camion) throws TruckNotSettedException {
+        if (camion.getLoadmaster() != this || camions.get(camionId) != camion) {
+            throw new TruckNotSettedException("Le camion avec l'ID " + camionId + " n'est pas défini.");
+        }
+    }
+
+    /**
+     * Vérifie, verrou du camion détenu, que des éléments tiennent dans le camion à partir du poids et du volume
+     * donnés, avec les mêmes règles que {@link Camion#loadAll(List)}. Un élément refusé n'est ainsi jamais
+     * localisé, même brièvement, et un dépassement est signalé avant un doublon. Le refus est mesuré comme
+     * s'il venait du camion.
+     */
+    private static void checkFits(Camion camion, int weight, double volume, List<? extends Chargeable> items,
+                                  String operation) throws MaxWeightReachedException, MaxVolumeReachedException {
+        for (Chargeable item : items) {
+            if (item == null) {
+                throw new IllegalArgumentException("L'article à charger ne peut pas être nul.");
+            }
+            weight += item.getWeight();
+            volume += item.getVolume();
+            if (weight > camion.getMaxWeight()) {
+                throw rejected(camion, operation, items.size(),
+                        new MaxWeightReachedException("Le poids maximum du camion est atteint.", item));
+            }
+            if (volume > camion.getMaxVolume()) {
+                throw rejected(camion, operation, items.size(),
+                        new MaxVolumeReachedException("Le volume maximum du camion est atteint.", item));
+            }
+        }
+    }
+
+    private static <E extends Exception> E rejected(Camion camion, String operation, int itemCount, E failure) {
+        new LoadEvent(camion.getId(), operation).fail(itemCount, failure);
+        return failure;
+    }
+
+    private static void forgetLocation(Camion camion, Chargeable item) {
+        if (item.getId() != null) {
+            itemLocations.computeIfPresent(item.getId(), (id, location) -> location.getCamion() == camion ? null : location);
+        }
+    }
+
+    /**
+     * Retourne un flux paresseux des éléments de tous les camions dont le poids est compris entre deux bornes incluses.
+     * Chaque camion répond à partir de son index des poids ; les éléments sont regroupés par camion.
+     *
+     * @param min Le poids minimal.
+     * @param max Le poids maximal.
+     * @return Un flux des éléments dont le poids est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public Stream<Chargeable> streamItemsByWeight(int min, int max) {
+        checkRange(min, max);
+        return camions.values().stream().flatMap(camion -> camion.streamByWeight(min, max));
+    }
+
+    /**
+     * Compte les éléments de tous les camions dont le poids est compris entre deux bornes incluses.
+     *
+     * @param min Le poids minimal.
+     * @param max Le poids maximal.
+     * @return Le nombre d'éléments dont le poids est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public long countItemsByWeight(int min, int max) {
+        checkRange(min, max);
+        long count = 0;
+        for (Camion camion : camions.values()) {
+            count += camion.countByWeight(min, max);
+        }
+        return count;
+    }
+
+    /**
+     * Retourne un flux paresseux des éléments de tous les camions dont le volume est compris entre deux bornes incluses.
+     * Chaque camion répond à partir de son index des volumes ; les éléments sont regroupés par camion.
+     *
+     * @param min Le volume minimal.
+     * @param max Le volume maximal.
+     * @return Un flux des éléments dont le volume est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public Stream<Chargeable> streamItemsByVolume(double min, double max) {
+        checkRange(min, max);
+        return camions.values().stream().flatMap(camion -> camion.streamByVolume(min, max));
+    }
+
+    /**
+     * Compte les éléments de tous les camions dont le volume est compris entre deux bornes incluses.
+     *
+     * @param min Le volume minimal.
+     * @param max Le volume maximal.
+     * @return Le nombre d'éléments dont le volume est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public long countItemsByVolume(double min, double max) {
+        checkRange(min, max);
+        long count = 0;
+        for (Camion camion : camions.values()) {
+            count += camion.countByVolume(min, max);
+        }
+        return count;
+    }
+
+    private static void checkRange(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            throw new IllegalArgumentException("La borne minimale ne peut pas dépasser la borne maximale.");
+        }
+    }
+
+    /**
+     * Retourne la dernière version publiée de l'ensemble des camions de ce Loadmaster.
+     * Cette méthode ne prend aucun verrou : les rapports peuvent parcourir la version obtenue
+     * pendant que les chargements continuent, sans jamais voir un état partiellement modifié.
+     * La version n'est assemblée, à partir de la version publiée de chaque camion, que si une
+     * modification a été publiée depuis la dernière demande.
+     *
+     * @return La dernière version immuable de la flotte du Loadmaster.
+     */
+    public LoadmasterSnapshot snapshot() {
+        // Le numéro est lu avant les camions : la version assemblée n'est jamais plus ancienne que lui
+        long current = sequence.get();
+        LoadmasterSnapshot last = assembled;
+        if (last != null && last.getSequence() == current) {
+            return last;
+        }
+        Map<String, CamionSnapshot> view = new HashMap<>();
+        for (Camion camion : camions.values()) {
+            view.put(camion.getId(), camion.snapshot());
+        }
+        LoadmasterSnapshot next = new LoadmasterSnapshot(nom, view, current);
+        assembled = next;
+        return next;
+    }
+
+    /**
+     * Signale le chargement d'un élément dans un camion, puis en avertit les observateurs.
+     * Appelée par {@link Camion} sous son verrou, une fois sa nouvelle version publiée, que le chargement
+     * soit passé par ce Loadmaster ou ait été fait directement sur le camion. Seul le numéro de séquence
+     * est incrémenté, sans copier la flotte ; un camion qui n'est pas géré par ce Loadmaster est ignoré.
+     *
+     * @param camion Le camion modifié.
+     * @param item L'élément chargé.
+     */
+    public void publishLoaded(Camion camion, Chargeable item) {
+        if (manages(camion)) {
+            for (LoadmasterListener listener : listeners) {
+                listener.itemLoaded(camion.snapshot(), item);
+            }
+        }
+    }
+
+    /**
+     * Signale le chargement de plusieurs éléments en une seule opération (voir {@link #publishLoaded(Camion, Chargeable)}).
+     *
+     * @param camion Le camion modifié.
+     * @param items Les éléments chargés, dans l'ordre de chargement.
+     */
+    public void publishLoaded(Camion camion, List<Chargeable> items) {
+        if (manages(camion)) {
+            for (LoadmasterListener listener : listeners) {
+                listener.itemsLoaded(camion.snapshot(), items);
+            }
+        }
+    }
+
+    /**
+     * Signale le déchargement d'un ou plusieurs éléments en une seule opération (voir {@link #publishLoaded(Camion, Chargeable)}).
+     *
+     * @param camion Le camion modifié.
+     * @param items Les éléments déchargés.
+     */
+    public void publishUnloaded(Camion camion, List<Chargeable> items) {
+        if (manages(camion)) {
+            for (LoadmasterListener listener : listeners) {
+                listener.itemsUnloaded(camion.snapshot(), items);
+            }
+        }
+    }
+
+    /**
+     * Signale la correction du poids ou du volume chargé d'un camion (voir {@link #publishLoaded(Camion, Chargeable)}).
+     *
+     * @param camion Le camion modifié.
+     */
+    public void publishAdjustment(Camion camion) {
+        if (manages(camion)) {
+            for (LoadmasterListener listener : listeners) {
+                listener.capacityAdjusted(camion.snapshot());
+            }
+        }
+    }
+
+    /**
+     * Indique si un camion qui vient de publier une version est géré par ce Loadmaster, et compte alors la publication.
+     */
+    private boolean manages(Camion camion) {
+        if (camions.get(camion.getId()) != camion) {
+            return false;
+        }
+        sequence.incrementAndGet();
+        return true;
     }
 
     /**
      * Retourne la carte des camions gérés par ce Loadmaster.
+     * La carte est concurrente : elle peut être parcourue pendant que des camions sont ajoutés, retirés ou transférés.
      *
      * @return Une carte contenant les camions, identifiés par leur ID.
      */
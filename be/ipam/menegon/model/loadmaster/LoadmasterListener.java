@@ -0,0 +1,81 @@
+package be.ipam.menegon.model.loadmaster;
+
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.List;
+
+/**
+ * Observateur des modifications des camions gérés par un {@link Loadmaster}.
+ * Chaque notification est émise pendant que le verrou du camion concerné est détenu,
+ * juste après la modification : les notifications d'un même camion arrivent donc dans l'ordre
+ * où les modifications ont été appliquées, et la version du camion reçue est celle qu'elles ont produite.
+ * Une notification doit être brève et ne doit pas modifier le Loadmaster.
+ *
+ * Les modifications sont notifiées par le camion lui-même : celles faites directement sur un
+ * {@link be.ipam.menegon.model.truck.Camion} géré le sont donc aussi, y compris les corrections du poids
+ * ou du volume chargé (voir {@link #capacityAdjusted(CamionSnapshot)}). Celles d'un camion qui n'a pas
+ * été confié au Loadmaster ne le sont pas.
+ *
+ * @author Dylan Menegon
+ */
+public interface LoadmasterListener {
+
+    /**
+     * Un camion, éventuellement déjà chargé, a été confié au Loadmaster.
+     *
+     * @param camion L'état du camion au moment de son ajout.
+     */
+    void camionAdded(CamionSnapshot camion);
+
+    /**
+     * Un camion a été retiré du Loadmaster.
+     *
+     * @param camionId L'identifiant du camion.
+     */
+    void camionRemoved(String camionId);
+
+    /**
+     * Un élément a été chargé dans un camion.
+     *
+     * @param camion L'état du camion après le chargement.
+     * @param item L'élément chargé.
+     */
+    void itemLoaded(CamionSnapshot camion, Chargeable item);
+
+    /**
+     * Plusieurs éléments ont été chargés dans un camion en une seule opération.
+     *
+     * @param camion L'état du camion après le chargement.
+     * @param items Les éléments chargés, dans l'ordre de chargement.
+     */
+    void itemsLoaded(CamionSnapshot camion, List<Chargeable> items);
+
+    /**
+     * Un ou plusieurs éléments ont été déchargés d'un camion en une seule opération.
+     *
+     * @param camion L'état du camion après le déchargement.
+     * @param items Les éléments déchargés.
+     */
+    void itemsUnloaded(CamionSnapshot camion, List<Chargeable> items);
+
+    /**
+     * Le créneau de départ d'un camion a été fixé ou retiré (voir {@link Loadmaster#scheduleDeparture(String, long)}).
+     * Par défaut, la notification est ignorée.
+     *
+     * @param camionId L'identifiant du camion.
+     * @param departure La nouvelle heure de départ, ou {@link be.ipam.menegon.model.truck.Camion#NO_DEPARTURE}.
+     */
+    default void departureScheduled(String camionId, long departure) {
+    }
+
+    /**
+     * Le poids ou le volume chargé d'un camion a été corrigé sans chargement ni déchargement
+     * (voir {@link be.ipam.menegon.model.truck.Camion#updateCurrentWeight(int)}).
+     * Par défaut, la notification est ignorée.
+     *
+     * @param camion L'état du camion après la correction.
+     */
+    default void capacityAdjusted(CamionSnapshot camion) {
+    }
+}
@@ -0,0 +1,66 @@
+package be.ipam.menegon.model.loadmaster;
+
+import be.ipam.menegon.model.truck.CamionSnapshot;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Version immuable de l'ensemble des camions d'un {@link Loadmaster}.
+ * Elle est assemblée à la demande à partir de la dernière version publiée de chaque camion,
+ * puis réutilisée tant qu'aucune modification n'a été publiée ; chaque camion y figure donc
+ * dans un état cohérent qu'il a réellement eu. Les camions sont relevés l'un après l'autre, sans coupe
+ * globale : deux camions modifiés pendant l'assemblage peuvent y figurer à des instants différents.
+ * Un lecteur qui obtient une version par {@link Loadmaster#snapshot()} la parcourt sans verrou.
+ *
+ * @author Dylan Menegon
+ */
+public final class LoadmasterSnapshot {
+    private final String nom;
+    private final Map<String, CamionSnapshot> camions;
+    private final long sequence;
+
+    LoadmasterSnapshot(String nom, Map<String, CamionSnapshot> camions, long sequence) {
+        this.nom = nom;
+        this.camions = Collections.unmodifiableMap(camions);
+        this.sequence = sequence;
+    }
+
+    /**
+     * Retourne le nom du Loadmaster.
+     *
+     * @return Le nom du Loadmaster.
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * Retourne la version de chaque camion géré, identifié par son ID.
+     *
+     * @return Une carte non modifiable des versions des camions.
+     */
+    public Map<String, CamionSnapshot> getCamions() {
+        return camions;
+    }
+
+    /**
+     * Retourne la version d'un camion géré.
+     *
+     * @param camionId L'identifiant du camion.
+     * @return La version du camion, ou {@code null} si le camion n'est pas géré par le Loadmaster.
+     */
+    public CamionSnapshot getCamion(String camionId) {
+        return camions.get(camionId);
+    }
+
+    /**
+     * Retourne le numéro de séquence de cette version : le nombre de modifications publiées par le Loadmaster
+     * quand elle a été assemblée.
+     *
+     * @return Le numéro de séquence.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+}
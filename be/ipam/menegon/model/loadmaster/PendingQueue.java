@@ -0,0 +1,223 @@
+package be.ipam.menegon.model.loadmaster;
+
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * File d'attente des éléments qui ne tenaient dans aucun camion d'un {@link Loadmaster}, ordonnée par priorité
+ * décroissante, puis par échéance croissante, puis par ordre d'arrivée.
+ *
+ * Les éléments occupent les feuilles d'un arbre de segments dont chaque nœud retient le plus petit poids,
+ * le plus petit volume et le meilleur élément de son sous-arbre. La recherche du meilleur élément qui tient
+ * dans une marge donnée écarte ainsi d'un coup les sous-arbres dont aucun élément ne tient, ou dont le
+ * meilleur élément n'est pas meilleur que celui déjà trouvé, sans parcourir toute la file.
+ *
+ * Les méthodes sont synchronisées sur la file ; le Loadmaster les appelle en détenant le verrou du camion concerné.
+ *
+ * @author Dylan Menegon
+ */
+final class PendingQueue {
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Élément en attente et notification à émettre une fois l'élément chargé.
+     */
+    static final class Entry {
+        private final Chargeable item;
+        private final int priority;
+        private final long deadline;
+        private final long sequence;
+        private final Consumer<ItemLocation> onLoaded;
+        private int slot;
+
+        Entry(Chargeable item, int priority, long deadline, long sequence, Consumer<ItemLocation> onLoaded) {
+            this.item = item;
+            this.priority = priority;
+            this.deadline = deadline;
+            this.sequence = sequence;
+            this.onLoaded = onLoaded;
+        }
+
+        Chargeable getItem() {
+            return item;
+        }
+
+        Consumer<ItemLocation> getOnLoaded() {
+            return onLoaded;
+        }
+
+        /**
+         * Négatif si cet élément passe avant l'autre.
+         */
+        int compareTo(Entry other) {
+            if (priority != other.priority) {
+                return Integer.compare(other.priority, priority);
+            }
+            if (deadline != other.deadline) {
+                return Long.compare(deadline, other.deadline);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final Map<String, Entry> byId;
+    private Entry[] entries; // Feuilles de l'arbre
+    private int[] minWeights; // Nœuds de l'arbre : la racine en 1, les enfants de i en 2i et 2i+1
+    private double[] minVolumes;
+    private int[] best; // Case du meilleur élément du sous-arbre, -1 s'il est vide
+    private int[] freeSlots;
+    private int freeCount;
+
+    PendingQueue() {
+        this.byId = new HashMap<>();
+        allocate(INITIAL_CAPACITY);
+    }
+
+    synchronized boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    synchronized int size() {
+        return byId.size();
+    }
+
+    synchronized boolean contains(String itemId) {
+        return byId.containsKey(itemId);
+    }
+
+    /**
+     * Ajoute un élément à la file.
+     *
+     * @return {@code false} si un élément avec le même ID est déjà en attente.
+     */
+    synchronized boolean add(Entry entry) {
+        if (byId.putIfAbsent(entry.item.getId(), entry) != null) {
+            return false;
+        }
+        if (freeCount == 0) {
+            grow();
+        }
+        entry.slot = freeSlots[--freeCount];
+        entries[entry.slot] = entry;
+        update(entry.slot);
+        return true;
+    }
+
+    /**
+     * Retire un élément de la file.
+     *
+     * @return L'élément retiré, ou {@code null} s'il n'était pas en attente.
+     */
+    synchronized Entry remove(String itemId) {
+        Entry entry = byId.remove(itemId);
+        if (entry != null) {
+            entries[entry.slot] = null;
+            update(entry.slot);
+            freeSlots[freeCount++] = entry.slot;
+        }
+        return entry;
+    }
+
+    /**
+     * Retire et retourne le meilleur élément dont le poids et le volume tiennent dans une marge donnée.
+     *
+     * @return L'élément retiré, ou {@code null} si aucun élément ne tient dans la marge.
+     */
+    synchronized Entry pollFitting(int weightHeadroom, double volumeHeadroom) {
+        int slot = search(1, weightHeadroom, volumeHeadroom, -1);
+        return slot < 0 ? null : remove(entries[slot].item.getId());
+    }
+
+    private int search(int node, int weightHeadroom, double volumeHeadroom, int found) {
+        if (best[node] < 0 || minWeights[node] > weightHeadroom || minVolumes[node] > volumeHeadroom) {
+            return found;
+        }
+        if (found >= 0 && entries[best[node]].compareTo(entries[found]) >= 0) {
+            return found;
+        }
+        int leaves = entries.length;
+        if (node >= leaves) {
+            // Une feuille porte le poids et le volume de son élément : il tient dans la marge
+            return node - leaves;
+        }
+        int left = 2 * node;
+        int right = left + 1;
+        // Le sous-arbre dont le meilleur élément passe en premier est exploré d'abord
+        if (best[right] >= 0 && (best[left] < 0 || entries[best[right]].compareTo(entries[best[left]]) < 0)) {
+            left = right;
+            right = 2 * node;
+        }
+        found = search(left, weightHeadroom, volumeHeadroom, found);
+        return search(right, weightHeadroom, volumeHeadroom, found);
+    }
+
+    private void update(int slot) {
+        int leaves = entries.length;
+        int node = leaves + slot;
+        Entry entry = entries[slot];
+        minWeights[node] = entry == null ? Integer.MAX_VALUE : entry.item.getWeight();
+        minVolumes[node] = entry == null ? Double.POSITIVE_INFINITY : entry.item.getVolume();
+        best[node] = entry == null ? -1 : slot;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            pull(node);
+        }
+    }
+
+    private void pull(int node) {
+        int left = 2 * node;
+        int right = left + 1;
+        minWeights[node] = Math.min(minWeights[left], minWeights[right]);
+        minVolumes[node] = Math.min(minVolumes[left], minVolumes[right]);
+        if (best[left] < 0) {
+            best[node] = best[right];
+        } else if (best[right] < 0) {
+            best[node] = best[left];
+        } else {
+            best[node] = entries[best[left]].compareTo(entries[best[right]]) <= 0 ? best[left] : best[right];
+        }
+    }
+
+    private void allocate(int capacity) {
+        entries = new Entry[capacity];
+        minWeights = new int[2 * capacity];
+        minVolumes = new double[2 * capacity];
+        best = new int[2 * capacity];
+        Arrays.fill(minWeights, Integer.MAX_VALUE);
+        Arrays.fill(minVolumes, Double.POSITIVE_INFINITY);
+        Arrays.fill(best, -1);
+        freeSlots = new int[capacity];
+        freeCount = 0;
+        for (int slot = capacity - 1; slot >= 0; slot--) {
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    /**
+     * Double la capacité de la file et reconstruit l'arbre, en conservant la case de chaque élément.
+     */
+    private void grow() {
+        Entry[] previous = entries;
+        allocate(previous.length * 2);
+        freeCount = 0;
+        for (int slot = entries.length - 1; slot >= previous.length; slot--) {
+            freeSlots[freeCount++] = slot;
+        }
+        int leaves = entries.length;
+        for (int slot = 0; slot < previous.length; slot++) {
+            Entry entry = previous[slot];
+            entries[slot] = entry;
+            if (entry != null) {
+                minWeights[leaves + slot] = entry.item.getWeight();
+                minVolumes[leaves + slot] = entry.item.getVolume();
+                best[leaves + slot] = slot;
+            }
+        }
+        for (int node = leaves - 1; node >= 1; node--) {
+            pull(node);
+        }
+    }
+}
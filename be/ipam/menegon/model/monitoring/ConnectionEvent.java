@@ -0,0 +1,55 @@
+package be.ipam.menegon.model.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Événement JFR : connexion refusée ou interrompue par un serveur de la flotte, par exemple un nœud
+ * d'un déploiement partitionné. Remplace les traces sur la sortie d'erreur, qui ne sont ni filtrables
+ * ni corrélables avec les autres événements.
+ *
+ * @author Dylan Menegon
+ */
+@Name("be.ipam.menegon.ConnectionFailure")
+@Label("Connexion en échec")
+@Description("Connexion refusée ou interrompue par un serveur de la flotte.")
+@Category({"Menegon", "Réseau"})
+@StackTrace(false)
+public final class ConnectionEvent extends Event {
+    @Label("Serveur")
+    private String server;
+
+    @Label("Opération")
+    private String operation;
+
+    @Label("Exception")
+    private Class<?> exceptionType;
+
+    @Label("Message")
+    private String message;
+
+    private ConnectionEvent() {
+    }
+
+    /**
+     * Enregistre l'échec d'une connexion si l'événement est activé.
+     *
+     * @param server Le serveur concerné, par exemple {@code shard-5701}.
+     * @param operation L'opération en cours, par exemple {@code accept} ou {@code serve}.
+     * @param cause L'exception qui a interrompu la connexion.
+     */
+    public static void report(String server, String operation, Exception cause) {
+        ConnectionEvent event = new ConnectionEvent();
+        if (event.isEnabled()) {
+            event.server = server;
+            event.operation = operation;
+            event.exceptionType = cause.getClass();
+            event.message = cause.getMessage();
+            event.commit();
+        }
+    }
+}
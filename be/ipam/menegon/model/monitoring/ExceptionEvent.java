@@ -0,0 +1,46 @@
+package be.ipam.menegon.model.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Événement JFR : capture de la pile d'appels d'une exception de capacité, qui est la partie coûteuse
+ * de sa création. Permet de distinguer le temps passé à refuser un élément de celui passé à le charger.
+ *
+ * @author Dylan Menegon
+ */
+@Name("be.ipam.menegon.ExceptionCreation")
+@Label("Création d'exception")
+@Description("Capture de la pile d'appels d'une exception de capacité.")
+@Category({"Menegon", "Camion"})
+@StackTrace(false)
+@Threshold("1 ms")
+public final class ExceptionEvent extends Event {
+    @Label("Exception")
+    private Class<?> exceptionType;
+
+    /**
+     * Constructeur pour démarrer la mesure.
+     */
+    public ExceptionEvent() {
+        begin();
+    }
+
+    /**
+     * Termine la mesure et l'enregistre si nécessaire.
+     *
+     * @param exceptionType La classe de l'exception créée.
+     */
+    public void complete(Class<?> exceptionType) {
+        end();
+        if (shouldCommit()) {
+            this.exceptionType = exceptionType;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package be.ipam.menegon.model.monitoring;
+
+import be.ipam.menegon.model.loadmaster.FleetDirectory;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Événement JFR périodique : utilisation de toute la flotte enregistrée dans le {@link FleetDirectory}.
+ * Les valeurs sont calculées à partir des instantanés publiés par chaque Loadmaster, sans prendre
+ * aucun verrou, et seulement quand un enregistrement JFR demande l'événement.
+ *
+ * @author Dylan Menegon
+ */
+@Name("be.ipam.menegon.FleetUtilisation")
+@Label("Utilisation de la flotte")
+@Description("Poids et volume chargés par rapport à la capacité de tous les camions de la flotte.")
+@Category({"Menegon", "Flotte"})
+@StackTrace(false)
+@Period("1 s")
+public final class FleetUtilisationEvent extends Event {
+    private static final AtomicBoolean registered = new AtomicBoolean();
+
+    @Label("Loadmasters")
+    private int loadmasterCount;
+
+    @Label("Camions")
+    private int truckCount;
+
+    @Label("Éléments")
+    private long itemCount;
+
+    @Label("Poids chargé")
+    @Description("Poids chargé dans tous les camions, en kilogrammes.")
+    private long currentWeight;
+
+    @Label("Poids maximum")
+    @Description("Capacité de poids de tous les camions, en kilogrammes.")
+    private long maxWeight;
+
+    @Label("Volume chargé")
+    @Description("Volume chargé dans tous les camions, en mètres cubes.")
+    private double currentVolume;
+
+    @Label("Volume maximum")
+    @Description("Capacité de volume de tous les camions, en mètres cubes.")
+    private double maxVolume;
+
+    @Label("Utilisation du poids")
+    @Percentage
+    private double weightRatio;
+
+    @Label("Utilisation du volume")
+    @Percentage
+    private double volumeRatio;
+
+    /**
+     * Inscrit l'événement auprès de JFR. Sans effet si l'événement est déjà inscrit.
+     */
+    public static void register() {
+        if (registered.compareAndSet(false, true)) {
+            FlightRecorder.addPeriodicEvent(FleetUtilisationEvent.class, FleetUtilisationEvent::emit);
+        }
+    }
+
+    private static void emit() {
+        FleetUtilisationEvent event = new FleetUtilisationEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        for (Loadmaster loadmaster : FleetDirectory.getLoadmasters()) {
+            event.loadmasterCount++;
+            for (CamionSnapshot camion : loadmaster.snapshot().getCamions().values()) {
+                event.truckCount++;
+                event.itemCount += camion.size();
+                event.currentWeight += camion.getCurrentWeight();
+                event.maxWeight += camion.getMaxWeight();
+                event.currentVolume += camion.getCurrentVolume();
+                event.maxVolume += camion.getMaxVolume();
+            }
+        }
+        event.weightRatio = event.maxWeight == 0 ? 0 : (double) event.currentWeight / event.maxWeight;
+        event.volumeRatio = event.maxVolume == 0 ? 0 : event.currentVolume / event.maxVolume;
+        event.commit();
+    }
+}
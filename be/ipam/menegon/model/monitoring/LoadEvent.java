@@ -0,0 +1,25 @@
+package be.ipam.menegon.model.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Événement JFR : chargement d'éléments dans un camion, un par un ou par lot.
+ *
+ * @author Dylan Menegon
+ */
+@Name("be.ipam.menegon.Load")
+@Label("Chargement")
+@Description("Chargement d'éléments dans un camion, un par un ou par lot.")
+public final class LoadEvent extends TruckEvent {
+    /**
+     * Constructeur pour démarrer la mesure d'une opération.
+     *
+     * @param truckId L'identifiant du camion.
+     * @param operation Le nom de l'opération.
+     */
+    public LoadEvent(String truckId, String operation) {
+        super(truckId, operation);
+    }
+}
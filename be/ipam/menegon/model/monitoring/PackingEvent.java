@@ -0,0 +1,25 @@
+package be.ipam.menegon.model.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Événement JFR : choix et chargement d'un ensemble d'éléments : sac à dos, placement, file d'attente ou dimensionnement de flotte.
+ *
+ * @author Dylan Menegon
+ */
+@Name("be.ipam.menegon.Packing")
+@Label("Rangement")
+@Description("Choix et chargement d'un ensemble d'éléments : sac à dos, placement, file d'attente ou dimensionnement de flotte.")
+public final class PackingEvent extends TruckEvent {
+    /**
+     * Constructeur pour démarrer la mesure d'une opération.
+     *
+     * @param truckId L'identifiant du camion, ou {@code null} pour un dimensionnement de flotte.
+     * @param operation Le nom de l'opération.
+     */
+    public PackingEvent(String truckId, String operation) {
+        super(truckId, operation);
+    }
+}
@@ -0,0 +1,59 @@
+package be.ipam.menegon.model.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Événement JFR : enregistrement, retrait ou transfert d'un camion dans l'annuaire de la flotte,
+ * partagé par tous les Loadmasters. Mesure l'attente sur l'annuaire lors d'ajouts concurrents de camions.
+ *
+ * @author Dylan Menegon
+ */
+@Name("be.ipam.menegon.Registration")
+@Label("Annuaire de la flotte")
+@Description("Enregistrement, retrait ou transfert d'un camion dans l'annuaire de la flotte.")
+@Category({"Menegon", "Flotte"})
+@StackTrace(false)
+@Threshold("1 ms")
+public final class RegistrationEvent extends Event {
+    @Label("Camion")
+    private String truckId;
+
+    @Label("Opération")
+    private String operation;
+
+    @Label("Accepté")
+    private boolean accepted;
+
+    /**
+     * Constructeur pour démarrer la mesure d'une opération sur l'annuaire.
+     *
+     * @param truckId L'identifiant du camion.
+     * @param operation Le nom de l'opération.
+     */
+    public RegistrationEvent(String truckId, String operation) {
+        this.truckId = truckId;
+        this.operation = operation;
+        begin();
+    }
+
+    /**
+     * Termine la mesure et l'enregistre si nécessaire.
+     *
+     * @param accepted {@code true} si l'annuaire a accepté l'opération.
+     * @return Le résultat reçu, pour enchaîner les appels.
+     */
+    public boolean complete(boolean accepted) {
+        end();
+        if (shouldCommit()) {
+            this.accepted = accepted;
+            commit();
+        }
+        return accepted;
+    }
+}
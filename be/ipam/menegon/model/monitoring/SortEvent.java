@@ -0,0 +1,25 @@
+package be.ipam.menegon.model.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Événement JFR : copie triée du chargement d'un camion.
+ *
+ * @author Dylan Menegon
+ */
+@Name("be.ipam.menegon.Sort")
+@Label("Tri du chargement")
+@Description("Copie triée du chargement d'un camion.")
+public final class SortEvent extends TruckEvent {
+    /**
+     * Constructeur pour démarrer la mesure d'une opération.
+     *
+     * @param truckId L'identifiant du camion.
+     * @param operation Le nom de l'opération.
+     */
+    public SortEvent(String truckId, String operation) {
+        super(truckId, operation);
+    }
+}
@@ -0,0 +1,81 @@
+package be.ipam.menegon.model.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Base des événements JFR qui mesurent une opération sur un camion : l'identifiant du camion,
+ * l'opération, le nombre d'éléments concernés et le résultat, en plus de la durée mesurée par JFR.
+ *
+ * L'événement est démarré à sa création et enregistré par {@link #succeed(int)} ou {@link #fail(int, Throwable)}.
+ * Quand l'enregistrement de l'événement est désactivé, ces appels ne font rien et, une fois compilés,
+ * l'allocation de l'événement est éliminée : les événements peuvent rester en place en production.
+ * Par défaut, seules les opérations de plus d'une milliseconde sont enregistrées.
+ *
+ * @author Dylan Menegon
+ */
+@Category({"Menegon", "Camion"})
+@StackTrace(false)
+@Threshold("1 ms")
+public abstract class TruckEvent extends Event {
+    /** Résultat d'une opération réussie. */
+    public static final String OK = "OK";
+
+    // Champs protégés : JFR n'enregistre pas les champs privés d'une classe parente
+    @Label("Camion")
+    protected String truckId;
+
+    @Label("Opération")
+    protected String operation;
+
+    @Label("Éléments")
+    protected int itemCount;
+
+    @Label("Résultat")
+    protected String outcome;
+
+    /**
+     * Constructeur pour démarrer la mesure d'une opération.
+     *
+     * @param truckId L'identifiant du camion, ou {@code null} si l'opération ne concerne pas un camion précis.
+     * @param operation Le nom de l'opération.
+     */
+    protected TruckEvent(String truckId, String operation) {
+        this.truckId = truckId;
+        this.operation = operation;
+        begin();
+    }
+
+    /**
+     * Termine la mesure d'une opération réussie et l'enregistre si nécessaire.
+     *
+     * @param itemCount Le nombre d'éléments concernés par l'opération.
+     */
+    public final void succeed(int itemCount) {
+        end();
+        if (shouldCommit()) {
+            this.itemCount = itemCount;
+            this.outcome = OK;
+            commit();
+        }
+    }
+
+    /**
+     * Termine la mesure d'une opération qui a échoué et l'enregistre si nécessaire.
+     * Le résultat enregistré est le nom simple de la classe de l'exception.
+     *
+     * @param itemCount Le nombre d'éléments concernés par l'opération.
+     * @param failure L'exception qui a interrompu l'opération.
+     */
+    public final void fail(int itemCount, Throwable failure) {
+        end();
+        if (shouldCommit()) {
+            this.itemCount = itemCount;
+            this.outcome = failure == null ? null : failure.getClass().getSimpleName();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package be.ipam.menegon.model.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Événement JFR : déchargement d'éléments d'un camion, un par un, par arrêt ou par critère.
+ *
+ * @author Dylan Menegon
+ */
+@Name("be.ipam.menegon.Unload")
+@Label("Déchargement")
+@Description("Déchargement d'éléments d'un camion, un par un, par arrêt ou par critère.")
+public final class UnloadEvent extends TruckEvent {
+    /**
+     * Constructeur pour démarrer la mesure d'une opération.
+     *
+     * @param truckId L'identifiant du camion.
+     * @param operation Le nom de l'opération.
+     */
+    public UnloadEvent(String truckId, String operation) {
+        super(truckId, operation);
+    }
+}
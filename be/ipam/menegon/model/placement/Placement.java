@@ -0,0 +1,117 @@
+package be.ipam.menegon.model.placement;
+
+import be.ipam.menegon.model.truck.DimensionedChargeable;
+
+import java.util.Locale;
+
+/**
+ * Position d'un objet dimensionné dans la caisse d'un camion.
+ * Le coin d'origine est situé au fond à gauche, au sol ; {@code x} suit la longueur,
+ * {@code y} la largeur et {@code z} la hauteur. Un objet peut être tourné d'un quart de tour
+ * à plat, auquel cas sa longueur et sa largeur sont échangées.
+ *
+ * @author Dylan Menegon
+ */
+public final class Placement {
+    private final DimensionedChargeable item;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final double length;
+    private final double width;
+    private final double height;
+
+    Placement(DimensionedChargeable item, double x, double y, double z, double length, double width, double height) {
+        this.item = item;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.length = length;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Retourne l'objet placé.
+     *
+     * @return L'objet placé.
+     */
+    public DimensionedChargeable getItem() {
+        return item;
+    }
+
+    /**
+     * Retourne la position de l'objet le long de la longueur de la caisse.
+     *
+     * @return La coordonnée {@code x} du coin d'origine de l'objet.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Retourne la position de l'objet le long de la largeur de la caisse.
+     *
+     * @return La coordonnée {@code y} du coin d'origine de l'objet.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Retourne la hauteur à laquelle repose l'objet.
+     *
+     * @return La coordonnée {@code z} du coin d'origine de l'objet.
+     */
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * Retourne la longueur occupée le long de l'axe {@code x}, après rotation éventuelle.
+     *
+     * @return La longueur occupée.
+     */
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * Retourne la largeur occupée le long de l'axe {@code y}, après rotation éventuelle.
+     *
+     * @return La largeur occupée.
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Retourne la hauteur occupée par l'objet.
+     *
+     * @return La hauteur occupée.
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * Indique si l'objet a été tourné d'un quart de tour à plat.
+     *
+     * @return {@code true} si la longueur et la largeur de l'objet ont été échangées.
+     */
+    public boolean isRotated() {
+        return length != item.getLength();
+    }
+
+    boolean overlaps(double ox, double oy, double oz, double ol, double ow, double oh) {
+        return x < ox + ol - PlacementEngine.EPSILON && ox < x + length - PlacementEngine.EPSILON
+                && y < oy + ow - PlacementEngine.EPSILON && oy < y + width - PlacementEngine.EPSILON
+                && z < oz + oh - PlacementEngine.EPSILON && oz < z + height - PlacementEngine.EPSILON;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "Placement [ID=%s, Position=(%.2f, %.2f, %.2f), Size=%.2fx%.2fx%.2f]",
+                item.getId(), x, y, z, length, width, height);
+    }
+}
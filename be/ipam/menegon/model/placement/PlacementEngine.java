@@ -0,0 +1,261 @@
+package be.ipam.menegon.model.placement;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.exceptions.TruckNotSettedException;
+import be.ipam.menegon.model.monitoring.PackingEvent;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.DimensionedChargeable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Moteur de placement en trois dimensions d'objets dimensionnés dans la caisse d'un camion.
+ * Il applique l'heuristique des points extrêmes : chaque objet placé crée de nouveaux points
+ * candidats (devant lui, à côté de lui et sur lui), et l'objet suivant est posé au premier point
+ * candidat (le plus bas, puis le plus au fond) où il tient sans collision, à plat ou tourné
+ * d'un quart de tour. Les collisions sont recherchées dans une grille spatiale, si bien que
+ * seuls les objets voisins sont testés.
+ *
+ * Un objet posé en hauteur doit reposer sur des objets gerbables couvrant au moins
+ * {@value #MIN_SUPPORT} de sa base. Le poids maximum du camion reste vérifié.
+ * Un moteur n'est pas thread-safe ; on utilise un moteur par camion.
+ *
+ * @author Dylan Menegon
+ */
+public class PlacementEngine {
+    static final double EPSILON = 1e-9;
+    /** Part minimale de la base d'un objet qui doit être soutenue lorsqu'il n'est pas posé au sol. */
+    public static final double MIN_SUPPORT = 0.7;
+
+    private static final Comparator<double[]> POINT_ORDER = (a, b) -> {
+        int result = Double.compare(a[2], b[2]);
+        if (result == 0) {
+            result = Double.compare(a[0], b[0]);
+        }
+        if (result == 0) {
+            result = Double.compare(a[1], b[1]);
+        }
+        return result;
+    };
+
+    private final double length;
+    private final double width;
+    private final double height;
+    private final int maxWeight;
+    private int currentWeight;
+    private final List<Placement> placements;
+    private final SpatialGrid grid;
+    private final TreeSet<double[]> extremePoints;
+
+    /**
+     * Crée un moteur pour une caisse vide.
+     *
+     * @param length La longueur intérieure de la caisse. Doit être positive.
+     * @param width La largeur intérieure de la caisse. Doit être positive.
+     * @param height La hauteur intérieure de la caisse. Doit être positive.
+     * @param maxWeight Le poids maximum que le camion peut supporter. Doit être positif.
+     * @throws IllegalArgumentException Si une dimension ou le poids maximum n'est pas positif.
+     */
+    public PlacementEngine(double length, double width, double height, int maxWeight) {
+        if (length <= 0 || width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Les dimensions de la caisse doivent être positives.");
+        }
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("Le poids maximum doit être positif.");
+        }
+        this.length = length;
+        this.width = width;
+        this.height = height;
+        this.maxWeight = maxWeight;
+        this.placements = new ArrayList<>();
+        this.grid = new SpatialGrid(length, width);
+        this.extremePoints = new TreeSet<>(POINT_ORDER);
+        this.extremePoints.add(new double[]{0, 0, 0});
+    }
+
+    /**
+     * Crée un moteur pour la caisse d'un camion. Le poids déjà chargé dans le camion est pris en compte ;
+     * l'espace occupé par les éléments non dimensionnés déjà chargés ne l'est pas.
+     *
+     * @param camion Le camion dont les dimensions de caisse sont connues.
+     * @return Un moteur de placement pour ce camion.
+     * @throws IllegalArgumentException Si le camion est null ou si ses dimensions de caisse sont inconnues.
+     */
+    public static PlacementEngine forCamion(Camion camion) {
+        if (camion == null || !camion.hasBoxDimensions()) {
+            throw new IllegalArgumentException("Les dimensions de la caisse du camion doivent être connues.");
+        }
+        PlacementEngine engine = new PlacementEngine(camion.getBoxLength(), camion.getBoxWidth(),
+                camion.getBoxHeight(), camion.getMaxWeight());
+        engine.currentWeight = camion.getCurrentWeight();
+        return engine;
+    }
+
+    /**
+     * Planifie le placement d'objets puis charge dans le camion ceux qui ont trouvé une place.
+     * Le plan est calculé et appliqué sous le verrou du camion, et les objets placés sont chargés
+     * en une seule opération par le Loadmaster du camion : soit ils sont tous chargés et localisables,
+     * soit le camion reste inchangé (le plan ne vérifie pas le volume, que le camion peut refuser).
+     *
+     * @param camion Le camion à charger, dont les dimensions de caisse sont connues.
+     * @param items Les objets à placer.
+     * @return Le plan de placement appliqué.
+     * @throws MaxWeightReachedException Si le camion refuse les objets placés pour dépassement de poids.
+     * @throws MaxVolumeReachedException Si le camion refuse les objets placés pour dépassement de volume.
+     * @throws TruckNotSettedException Si le camion n'est pas géré par son Loadmaster.
+     */
+    public static PlacementPlan loadInto(Camion camion, Collection<? extends DimensionedChargeable> items)
+            throws MaxWeightReachedException, MaxVolumeReachedException, TruckNotSettedException {
+        PackingEvent event = new PackingEvent(camion == null ? null : camion.getId(), "placement");
+        try {
+            if (camion == null) {
+                throw new IllegalArgumentException("Les dimensions de la caisse du camion doivent être connues.");
+            }
+            PlacementPlan plan;
+            synchronized (camion) {
+                plan = forCamion(camion).placeAll(items);
+                List<Chargeable> placed = new ArrayList<>(plan.getPlacements().size());
+                for (Placement placement : plan.getPlacements()) {
+                    placed.add(placement.getItem());
+                }
+                camion.getLoadmaster().loadItems(camion.getId(), placed);
+            }
+            event.succeed(plan.getPlacements().size());
+            return plan;
+        } catch (MaxWeightReachedException | MaxVolumeReachedException | TruckNotSettedException | RuntimeException e) {
+            event.fail(0, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Place un objet au premier point candidat où il tient.
+     *
+     * @param item L'objet à placer. Ne peut pas être null.
+     * @return Le placement obtenu, ou {@code null} si l'objet ne tient nulle part dans la caisse.
+     * @throws MaxWeightReachedException Si le poids total après placement dépasse le poids maximum.
+     */
+    public Placement place(DimensionedChargeable item) throws MaxWeightReachedException {
+        if (item == null) {
+            throw new IllegalArgumentException("L'article à placer ne peut pas être nul.");
+        }
+        if (currentWeight + item.getWeight() > maxWeight) {
+            throw new MaxWeightReachedException("Le poids maximum du camion est atteint.", item);
+        }
+        for (Iterator<double[]> it = extremePoints.iterator(); it.hasNext(); ) {
+            double[] point = it.next();
+            Placement placement = tryAt(item, point, item.getLength(), item.getWidth());
+            if (placement == null && item.getLength() != item.getWidth()) {
+                placement = tryAt(item, point, item.getWidth(), item.getLength());
+            }
+            if (placement != null) {
+                it.remove();
+                commit(placement);
+                return placement;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Place un lot d'objets, les plus grandes bases d'abord, puis les plus hauts.
+     *
+     * @param items Les objets à placer.
+     * @return Le plan obtenu, avec les objets placés et ceux qui n'ont pas trouvé de place.
+     */
+    public PlacementPlan placeAll(Collection<? extends DimensionedChargeable> items) {
+        List<DimensionedChargeable> ordered = new ArrayList<>(items);
+        ordered.sort(Comparator.comparingDouble((DimensionedChargeable item) -> item.getLength() * item.getWidth())
+                .thenComparingDouble(DimensionedChargeable::getHeight)
+                .reversed());
+        List<Placement> placed = new ArrayList<>();
+        List<DimensionedChargeable> unplaced = new ArrayList<>();
+        for (DimensionedChargeable item : ordered) {
+            Placement placement;
+            try {
+                placement = place(item);
+            } catch (MaxWeightReachedException e) {
+                placement = null;
+            }
+            if (placement == null) {
+                unplaced.add(item);
+            } else {
+                placed.add(placement);
+            }
+        }
+        return new PlacementPlan(placed, unplaced);
+    }
+
+    /**
+     * Retourne les objets placés jusqu'ici.
+     *
+     * @return Une liste non modifiable des placements.
+     */
+    public List<Placement> getPlacements() {
+        return Collections.unmodifiableList(placements);
+    }
+
+    /**
+     * Retourne le poids total, y compris le poids déjà chargé dans le camion à la création du moteur.
+     *
+     * @return Le poids actuel.
+     */
+    public int getCurrentWeight() {
+        return currentWeight;
+    }
+
+    private Placement tryAt(DimensionedChargeable item, double[] point, double l, double w) {
+        double x = point[0];
+        double y = point[1];
+        double z = point[2];
+        double h = item.getHeight();
+        if (x + l > length + EPSILON || y + w > width + EPSILON || z + h > height + EPSILON) {
+            return null;
+        }
+        boolean free = grid.forEachNear(x, y, l, w, placements, other -> !other.overlaps(x, y, z, l, w, h));
+        if (!free || (z > EPSILON && !isSupported(x, y, z, l, w))) {
+            return null;
+        }
+        return new Placement(item, x, y, z, l, w, h);
+    }
+
+    private boolean isSupported(double x, double y, double z, double l, double w) {
+        double[] supported = new double[1];
+        boolean stackable = grid.forEachNear(x, y, l, w, placements, other -> {
+            if (Math.abs(other.getZ() + other.getHeight() - z) > EPSILON) {
+                return true;
+            }
+            double overlapX = Math.min(x + l, other.getX() + other.getLength()) - Math.max(x, other.getX());
+            double overlapY = Math.min(y + w, other.getY() + other.getWidth()) - Math.max(y, other.getY());
+            if (overlapX <= EPSILON || overlapY <= EPSILON) {
+                return true;
+            }
+            supported[0] += overlapX * overlapY;
+            return other.getItem().isStackable();
+        });
+        return stackable && supported[0] >= MIN_SUPPORT * l * w - EPSILON;
+    }
+
+    private void commit(Placement placement) {
+        grid.add(placements.size(), placement);
+        placements.add(placement);
+        currentWeight += placement.getItem().getWeight();
+        addPoint(placement.getX() + placement.getLength(), placement.getY(), placement.getZ());
+        addPoint(placement.getX(), placement.getY() + placement.getWidth(), placement.getZ());
+        addPoint(placement.getX(), placement.getY(), placement.getZ() + placement.getHeight());
+    }
+
+    private void addPoint(double x, double y, double z) {
+        if (x < length - EPSILON && y < width - EPSILON && z < height - EPSILON) {
+            extremePoints.add(new double[]{x, y, z});
+        }
+    }
+}
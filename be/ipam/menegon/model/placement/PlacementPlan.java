@@ -0,0 +1,48 @@
+package be.ipam.menegon.model.placement;
+
+import be.ipam.menegon.model.truck.DimensionedChargeable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Résultat d'un placement groupé : les objets placés avec leur position, et ceux qui n'ont pas trouvé de place.
+ *
+ * @author Dylan Menegon
+ */
+public final class PlacementPlan {
+    private final List<Placement> placements;
+    private final List<DimensionedChargeable> unplaced;
+
+    PlacementPlan(List<Placement> placements, List<DimensionedChargeable> unplaced) {
+        this.placements = Collections.unmodifiableList(placements);
+        this.unplaced = Collections.unmodifiableList(unplaced);
+    }
+
+    /**
+     * Retourne les objets placés, dans l'ordre où ils ont été placés.
+     *
+     * @return La liste des placements.
+     */
+    public List<Placement> getPlacements() {
+        return placements;
+    }
+
+    /**
+     * Retourne les objets qui n'ont pas pu être placés, faute de place ou de capacité de poids.
+     *
+     * @return La liste des objets non placés.
+     */
+    public List<DimensionedChargeable> getUnplaced() {
+        return unplaced;
+    }
+
+    /**
+     * Indique si tous les objets ont été placés.
+     *
+     * @return {@code true} si aucun objet n'est resté sans place.
+     */
+    public boolean isComplete() {
+        return unplaced.isEmpty();
+    }
+}
@@ -0,0 +1,91 @@
+package be.ipam.menegon.model.placement;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grille régulière sur le plancher de la caisse : chaque case mémorise les objets placés
+ * dont l'emprise la recouvre. Une recherche de collision ne teste ainsi que les objets voisins.
+ *
+ * @author Dylan Menegon
+ */
+final class SpatialGrid {
+    private static final int CELLS_ALONG_LONGEST_SIDE = 32;
+
+    private final double cellSize;
+    private final int cellsX;
+    private final int cellsY;
+    private final int[][] cells;
+    private final int[] cellSizes;
+    private int[] stamps; // Dernière recherche ayant vu chaque objet, pour ne le tester qu'une fois
+    private int query;
+
+    SpatialGrid(double length, double width) {
+        this.cellSize = Math.max(length, width) / CELLS_ALONG_LONGEST_SIDE;
+        this.cellsX = Math.max(1, (int) Math.ceil(length / cellSize));
+        this.cellsY = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.cells = new int[cellsX * cellsY][];
+        this.cellSizes = new int[cellsX * cellsY];
+        this.stamps = new int[16];
+    }
+
+    void add(int index, Placement placement) {
+        int x0 = cellX(placement.getX());
+        int x1 = cellX(placement.getX() + placement.getLength() - PlacementEngine.EPSILON);
+        int y0 = cellY(placement.getY());
+        int y1 = cellY(placement.getY() + placement.getWidth() - PlacementEngine.EPSILON);
+        for (int cx = x0; cx <= x1; cx++) {
+            for (int cy = y0; cy <= y1; cy++) {
+                int cell = cx * cellsY + cy;
+                if (cells[cell] == null) {
+                    cells[cell] = new int[4];
+                } else if (cellSizes[cell] == cells[cell].length) {
+                    cells[cell] = Arrays.copyOf(cells[cell], cellSizes[cell] * 2);
+                }
+                cells[cell][cellSizes[cell]++] = index;
+            }
+        }
+        if (index >= stamps.length) {
+            stamps = Arrays.copyOf(stamps, Math.max(index + 1, stamps.length * 2));
+        }
+    }
+
+    /**
+     * Appelle l'action pour chaque objet dont l'emprise au sol recoupe le rectangle donné.
+     * L'action retourne {@code false} pour interrompre la recherche.
+     */
+    boolean forEachNear(double x, double y, double length, double width, List<Placement> placements, Visitor visitor) {
+        query++;
+        int x0 = cellX(x);
+        int x1 = cellX(x + length - PlacementEngine.EPSILON);
+        int y0 = cellY(y);
+        int y1 = cellY(y + width - PlacementEngine.EPSILON);
+        for (int cx = x0; cx <= x1; cx++) {
+            for (int cy = y0; cy <= y1; cy++) {
+                int cell = cx * cellsY + cy;
+                for (int i = 0; i < cellSizes[cell]; i++) {
+                    int index = cells[cell][i];
+                    if (stamps[index] != query) {
+                        stamps[index] = query;
+                        if (!visitor.visit(placements.get(index))) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private int cellX(double x) {
+        return Math.min(cellsX - 1, Math.max(0, (int) (x / cellSize)));
+    }
+
+    private int cellY(double y) {
+        return Math.min(cellsY - 1, Math.max(0, (int) (y / cellSize)));
+    }
+
+    interface Visitor {
+        boolean visit(Placement placement);
+    }
+}
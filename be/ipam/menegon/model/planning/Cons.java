@@ -0,0 +1,79 @@
+package be.ipam.menegon.model.planning;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Liste chaînée persistante : ajouter un élément crée une cellule qui partage toute la suite.
+ * Les scénarios dérivés d'un même instantané partagent ainsi les segments qu'ils n'ont pas modifiés.
+ *
+ * @author Dylan Menegon
+ */
+final class Cons<T> {
+    final T head;
+    final Cons<T> tail;
+    final int size;
+
+    private Cons(T head, Cons<T> tail) {
+        this.head = head;
+        this.tail = tail;
+        this.size = tail == null ? 1 : tail.size + 1;
+    }
+
+    static <T> Cons<T> push(Cons<T> list, T value) {
+        return new Cons<>(value, list);
+    }
+
+    static int size(Cons<?> list) {
+        return list == null ? 0 : list.size;
+    }
+
+    /**
+     * Retire la cellule la plus récente contenant la valeur (comparée par equals) ; seules les cellules
+     * qui la précèdent sont recopiées. Retourne la même liste si la valeur est absente.
+     */
+    static <T> Cons<T> remove(Cons<T> list, Object value) {
+        List<T> prefix = new ArrayList<>();
+        for (Cons<T> cell = list; cell != null; cell = cell.tail) {
+            if (cell.head.equals(value)) {
+                Cons<T> result = cell.tail;
+                for (int i = prefix.size() - 1; i >= 0; i--) {
+                    result = push(result, prefix.get(i));
+                }
+                return result;
+            }
+            prefix.add(cell.head);
+        }
+        return list;
+    }
+
+    static <T> T find(Cons<T> list, Object value) {
+        for (Cons<T> cell = list; cell != null; cell = cell.tail) {
+            if (cell.head.equals(value)) {
+                return cell.head;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retourne les valeurs dans l'ordre où elles ont été ajoutées.
+     */
+    static <T> List<T> toList(Cons<T> list) {
+        List<T> result = new ArrayList<>(size(list));
+        for (Cons<T> cell = list; cell != null; cell = cell.tail) {
+            result.add(cell.head);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    static <T> Cons<T> of(Iterable<? extends T> values) {
+        Cons<T> list = null;
+        for (T value : values) {
+            list = push(list, value);
+        }
+        return list;
+    }
+}
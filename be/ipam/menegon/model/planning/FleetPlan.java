@@ -0,0 +1,143 @@
+package be.ipam.menegon.model.planning;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Résultat de {@link FleetSizingPlanner} : le mélange de camions retenu, son coût, et les bornes inférieures
+ * qui encadrent le coût optimal. Le coût optimal est compris entre {@link #getLowerBound()} et {@link #getCost()}.
+ *
+ * @author Dylan Menegon
+ */
+public final class FleetPlan {
+    private final Map<TruckType, Integer> trucks;
+    private final double cost;
+    private final double continuousLowerBound;
+    private final double dimensionLowerBound;
+    private final int itemCount;
+    private final long totalWeight;
+    private final double totalVolume;
+
+    FleetPlan(Map<TruckType, Integer> trucks, double cost, double continuousLowerBound, double dimensionLowerBound,
+              int itemCount, long totalWeight, double totalVolume) {
+        this.trucks = Collections.unmodifiableMap(trucks);
+        this.cost = cost;
+        this.continuousLowerBound = continuousLowerBound;
+        this.dimensionLowerBound = dimensionLowerBound;
+        this.itemCount = itemCount;
+        this.totalWeight = totalWeight;
+        this.totalVolume = totalVolume;
+    }
+
+    /**
+     * Retourne le nombre de camions de chaque type à réserver.
+     *
+     * @return Une table non modifiable du nombre de camions par type, dans l'ordre du catalogue.
+     */
+    public Map<TruckType, Integer> getTrucks() {
+        return trucks;
+    }
+
+    /**
+     * Retourne le nombre total de camions à réserver.
+     *
+     * @return Le nombre de camions.
+     */
+    public int getTruckCount() {
+        int count = 0;
+        for (int n : trucks.values()) {
+            count += n;
+        }
+        return count;
+    }
+
+    /**
+     * Retourne le coût du mélange de camions retenu, qui est une borne supérieure du coût optimal.
+     *
+     * @return Le coût total.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Retourne la borne continue : le coût minimal pour couvrir le poids et le volume totaux
+     * avec des fractions de camions, sans tenir compte de la taille des éléments.
+     *
+     * @return La borne continue.
+     */
+    public double getContinuousLowerBound() {
+        return continuousLowerBound;
+    }
+
+    /**
+     * Retourne la borne dimensionnelle : le coût minimal des camions nécessaires aux éléments
+     * assez lourds ou assez volumineux pour ne jamais partager un camion, et au moins le coût du camion
+     * le moins cher qui porte le plus exigeant des éléments.
+     *
+     * @return La borne dimensionnelle.
+     */
+    public double getDimensionLowerBound() {
+        return dimensionLowerBound;
+    }
+
+    /**
+     * Retourne la meilleure borne inférieure du coût optimal.
+     *
+     * @return La plus grande des bornes continue et dimensionnelle.
+     */
+    public double getLowerBound() {
+        return Math.max(continuousLowerBound, dimensionLowerBound);
+    }
+
+    /**
+     * Retourne l'écart entre le coût retenu et la borne inférieure.
+     *
+     * @return L'écart absolu.
+     */
+    public double getGap() {
+        return Math.max(0, cost - getLowerBound());
+    }
+
+    /**
+     * Retourne l'écart entre le coût retenu et la borne inférieure, rapporté au coût retenu.
+     *
+     * @return L'écart relatif, entre 0 et 1.
+     */
+    public double getRelativeGap() {
+        return cost > 0 ? getGap() / cost : 0;
+    }
+
+    /**
+     * Retourne le nombre d'éléments du manifeste.
+     *
+     * @return Le nombre d'éléments.
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Retourne le poids total du manifeste.
+     *
+     * @return Le poids total.
+     */
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Retourne le volume total du manifeste.
+     *
+     * @return Le volume total.
+     */
+    public double getTotalVolume() {
+        return totalVolume;
+    }
+
+    @Override
+    public String toString() {
+        return "FleetPlan [Trucks=" + getTruckCount() + ", Cost=" + cost + ", LowerBound=" + getLowerBound()
+                + ", Gap=" + getGap() + "]";
+    }
+}
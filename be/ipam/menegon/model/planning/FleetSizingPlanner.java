@@ -0,0 +1,288 @@
+package be.ipam.menegon.model.planning;
+
+import be.ipam.menegon.model.monitoring.PackingEvent;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Estime le mélange de camions le moins coûteux pour transporter un manifeste, sans construire de {@link be.ipam.menegon.model.truck.Camion}.
+ * Le problème est un rangement en boîtes de tailles variables à deux dimensions (poids et volume).
+ *
+ * Le coût optimal est encadré :
+ * <ul>
+ *     <li>borne continue : programme linéaire à deux contraintes (poids et volume totaux), dont l'optimum
+ *     combine au plus deux types de camions ;</li>
+ *     <li>borne dimensionnelle : deux éléments de plus de la moitié du plus grand poids (ou du plus grand volume)
+ *     du catalogue ne peuvent pas partager un camion, chacun coûte donc au moins le type le moins cher qui le porte ;
+ *     dans tous les cas, il faut au moins le type le moins cher qui porte le plus exigeant des éléments ;</li>
+ *     <li>borne supérieure : remplissage équilibré des camions, en alternant les éléments qui sollicitent surtout
+ *     le poids et ceux qui sollicitent surtout le volume pour que les deux capacités s'épuisent ensemble ;
+ *     le remplissage est essayé avec chaque type comme type principal en parallèle, puis chaque camion est
+ *     remplacé par le type le moins cher qui porte son chargement.</li>
+ * </ul>
+ * Les éléments sont lus une seule fois dans des tableaux primitifs ; chaque remplissage se résume à un tri
+ * et à un parcours linéaire, ce qui permet de traiter un million d'éléments en quelques secondes.
+ *
+ * @author Dylan Menegon
+ */
+public class FleetSizingPlanner {
+    private final TruckType[] types; // Par coût croissant
+    private final List<TruckType> catalogue;
+
+    /**
+     * Constructeur pour initialiser un planificateur.
+     *
+     * @param catalogue Les types de camions disponibles. Ne peut pas être null ou vide.
+     * @throws IllegalArgumentException Si le catalogue est null, vide ou contient null.
+     */
+    public FleetSizingPlanner(List<TruckType> catalogue) {
+        if (catalogue == null || catalogue.isEmpty() || catalogue.contains(null)) {
+            throw new IllegalArgumentException("Le catalogue doit contenir au moins un type de camion.");
+        }
+        this.catalogue = new ArrayList<>(catalogue);
+        this.types = catalogue.toArray(new TruckType[0]);
+        Arrays.sort(types, Comparator.comparingDouble(TruckType::getCost));
+    }
+
+    /**
+     * Calcule le mélange de camions pour un manifeste.
+     *
+     * @param items Les éléments du manifeste. Ne peut pas être null ; le flux est consommé.
+     * @return Le plan, avec son coût et ses bornes inférieures.
+     * @throws IllegalArgumentException Si le flux est null, contient null, ou si un élément ne tient dans aucun type de camion.
+     */
+    public FleetPlan plan(Stream<? extends Chargeable> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("Le flux des éléments ne peut pas être null.");
+        }
+        PackingEvent event = new PackingEvent(null, "planning");
+        Manifest manifest = new Manifest();
+        Iterator<? extends Chargeable> iterator = items.iterator();
+        try {
+            while (iterator.hasNext()) {
+                manifest.add(iterator.next());
+            }
+        } catch (RuntimeException e) {
+            event.fail(manifest.size, e);
+            throw e;
+        }
+
+        int n = manifest.size;
+        int[] weights = manifest.weights;
+        double[] volumes = manifest.volumes;
+        int[] cheapest = manifest.cheapest;
+        int maxWeight = 0;
+        double maxVolume = 0;
+        for (TruckType type : types) {
+            maxWeight = Math.max(maxWeight, type.getMaxWeight());
+            maxVolume = Math.max(maxVolume, type.getMaxVolume());
+        }
+
+        // Borne dimensionnelle : chaque élément qui ne peut partager aucun camion coûte au moins le type le moins cher qui le porte
+        double heavyCost = 0;
+        double bulkyCost = 0;
+        double largestCost = 0;
+        for (int i = 0; i < n; i++) {
+            largestCost = Math.max(largestCost, types[cheapest[i]].getCost());
+            if (2L * weights[i] > maxWeight) {
+                heavyCost += types[cheapest[i]].getCost();
+            }
+            if (2 * volumes[i] > maxVolume) {
+                bulkyCost += types[cheapest[i]].getCost();
+            }
+        }
+        double continuous = continuousBound(manifest.totalWeight, manifest.totalVolume);
+        double dimension = Math.max(largestCost, Math.max(heavyCost, bulkyCost));
+
+        int[] best = IntStream.range(0, types.length).parallel()
+                .mapToObj(primary -> pack(primary, n, weights, volumes, cheapest))
+                .min(Comparator.comparingDouble(this::cost))
+                .orElse(new int[types.length]);
+
+        Map<TruckType, Integer> trucks = new LinkedHashMap<>();
+        for (TruckType type : catalogue) {
+            int index = Arrays.asList(types).indexOf(type);
+            if (best[index] > 0) {
+                trucks.merge(type, best[index], Integer::sum);
+            }
+        }
+        event.succeed(n);
+        return new FleetPlan(trucks, cost(best), continuous, dimension, n, manifest.totalWeight, manifest.totalVolume);
+    }
+
+    /**
+     * Range les éléments dans des camions du type principal ; les éléments trop grands pour ce type sont rangés
+     * à part, dans des camions du type le moins cher qui les porte. Chaque camion est ensuite remplacé par le type
+     * le moins cher qui porte son chargement.
+     *
+     * @return Le nombre de camions de chaque type, dans l'ordre de {@link #types}.
+     */
+    private int[] pack(int primary, int n, int[] weights, double[] volumes, int[] cheapest) {
+        int[][] groups = new int[types.length][];
+        int[] sizes = new int[types.length];
+        for (int i = 0; i < n; i++) {
+            int t = types[primary].fits(weights[i], volumes[i]) ? primary : cheapest[i];
+            if (groups[t] == null) {
+                groups[t] = new int[t == primary ? n : 16];
+            } else if (sizes[t] == groups[t].length) {
+                groups[t] = Arrays.copyOf(groups[t], sizes[t] * 2);
+            }
+            groups[t][sizes[t]++] = i;
+        }
+        int[] counts = new int[types.length];
+        for (int t = 0; t < types.length; t++) {
+            if (sizes[t] > 0) {
+                fill(types[t], groups[t], sizes[t], weights, volumes, counts);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Remplissage équilibré : les éléments sont triés de celui qui sollicite le plus le volume à celui qui sollicite
+     * le plus le poids, et chaque camion est rempli par l'une ou l'autre extrémité selon la capacité la moins entamée,
+     * de sorte que le poids et le volume s'épuisent ensemble. Un camion est fermé quand aucune extrémité n'y tient.
+     */
+    private void fill(TruckType type, int[] group, int size, int[] weights, double[] volumes, int[] counts) {
+        double maxWeight = Math.max(type.getMaxWeight(), 1);
+        double maxVolume = type.getMaxVolume() > 0 ? type.getMaxVolume() : 1;
+        // Clé de tri : l'écart entre les parts de poids et de volume (flottant signé rendu ordonnable) puis l'indice
+        long[] order = new long[size];
+        for (int k = 0; k < size; k++) {
+            int i = group[k];
+            int bits = Float.floatToIntBits((float) (weights[i] / maxWeight - volumes[i] / maxVolume));
+            bits ^= (bits >> 31) & 0x7FFFFFFF;
+            order[k] = ((long) bits << 32) | i;
+        }
+        Arrays.parallelSort(order);
+
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int weight = 0;
+            double volume = 0;
+            while (low <= high) {
+                boolean volumeFirst = weight / maxWeight >= volume / maxVolume;
+                int first = (int) order[volumeFirst ? low : high];
+                int second = (int) order[volumeFirst ? high : low];
+                int taken;
+                if (type.fits(weight + weights[first], volume + volumes[first])) {
+                    taken = first;
+                    if (volumeFirst) {
+                        low++;
+                    } else {
+                        high--;
+                    }
+                } else if (type.fits(weight + weights[second], volume + volumes[second])) {
+                    taken = second;
+                    if (volumeFirst) {
+                        high--;
+                    } else {
+                        low++;
+                    }
+                } else {
+                    break;
+                }
+                weight += weights[taken];
+                volume += volumes[taken];
+            }
+            counts[cheapestFitting(weight, volume)]++;
+        }
+    }
+
+    /**
+     * Optimum du programme linéaire : minimiser le coût de fractions de camions dont les capacités couvrent
+     * le poids et le volume totaux. Un sommet optimal utilise un seul type, ou deux types dont les capacités
+     * couvrent exactement les deux totaux.
+     */
+    private double continuousBound(long totalWeight, double totalVolume) {
+        if (totalWeight == 0 && totalVolume == 0) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int t = 0; t < types.length; t++) {
+            TruckType a = types[t];
+            double trucks = Math.max(share(totalWeight, a.getMaxWeight()), share(totalVolume, a.getMaxVolume()));
+            best = Math.min(best, trucks * a.getCost());
+            for (int u = t + 1; u < types.length; u++) {
+                TruckType b = types[u];
+                double determinant = (double) a.getMaxWeight() * b.getMaxVolume() - (double) b.getMaxWeight() * a.getMaxVolume();
+                if (determinant == 0) {
+                    continue;
+                }
+                double x = (totalWeight * b.getMaxVolume() - b.getMaxWeight() * totalVolume) / determinant;
+                double y = (a.getMaxWeight() * totalVolume - totalWeight * a.getMaxVolume()) / determinant;
+                if (x >= 0 && y >= 0) {
+                    best = Math.min(best, x * a.getCost() + y * b.getCost());
+                }
+            }
+        }
+        return best;
+    }
+
+    private static double share(double total, double capacity) {
+        if (total <= 0) {
+            return 0;
+        }
+        return capacity > 0 ? total / capacity : Double.POSITIVE_INFINITY;
+    }
+
+    private int cheapestFitting(int weight, double volume) {
+        for (int t = 0; t < types.length; t++) {
+            if (types[t].fits(weight, volume)) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    private double cost(int[] counts) {
+        double cost = 0;
+        for (int t = 0; t < types.length; t++) {
+            cost += counts[t] * types[t].getCost();
+        }
+        return cost;
+    }
+
+    /**
+     * Poids, volumes et type le moins cher de chaque élément, lus dans des tableaux primitifs extensibles.
+     */
+    private final class Manifest {
+        private int[] weights = new int[1024];
+        private double[] volumes = new double[1024];
+        private int[] cheapest = new int[1024];
+        private int size;
+        private long totalWeight;
+        private double totalVolume;
+
+        void add(Chargeable item) {
+            if (item == null) {
+                throw new IllegalArgumentException("Le manifeste ne peut pas contenir d'élément null.");
+            }
+            int type = cheapestFitting(item.getWeight(), item.getVolume());
+            if (type < 0) {
+                throw new IllegalArgumentException("L'article " + item.getId() + " ne tient dans aucun type de camion.");
+            }
+            if (size == weights.length) {
+                weights = Arrays.copyOf(weights, size * 2);
+                volumes = Arrays.copyOf(volumes, size * 2);
+                cheapest = Arrays.copyOf(cheapest, size * 2);
+            }
+            weights[size] = item.getWeight();
+            volumes[size] = item.getVolume();
+            cheapest[size] = type;
+            totalWeight += item.getWeight();
+            totalVolume += item.getVolume();
+            size++;
+        }
+    }
+}
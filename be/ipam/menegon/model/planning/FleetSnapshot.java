@@ -0,0 +1,122 @@
+package be.ipam.menegon.model.planning;
+
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Instantané immuable de la flotte d'un Loadmaster, point de départ de scénarios de planification.
+ * Les scénarios dérivés ({@link #fork()}) partagent les états des camions qu'ils ne modifient pas,
+ * et peuvent être évalués en parallèle sans jamais toucher aux camions réels.
+ *
+ * @author Dylan Menegon
+ */
+public final class FleetSnapshot {
+
+    /**
+     * Plan de chargement appliqué à un scénario.
+     */
+    @FunctionalInterface
+    public interface Plan {
+        /**
+         * Applique le plan au scénario.
+         *
+         * @param scenario Le scénario à modifier.
+         * @throws Exception Si le plan ne peut pas être appliqué ; l'exception est conservée dans le scénario.
+         */
+        void apply(Scenario scenario) throws Exception;
+    }
+
+    private final Loadmaster source;
+    private final Map<String, TruckState> trucks;
+
+    private FleetSnapshot(Loadmaster source, Map<String, TruckState> trucks) {
+        this.source = source;
+        this.trucks = trucks;
+    }
+
+    /**
+     * Capture l'état actuel de tous les camions d'un Loadmaster.
+     *
+     * @param loadmaster Le Loadmaster à capturer. Ne peut pas être null.
+     * @return L'instantané de la flotte du Loadmaster.
+     * @throws IllegalArgumentException Si le Loadmaster est null.
+     */
+    public static FleetSnapshot of(Loadmaster loadmaster) {
+        if (loadmaster == null) {
+            throw new IllegalArgumentException("Le Loadmaster ne peut pas être nul.");
+        }
+        Map<String, TruckState> trucks = new HashMap<>();
+        // Chaque camion est capturé dans une version cohérente, mais sans coupe globale entre les camions ;
+        // Scenario.commit revérifie la version de chaque camion modifié sous son verrou
+        for (CamionSnapshot camion : loadmaster.snapshot().getCamions().values()) {
+            trucks.put(camion.getId(), TruckState.of(camion));
+        }
+        return new FleetSnapshot(loadmaster, Collections.unmodifiableMap(trucks));
+    }
+
+    /**
+     * Crée un scénario vierge à partir de cet instantané. Aucune donnée n'est copiée.
+     *
+     * @return Un nouveau scénario.
+     */
+    public Scenario fork() {
+        return new Scenario(this);
+    }
+
+    /**
+     * Évalue plusieurs plans en parallèle, chacun sur son propre scénario dérivé de cet instantané.
+     *
+     * @param plans Les plans à évaluer.
+     * @param pool Le pool fork/join dans lequel évaluer les plans.
+     * @return Les scénarios obtenus, dans l'ordre des plans.
+     */
+    public List<Scenario> runScenarios(List<? extends Plan> plans, ForkJoinPool pool) {
+        return pool.submit(() -> plans.parallelStream()
+                .map(plan -> {
+                    Scenario scenario = fork();
+                    try {
+                        plan.apply(scenario);
+                    } catch (Exception e) {
+                        scenario.fail(e);
+                    }
+                    return scenario;
+                })
+                .collect(Collectors.toList())).join();
+    }
+
+    /**
+     * Retourne l'état capturé d'un camion.
+     *
+     * @param camionId L'identifiant du camion.
+     * @return L'état du camion, ou {@code null} si le camion ne fait pas partie de l'instantané.
+     */
+    public TruckState getTruck(String camionId) {
+        return trucks.get(camionId);
+    }
+
+    /**
+     * Retourne les identifiants des camions capturés.
+     *
+     * @return Les identifiants des camions.
+     */
+    public Set<String> getTruckIds() {
+        return trucks.keySet();
+    }
+
+    /**
+     * Retourne le Loadmaster dont la flotte a été capturée.
+     *
+     * @return Le Loadmaster d'origine.
+     */
+    public Loadmaster getSource() {
+        return source;
+    }
+}
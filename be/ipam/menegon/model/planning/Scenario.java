@@ -0,0 +1,165 @@
+package be.ipam.menegon.model.planning;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.exceptions.TruckNotSettedException;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Scénario de planification « et si » dérivé d'un {@link FleetSnapshot}.
+ * Seuls les camions modifiés reçoivent un nouvel état ; les autres restent partagés avec l'instantané.
+ * Un scénario retenu peut être appliqué aux camions réels par {@link #commit()} si ceux-ci
+ * n'ont pas changé depuis l'instantané : seule la différence nette de chaque camion modifié est reportée.
+ * Un scénario n'est pas thread-safe, mais plusieurs scénarios peuvent être utilisés en parallèle.
+ *
+ * @author Dylan Menegon
+ */
+public class Scenario {
+    private final FleetSnapshot snapshot;
+    private final Map<String, TruckState> modified;
+    private Exception failure;
+
+    Scenario(FleetSnapshot snapshot) {
+        this(snapshot, new HashMap<>());
+    }
+
+    private Scenario(FleetSnapshot snapshot, Map<String, TruckState> modified) {
+        this.snapshot = snapshot;
+        this.modified = modified;
+    }
+
+    /**
+     * Charge un élément dans un camion du scénario.
+     *
+     * @param camionId L'identifiant du camion.
+     * @param item L'élément à charger.
+     * @throws MaxWeightReachedException Si le poids total du camion dépasse la capacité maximale après le chargement.
+     * @throws MaxVolumeReachedException Si le volume total du camion dépasse la capacité maximale après le chargement.
+     * @throws TruckNotSettedException Si le camion ne fait pas partie de l'instantané.
+     */
+    public void load(String camionId, Chargeable item)
+            throws MaxWeightReachedException, MaxVolumeReachedException, TruckNotSettedException {
+        TruckState state = requireTruck(camionId);
+        modified.put(camionId, state.withLoaded(item));
+    }
+
+    /**
+     * Décharge un élément d'un camion du scénario.
+     *
+     * @param camionId L'identifiant du camion.
+     * @param item L'élément à décharger.
+     * @throws TruckNotSettedException Si le camion ne fait pas partie de l'instantané.
+     * @throws IllegalArgumentException Si l'élément est null ou n'est pas chargé dans le camion.
+     */
+    public void unload(String camionId, Chargeable item) throws TruckNotSettedException {
+        TruckState state = requireTruck(camionId);
+        modified.put(camionId, state.withUnloaded(item));
+    }
+
+    /**
+     * Crée un scénario dérivé de celui-ci. Seule la table des camions modifiés est recopiée ;
+     * les états des camions sont partagés.
+     *
+     * @return Le nouveau scénario.
+     */
+    public Scenario fork() {
+        return new Scenario(snapshot, new HashMap<>(modified));
+    }
+
+    /**
+     * Retourne l'état d'un camion dans ce scénario.
+     *
+     * @param camionId L'identifiant du camion.
+     * @return L'état du camion, ou {@code null} si le camion ne fait pas partie de l'instantané.
+     */
+    public TruckState getTruck(String camionId) {
+        TruckState state = modified.get(camionId);
+        return state != null ? state : snapshot.getTruck(camionId);
+    }
+
+    /**
+     * Retourne le nombre de camions modifiés par ce scénario.
+     *
+     * @return Le nombre de camions modifiés.
+     */
+    public int getModifiedTruckCount() {
+        return modified.size();
+    }
+
+    /**
+     * Retourne l'exception levée par le plan qui a construit ce scénario, le cas échéant.
+     *
+     * @return L'exception du plan, ou {@code null} si le plan a abouti.
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * Applique ce scénario aux camions réels du Loadmaster d'origine, en une seule opération
+     * (voir {@link be.ipam.menegon.model.loadmaster.Loadmaster#applyChanges(Map, Map, Map)}) : les verrous des camions
+     * modifiés sont pris dans l'ordre de leurs identifiants et leurs versions revérifiées sous ces verrous.
+     * Aucun camion n'est modifié si l'un des camions concernés a changé depuis l'instantané ou si un chargement
+     * est refusé.
+     *
+     * @throws IllegalStateException Si le plan a échoué ou si un camion concerné a été modifié depuis l'instantané.
+     * @throws TruckNotSettedException Si un camion concerné n'est plus géré par le Loadmaster.
+     * @throws MaxWeightReachedException Si le poids maximum d'un camion est dépassé.
+     * @throws MaxVolumeReachedException Si le volume maximum d'un camion est dépassé.
+     * @throws IllegalArgumentException Si un élément chargé par le scénario porte l'ID d'un élément chargé entre-temps ailleurs.
+     */
+    public void commit() throws TruckNotSettedException, MaxWeightReachedException, MaxVolumeReachedException {
+        if (failure != null) {
+            throw new IllegalStateException("Le scénario a échoué et ne peut pas être appliqué : " + failure.getMessage());
+        }
+        Map<String, Long> versions = new HashMap<>();
+        Map<String, List<Chargeable>> unloads = new HashMap<>();
+        Map<String, List<Chargeable>> loads = new HashMap<>();
+        for (Map.Entry<String, TruckState> entry : modified.entrySet()) {
+            String camionId = entry.getKey();
+            List<Chargeable> before = snapshot.getTruck(camionId).getLoad();
+            List<Chargeable> after = entry.getValue().getLoad();
+            // Les éléments sont comparés par identité : ce sont les instances des camions réels ou celles du plan
+            Set<Chargeable> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+            kept.addAll(after);
+            Set<Chargeable> initial = Collections.newSetFromMap(new IdentityHashMap<>());
+            initial.addAll(before);
+            List<Chargeable> unloaded = new ArrayList<>();
+            for (Chargeable item : before) {
+                if (!kept.contains(item)) {
+                    unloaded.add(item);
+                }
+            }
+            List<Chargeable> loaded = new ArrayList<>();
+            for (Chargeable item : after) {
+                if (!initial.contains(item)) {
+                    loaded.add(item);
+                }
+            }
+            versions.put(camionId, entry.getValue().getBaseVersion());
+            unloads.put(camionId, unloaded);
+            loads.put(camionId, loaded);
+        }
+        snapshot.getSource().applyChanges(versions, unloads, loads);
+    }
+
+    void fail(Exception e) {
+        this.failure = e;
+    }
+
+    private TruckState requireTruck(String camionId) throws TruckNotSettedException {
+        TruckState state = getTruck(camionId);
+        if (state == null) {
+            throw new TruckNotSettedException("Le camion avec l'ID " + camionId + " n'est pas défini.");
+        }
+        return state;
+    }
+}
@@ -0,0 +1,154 @@
+package be.ipam.menegon.model.planning;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.List;
+
+/**
+ * État immuable d'un camion dans un instantané ou un scénario de planification.
+ * Charger ou décharger produit un nouvel état qui partage le reste du chargement avec l'ancien.
+ *
+ * @author Dylan Menegon
+ */
+public final class TruckState {
+    private final String id;
+    private final int maxWeight;
+    private final double maxVolume;
+    private final int currentWeight;
+    private final double currentVolume;
+    private final Cons<Chargeable> load;
+    private final long baseVersion;
+
+    private TruckState(String id, int maxWeight, double maxVolume, int currentWeight, double currentVolume,
+                       Cons<Chargeable> load, long baseVersion) {
+        this.id = id;
+        this.maxWeight = maxWeight;
+        this.maxVolume = maxVolume;
+        this.currentWeight = currentWeight;
+        this.currentVolume = currentVolume;
+        this.load = load;
+        this.baseVersion = baseVersion;
+    }
+
+    static TruckState of(CamionSnapshot camion) {
+        return new TruckState(camion.getId(), camion.getMaxWeight(), camion.getMaxVolume(),
+                camion.getCurrentWeight(), camion.getCurrentVolume(), Cons.of(camion.getLoad()), camion.getVersion());
+    }
+
+    /**
+     * Retourne un nouvel état avec l'élément chargé, selon les mêmes règles que {@link Camion#load(Chargeable)}.
+     *
+     * @param item L'élément à charger. Ne peut pas être null.
+     * @return Le nouvel état du camion.
+     * @throws MaxWeightReachedException Si le poids total après chargement dépasse la capacité maximale du camion.
+     * @throws MaxVolumeReachedException Si le volume total après chargement dépasse la capacité maximale du camion.
+     */
+    public TruckState withLoaded(Chargeable item) throws MaxWeightReachedException, MaxVolumeReachedException {
+        if (item == null) {
+            throw new IllegalArgumentException("L'article à charger ne peut pas être nul.");
+        }
+        if (currentWeight + item.getWeight() > maxWeight) {
+            throw new MaxWeightReachedException("Le poids maximum du camion est atteint.", item);
+        }
+        if (currentVolume + item.getVolume() > maxVolume) {
+            throw new MaxVolumeReachedException("Le volume maximum du camion est atteint.", item);
+        }
+        return new TruckState(id, maxWeight, maxVolume, currentWeight + item.getWeight(),
+                currentVolume + item.getVolume(), Cons.push(load, item), baseVersion);
+    }
+
+    /**
+     * Retourne un nouvel état sans l'élément, selon les mêmes règles que {@link Camion#unload(Chargeable)}.
+     *
+     * @param item L'élément à décharger. Ne peut pas être null.
+     * @return Le nouvel état du camion.
+     * @throws IllegalArgumentException Si l'élément est null ou n'est pas chargé dans le camion.
+     */
+    public TruckState withUnloaded(Chargeable item) {
+        if (item == null) {
+            throw new IllegalArgumentException("L'article à décharger ne peut pas être nul.");
+        }
+        Chargeable removed = Cons.find(load, item);
+        if (removed == null) {
+            throw new IllegalArgumentException("L'article à décharger n'est pas trouvé dans le camion.");
+        }
+        return new TruckState(id, maxWeight, maxVolume, currentWeight - removed.getWeight(),
+                currentVolume - removed.getVolume(), Cons.remove(load, item), baseVersion);
+    }
+
+    /**
+     * Retourne l'identifiant du camion.
+     *
+     * @return L'identifiant du camion.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Retourne le poids maximum du camion.
+     *
+     * @return Le poids maximum du camion.
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Retourne le volume maximum du camion.
+     *
+     * @return Le volume maximum du camion.
+     */
+    public double getMaxVolume() {
+        return maxVolume;
+    }
+
+    /**
+     * Retourne le poids chargé dans cet état.
+     *
+     * @return Le poids actuel du camion.
+     */
+    public int getCurrentWeight() {
+        return currentWeight;
+    }
+
+    /**
+     * Retourne le volume chargé dans cet état.
+     *
+     * @return Le volume actuel du camion.
+     */
+    public double getCurrentVolume() {
+        return currentVolume;
+    }
+
+    /**
+     * Retourne le nombre d'éléments chargés.
+     *
+     * @return Le nombre d'éléments.
+     */
+    public int getItemCount() {
+        return Cons.size(load);
+    }
+
+    /**
+     * Retourne une copie du chargement, dans l'ordre de chargement.
+     *
+     * @return La liste des éléments chargés.
+     */
+    public List<Chargeable> getLoad() {
+        return Cons.toList(load);
+    }
+
+    /**
+     * Retourne la version du camion réel au moment de l'instantané.
+     *
+     * @return La version de référence du camion.
+     */
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+}
@@ -0,0 +1,107 @@
+package be.ipam.menegon.model.planning;
+
+import java.util.Objects;
+
+/**
+ * Type de camion proposé par un transporteur : ses capacités et le coût d'une réservation.
+ *
+ * @author Dylan Menegon
+ */
+public final class TruckType {
+    private final String name;
+    private final int maxWeight;
+    private final double maxVolume;
+    private final double cost;
+
+    /**
+     * Constructeur pour initialiser un type de camion.
+     *
+     * @param name Le nom du type. Ne peut pas être null ou vide.
+     * @param maxWeight Le poids maximum qu'un camion de ce type peut supporter. Doit être positif.
+     * @param maxVolume Le volume maximum qu'un camion de ce type peut supporter. Doit être positif.
+     * @param cost Le coût d'un camion de ce type. Doit être positif.
+     * @throws IllegalArgumentException Si un paramètre est invalide.
+     */
+    public TruckType(String name, int maxWeight, double maxVolume, double cost) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Le nom du type de camion ne peut pas être vide.");
+        }
+        if (maxWeight < 0 || maxVolume < 0 || Double.isNaN(maxVolume) || Double.isInfinite(maxVolume)) {
+            throw new IllegalArgumentException("Les capacités du type de camion doivent être positives.");
+        }
+        if (cost < 0 || Double.isNaN(cost) || Double.isInfinite(cost)) {
+            throw new IllegalArgumentException("Le coût du type de camion doit être positif.");
+        }
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.maxVolume = maxVolume;
+        this.cost = cost;
+    }
+
+    /**
+     * Retourne le nom du type.
+     *
+     * @return Le nom du type.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retourne le poids maximum d'un camion de ce type.
+     *
+     * @return Le poids maximum.
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Retourne le volume maximum d'un camion de ce type.
+     *
+     * @return Le volume maximum.
+     */
+    public double getMaxVolume() {
+        return maxVolume;
+    }
+
+    /**
+     * Retourne le coût d'un camion de ce type.
+     *
+     * @return Le coût.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Indique si un élément de poids et de volume donnés tient seul dans un camion de ce type.
+     *
+     * @param weight Le poids de l'élément.
+     * @param volume Le volume de l'élément.
+     * @return {@code true} si l'élément tient, sinon {@code false}.
+     */
+    public boolean fits(int weight, double volume) {
+        return weight <= maxWeight && volume <= maxVolume;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TruckType that = (TruckType) o;
+        return maxWeight == that.maxWeight && Double.compare(that.maxVolume, maxVolume) == 0
+                && Double.compare(that.cost, cost) == 0 && name.equals(that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, maxWeight, maxVolume, cost);
+    }
+
+    @Override
+    public String toString() {
+        return "TruckType [Name=" + name + ", MaxWeight=" + maxWeight + " kg, MaxVolume=" + maxVolume
+                + " m³, Cost=" + cost + "]";
+    }
+}
@@ -0,0 +1,390 @@
+package be.ipam.menegon.model.query;
+
+import be.ipam.menegon.model.loadmaster.FleetDirectory;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.loadmaster.LoadmasterSnapshot;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.LoadColumns;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Requête sur les camions et les éléments d'une ou plusieurs flottes, par exemple :
+ * <pre>
+ * FleetQuery.fleet()
+ *         .whereTruck(truck -&gt; truck.getVolumeRatio() &lt; 0.4)
+ *         .whereItemType(Palette.class)
+ *         .whereItemWeight(1001, Integer.MAX_VALUE)
+ *         .groupTrucks(TruckRow::getLoadmaster, Collectors.toList());
+ * </pre>
+ *
+ * La requête fige à sa création la version publiée de chaque Loadmaster : toutes ses réponses portent
+ * sur ce même état, sans prendre de verrou, même si les chargements continuent. Les filtres se cumulent ;
+ * chaque méthode {@code where...} retourne une nouvelle requête.
+ *
+ * Les réponses sont calculées par des flux parallèles (fork/join) répartis entre les camions, et les flux
+ * retournés sont paresseux. Les filtres de poids et de volume sont appliqués avant tout autre, dans l'index
+ * en colonnes de la version du camion ({@link CamionSnapshot#columns()}) : un camion dont l'élément le plus lourd
+ * ou le plus volumineux est sous la borne minimale est écarté, puis l'intervalle de poids est trouvé
+ * par dichotomie et le volume est comparé dans un tableau primitif. Cet index est construit
+ * à la première requête sur une version puis réutilisé : seuls les camions modifiés depuis la requête
+ * précédente le reconstruisent.
+ *
+ * @author Dylan Menegon
+ */
+public final class FleetQuery {
+    private final List<TruckRow> trucks;
+    private Predicate<? super TruckRow> truckFilter;
+    private int minWeight = Integer.MIN_VALUE;
+    private int maxWeight = Integer.MAX_VALUE;
+    private double minVolume = Double.NEGATIVE_INFINITY;
+    private double maxVolume = Double.POSITIVE_INFINITY;
+    private Class<? extends Chargeable> itemType;
+    private Predicate<? super Chargeable> itemFilter;
+
+    private FleetQuery(List<TruckRow> trucks) {
+        this.trucks = trucks;
+    }
+
+    private FleetQuery copy() {
+        FleetQuery copy = new FleetQuery(trucks);
+        copy.truckFilter = truckFilter;
+        copy.minWeight = minWeight;
+        copy.maxWeight = maxWeight;
+        copy.minVolume = minVolume;
+        copy.maxVolume = maxVolume;
+        copy.itemType = itemType;
+        copy.itemFilter = itemFilter;
+        return copy;
+    }
+
+    /**
+     * Crée une requête sur toute la flotte : les camions de tous les Loadmasters enregistrés dans le {@link FleetDirectory}.
+     *
+     * @return La requête, sans filtre.
+     */
+    public static FleetQuery fleet() {
+        List<LoadmasterSnapshot> snapshots = new ArrayList<>();
+        for (Loadmaster loadmaster : FleetDirectory.getLoadmasters()) {
+            snapshots.add(loadmaster.snapshot());
+        }
+        return of(snapshots);
+    }
+
+    /**
+     * Crée une requête sur les camions de quelques Loadmasters.
+     *
+     * @param loadmasters Les Loadmasters interrogés. Ne peut pas être null ni contenir null.
+     * @return La requête, sans filtre.
+     * @throws IllegalArgumentException Si la liste ou un Loadmaster est null.
+     */
+    public static FleetQuery over(Loadmaster... loadmasters) {
+        if (loadmasters == null) {
+            throw new IllegalArgumentException("La liste des Loadmasters ne peut pas être null.");
+        }
+        List<LoadmasterSnapshot> snapshots = new ArrayList<>(loadmasters.length);
+        for (Loadmaster loadmaster : loadmasters) {
+            if (loadmaster == null) {
+                throw new IllegalArgumentException("Le Loadmaster ne peut pas être null.");
+            }
+            snapshots.add(loadmaster.snapshot());
+        }
+        return of(snapshots);
+    }
+
+    /**
+     * Crée une requête sur des versions déjà obtenues de Loadmasters.
+     *
+     * @param snapshots Les versions interrogées. Ne peut pas être null ni contenir null.
+     * @return La requête, sans filtre.
+     * @throws IllegalArgumentException Si la liste ou une version est null.
+     */
+    public static FleetQuery of(Collection<LoadmasterSnapshot> snapshots) {
+        if (snapshots == null) {
+            throw new IllegalArgumentException("La liste des versions ne peut pas être null.");
+        }
+        // Une ligne par camion, dans une liste qui se découpe bien entre les threads
+        List<TruckRow> rows = new ArrayList<>();
+        for (LoadmasterSnapshot snapshot : snapshots) {
+            if (snapshot == null) {
+                throw new IllegalArgumentException("La version du Loadmaster ne peut pas être null.");
+            }
+            for (CamionSnapshot camion : snapshot.getCamions().values()) {
+                rows.add(new TruckRow(snapshot.getNom(), camion));
+            }
+        }
+        return new FleetQuery(Collections.unmodifiableList(rows));
+    }
+
+    /**
+     * Ne retient que les camions qui satisfont un critère.
+     *
+     * @param filter Le critère. Ne peut pas être null.
+     * @return La nouvelle requête.
+     * @throws IllegalArgumentException Si le critère est null.
+     */
+    public FleetQuery whereTruck(Predicate<? super TruckRow> filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Le critère ne peut pas être null.");
+        }
+        FleetQuery copy = copy();
+        Predicate<? super TruckRow> previous = truckFilter;
+        copy.truckFilter = previous == null ? filter : truck -> previous.test(truck) && filter.test(truck);
+        return copy;
+    }
+
+    /**
+     * Ne retient que les éléments dont le poids est compris entre deux bornes incluses.
+     *
+     * @param min Le poids minimal.
+     * @param max Le poids maximal.
+     * @return La nouvelle requête.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public FleetQuery whereItemWeight(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("La borne minimale ne peut pas dépasser la borne maximale.");
+        }
+        FleetQuery copy = copy();
+        copy.minWeight = Math.max(minWeight, min);
+        copy.maxWeight = Math.min(maxWeight, max);
+        return copy;
+    }
+
+    /**
+     * Ne retient que les éléments dont le volume est compris entre deux bornes incluses.
+     *
+     * @param min Le volume minimal.
+     * @param max Le volume maximal.
+     * @return La nouvelle requête.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public FleetQuery whereItemVolume(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            throw new IllegalArgumentException("La borne minimale ne peut pas dépasser la borne maximale.");
+        }
+        FleetQuery copy = copy();
+        copy.minVolume = Math.max(minVolume, min);
+        copy.maxVolume = Math.min(maxVolume, max);
+        return copy;
+    }
+
+    /**
+     * Ne retient que les éléments d'un type, par exemple {@code Palette.class}.
+     *
+     * @param type Le type des éléments. Ne peut pas être null.
+     * @return La nouvelle requête.
+     * @throws IllegalArgumentException Si le type est null.
+     */
+    public FleetQuery whereItemType(Class<? extends Chargeable> type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Le type des éléments ne peut pas être null.");
+        }
+        if (itemType != null) {
+            // Un second type (une interface, par exemple) est vérifié comme un critère
+            return whereItem(type::isInstance);
+        }
+        FleetQuery copy = copy();
+        copy.itemType = type;
+        return copy;
+    }
+
+    /**
+     * Ne retient que les éléments qui satisfont un critère. Le critère n'est évalué que sur les éléments
+     * qui ont passé les filtres de poids, de volume et de type.
+     *
+     * @param filter Le critère. Ne peut pas être null.
+     * @return La nouvelle requête.
+     * @throws IllegalArgumentException Si le critère est null.
+     */
+    public FleetQuery whereItem(Predicate<? super Chargeable> filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Le critère ne peut pas être null.");
+        }
+        FleetQuery copy = copy();
+        Predicate<? super Chargeable> previous = itemFilter;
+        copy.itemFilter = previous == null ? filter : item -> previous.test(item) && filter.test(item);
+        return copy;
+    }
+
+    /**
+     * Retourne un flux parallèle et paresseux des camions retenus. Si la requête filtre les éléments,
+     * seuls les camions qui portent au moins un élément retenu le sont.
+     *
+     * @return Le flux des camions.
+     */
+    public Stream<TruckRow> trucks() {
+        Stream<TruckRow> selected = selectedTrucks();
+        return hasItemFilter() ? selected.filter(this::anyItem) : selected;
+    }
+
+    /**
+     * Retourne un flux parallèle et paresseux des éléments retenus, dans les camions retenus.
+     *
+     * @return Le flux des éléments.
+     */
+    public Stream<ItemRow> items() {
+        return selectedTrucks().flatMap(this::itemsOf);
+    }
+
+    /**
+     * Projette chaque élément retenu, par exemple sur son identifiant.
+     *
+     * @param projection La projection. Ne peut pas être null.
+     * @param <R> Le type des valeurs projetées.
+     * @return Un flux parallèle et paresseux des valeurs projetées.
+     * @throws IllegalArgumentException Si la projection est null.
+     */
+    public <R> Stream<R> select(Function<? super ItemRow, ? extends R> projection) {
+        if (projection == null) {
+            throw new IllegalArgumentException("La projection ne peut pas être null.");
+        }
+        return items().map(projection);
+    }
+
+    /**
+     * Compte les éléments retenus, sans créer de ligne pour chacun.
+     *
+     * @return Le nombre d'éléments.
+     */
+    public long count() {
+        return selectedTrucks().mapToLong(truck -> aggregateOf(truck).getCount()).sum();
+    }
+
+    /**
+     * Agrège les éléments retenus, sans créer de ligne pour chacun.
+     *
+     * @return Les agrégats des éléments.
+     */
+    public LoadAggregate aggregate() {
+        return selectedTrucks().collect(LoadAggregate::new, (total, truck) -> total.merge(aggregateOf(truck)), LoadAggregate::merge);
+    }
+
+    /**
+     * Regroupe les éléments retenus selon une clé et agrège chaque groupe.
+     *
+     * @param key La clé de regroupement, par exemple {@link ItemRow#getLoadmaster()}. Ne peut pas être null.
+     * @param <K> Le type de la clé.
+     * @return Les agrégats de chaque groupe.
+     * @throws IllegalArgumentException Si la clé est null.
+     */
+    public <K> Map<K, LoadAggregate> groupItems(Function<? super ItemRow, ? extends K> key) {
+        return groupItems(key, Collectors.mapping(ItemRow::getItem, LoadAggregate.collector()));
+    }
+
+    /**
+     * Regroupe les éléments retenus selon une clé et réduit chaque groupe avec un collecteur.
+     * Chaque thread remplit ses propres groupes, fusionnés à la fin.
+     *
+     * @param key La clé de regroupement. Ne peut pas être null.
+     * @param downstream Le collecteur appliqué à chaque groupe. Ne peut pas être null.
+     * @param <K> Le type de la clé.
+     * @param <R> Le type du résultat de chaque groupe.
+     * @return Le résultat de chaque groupe.
+     * @throws IllegalArgumentException Si la clé ou le collecteur est null.
+     */
+    public <K, R> Map<K, R> groupItems(Function<? super ItemRow, ? extends K> key, Collector<? super ItemRow, ?, R> downstream) {
+        if (key == null || downstream == null) {
+            throw new IllegalArgumentException("La clé et le collecteur sont obligatoires.");
+        }
+        return items().collect(Collectors.groupingBy(key, downstream));
+    }
+
+    /**
+     * Regroupe les camions retenus selon une clé et réduit chaque groupe avec un collecteur.
+     *
+     * @param key La clé de regroupement, par exemple {@link TruckRow#getLoadmaster()}. Ne peut pas être null.
+     * @param downstream Le collecteur appliqué à chaque groupe. Ne peut pas être null.
+     * @param <K> Le type de la clé.
+     * @param <R> Le type du résultat de chaque groupe.
+     * @return Le résultat de chaque groupe.
+     * @throws IllegalArgumentException Si la clé ou le collecteur est null.
+     */
+    public <K, R> Map<K, R> groupTrucks(Function<? super TruckRow, ? extends K> key, Collector<? super TruckRow, ?, R> downstream) {
+        if (key == null || downstream == null) {
+            throw new IllegalArgumentException("La clé et le collecteur sont obligatoires.");
+        }
+        return trucks().collect(Collectors.groupingBy(key, downstream));
+    }
+
+    private boolean hasItemFilter() {
+        return minWeight != Integer.MIN_VALUE || maxWeight != Integer.MAX_VALUE
+                || minVolume != Double.NEGATIVE_INFINITY || maxVolume != Double.POSITIVE_INFINITY
+                || itemType != null || itemFilter != null;
+    }
+
+    private Stream<TruckRow> selectedTrucks() {
+        Stream<TruckRow> stream = trucks.parallelStream();
+        return truckFilter == null ? stream : stream.filter(truckFilter);
+    }
+
+    /**
+     * Indique si un chargement peut contenir un élément retenu d'après son élément le plus lourd et son
+     * élément le plus volumineux. Les totaux du camion ne servent pas, car ils peuvent être corrigés
+     * sans charger ni décharger d'élément.
+     */
+    private boolean mayContain(LoadColumns columns) {
+        return columns.size() > 0 && minWeight <= columns.getWeight(columns.size() - 1)
+                && minVolume <= columns.getMaxVolume();
+    }
+
+    private boolean matches(LoadColumns columns, int index) {
+        double volume = columns.getVolume(index);
+        if (volume < minVolume || volume > maxVolume) {
+            return false;
+        }
+        if (itemType == null && itemFilter == null) {
+            return true;
+        }
+        Chargeable item = columns.getItem(index);
+        return (itemType == null || itemType.isInstance(item)) && (itemFilter == null || itemFilter.test(item));
+    }
+
+    private Stream<ItemRow> itemsOf(TruckRow truck) {
+        LoadColumns columns = truck.getCamion().columns();
+        if (!mayContain(columns)) {
+            return Stream.empty();
+        }
+        return IntStream.range(columns.lowerBound(minWeight), columns.upperBound(maxWeight))
+                .filter(index -> matches(columns, index))
+                .mapToObj(index -> new ItemRow(truck, columns.getItem(index)));
+    }
+
+    private boolean anyItem(TruckRow truck) {
+        LoadColumns columns = truck.getCamion().columns();
+        if (!mayContain(columns)) {
+            return false;
+        }
+        for (int i = columns.lowerBound(minWeight), end = columns.upperBound(maxWeight); i < end; i++) {
+            if (matches(columns, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private LoadAggregate aggregateOf(TruckRow truck) {
+        LoadAggregate aggregate = new LoadAggregate();
+        LoadColumns columns = truck.getCamion().columns();
+        if (!mayContain(columns)) {
+            return aggregate;
+        }
+        for (int i = columns.lowerBound(minWeight), end = columns.upperBound(maxWeight); i < end; i++) {
+            if (matches(columns, i)) {
+                aggregate.add(columns.getWeight(i), columns.getVolume(i));
+            }
+        }
+        return aggregate;
+    }
+}
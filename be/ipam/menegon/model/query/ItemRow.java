@@ -0,0 +1,59 @@
+package be.ipam.menegon.model.query;
+
+import be.ipam.menegon.model.truck.Chargeable;
+
+/**
+ * Ligne d'une {@link FleetQuery} : un élément et le camion qui le porte.
+ *
+ * @author Dylan Menegon
+ */
+public final class ItemRow {
+    private final TruckRow truck;
+    private final Chargeable item;
+
+    ItemRow(TruckRow truck, Chargeable item) {
+        this.truck = truck;
+        this.item = item;
+    }
+
+    /**
+     * Retourne le camion qui porte l'élément.
+     *
+     * @return Le camion.
+     */
+    public TruckRow getTruck() {
+        return truck;
+    }
+
+    /**
+     * Retourne l'élément.
+     *
+     * @return L'élément.
+     */
+    public Chargeable getItem() {
+        return item;
+    }
+
+    /**
+     * Retourne le nom du Loadmaster du camion qui porte l'élément.
+     *
+     * @return Le nom du Loadmaster.
+     */
+    public String getLoadmaster() {
+        return truck.getLoadmaster();
+    }
+
+    /**
+     * Retourne l'identifiant du camion qui porte l'élément.
+     *
+     * @return L'identifiant du camion.
+     */
+    public String getCamionId() {
+        return truck.getId();
+    }
+
+    @Override
+    public String toString() {
+        return "ItemRow [Camion=" + truck.getId() + ", Item=" + item.getId() + "]";
+    }
+}
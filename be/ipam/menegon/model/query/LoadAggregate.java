@@ -0,0 +1,145 @@
+package be.ipam.menegon.model.query;
+
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.stream.Collector;
+
+/**
+ * Agrégats d'un ensemble d'éléments : nombre, poids et volume totaux, extrêmes et moyennes.
+ * Un agrégat est rempli par son collecteur puis n'est plus modifié.
+ *
+ * @author Dylan Menegon
+ */
+public final class LoadAggregate {
+    private long count;
+    private long totalWeight;
+    private double totalVolume;
+    private int minWeight = Integer.MAX_VALUE;
+    private int maxWeight = Integer.MIN_VALUE;
+    private double minVolume = Double.POSITIVE_INFINITY;
+    private double maxVolume = Double.NEGATIVE_INFINITY;
+
+    LoadAggregate() {
+    }
+
+    /**
+     * Retourne un collecteur qui agrège des éléments ; il peut être utilisé sur un flux parallèle.
+     *
+     * @return Le collecteur.
+     */
+    public static Collector<Chargeable, ?, LoadAggregate> collector() {
+        return Collector.of(LoadAggregate::new, LoadAggregate::add, LoadAggregate::merge,
+                Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    void add(int weight, double volume) {
+        count++;
+        totalWeight += weight;
+        totalVolume += volume;
+        minWeight = Math.min(minWeight, weight);
+        maxWeight = Math.max(maxWeight, weight);
+        minVolume = Math.min(minVolume, volume);
+        maxVolume = Math.max(maxVolume, volume);
+    }
+
+    void add(Chargeable item) {
+        add(item.getWeight(), item.getVolume());
+    }
+
+    LoadAggregate merge(LoadAggregate other) {
+        count += other.count;
+        totalWeight += other.totalWeight;
+        totalVolume += other.totalVolume;
+        minWeight = Math.min(minWeight, other.minWeight);
+        maxWeight = Math.max(maxWeight, other.maxWeight);
+        minVolume = Math.min(minVolume, other.minVolume);
+        maxVolume = Math.max(maxVolume, other.maxVolume);
+        return this;
+    }
+
+    /**
+     * Retourne le nombre d'éléments.
+     *
+     * @return Le nombre d'éléments.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retourne le poids total des éléments.
+     *
+     * @return Le poids total.
+     */
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Retourne le volume total des éléments.
+     *
+     * @return Le volume total.
+     */
+    public double getTotalVolume() {
+        return totalVolume;
+    }
+
+    /**
+     * Retourne le poids du plus léger des éléments.
+     *
+     * @return Le poids minimal, 0 s'il n'y a aucun élément.
+     */
+    public int getMinWeight() {
+        return count == 0 ? 0 : minWeight;
+    }
+
+    /**
+     * Retourne le poids du plus lourd des éléments.
+     *
+     * @return Le poids maximal, 0 s'il n'y a aucun élément.
+     */
+    public int getMaxWeight() {
+        return count == 0 ? 0 : maxWeight;
+    }
+
+    /**
+     * Retourne le volume du plus petit des éléments.
+     *
+     * @return Le volume minimal, 0 s'il n'y a aucun élément.
+     */
+    public double getMinVolume() {
+        return count == 0 ? 0 : minVolume;
+    }
+
+    /**
+     * Retourne le volume du plus grand des éléments.
+     *
+     * @return Le volume maximal, 0 s'il n'y a aucun élément.
+     */
+    public double getMaxVolume() {
+        return count == 0 ? 0 : maxVolume;
+    }
+
+    /**
+     * Retourne le poids moyen des éléments.
+     *
+     * @return Le poids moyen, 0 s'il n'y a aucun élément.
+     */
+    public double getAverageWeight() {
+        return count == 0 ? 0 : (double) totalWeight / count;
+    }
+
+    /**
+     * Retourne le volume moyen des éléments.
+     *
+     * @return Le volume moyen, 0 s'il n'y a aucun élément.
+     */
+    public double getAverageVolume() {
+        return count == 0 ? 0 : totalVolume / count;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadAggregate [Count=" + count + ", TotalWeight=" + totalWeight + ", TotalVolume=" + totalVolume + "]";
+    }
+}
@@ -0,0 +1,68 @@
+package be.ipam.menegon.model.query;
+
+import be.ipam.menegon.model.truck.CamionSnapshot;
+
+/**
+ * Ligne d'une {@link FleetQuery} : un camion, dans la version figée par la requête, et le nom de son Loadmaster.
+ *
+ * @author Dylan Menegon
+ */
+public final class TruckRow {
+    private final String loadmaster;
+    private final CamionSnapshot camion;
+
+    TruckRow(String loadmaster, CamionSnapshot camion) {
+        this.loadmaster = loadmaster;
+        this.camion = camion;
+    }
+
+    /**
+     * Retourne le nom du Loadmaster du camion.
+     *
+     * @return Le nom du Loadmaster.
+     */
+    public String getLoadmaster() {
+        return loadmaster;
+    }
+
+    /**
+     * Retourne la version du camion interrogée.
+     *
+     * @return La version du camion.
+     */
+    public CamionSnapshot getCamion() {
+        return camion;
+    }
+
+    /**
+     * Retourne l'identifiant du camion.
+     *
+     * @return L'identifiant du camion.
+     */
+    public String getId() {
+        return camion.getId();
+    }
+
+    /**
+     * Retourne la part du poids maximum utilisée.
+     *
+     * @return Le taux de remplissage en poids, entre 0 et 1.
+     */
+    public double getWeightRatio() {
+        return camion.getMaxWeight() == 0 ? 0 : (double) camion.getCurrentWeight() / camion.getMaxWeight();
+    }
+
+    /**
+     * Retourne la part du volume maximum utilisée.
+     *
+     * @return Le taux de remplissage en volume, entre 0 et 1.
+     */
+    public double getVolumeRatio() {
+        return camion.getMaxVolume() == 0 ? 0 : camion.getCurrentVolume() / camion.getMaxVolume();
+    }
+
+    @Override
+    public String toString() {
+        return "TruckRow [Loadmaster=" + loadmaster + ", Camion=" + camion.getId() + ", Items=" + camion.size() + "]";
+    }
+}
@@ -0,0 +1,392 @@
+package be.ipam.menegon.model.replication;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Réplica en lecture seule d'un {@link Loadmaster}, alimenté par le journal d'un {@link ReplicationPrimary}.
+ * Le réplica reconstruit ses propres camions à partir de l'instantané reçu à la connexion, puis applique
+ * chaque message du journal dans l'ordre. Les requêtes de rapport et de suivi lui sont adressées
+ * plutôt qu'au primaire, ce qui laisse celui-ci au chargement.
+ *
+ * Le retard d'un réplica est borné : {@link #isFresh(long)} indique s'il a reçu des nouvelles du primaire
+ * dans le délai donné. En cas de coupure, le réplica se reconnecte et se resynchronise à partir d'un
+ * nouvel instantané.
+ *
+ * Les camions du réplica ne sont enregistrés dans aucun annuaire : un réplica peut donc fonctionner
+ * dans la même JVM que son primaire.
+ *
+ * @author Dylan Menegon
+ */
+public class ReadReplica implements AutoCloseable {
+    private static final long RECONNECT_MILLIS = 100;
+
+    private final String host;
+    private final int port;
+    private final Loadmaster owner; // Loadmaster privé auquel sont rattachés les camions répliqués
+    private final Object progress = new Object(); // Signale l'avancement de la séquence appliquée
+    private volatile Map<String, Camion> camions;
+    private volatile long sequence;
+    private volatile long lastContact;
+    private volatile boolean connected;
+    private volatile boolean closed;
+    private volatile Socket socket;
+    private Thread reader;
+
+    /**
+     * Constructeur pour initialiser un réplica d'un primaire.
+     *
+     * @param host L'adresse du primaire, par exemple {@code localhost}.
+     * @param port Le port du primaire.
+     */
+    public ReadReplica(String host, int port) {
+        this.host = host;
+        this.port = port;
+        this.owner = new Loadmaster("REPLICA-" + host + ":" + port);
+        this.camions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Démarre la connexion au primaire et l'application du journal en arrière-plan.
+     *
+     * @return Ce réplica, pour enchaîner les appels.
+     */
+    public synchronized ReadReplica start() {
+        if (reader == null) {
+            reader = new Thread(this::replicate, "replica-" + port);
+            reader.setDaemon(true);
+            reader.start();
+        }
+        return this;
+    }
+
+    /**
+     * Retourne le numéro de séquence du dernier message du journal appliqué.
+     *
+     * @return La séquence appliquée.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Attend que le réplica ait appliqué le journal jusqu'à une séquence donnée, par exemple
+     * celle retournée par {@link ReplicationPrimary#getSequence()} juste après une écriture.
+     *
+     * @param target La séquence attendue.
+     * @param timeout Le délai d'attente maximal.
+     * @param unit L'unité du délai.
+     * @return {@code true} si la séquence a été atteinte, {@code false} si le délai a expiré.
+     * @throws InterruptedException Si le thread est interrompu pendant l'attente.
+     */
+    public boolean awaitSequence(long target, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (progress) {
+            while (sequence < target) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                progress.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indique si le réplica est connecté et a reçu un message du primaire dans le délai donné.
+     * Le primaire envoyant un battement en l'absence de modification, un réplica frais reflète
+     * l'état du primaire tel qu'il était il y a au plus ce délai.
+     *
+     * @param maxStalenessMillis Le retard maximal toléré, en millisecondes.
+     * @return {@code true} si le réplica est assez à jour, sinon {@code false}.
+     */
+    public boolean isFresh(long maxStalenessMillis) {
+        return connected && System.nanoTime() - lastContact <= TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+    }
+
+    /**
+     * Retourne les identifiants des camions répliqués.
+     *
+     * @return Un ensemble non modifiable des identifiants.
+     */
+    public Set<String> getCamionIds() {
+        return Collections.unmodifiableSet(camions.keySet());
+    }
+
+    /**
+     * Retourne l'état d'un camion répliqué.
+     *
+     * @param camionId L'identifiant du camion.
+     * @return L'état du camion, ou {@code null} si le réplica ne connaît pas ce camion.
+     */
+    public CamionSnapshot getCamion(String camionId) {
+        Camion camion = camionId == null ? null : camions.get(camionId);
+        return camion == null ? null : camion.snapshot();
+    }
+
+    /**
+     * Compte les éléments de tous les camions répliqués dont le poids est compris entre deux bornes incluses.
+     *
+     * @param min Le poids minimal.
+     * @param max Le poids maximal.
+     * @return Le nombre d'éléments dont le poids est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public long countItemsByWeight(int min, int max) {
+        long count = 0;
+        for (Camion camion : camions.values()) {
+            synchronized (camion) {
+                count += camion.countByWeight(min, max);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compte les éléments de tous les camions répliqués dont le volume est compris entre deux bornes incluses.
+     *
+     * @param min Le volume minimal.
+     * @param max Le volume maximal.
+     * @return Le nombre d'éléments dont le volume est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public long countItemsByVolume(double min, double max) {
+        long count = 0;
+        for (Camion camion : camions.values()) {
+            synchronized (camion) {
+                count += camion.countByVolume(min, max);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Arrête la réplication et ferme la connexion au primaire.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        connected = false;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+                // La connexion est abandonnée de toute façon
+            }
+        }
+        if (reader != null) {
+            reader.interrupt();
+        }
+    }
+
+    private void replicate() {
+        while (!closed) {
+            try (Socket s = new Socket(host, port);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()))) {
+                socket = s;
+                if (closed) {
+                    return;
+                }
+                follow(in);
+            } catch (IOException e) {
+                // Primaire injoignable ou journal incohérent : nouvelle tentative à partir d'un instantané
+            } finally {
+                connected = false;
+            }
+            try {
+                Thread.sleep(RECONNECT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reçoit l'instantané puis applique le journal jusqu'à la coupure de la connexion.
+     */
+    private void follow(DataInputStream in) throws IOException {
+        if (in.readByte() != ReplicationProtocol.SNAPSHOT) {
+            throw new IOException("Le primaire n'a pas envoyé d'instantané.");
+        }
+        long snapshotSequence = in.readLong();
+        Map<String, Camion> rebuilt = new ConcurrentHashMap<>();
+        Map<String, Long> versions = new HashMap<>(); // Version du primaire reflétée par chaque camion
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            addCamion(in, rebuilt, versions);
+        }
+        camions = rebuilt;
+        advance(snapshotSequence);
+        connected = true;
+
+        while (!closed) {
+            byte type = in.readByte();
+            long messageSequence = in.readLong();
+            switch (type) {
+                case ReplicationProtocol.HEARTBEAT:
+                    break;
+                case ReplicationProtocol.CAMION_ADDED:
+                    addCamion(in, rebuilt, versions);
+                    break;
+                case ReplicationProtocol.CAMION_REMOVED: {
+                    String id = in.readUTF();
+                    rebuilt.remove(id);
+                    versions.remove(id);
+                    break;
+                }
+                case ReplicationProtocol.ITEM_LOADED: {
+                    String id = in.readUTF();
+                    long version = in.readLong();
+                    Chargeable item = ReplicationProtocol.readItem(in);
+                    Camion camion = current(rebuilt, versions, id, version);
+                    if (camion != null) {
+                        try {
+                            camion.load(item);
+                        } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+                            throw new IOException("Le réplica du camion " + id + " diverge du primaire.", e);
+                        }
+                    }
+                    break;
+                }
+                case ReplicationProtocol.ITEMS_LOADED: {
+                    String id = in.readUTF();
+                    long version = in.readLong();
+                    List<Chargeable> items = ReplicationProtocol.readItems(in);
+                    Camion camion = current(rebuilt, versions, id, version);
+                    if (camion != null) {
+                        try {
+                            camion.loadAll(items);
+                        } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+                            throw new IOException("Le réplica du camion " + id + " diverge du primaire.", e);
+                        }
+                    }
+                    break;
+                }
+                case ReplicationProtocol.ITEMS_UNLOADED: {
+                    String id = in.readUTF();
+                    long version = in.readLong();
+                    List<Chargeable> items = ReplicationProtocol.readItems(in);
+                    Camion camion = current(rebuilt, versions, id, version);
+                    if (camion != null) {
+                        unloadAll(camion, items);
+                    }
+                    break;
+                }
+                case ReplicationProtocol.CAPACITY_ADJUSTED: {
+                    String id = in.readUTF();
+                    long version = in.readLong();
+                    int currentWeight = in.readInt();
+                    double currentVolume = in.readDouble();
+                    Camion camion = current(rebuilt, versions, id, version);
+                    if (camion != null) {
+                        adjust(camion, currentWeight, currentVolume);
+                    }
+                    break;
+                }
+                default:
+                    throw new IOException("Message de réplication inconnu : " + type + ".");
+            }
+            advance(type == ReplicationProtocol.HEARTBEAT ? Math.max(sequence, messageSequence) : messageSequence);
+        }
+    }
+
+    private void addCamion(DataInputStream in, Map<String, Camion> rebuilt, Map<String, Long> versions) throws IOException {
+        String id = in.readUTF();
+        int maxWeight = in.readInt();
+        double maxVolume = in.readDouble();
+        long version = in.readLong();
+        int currentWeight = in.readInt();
+        double currentVolume = in.readDouble();
+        List<Chargeable> items = ReplicationProtocol.readItems(in);
+        if (rebuilt.containsKey(id)) {
+            // Camion déjà présent dans l'instantané
+            return;
+        }
+        Camion camion = new Camion(id, maxWeight, maxVolume, owner);
+        try {
+            camion.loadAll(items);
+        } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+            throw new IOException("Le camion " + id + " reçu du primaire est incohérent.", e);
+        }
+        adjust(camion, currentWeight, currentVolume);
+        versions.put(id, version);
+        rebuilt.put(id, camion);
+    }
+
+    /**
+     * Décharge en un seul passage les éléments reçus, chacun retirant un élément égal du camion
+     * comme le ferait {@link Camion#unload(Chargeable)}.
+     */
+    private static void unloadAll(Camion camion, List<Chargeable> items) throws IOException {
+        Map<Chargeable, Integer> remaining = new HashMap<>();
+        for (Chargeable item : items) {
+            remaining.merge(item, 1, Integer::sum);
+        }
+        List<Chargeable> removed = camion.unloadIf(item -> {
+            Integer count = remaining.get(item);
+            if (count == null) {
+                return false;
+            }
+            if (count == 1) {
+                remaining.remove(item);
+            } else {
+                remaining.put(item, count - 1);
+            }
+            return true;
+        });
+        if (removed.size() != items.size()) {
+            throw new IOException("Le réplica du camion " + camion.getId() + " diverge du primaire.");
+        }
+    }
+
+    /**
+     * Reporte sur le camion répliqué les corrections de poids et de volume faites sur le primaire.
+     */
+    private static void adjust(Camion camion, int currentWeight, double currentVolume) {
+        if (camion.getCurrentWeight() != currentWeight) {
+            camion.updateCurrentWeight(currentWeight - camion.getCurrentWeight());
+        }
+        if (Double.compare(camion.getCurrentVolume(), currentVolume) != 0) {
+            camion.updateCurrentVolume(currentVolume - camion.getCurrentVolume());
+        }
+    }
+
+    /**
+     * Retourne le camion auquel appliquer une modification, ou {@code null} si la modification
+     * concerne un camion inconnu ou est déjà reflétée par l'instantané.
+     */
+    private static Camion current(Map<String, Camion> rebuilt, Map<String, Long> versions, String id, long version) {
+        Long applied = versions.get(id);
+        if (applied == null || applied >= version) {
+            return null;
+        }
+        versions.put(id, version);
+        return rebuilt.get(id);
+    }
+
+    private void advance(long applied) {
+        lastContact = System.nanoTime();
+        synchronized (progress) {
+            sequence = applied;
+            progress.notifyAll();
+        }
+    }
+}
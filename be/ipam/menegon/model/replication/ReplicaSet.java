@@ -0,0 +1,59 @@
+package be.ipam.menegon.model.replication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ensemble de {@link ReadReplica} entre lesquels les lectures sont réparties à tour de rôle,
+ * en écartant les réplicas dont le retard dépasse celui que tolère la requête.
+ * Ajouter des réplicas augmente donc le nombre de lectures servies sans solliciter le primaire.
+ *
+ * @author Dylan Menegon
+ */
+public class ReplicaSet {
+    private final List<ReadReplica> replicas;
+    private final AtomicInteger next;
+
+    /**
+     * Constructeur pour initialiser un ensemble de réplicas.
+     *
+     * @param replicas Les réplicas. Ne peut pas être null ou vide.
+     * @throws IllegalArgumentException Si la liste est null ou vide.
+     */
+    public ReplicaSet(List<ReadReplica> replicas) {
+        if (replicas == null || replicas.isEmpty()) {
+            throw new IllegalArgumentException("L'ensemble doit contenir au moins un réplica.");
+        }
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.next = new AtomicInteger();
+    }
+
+    /**
+     * Choisit le prochain réplica, à tour de rôle, parmi ceux qui sont assez à jour.
+     *
+     * @param maxStalenessMillis Le retard maximal toléré, en millisecondes.
+     * @return Un réplica dont le retard est inférieur au délai donné.
+     * @throws IllegalStateException Si aucun réplica n'est assez à jour.
+     */
+    public ReadReplica pick(long maxStalenessMillis) {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReadReplica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isFresh(maxStalenessMillis)) {
+                return replica;
+            }
+        }
+        throw new IllegalStateException("Aucun réplica n'a été mis à jour depuis moins de " + maxStalenessMillis + " ms.");
+    }
+
+    /**
+     * Retourne les réplicas de l'ensemble.
+     *
+     * @return Une liste non modifiable des réplicas.
+     */
+    public List<ReadReplica> getReplicas() {
+        return replicas;
+    }
+}
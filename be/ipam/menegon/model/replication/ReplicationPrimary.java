@@ -0,0 +1,335 @@
+package be.ipam.menegon.model.replication;
+
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.loadmaster.LoadmasterListener;
+import be.ipam.menegon.model.loadmaster.LoadmasterSnapshot;
+import be.ipam.menegon.model.monitoring.ConnectionEvent;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Côté primaire de la réplication : observe un {@link Loadmaster} et diffuse, sur un port local,
+ * le journal ordonné de ses modifications (ajout et retrait de camions, chargements et déchargements,
+ * corrections du poids ou du volume chargé)
+ * à des {@link ReadReplica} qui servent les requêtes en lecture.
+ *
+ * Un réplica qui se connecte reçoit d'abord un instantané complet, puis le journal à partir de cet
+ * instantané. Chaque réplica dispose d'une file d'attente bornée ; un réplica trop lent pour la vider
+ * est déconnecté et se resynchronise à partir d'un nouvel instantané, sans jamais ralentir le primaire.
+ * En l'absence de modification, le primaire envoie un battement toutes les {@link #HEARTBEAT_MILLIS}
+ * millisecondes, ce qui permet aux réplicas de mesurer leur retard.
+ *
+ * @author Dylan Menegon
+ */
+public class ReplicationPrimary implements LoadmasterListener, AutoCloseable {
+    /** Intervalle entre deux battements envoyés aux réplicas, en millisecondes. */
+    public static final long HEARTBEAT_MILLIS = 50;
+    /** Nombre de messages en attente au-delà duquel un réplica est déconnecté. */
+    public static final int DEFAULT_BACKLOG = 10_000;
+
+    private final Loadmaster loadmaster;
+    private final ServerSocket server;
+    private final ExecutorService workers;
+    private final List<Follower> followers;
+    private final int backlog;
+    private final Object journal = new Object(); // Ordonne les messages et protège la séquence
+    private long sequence;
+    private volatile boolean closed;
+
+    /**
+     * Constructeur pour initialiser un primaire à l'écoute sur l'interface locale.
+     *
+     * @param loadmaster Le Loadmaster à répliquer. Ne peut pas être null.
+     * @param port Le port d'écoute, ou 0 pour un port libre choisi par le système.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     * @throws IllegalArgumentException Si le Loadmaster est null.
+     */
+    public ReplicationPrimary(Loadmaster loadmaster, int port) throws IOException {
+        this(loadmaster, port, DEFAULT_BACKLOG);
+    }
+
+    /**
+     * Constructeur pour initialiser un primaire à l'écoute sur l'interface locale.
+     *
+     * @param loadmaster Le Loadmaster à répliquer. Ne peut pas être null.
+     * @param port Le port d'écoute, ou 0 pour un port libre choisi par le système.
+     * @param backlog Le nombre de messages en attente au-delà duquel un réplica est déconnecté. Doit être strictement positif.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     * @throws IllegalArgumentException Si le Loadmaster est null ou si la taille de la file n'est pas strictement positive.
+     */
+    public ReplicationPrimary(Loadmaster loadmaster, int port, int backlog) throws IOException {
+        if (loadmaster == null) {
+            throw new IllegalArgumentException("Le Loadmaster à répliquer ne peut pas être null.");
+        }
+        if (backlog <= 0) {
+            throw new IllegalArgumentException("La taille de la file d'un réplica doit être strictement positive.");
+        }
+        this.loadmaster = loadmaster;
+        this.backlog = backlog;
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.followers = new CopyOnWriteArrayList<>();
+        this.workers = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "replication-" + server.getLocalPort());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Commence à observer le Loadmaster et à accepter les réplicas.
+     *
+     * @return Ce primaire, pour enchaîner les appels.
+     */
+    public ReplicationPrimary start() {
+        loadmaster.addListener(this);
+        workers.execute(this::acceptLoop);
+        workers.execute(this::heartbeatLoop);
+        return this;
+    }
+
+    /**
+     * Retourne le port sur lequel le primaire écoute.
+     *
+     * @return Le port d'écoute.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Retourne le numéro de séquence de la dernière modification journalisée.
+     * Un réplica qui a atteint ce numéro reflète toutes les modifications faites jusqu'ici.
+     *
+     * @return Le numéro de séquence courant.
+     */
+    public long getSequence() {
+        synchronized (journal) {
+            return sequence;
+        }
+    }
+
+    /**
+     * Retourne le nombre de réplicas connectés.
+     *
+     * @return Le nombre de réplicas.
+     */
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    /**
+     * Cesse d'observer le Loadmaster et déconnecte tous les réplicas.
+     *
+     * @throws IOException Si le port d'écoute ne peut pas être fermé.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        loadmaster.removeListener(this);
+        server.close();
+        for (Follower follower : followers) {
+            follower.disconnect();
+        }
+        workers.shutdownNow();
+    }
+
+    @Override
+    public void camionAdded(CamionSnapshot camion) {
+        append(ReplicationProtocol.CAMION_ADDED, out -> ReplicationProtocol.writeCamion(out, camion));
+    }
+
+    @Override
+    public void camionRemoved(String camionId) {
+        append(ReplicationProtocol.CAMION_REMOVED, out -> out.writeUTF(camionId));
+    }
+
+    @Override
+    public void itemLoaded(CamionSnapshot camion, Chargeable item) {
+        append(ReplicationProtocol.ITEM_LOADED, out -> {
+            out.writeUTF(camion.getId());
+            out.writeLong(camion.getVersion());
+            ReplicationProtocol.writeItem(out, item);
+        });
+    }
+
+    @Override
+    public void itemsLoaded(CamionSnapshot camion, List<Chargeable> items) {
+        append(ReplicationProtocol.ITEMS_LOADED, out -> {
+            out.writeUTF(camion.getId());
+            out.writeLong(camion.getVersion());
+            ReplicationProtocol.writeItems(out, items);
+        });
+    }
+
+    @Override
+    public void itemsUnloaded(CamionSnapshot camion, List<Chargeable> items) {
+        append(ReplicationProtocol.ITEMS_UNLOADED, out -> {
+            out.writeUTF(camion.getId());
+            out.writeLong(camion.getVersion());
+            ReplicationProtocol.writeItems(out, items);
+        });
+    }
+
+    @Override
+    public void capacityAdjusted(CamionSnapshot camion) {
+        append(ReplicationProtocol.CAPACITY_ADJUSTED, out -> {
+            out.writeUTF(camion.getId());
+            out.writeLong(camion.getVersion());
+            out.writeInt(camion.getCurrentWeight());
+            out.writeDouble(camion.getCurrentVolume());
+        });
+    }
+
+    /**
+     * Numérote un message et le place dans la file de chaque réplica. Le message est encodé avant de prendre
+     * le verrou du journal, appelé sous le verrou du camion modifié : seuls la numérotation et la mise en
+     * file sont faites sous le verrou.
+     */
+    private void append(byte type, Body body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(type);
+            out.writeLong(0); // Numéro de séquence, attribué sous le verrou
+            body.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] message = bytes.toByteArray();
+        ByteBuffer header = ByteBuffer.wrap(message);
+        synchronized (journal) {
+            header.putLong(1, ++sequence);
+            for (Follower follower : followers) {
+                follower.offer(message);
+            }
+        }
+    }
+
+    private void heartbeatLoop() {
+        while (!closed) {
+            try {
+                Thread.sleep(HEARTBEAT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            byte[] message;
+            synchronized (journal) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(9);
+                DataOutputStream out = new DataOutputStream(bytes);
+                try {
+                    out.writeByte(ReplicationProtocol.HEARTBEAT);
+                    out.writeLong(sequence);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                message = bytes.toByteArray();
+                for (Follower follower : followers) {
+                    follower.offer(message);
+                }
+            }
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                Follower follower = new Follower(socket);
+                LoadmasterSnapshot snapshot;
+                long snapshotSequence;
+                // Les modifications journalisées après l'instantané seront toutes dans la file du réplica ;
+                // celles déjà visibles dans l'instantané sont reconnues par leur version et ignorées
+                synchronized (journal) {
+                    snapshot = loadmaster.snapshot();
+                    snapshotSequence = sequence;
+                    followers.add(follower);
+                }
+                workers.execute(() -> follower.run(snapshot, snapshotSequence));
+            } catch (IOException e) {
+                if (!closed) {
+                    ConnectionEvent.report("replication-" + getPort(), "accept", e);
+                }
+            }
+        }
+    }
+
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Connexion vers un réplica, vidée par son propre thread.
+     */
+    private final class Follower {
+        private final Socket socket;
+        private final BlockingQueue<byte[]> queue;
+        private volatile boolean connected = true;
+
+        Follower(Socket socket) {
+            this.socket = socket;
+            this.queue = new ArrayBlockingQueue<>(backlog);
+        }
+
+        void offer(byte[] message) {
+            if (connected && !queue.offer(message)) {
+                // Réplica trop lent : il se resynchronisera à partir d'un nouvel instantané
+                disconnect();
+            }
+        }
+
+        void run(LoadmasterSnapshot snapshot, long snapshotSequence) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                out.writeByte(ReplicationProtocol.SNAPSHOT);
+                out.writeLong(snapshotSequence);
+                out.writeInt(snapshot.getCamions().size());
+                for (CamionSnapshot camion : snapshot.getCamions().values()) {
+                    ReplicationProtocol.writeCamion(out, camion);
+                }
+                out.flush();
+                while (connected) {
+                    byte[] message = queue.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (message == null) {
+                        continue;
+                    }
+                    out.write(message);
+                    while ((message = queue.poll()) != null) {
+                        out.write(message);
+                    }
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Le réplica s'est déconnecté ; il se resynchronisera à sa reconnexion
+            } finally {
+                disconnect();
+            }
+        }
+
+        void disconnect() {
+            connected = false;
+            followers.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // La connexion est abandonnée de toute façon
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package be.ipam.menegon.model.replication;
+
+import be.ipam.menegon.model.codec.BinaryCodec;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Format du journal envoyé par {@link ReplicationPrimary} à chaque {@link ReadReplica}.
+ * À la connexion, le primaire envoie un instantané complet ({@link #SNAPSHOT}) suivi des messages
+ * du journal, chacun précédé de son type et de son numéro de séquence.
+ * Les camions sont transmis sous la forme ID, poids et volume maximums, version, poids et volume chargés
+ * et chargement ;
+ * les éléments sont encodés par {@link BinaryCodec}. Les éléments d'un type personnalisé sont reproduits
+ * sur les réplicas par un {@link be.ipam.menegon.model.codec.CustomItem}.
+ *
+ * @author Dylan Menegon
+ */
+final class ReplicationProtocol {
+    static final byte SNAPSHOT = 0;
+    static final byte CAMION_ADDED = 1;
+    static final byte CAMION_REMOVED = 2;
+    static final byte ITEM_LOADED = 3;
+    static final byte ITEMS_UNLOADED = 4;
+    static final byte HEARTBEAT = 5;
+    static final byte ITEMS_LOADED = 6;
+    static final byte CAPACITY_ADJUSTED = 7;
+
+    private ReplicationProtocol() {
+    }
+
+    static void writeCamion(DataOutputStream out, CamionSnapshot camion) throws IOException {
+        out.writeUTF(camion.getId());
+        out.writeInt(camion.getMaxWeight());
+        out.writeDouble(camion.getMaxVolume());
+        out.writeLong(camion.getVersion());
+        out.writeInt(camion.getCurrentWeight());
+        out.writeDouble(camion.getCurrentVolume());
+        writeItems(out, camion.getLoad());
+    }
+
+    static void writeItems(DataOutputStream out, List<Chargeable> items) throws IOException {
+        out.writeInt(items.size());
+        for (Chargeable item : items) {
+            writeItem(out, item);
+        }
+    }
+
+    /**
+     * Écrit un élément encodé par {@link BinaryCodec}, précédé de sa taille en octets.
+     */
+    static void writeItem(DataOutputStream out, Chargeable item) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryCodec.encodedSize(item));
+        BinaryCodec.encodeItem(buffer, item);
+        out.writeInt(buffer.position());
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    static List<Chargeable> readItems(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Chargeable> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(readItem(in));
+        }
+        return items;
+    }
+
+    static Chargeable readItem(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        try {
+            return BinaryCodec.decodeItem(ByteBuffer.wrap(bytes));
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new IOException("Élément reçu invalide.", e);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package be.ipam.menegon.model.report;
+
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cache des rapports rendus des camions, indexé par camion, version et format.
+ * Tant qu'un camion n'est pas modifié, son rapport est servi tel quel, sans recalculer
+ * ni trier son chargement. Une modification incrémente la version du camion
+ * ({@link Camion#getVersion()}) : le rapport en cache ne correspond plus et il est rendu à nouveau.
+ * Le cache conserve au plus un nombre fixé de rapports et évince le moins récemment utilisé.
+ *
+ * Le cache peut être utilisé depuis plusieurs threads.
+ *
+ * @author Dylan Menegon
+ */
+public class ReportCache {
+    /** Nombre de rapports conservés utilisé par défaut. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Map<Key, Entry> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructeur pour initialiser un cache avec la capacité par défaut.
+     */
+    public ReportCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructeur pour initialiser un cache.
+     *
+     * @param capacity Le nombre maximal de rapports conservés. Doit être strictement positif.
+     * @throws IllegalArgumentException Si la capacité n'est pas strictement positive.
+     */
+    public ReportCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacité du cache doit être strictement positive.");
+        }
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Retourne le rapport d'un camion dans sa version actuelle, depuis le cache si le camion n'a pas changé.
+     *
+     * @param camion Le camion. Ne peut pas être null.
+     * @param format Le format du rapport. Ne peut pas être null.
+     * @return Le rapport du camion.
+     * @throws IllegalArgumentException Si le camion ou le format est null.
+     */
+    public TruckReport get(Camion camion, ReportFormat format) {
+        check(camion, format);
+        // L'instantané fournit un chargement et une version cohérents, sans verrouiller le camion
+        CamionSnapshot snapshot = camion.snapshot();
+        Key key = new Key(camion.getId(), snapshot.getVersion(), format);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.camion == camion) {
+                hits++;
+                return entry.report;
+            }
+            misses++;
+        }
+        TruckReport report = new TruckReport(camion.getId(), snapshot.getVersion(), format,
+                format.render(snapshot), etag(camion, snapshot.getVersion(), format));
+        synchronized (this) {
+            entries.put(key, new Entry(camion, report));
+        }
+        return report;
+    }
+
+    /**
+     * Traite une requête HTTP conditionnelle : retourne {@code null} si l'étiquette reçue
+     * correspond toujours à la version actuelle du camion (réponse 304), sans rien rendre ;
+     * sinon retourne le rapport à jour.
+     *
+     * @param camion Le camion. Ne peut pas être null.
+     * @param format Le format du rapport. Ne peut pas être null.
+     * @param ifNoneMatch L'étiquette de l'en-tête {@code If-None-Match}, ou {@code null} s'il est absent.
+     * @return Le rapport du camion, ou {@code null} si le client possède déjà la version actuelle.
+     * @throws IllegalArgumentException Si le camion ou le format est null.
+     */
+    public TruckReport getIfChanged(Camion camion, ReportFormat format, String ifNoneMatch) {
+        check(camion, format);
+        if (ifNoneMatch != null && ifNoneMatch.equals(etag(camion, camion.getVersion(), format))) {
+            return null;
+        }
+        return get(camion, format);
+    }
+
+    /**
+     * Vide le cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Retourne le nombre de rapports en cache.
+     *
+     * @return Le nombre de rapports.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Retourne le nombre de rapports servis depuis le cache.
+     *
+     * @return Le nombre de succès.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Retourne le nombre de rapports qu'il a fallu rendre.
+     *
+     * @return Le nombre d'échecs.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * L'étiquette distingue aussi l'instance du camion : un camion supprimé puis recréé avec le même
+     * identifiant repart de la version 0 et ne doit pas être confondu avec l'ancien.
+     */
+    private static String etag(Camion camion, long version, ReportFormat format) {
+        return "\"" + camion.getId() + "-" + Integer.toHexString(System.identityHashCode(camion))
+                + "-" + version + "-" + format.name().toLowerCase() + "\"";
+    }
+
+    private static void check(Camion camion, ReportFormat format) {
+        if (camion == null) {
+            throw new IllegalArgumentException("Le camion ne peut pas être null.");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Le format du rapport ne peut pas être null.");
+        }
+    }
+
+    private static final class Key {
+        private final String camionId;
+        private final long version;
+        private final ReportFormat format;
+
+        Key(String camionId, long version, ReportFormat format) {
+            this.camionId = camionId;
+            this.version = version;
+            this.format = format;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(camionId, version, format);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return version == key.version && format == key.format && camionId.equals(key.camionId);
+        }
+    }
+
+    private static final class Entry {
+        private final Camion camion;
+        private final TruckReport report;
+
+        Entry(Camion camion, TruckReport report) {
+            this.camion = camion;
+            this.report = report;
+        }
+    }
+}
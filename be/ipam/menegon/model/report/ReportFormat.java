@@ -0,0 +1,113 @@
+package be.ipam.menegon.model.report;
+
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Format de rendu du rapport détaillé d'un camion.
+ *
+ * @author Dylan Menegon
+ */
+public enum ReportFormat {
+    /** Texte affiché par l'option « Afficher les détails d'un camion » du menu. */
+    TEXT("text/plain") {
+        @Override
+        String render(CamionSnapshot camion) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Détails du camion ").append(camion.getId()).append(":").append(System.lineSeparator());
+            sb.append(String.format("Poids actuel : %d kg%n", camion.getCurrentWeight()));
+            sb.append(String.format("Volume actuel : %.2f m³%n", camion.getCurrentVolume()));
+            List<Chargeable> load = camion.getLoad();
+            appendSection(sb, "Éléments triés par ID :", sorted(load, Comparator.comparing(Chargeable::getId)));
+            appendSection(sb, "Éléments triés par poids croissant :",
+                    sorted(load, Comparator.comparingDouble(Chargeable::getWeight).reversed()));
+            appendSection(sb, "Éléments triés par volume croissant :",
+                    sorted(load, Comparator.comparingDouble(Chargeable::getVolume).reversed()));
+            return sb.toString();
+        }
+    },
+    /** Document JSON destiné aux clients HTTP. */
+    JSON("application/json") {
+        @Override
+        String render(CamionSnapshot camion) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{\"id\":");
+            appendString(sb, camion.getId());
+            sb.append(",\"version\":").append(camion.getVersion())
+                    .append(",\"maxWeight\":").append(camion.getMaxWeight())
+                    .append(",\"maxVolume\":").append(String.format(Locale.US, "%.2f", camion.getMaxVolume()))
+                    .append(",\"currentWeight\":").append(camion.getCurrentWeight())
+                    .append(",\"currentVolume\":").append(String.format(Locale.US, "%.2f", camion.getCurrentVolume()))
+                    .append(",\"items\":[");
+            List<Chargeable> load = camion.getLoad();
+            for (int i = 0; i < load.size(); i++) {
+                Chargeable item = load.get(i);
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"type\":");
+                appendString(sb, item.getClass().getSimpleName());
+                sb.append(",\"id\":");
+                appendString(sb, item.getId());
+                sb.append(",\"weight\":").append(item.getWeight())
+                        .append(",\"volume\":").append(String.format(Locale.US, "%.2f", item.getVolume()))
+                        .append('}');
+            }
+            return sb.append("]}").toString();
+        }
+    };
+
+    private final String contentType;
+
+    ReportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * Retourne le type de contenu HTTP du format.
+     *
+     * @return Le type MIME du format.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    abstract String render(CamionSnapshot camion);
+
+    private static List<Chargeable> sorted(List<Chargeable> load, Comparator<Chargeable> order) {
+        List<Chargeable> copy = new ArrayList<>(load);
+        copy.sort(order);
+        return copy;
+    }
+
+    private static void appendSection(StringBuilder sb, String title, List<Chargeable> items) {
+        sb.append(title).append(System.lineSeparator());
+        for (Chargeable item : items) {
+            sb.append(item).append(System.lineSeparator());
+        }
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,69 @@
+package be.ipam.menegon.model.report;
+
+/**
+ * Rapport rendu d'un camion, tel qu'il était à une version donnée.
+ * L'étiquette de version ({@link #getETag()}) permet à un client HTTP de ne redemander le rapport
+ * que si le camion a changé, avec l'en-tête {@code If-None-Match}.
+ *
+ * @author Dylan Menegon
+ */
+public final class TruckReport {
+    private final String camionId;
+    private final long version;
+    private final ReportFormat format;
+    private final String content;
+    private final String etag;
+
+    TruckReport(String camionId, long version, ReportFormat format, String content, String etag) {
+        this.camionId = camionId;
+        this.version = version;
+        this.format = format;
+        this.content = content;
+        this.etag = etag;
+    }
+
+    /**
+     * Retourne l'identifiant du camion.
+     *
+     * @return L'identifiant du camion.
+     */
+    public String getCamionId() {
+        return camionId;
+    }
+
+    /**
+     * Retourne la version du camion décrite par ce rapport.
+     *
+     * @return La version du camion.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Retourne le format du rapport.
+     *
+     * @return Le format du rapport.
+     */
+    public ReportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Retourne le contenu rendu du rapport.
+     *
+     * @return Le contenu du rapport.
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * Retourne l'étiquette de version HTTP du rapport, entre guillemets.
+     *
+     * @return L'étiquette de version.
+     */
+    public String getETag() {
+        return etag;
+    }
+}
@@ -0,0 +1,134 @@
+package be.ipam.menegon.model.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Anneau de hachage cohérent qui attribue chaque identifiant de camion à un nœud.
+ * Chaque nœud occupe plusieurs positions virtuelles sur l'anneau, ce qui répartit les camions
+ * de façon homogène. Lorsqu'un nœud rejoint l'anneau, seuls les camions dont la position tombe
+ * dans ses nouveaux segments changent de propriétaire, soit environ 1/n de la flotte.
+ *
+ * Cette classe n'est pas thread-safe ; {@link ShardRouter} la protège par son propre verrou.
+ *
+ * @author Dylan Menegon
+ */
+public class HashRing {
+    /** Nombre de positions virtuelles par nœud utilisé par défaut. */
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final int virtualNodes;
+    private final TreeMap<Long, String> ring;
+    private final Set<String> nodes;
+
+    /**
+     * Constructeur pour initialiser un anneau vide avec le nombre de positions virtuelles par défaut.
+     */
+    public HashRing() {
+        this(DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Constructeur pour initialiser un anneau vide.
+     *
+     * @param virtualNodes Le nombre de positions virtuelles par nœud. Doit être strictement positif.
+     * @throws IllegalArgumentException Si le nombre de positions virtuelles n'est pas strictement positif.
+     */
+    public HashRing(int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Le nombre de positions virtuelles doit être strictement positif.");
+        }
+        this.virtualNodes = virtualNodes;
+        this.ring = new TreeMap<>();
+        this.nodes = new LinkedHashSet<>();
+    }
+
+    /**
+     * Ajoute un nœud à l'anneau.
+     *
+     * @param node L'identifiant du nœud, par exemple {@code localhost:7001}. Ne peut pas être null ou vide.
+     * @throws IllegalArgumentException Si l'identifiant est null, vide ou déjà présent dans l'anneau.
+     */
+    public void addNode(String node) {
+        if (node == null || node.trim().isEmpty()) {
+            throw new IllegalArgumentException("L'identifiant du nœud ne peut pas être vide.");
+        }
+        if (!nodes.add(node)) {
+            throw new IllegalArgumentException("Le nœud " + node + " fait déjà partie de l'anneau.");
+        }
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.putIfAbsent(hash(node + "#" + i), node);
+        }
+    }
+
+    /**
+     * Retire un nœud de l'anneau. Ses camions reviennent aux nœuds qui le suivent sur l'anneau.
+     *
+     * @param node L'identifiant du nœud.
+     * @return {@code true} si le nœud faisait partie de l'anneau, sinon {@code false}.
+     */
+    public boolean removeNode(String node) {
+        if (!nodes.remove(node)) {
+            return false;
+        }
+        ring.values().removeIf(node::equals);
+        return true;
+    }
+
+    /**
+     * Retourne le nœud propriétaire d'un camion.
+     *
+     * @param camionId L'identifiant du camion.
+     * @return L'identifiant du nœud qui gère ce camion.
+     * @throws IllegalStateException Si l'anneau ne contient aucun nœud.
+     */
+    public String ownerOf(String camionId) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("Aucun nœud n'est disponible dans l'anneau.");
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(camionId));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Retourne les nœuds de l'anneau, dans leur ordre d'ajout.
+     *
+     * @return Une liste non modifiable des nœuds.
+     */
+    public List<String> getNodes() {
+        return Collections.unmodifiableList(new ArrayList<>(nodes));
+    }
+
+    /**
+     * Retourne le nombre de nœuds de l'anneau.
+     *
+     * @return Le nombre de nœuds.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Hachage 64 bits (FNV-1a suivi du mélange final de MurmurHash3) : stable d'une JVM à l'autre,
+     * contrairement à {@link String#hashCode()} qui répartit mal les identifiants proches.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
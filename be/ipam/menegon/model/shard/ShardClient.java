@@ -0,0 +1,139 @@
+package be.ipam.menegon.model.shard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Connexions du routeur vers un {@link ShardNode}. Les connexions sont réutilisées d'une requête
+ * à l'autre ; une requête emprunte une connexion libre ou en ouvre une nouvelle, de sorte que
+ * plusieurs threads du routeur peuvent interroger le même nœud en parallèle.
+ *
+ * @author Dylan Menegon
+ */
+final class ShardClient implements AutoCloseable {
+    private final String host;
+    private final int port;
+    private final ConcurrentLinkedQueue<Connection> idle;
+    private volatile boolean closed;
+
+    ShardClient(String host, int port) {
+        this.host = host;
+        this.port = port;
+        this.idle = new ConcurrentLinkedQueue<>();
+    }
+
+    String getNode() {
+        return host + ":" + port;
+    }
+
+    /**
+     * Envoie une requête et retourne le résultat, entièrement lu, si le nœud l'a exécutée.
+     *
+     * @throws Failure Si le nœud a refusé la requête.
+     * @throws UncheckedIOException Si le nœud est injoignable.
+     */
+    DataInputStream call(byte op, Request request) {
+        // La requête est préparée avant d'emprunter une connexion : un argument refusé ne laisse rien à moitié envoyé
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        try {
+            DataOutputStream out = new DataOutputStream(frame);
+            out.writeByte(op);
+            request.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Connection connection = idle.poll();
+        try {
+            if (connection == null) {
+                connection = new Connection(new Socket(host, port));
+            }
+            frame.writeTo(connection.out);
+            connection.out.flush();
+
+            byte status = connection.in.readByte();
+            if (status != ShardProtocol.OK) {
+                String message = connection.in.readUTF();
+                release(connection);
+                throw new Failure(status, message);
+            }
+            byte[] payload = new byte[connection.in.readInt()];
+            connection.in.readFully(payload);
+            release(connection);
+            return new DataInputStream(new ByteArrayInputStream(payload));
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            throw new UncheckedIOException("Le nœud " + getNode() + " est injoignable.", e);
+        }
+    }
+
+    private void release(Connection connection) {
+        if (closed) {
+            connection.close();
+        } else {
+            idle.offer(connection);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Écrit les arguments d'une requête après son code d'opération.
+     */
+    interface Request {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Refus d'une requête par un nœud, avec le code de statut de {@link ShardProtocol}.
+     */
+    static final class Failure extends RuntimeException {
+        private final byte status;
+
+        Failure(byte status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        byte getStatus() {
+            return status;
+        }
+    }
+
+    private static final class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            socket.setTcpNoDelay(true);
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // La connexion est abandonnée de toute façon
+            }
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package be.ipam.menegon.model.shard;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.exceptions.TruckNotSettedException;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.monitoring.ConnectionEvent;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Nœud d'un déploiement partitionné : un processus qui gère, dans son propre {@link Loadmaster},
+ * les camions que l'anneau de hachage lui attribue, et qui répond aux requêtes de {@link ShardRouter}
+ * sur un port local. Chaque connexion est servie par son propre thread ; les chargements et
+ * déchargements de camions différents s'exécutent donc en parallèle.
+ *
+ * Un camion migre vers un autre nœud en deux temps : l'export en livre une copie et le fige, puis le
+ * routeur confirme l'export, qui retire le camion, une fois le nœud cible d'accord, ou l'annule sinon.
+ * Un camion n'est donc jamais perdu si le nœud cible refuse l'import ou devient injoignable.
+ *
+ * Un nœud se lance dans une JVM séparée avec {@code java be.ipam.menegon.model.shard.ShardNode <port>}.
+ * Les connexions refusées ou interrompues sont signalées par un {@link ConnectionEvent}.
+ *
+ * @author Dylan Menegon
+ */
+public class ShardNode implements AutoCloseable {
+    private final Loadmaster loadmaster;
+    private final ServerSocket server;
+    private final ExecutorService workers;
+    // Les chargements prennent le verrou en lecture ; l'ajout, le retrait et la migration de camions en écriture
+    private final ReadWriteLock lock;
+    private final Set<String> exporting; // Camions exportés en attente de confirmation, figés jusque-là
+    private volatile boolean closed;
+
+    /**
+     * Constructeur pour initialiser un nœud à l'écoute sur l'interface locale.
+     *
+     * @param port Le port d'écoute, ou 0 pour un port libre choisi par le système.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    public ShardNode(int port) throws IOException {
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.loadmaster = new Loadmaster("SHARD-" + server.getLocalPort());
+        this.workers = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "shard-" + server.getLocalPort());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lock = new ReentrantReadWriteLock();
+        this.exporting = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Démarre l'acceptation des connexions en arrière-plan.
+     *
+     * @return Ce nœud, pour enchaîner les appels.
+     */
+    public ShardNode start() {
+        workers.execute(this::acceptLoop);
+        return this;
+    }
+
+    /**
+     * Retourne le port sur lequel le nœud écoute.
+     *
+     * @return Le port d'écoute.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Retourne le Loadmaster local qui gère les camions de ce nœud.
+     *
+     * @return Le Loadmaster du nœud.
+     */
+    public Loadmaster getLoadmaster() {
+        return loadmaster;
+    }
+
+    /**
+     * Arrête le nœud et ferme toutes ses connexions.
+     *
+     * @throws IOException Si le port d'écoute ne peut pas être fermé.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        workers.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                workers.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    ConnectionEvent.report("shard-" + getPort(), "accept", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            while (!closed) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                ByteArrayOutputStream payload = new ByteArrayOutputStream();
+                byte status = ShardProtocol.OK;
+                String message = null;
+                try {
+                    handle(op, in, new DataOutputStream(payload));
+                } catch (MaxWeightReachedException e) {
+                    status = ShardProtocol.MAX_WEIGHT;
+                    message = e.getMessage();
+                } catch (MaxVolumeReachedException e) {
+                    status = ShardProtocol.MAX_VOLUME;
+                    message = e.getMessage();
+                } catch (TruckNotSettedException e) {
+                    status = ShardProtocol.TRUCK_NOT_SET;
+                    message = e.getMessage();
+                } catch (IllegalArgumentException e) {
+                    status = ShardProtocol.ILLEGAL_ARGUMENT;
+                    message = e.getMessage();
+                } catch (RuntimeException e) {
+                    status = ShardProtocol.FAILURE;
+                    message = String.valueOf(e.getMessage());
+                }
+                out.writeByte(status);
+                if (status == ShardProtocol.OK) {
+                    out.writeInt(payload.size());
+                    payload.writeTo(out);
+                } else {
+                    out.writeUTF(message);
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                ConnectionEvent.report("shard-" + getPort(), "serve", e);
+            }
+        }
+    }
+
+    /**
+     * Lit les arguments d'une requête, l'exécute sur le Loadmaster local et écrit le résultat.
+     */
+    private void handle(byte op, DataInputStream in, DataOutputStream out)
+            throws IOException, MaxWeightReachedException, MaxVolumeReachedException, TruckNotSettedException {
+        switch (op) {
+            case ShardProtocol.OP_ADD_CAMION: {
+                String id = in.readUTF();
+                int maxWeight = in.readInt();
+                double maxVolume = in.readDouble();
+                lock.writeLock().lock();
+                try {
+                    loadmaster.addCamion(new Camion(id, maxWeight, maxVolume, loadmaster));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                break;
+            }
+            case ShardProtocol.OP_REMOVE_CAMION: {
+                String id = in.readUTF();
+                lock.writeLock().lock();
+                try {
+                    loadmaster.removeCamion(id);
+                    exporting.remove(id);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                break;
+            }
+            case ShardProtocol.OP_LOAD: {
+                String id = in.readUTF();
+                Chargeable item = ShardProtocol.readItem(in);
+                lock.readLock().lock();
+                try {
+                    checkNotExporting(id);
+                    loadmaster.loadItem(id, item);
+                } finally {
+                    lock.readLock().unlock();
+                }
+                break;
+            }
+            case ShardProtocol.OP_UNLOAD: {
+                String id = in.readUTF();
+                Chargeable item = ShardProtocol.readItem(in);
+                lock.readLock().lock();
+                try {
+                    checkNotExporting(id);
+                    loadmaster.unloadItem(id, item);
+                } finally {
+                    lock.readLock().unlock();
+                }
+                break;
+            }
+            case ShardProtocol.OP_GET_LOAD: {
+                String id = in.readUTF();
+                CamionSnapshot snapshot;
+                lock.readLock().lock();
+                try {
+                    snapshot = snapshotOf(id);
+                } finally {
+                    lock.readLock().unlock();
+                }
+                writeCamion(out, snapshot);
+                break;
+            }
+            case ShardProtocol.OP_COUNT_BY_WEIGHT: {
+                int min = in.readInt();
+                int max = in.readInt();
+                lock.readLock().lock();
+                try {
+                    out.writeLong(loadmaster.countItemsByWeight(min, max));
+                } finally {
+                    lock.readLock().unlock();
+                }
+                break;
+            }
+            case ShardProtocol.OP_COUNT_BY_VOLUME: {
+                double min = in.readDouble();
+                double max = in.readDouble();
+                lock.readLock().lock();
+                try {
+                    out.writeLong(loadmaster.countItemsByVolume(min, max));
+                } finally {
+                    lock.readLock().unlock();
+                }
+                break;
+            }
+            case ShardProtocol.OP_LIST_CAMIONS: {
+                List<String> ids;
+                lock.readLock().lock();
+                try {
+                    ids = new ArrayList<>(loadmaster.getCamions().keySet());
+                } finally {
+                    lock.readLock().unlock();
+                }
+                out.writeInt(ids.size());
+                for (String id : ids) {
+                    out.writeUTF(id);
+                }
+                break;
+            }
+            case ShardProtocol.OP_EXPORT_CAMION: {
+                String id = in.readUTF();
+                CamionSnapshot snapshot;
+                lock.writeLock().lock();
+                try {
+                    // Le camion reste sur ce nœud, figé, jusqu'à la confirmation ou l'annulation de l'export
+                    snapshot = snapshotOf(id);
+                    exporting.add(id);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                writeCamion(out, snapshot);
+                break;
+            }
+            case ShardProtocol.OP_COMMIT_EXPORT: {
+                String id = in.readUTF();
+                lock.writeLock().lock();
+                try {
+                    if (!exporting.contains(id)) {
+                        throw new IllegalArgumentException("Le camion avec l'ID " + id + " n'est pas en cours d'export.");
+                    }
+                    loadmaster.removeCamion(id);
+                    exporting.remove(id);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                break;
+            }
+            case ShardProtocol.OP_ABORT_EXPORT: {
+                String id = in.readUTF();
+                lock.writeLock().lock();
+                try {
+                    exporting.remove(id);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                break;
+            }
+            case ShardProtocol.OP_IMPORT_CAMION: {
+                String id = in.readUTF();
+                int maxWeight = in.readInt();
+                double maxVolume = in.readDouble();
+                List<Chargeable> items = ShardProtocol.readItems(in);
+                lock.writeLock().lock();
+                try {
+                    loadmaster.addCamion(new Camion(id, maxWeight, maxVolume, loadmaster));
+                    try {
+                        for (Chargeable item : items) {
+                            loadmaster.loadItem(id, item);
+                        }
+                    } catch (MaxWeightReachedException | MaxVolumeReachedException | TruckNotSettedException | RuntimeException e) {
+                        // Un camion importé en partie serait incohérent avec celui du nœud d'origine
+                        loadmaster.removeCamion(id);
+                        throw e;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                break;
+            }
+            default:
+                throw new IOException("Opération inconnue : " + op + ".");
+        }
+    }
+
+    private void checkNotExporting(String id) {
+        if (exporting.contains(id)) {
+            throw new IllegalStateException("Le camion avec l'ID " + id + " est en cours de migration.");
+        }
+    }
+
+    private CamionSnapshot snapshotOf(String id) {
+        Camion camion = loadmaster.getCamions().get(id);
+        if (camion == null) {
+            throw new IllegalArgumentException("Le camion avec l'ID " + id + " n'existe pas.");
+        }
+        return camion.snapshot();
+    }
+
+    private static void writeCamion(DataOutputStream out, CamionSnapshot snapshot) throws IOException {
+        out.writeInt(snapshot.getMaxWeight());
+        out.writeDouble(snapshot.getMaxVolume());
+        List<Chargeable> items = snapshot.getLoad();
+        out.writeInt(items.size());
+        for (Chargeable item : items) {
+            ShardProtocol.writeItem(out, item);
+        }
+    }
+
+    /**
+     * Lance un nœud dans cette JVM et le garde actif jusqu'à l'arrêt du processus.
+     *
+     * @param args Le port d'écoute.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage : java be.ipam.menegon.model.shard.ShardNode <port>");
+            System.exit(1);
+        }
+        ShardNode node = new ShardNode(Integer.parseInt(args[0]));
+        System.out.println("Nœud à l'écoute sur le port " + node.getPort() + ".");
+        node.acceptLoop();
+    }
+}
@@ -0,0 +1,74 @@
+package be.ipam.menegon.model.shard;
+
+import be.ipam.menegon.model.codec.BinaryCodec;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocole binaire échangé entre {@link ShardRouter} et {@link ShardNode}.
+ * Chaque requête commence par un code d'opération ; chaque réponse commence par un code de statut,
+ * suivi du résultat si le statut vaut {@link #OK}, ou d'un message d'erreur sinon.
+ * Les éléments sont encodés par {@link BinaryCodec}, précédés de leur taille en octets.
+ *
+ * @author Dylan Menegon
+ */
+final class ShardProtocol {
+    static final byte OP_ADD_CAMION = 1;
+    static final byte OP_REMOVE_CAMION = 2;
+    static final byte OP_LOAD = 3;
+    static final byte OP_UNLOAD = 4;
+    static final byte OP_GET_LOAD = 5;
+    static final byte OP_COUNT_BY_WEIGHT = 6;
+    static final byte OP_COUNT_BY_VOLUME = 7;
+    static final byte OP_LIST_CAMIONS = 8;
+    static final byte OP_EXPORT_CAMION = 9;
+    static final byte OP_IMPORT_CAMION = 10;
+    static final byte OP_COMMIT_EXPORT = 11;
+    static final byte OP_ABORT_EXPORT = 12;
+
+    static final byte OK = 0;
+    static final byte MAX_WEIGHT = 1;
+    static final byte MAX_VOLUME = 2;
+    static final byte TRUCK_NOT_SET = 3;
+    static final byte ILLEGAL_ARGUMENT = 4;
+    static final byte FAILURE = 5;
+
+    private ShardProtocol() {
+    }
+
+    /**
+     * Écrit un élément encodé par {@link BinaryCodec}, précédé de sa taille en octets.
+     */
+    static void writeItem(DataOutputStream out, Chargeable item) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryCodec.encodedSize(item));
+        BinaryCodec.encodeItem(buffer, item);
+        out.writeInt(buffer.position());
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    static Chargeable readItem(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        try {
+            return BinaryCodec.decodeItem(ByteBuffer.wrap(bytes));
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new IOException("Élément reçu invalide.", e);
+        }
+    }
+
+    static List<Chargeable> readItems(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Chargeable> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(readItem(in));
+        }
+        return items;
+    }
+}
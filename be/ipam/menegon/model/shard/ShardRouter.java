@@ -0,0 +1,445 @@
+package be.ipam.menegon.model.shard;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.exceptions.TruckNotSettedException;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Routeur d'un déploiement partitionné : la flotte est répartie entre plusieurs {@link ShardNode},
+ * chaque camion appartenant au nœud que lui attribue un {@link HashRing} d'après son identifiant.
+ * Les opérations sur un camion sont transmises à son seul nœud ; les requêtes qui portent
+ * sur toute la flotte sont envoyées à tous les nœuds en parallèle et leurs résultats combinés.
+ * Chaque nœud gère ses camions dans son propre processus, si bien que la capacité de la flotte
+ * croît avec le nombre de nœuds.
+ *
+ * Lorsqu'un nœud rejoint l'anneau, les camions qui lui reviennent lui sont transférés avec leur
+ * chargement ; les autres opérations attendent la fin de ce rééquilibrage.
+ *
+ * @author Dylan Menegon
+ */
+public class ShardRouter implements AutoCloseable {
+    private final HashRing ring;
+    private final Map<String, ShardClient> clients;
+    private final ExecutorService scatter;
+    // Les opérations prennent le verrou en lecture ; l'ajout d'un nœud et le rééquilibrage en écriture
+    private final ReadWriteLock lock;
+
+    /**
+     * Constructeur pour initialiser un routeur sans aucun nœud.
+     */
+    public ShardRouter() {
+        this.ring = new HashRing();
+        this.clients = new HashMap<>();
+        this.scatter = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "shard-router");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Ajoute un nœud à l'anneau et lui transfère les camions qui lui reviennent désormais.
+     * Si un transfert échoue, le nœud est retiré de l'anneau, les camions déjà transférés
+     * sont rendus à leur nœud d'origine et l'exception est relancée : le routeur reste tel
+     * qu'il était avant l'appel.
+     *
+     * @param host L'adresse du nœud, par exemple {@code localhost}.
+     * @param port Le port du nœud.
+     * @return Le nombre de camions transférés vers le nouveau nœud.
+     * @throws IllegalArgumentException Si le nœud fait déjà partie de l'anneau, ou si le nouveau nœud refuse un camion.
+     * @throws UncheckedIOException Si un nœud est injoignable.
+     */
+    public int addNode(String host, int port) {
+        ShardClient client = new ShardClient(host, port);
+        String node = client.getNode();
+        lock.writeLock().lock();
+        try {
+            ring.addNode(node);
+            clients.put(node, client);
+            Map<String, ShardClient> moved = new LinkedHashMap<>();
+            try {
+                for (ShardClient source : clients.values()) {
+                    if (source == client) {
+                        continue;
+                    }
+                    for (String camionId : listCamions(source)) {
+                        if (ring.ownerOf(camionId).equals(node)) {
+                            migrate(camionId, source, client);
+                            moved.put(camionId, source);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                ring.removeNode(node);
+                clients.remove(node);
+                for (Map.Entry<String, ShardClient> entry : moved.entrySet()) {
+                    try {
+                        migrate(entry.getKey(), client, entry.getValue());
+                    } catch (RuntimeException rollback) {
+                        e.addSuppressed(rollback);
+                    }
+                }
+                client.close();
+                throw e;
+            }
+            return moved.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne les nœuds de l'anneau, dans leur ordre d'ajout.
+     *
+     * @return Une liste non modifiable des nœuds, sous la forme {@code hôte:port}.
+     */
+    public List<String> getNodes() {
+        lock.readLock().lock();
+        try {
+            return ring.getNodes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne le nœud qui gère un camion.
+     *
+     * @param camionId L'identifiant du camion.
+     * @return Le nœud du camion, sous la forme {@code hôte:port}.
+     * @throws IllegalStateException Si aucun nœud n'a été ajouté.
+     */
+    public String ownerOf(String camionId) {
+        lock.readLock().lock();
+        try {
+            return ring.ownerOf(camionId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Crée un camion sur le nœud qui doit le gérer.
+     *
+     * @param camionId L'identifiant du camion. Ne peut pas être null ou vide.
+     * @param maxWeight Le poids maximum du camion. Doit être positif.
+     * @param maxVolume Le volume maximum du camion. Doit être positif.
+     * @throws IllegalArgumentException Si les paramètres du camion sont invalides ou si le camion existe déjà.
+     */
+    public void addCamion(String camionId, int maxWeight, double maxVolume) {
+        checkCamionId(camionId);
+        run(camionId, ShardProtocol.OP_ADD_CAMION, out -> {
+            out.writeUTF(camionId);
+            out.writeInt(maxWeight);
+            out.writeDouble(maxVolume);
+        });
+    }
+
+    /**
+     * Supprime un camion de son nœud.
+     *
+     * @param camionId L'identifiant du camion.
+     * @throws IllegalArgumentException Si le camion n'existe pas.
+     */
+    public void removeCamion(String camionId) {
+        checkCamionId(camionId);
+        run(camionId, ShardProtocol.OP_REMOVE_CAMION, out -> out.writeUTF(camionId));
+    }
+
+    /**
+     * Charge un élément dans un camion, sur le nœud qui gère ce camion.
+     *
+     * @param camionId L'identifiant du camion.
+     * @param item L'élément à charger. Un élément d'un type personnalisé est recréé sur le nœud en {@link be.ipam.menegon.model.codec.CustomItem}.
+     * @throws MaxWeightReachedException Si le poids total du camion dépasse la capacité maximale après le chargement.
+     * @throws MaxVolumeReachedException Si le volume total du camion dépasse la capacité maximale après le chargement.
+     * @throws TruckNotSettedException Si le camion n'existe pas.
+     * @throws IllegalArgumentException Si l'élément ne peut pas être transmis ou s'il est déjà chargé.
+     */
+    public void loadItem(String camionId, Chargeable item)
+            throws MaxWeightReachedException, MaxVolumeReachedException, TruckNotSettedException {
+        checkCamionId(camionId);
+        checkItem(item);
+        try {
+            call(camionId, ShardProtocol.OP_LOAD, out -> {
+                out.writeUTF(camionId);
+                ShardProtocol.writeItem(out, item);
+            });
+        } catch (ShardClient.Failure e) {
+            switch (e.getStatus()) {
+                case ShardProtocol.MAX_WEIGHT:
+                    throw new MaxWeightReachedException(e.getMessage(), item);
+                case ShardProtocol.MAX_VOLUME:
+                    throw new MaxVolumeReachedException(e.getMessage(), item);
+                case ShardProtocol.TRUCK_NOT_SET:
+                    throw new TruckNotSettedException(e.getMessage());
+                default:
+                    throw translate(e);
+            }
+        }
+    }
+
+    /**
+     * Décharge un élément d'un camion, sur le nœud qui gère ce camion.
+     *
+     * @param camionId L'identifiant du camion.
+     * @param item L'élément à décharger.
+     * @throws IllegalArgumentException Si le camion n'existe pas ou si l'élément est invalide.
+     */
+    public void unloadItem(String camionId, Chargeable item) {
+        checkCamionId(camionId);
+        checkItem(item);
+        run(camionId, ShardProtocol.OP_UNLOAD, out -> {
+            out.writeUTF(camionId);
+            ShardProtocol.writeItem(out, item);
+        });
+    }
+
+    /**
+     * Retourne le chargement d'un camion, dans l'ordre de chargement.
+     *
+     * @param camionId L'identifiant du camion.
+     * @return Une copie du chargement du camion.
+     * @throws IllegalArgumentException Si le camion n'existe pas.
+     */
+    public List<Chargeable> getLoad(String camionId) {
+        checkCamionId(camionId);
+        DataInputStream in = run(camionId, ShardProtocol.OP_GET_LOAD, out -> out.writeUTF(camionId));
+        try {
+            in.readInt();
+            in.readDouble();
+            return ShardProtocol.readItems(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Retourne les identifiants de tous les camions de la flotte, tous nœuds confondus.
+     *
+     * @return Les identifiants des camions.
+     */
+    public List<String> getCamionIds() {
+        List<String> ids = new ArrayList<>();
+        for (List<String> part : gather(this::listCamions)) {
+            ids.addAll(part);
+        }
+        return ids;
+    }
+
+    /**
+     * Compte les éléments de toute la flotte dont le poids est compris entre deux bornes incluses.
+     * Chaque nœud compte ses propres camions en parallèle des autres.
+     *
+     * @param min Le poids minimal.
+     * @param max Le poids maximal.
+     * @return Le nombre d'éléments dont le poids est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public long countItemsByWeight(int min, int max) {
+        checkRange(min, max);
+        long count = 0;
+        for (long part : gather(client -> readLong(client.call(ShardProtocol.OP_COUNT_BY_WEIGHT, out -> {
+            out.writeInt(min);
+            out.writeInt(max);
+        })))) {
+            count += part;
+        }
+        return count;
+    }
+
+    /**
+     * Compte les éléments de toute la flotte dont le volume est compris entre deux bornes incluses.
+     * Chaque nœud compte ses propres camions en parallèle des autres.
+     *
+     * @param min Le volume minimal.
+     * @param max Le volume maximal.
+     * @return Le nombre d'éléments dont le volume est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public long countItemsByVolume(double min, double max) {
+        checkRange(min, max);
+        long count = 0;
+        for (long part : gather(client -> readLong(client.call(ShardProtocol.OP_COUNT_BY_VOLUME, out -> {
+            out.writeDouble(min);
+            out.writeDouble(max);
+        })))) {
+            count += part;
+        }
+        return count;
+    }
+
+    /**
+     * Ferme les connexions vers tous les nœuds. Les nœuds eux-mêmes restent actifs.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (ShardClient client : clients.values()) {
+                client.close();
+            }
+            clients.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scatter.shutdownNow();
+    }
+
+    /**
+     * Transmet une requête au nœud du camion, en traduisant un refus du nœud en exception.
+     */
+    private DataInputStream run(String camionId, byte op, ShardClient.Request request) {
+        try {
+            return call(camionId, op, request);
+        } catch (ShardClient.Failure e) {
+            throw translate(e);
+        }
+    }
+
+    private DataInputStream call(String camionId, byte op, ShardClient.Request request) {
+        lock.readLock().lock();
+        try {
+            return clients.get(ring.ownerOf(camionId)).call(op, request);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exécute une requête sur tous les nœuds en parallèle et retourne leurs résultats.
+     */
+    private <T> List<T> gather(Function<ShardClient, T> query) {
+        lock.readLock().lock();
+        try {
+            List<CompletableFuture<T>> futures = new ArrayList<>(clients.size());
+            for (ShardClient client : clients.values()) {
+                futures.add(CompletableFuture.supplyAsync(() -> query.apply(client), scatter));
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<T> future : futures) {
+                try {
+                    results.add(future.join());
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof ShardClient.Failure) {
+                        throw translate((ShardClient.Failure) cause);
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw e;
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Déplace un camion et son chargement d'un nœud à un autre, en deux temps : le nœud d'origine
+     * n'efface le camion qu'après l'accord du nœud cible. Si le nœud cible refuse le camion ou est
+     * injoignable, l'export est annulé et le camion reste sur le nœud d'origine.
+     */
+    private void migrate(String camionId, ShardClient source, ShardClient target) {
+        ShardClient.Request id = out -> out.writeUTF(camionId);
+        DataInputStream in = source.call(ShardProtocol.OP_EXPORT_CAMION, id);
+        int maxWeight;
+        double maxVolume;
+        List<Chargeable> items;
+        try {
+            maxWeight = in.readInt();
+            maxVolume = in.readDouble();
+            items = ShardProtocol.readItems(in);
+        } catch (IOException e) {
+            source.call(ShardProtocol.OP_ABORT_EXPORT, id);
+            throw new UncheckedIOException(e);
+        }
+        ShardClient.Request request = out -> {
+            out.writeUTF(camionId);
+            out.writeInt(maxWeight);
+            out.writeDouble(maxVolume);
+            out.writeInt(items.size());
+            for (Chargeable item : items) {
+                ShardProtocol.writeItem(out, item);
+            }
+        };
+        try {
+            target.call(ShardProtocol.OP_IMPORT_CAMION, request);
+        } catch (RuntimeException e) {
+            try {
+                source.call(ShardProtocol.OP_ABORT_EXPORT, id);
+            } catch (RuntimeException abort) {
+                e.addSuppressed(abort);
+            }
+            throw e instanceof ShardClient.Failure ? translate((ShardClient.Failure) e) : e;
+        }
+        source.call(ShardProtocol.OP_COMMIT_EXPORT, id);
+    }
+
+    private List<String> listCamions(ShardClient client) {
+        DataInputStream in = client.call(ShardProtocol.OP_LIST_CAMIONS, out -> { });
+        try {
+            int count = in.readInt();
+            List<String> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ids.add(in.readUTF());
+            }
+            return ids;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long readLong(DataInputStream in) {
+        try {
+            return in.readLong();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static RuntimeException translate(ShardClient.Failure failure) {
+        if (failure.getStatus() == ShardProtocol.ILLEGAL_ARGUMENT) {
+            return new IllegalArgumentException(failure.getMessage());
+        }
+        return new IllegalStateException(failure.getMessage());
+    }
+
+    private static void checkCamionId(String camionId) {
+        if (camionId == null || camionId.trim().isEmpty()) {
+            throw new IllegalArgumentException("L'identifiant du camion ne peut pas être vide.");
+        }
+    }
+
+    private static void checkItem(Chargeable item) {
+        if (item == null) {
+            throw new IllegalArgumentException("L'article ne peut pas être nul.");
+        }
+    }
+
+    private static void checkRange(double min, double max) {
+        if (min > max) {
+            throw new IllegalArgumentException("La borne minimale ne peut pas dépasser la borne maximale.");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package be.ipam.menegon.model.storage;
+
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.Locale;
+
+/**
+ * Vue {@link Chargeable} sur un enregistrement d'une {@link ItemArena}.
+ * Une vue ne contient que la référence à la zone et le handle de l'enregistrement :
+ * la créer ne copie aucune donnée, et chaque accesseur lit la mémoire hors tas.
+ * La vue devient invalide dès que l'enregistrement est libéré.
+ *
+ * @author Dylan Menegon
+ */
+public final class ArenaItem implements Chargeable {
+
+    private final ItemArena arena;
+    private final int handle;
+
+    ArenaItem(ItemArena arena, int handle) {
+        this.arena = arena;
+        this.handle = handle;
+    }
+
+    /**
+     * Retourne le handle de l'enregistrement désigné par cette vue.
+     *
+     * @return Le handle de l'enregistrement.
+     */
+    public int getHandle() {
+        return handle;
+    }
+
+    /**
+     * Retourne l'étiquette de type de l'enregistrement.
+     *
+     * @return {@link ItemArena#TYPE_VRAC}, {@link ItemArena#TYPE_PALETTE} ou {@link ItemArena#TYPE_CUSTOM}.
+     */
+    public byte getType() {
+        return arena.getType(handle);
+    }
+
+    @Override
+    public String getId() {
+        return arena.getId(handle);
+    }
+
+    @Override
+    public double getVolume() {
+        return arena.getVolume(handle);
+    }
+
+    @Override
+    public int getWeight() {
+        return arena.getWeight(handle);
+    }
+
+    @Override
+    public double getValue() {
+        return arena.getValue(handle);
+    }
+
+    @Override
+    public long getLatestDeparture() {
+        return arena.getLatestDeparture(handle);
+    }
+
+    /**
+     * Deux vues sont égales si elles désignent le même enregistrement de la même zone.
+     *
+     * @param o L'objet à comparer avec cette vue.
+     * @return {@code true} si les deux vues désignent le même enregistrement, sinon {@code false}.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArenaItem other = (ArenaItem) o;
+        return arena == other.arena && handle == other.handle;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(arena) + handle;
+    }
+
+    @Override
+    public String toString() {
+        String type;
+        switch (getType()) {
+            case ItemArena.TYPE_VRAC:
+                type = "Vrac";
+                break;
+            case ItemArena.TYPE_PALETTE:
+                type = "Palette";
+                break;
+            default:
+                type = "Custom";
+                break;
+        }
+        return new StringBuilder()
+                .append(type).append(" [ID=").append(getId())
+                .append(", Weight=").append(String.format(Locale.US, "%.2f", (double) getWeight())).append(" kg")
+                .append(", Volume=").append(String.format(Locale.US, "%.2f", getVolume())).append(" m³")
+                .append("]").toString();
+    }
+}
@@ -0,0 +1,192 @@
+package be.ipam.menegon.model.storage;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Chargement d'un camion dont les éléments sont conservés hors tas dans une {@link ItemArena}.
+ * Seuls les handles des enregistrements sont gardés sur le tas, dans un tableau d'entiers,
+ * si bien que la taille du chargement n'a pas d'effet sur le travail du ramasse-miettes.
+ * Les règles de capacité sont les mêmes que celles de {@link be.ipam.menegon.model.truck.Camion}.
+ *
+ * C'est un stockage facultatif et autonome : il ne remplace pas le chargement d'un {@code Camion}
+ * (voir {@link ItemArena}), n'est pas géré par un Loadmaster et n'émet aucune notification.
+ *
+ * @author Dylan Menegon
+ */
+public class ArenaLoad {
+    private final ItemArena arena;
+    private final int maxWeight;
+    private final double maxVolume;
+    private int currentWeight;
+    private double currentVolume;
+    private int[] handles;
+    private int size;
+
+    /**
+     * Crée un chargement vide stocké dans la zone donnée.
+     *
+     * @param arena La zone de stockage hors tas. Ne peut pas être null.
+     * @param maxWeight Le poids maximum du chargement. Doit être positif.
+     * @param maxVolume Le volume maximum du chargement. Doit être positif.
+     * @throws IllegalArgumentException Si la zone est null, ou si le poids ou le volume maximum sont négatifs.
+     */
+    public ArenaLoad(ItemArena arena, int maxWeight, double maxVolume) {
+        if (arena == null) {
+            throw new IllegalArgumentException("La zone de stockage ne peut pas être nulle.");
+        }
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("Le poids maximum doit être positif.");
+        }
+        if (maxVolume < 0) {
+            throw new IllegalArgumentException("Le volume maximum doit être positif.");
+        }
+        this.arena = arena;
+        this.maxWeight = maxWeight;
+        this.maxVolume = maxVolume;
+        this.handles = new int[16];
+    }
+
+    /**
+     * Copie un élément dans la zone de stockage et l'ajoute au chargement.
+     *
+     * @param item L'élément à charger. Ne peut pas être null.
+     * @return Le handle de l'enregistrement créé.
+     * @throws MaxWeightReachedException Si le poids total après chargement dépasse la capacité maximale.
+     * @throws MaxVolumeReachedException Si le volume total après chargement dépasse la capacité maximale.
+     */
+    public int load(Chargeable item) throws MaxWeightReachedException, MaxVolumeReachedException {
+        if (item == null) {
+            throw new IllegalArgumentException("L'article à charger ne peut pas être nul.");
+        }
+        if (currentWeight + item.getWeight() > maxWeight) {
+            throw new MaxWeightReachedException("Le poids maximum du camion est atteint.", item);
+        }
+        if (currentVolume + item.getVolume() > maxVolume) {
+            throw new MaxVolumeReachedException("Le volume maximum du camion est atteint.", item);
+        }
+        int handle = arena.store(item);
+        if (size == handles.length) {
+            handles = Arrays.copyOf(handles, size * 2);
+        }
+        handles[size++] = handle;
+        currentWeight += item.getWeight();
+        currentVolume += item.getVolume();
+        return handle;
+    }
+
+    /**
+     * Décharge le premier élément portant l'identifiant donné et libère son enregistrement.
+     *
+     * @param itemId L'identifiant de l'élément à décharger.
+     * @return Une copie sur le tas de l'élément déchargé, indépendante de la zone (voir {@link ItemArena#materialize(int)}).
+     * @throws IllegalArgumentException Si aucun élément ne porte cet identifiant.
+     */
+    public Chargeable unload(String itemId) {
+        if (itemId == null) {
+            throw new IllegalArgumentException("L'article à décharger n'est pas trouvé dans le camion.");
+        }
+        // Les identifiants sont comparés en place : la recherche ne crée aucune chaîne
+        byte[] id = itemId.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < size; i++) {
+            int handle = handles[i];
+            if (arena.hasId(handle, id)) {
+                Chargeable item = arena.materialize(handle);
+                currentWeight -= arena.getWeight(handle);
+                currentVolume -= arena.getVolume(handle);
+                System.arraycopy(handles, i + 1, handles, i, size - i - 1);
+                size--;
+                arena.release(handle);
+                return item;
+            }
+        }
+        throw new IllegalArgumentException("L'article à décharger n'est pas trouvé dans le camion.");
+    }
+
+    /**
+     * Décharge tous les éléments et libère leurs enregistrements.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            arena.release(handles[i]);
+        }
+        size = 0;
+        currentWeight = 0;
+        currentVolume = 0;
+    }
+
+    /**
+     * Retourne une vue sur l'élément à la position donnée, dans l'ordre de chargement.
+     *
+     * @param index La position de l'élément.
+     * @return Une vue légère sur l'élément.
+     * @throws IndexOutOfBoundsException Si la position est invalide.
+     */
+    public ArenaItem get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return arena.view(handles[index]);
+    }
+
+    /**
+     * Parcourt le chargement dans l'ordre de chargement sans rien copier.
+     *
+     * @param action L'action à appliquer à chaque vue.
+     */
+    public void forEach(Consumer<? super ArenaItem> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(arena.view(handles[i]));
+        }
+    }
+
+    /**
+     * Retourne le nombre d'éléments chargés.
+     *
+     * @return Le nombre d'éléments.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retourne le poids actuel du chargement.
+     *
+     * @return Le poids actuel.
+     */
+    public int getCurrentWeight() {
+        return currentWeight;
+    }
+
+    /**
+     * Retourne le volume actuel du chargement.
+     *
+     * @return Le volume actuel.
+     */
+    public double getCurrentVolume() {
+        return currentVolume;
+    }
+
+    /**
+     * Retourne le poids maximum du chargement.
+     *
+     * @return Le poids maximum.
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Retourne le volume maximum du chargement.
+     *
+     * @return Le volume maximum.
+     */
+    public double getMaxVolume() {
+        return maxVolume;
+    }
+}
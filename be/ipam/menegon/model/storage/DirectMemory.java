@@ -0,0 +1,55 @@
+package be.ipam.menegon.model.storage;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Libération immédiate des blocs de mémoire directe, sans attendre le ramasse-miettes.
+ * S'appuie sur {@code sun.misc.Unsafe#invokeCleaner}, disponible depuis Java 9 ; si la JVM ne l'offre pas,
+ * la libération est laissée au ramasse-miettes.
+ *
+ * @author Dylan Menegon
+ */
+final class DirectMemory {
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private DirectMemory() {
+    }
+
+    /**
+     * Rend au système la mémoire d'un bloc direct. Le bloc ne doit plus jamais être lu ni écrit.
+     *
+     * @param buffer Le bloc à libérer.
+     * @return {@code true} si la mémoire a été rendue immédiatement, sinon {@code false}.
+     */
+    static boolean free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null || buffer == null || !buffer.isDirect()) {
+            return false;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package be.ipam.menegon.model.storage;
+
+import be.ipam.menegon.model.codec.CustomItem;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Zone de stockage hors tas (off-heap) pour les éléments chargeables.
+ * Chaque élément est conservé sous forme d'un enregistrement de taille fixe
+ * (type, identifiant, poids, volume, valeur, heure limite de départ) dans des blocs de mémoire directe, de sorte que
+ * des dizaines de millions d'éléments n'ajoutent aucun objet à parcourir pour le ramasse-miettes.
+ * Un élément est désigné par un entier (handle) retourné par {@link #store(Chargeable)}.
+ *
+ * Disposition d'un enregistrement (64 octets) :
+ * <pre>
+ *  0      type (1 octet)
+ *  1      longueur de l'identifiant en UTF-8 (1 octet, {@code 0xFF} si l'identifiant est trop long)
+ *  4..8   poids (int)
+ *  8..16  volume (double)
+ * 16..24  valeur (double)
+ * 24..32  heure limite de départ (long)
+ * 32..64  identifiant en UTF-8, ou pour un identifiant de plus de 32 octets :
+ * 32..36  position de l'identifiant dans la zone des identifiants longs (int)
+ * 36..40  longueur de l'identifiant en UTF-8 (int)
+ * </pre>
+ *
+ * Les identifiants longs sont eux aussi hors tas, dans une zone de mémoire directe à part, compactée
+ * quand plus de la moitié de son contenu appartient à des enregistrements libérés. Les identifiants sont
+ * comparés octet par octet en place ({@link #hasId(int, byte[])}), sans créer de chaîne.
+ * {@link #close()} rend immédiatement la mémoire directe au système quand la JVM le permet.
+ *
+ * Cette zone est un stockage facultatif, indépendant de {@link be.ipam.menegon.model.truck.Camion} :
+ * les index, les versions publiées et les observateurs d'un camion retiennent ses éléments par référence,
+ * si bien qu'un camion garde son chargement sur le tas. {@link ArenaLoad} donne un chargement autonome
+ * hors tas, pour les gros volumes d'éléments qui n'ont besoin ni de Loadmaster ni de notifications.
+ * Cette classe n'est pas thread-safe.
+ *
+ * @author Dylan Menegon
+ */
+public class ItemArena implements AutoCloseable {
+
+    /** Étiquette de type pour un élément chargeable personnalisé. */
+    public static final byte TYPE_CUSTOM = 0;
+    /** Étiquette de type pour un {@link Vrac}. */
+    public static final byte TYPE_VRAC = 1;
+    /** Étiquette de type pour une {@link Palette}. */
+    public static final byte TYPE_PALETTE = 2;
+
+    static final int RECORD_SIZE = 64;
+    static final int MAX_INLINE_ID = 32;
+
+    private static final int OFFSET_TYPE = 0;
+    private static final int OFFSET_ID_LENGTH = 1;
+    private static final int OFFSET_WEIGHT = 4;
+    private static final int OFFSET_VOLUME = 8;
+    private static final int OFFSET_VALUE = 16;
+    private static final int OFFSET_LATEST_DEPARTURE = 24;
+    private static final int OFFSET_ID = 32;
+    private static final int OFFSET_LONG_ID_POSITION = 32;
+    private static final int OFFSET_LONG_ID_LENGTH = 36;
+    private static final int LONG_ID = 0xFF;
+    private static final byte FREE = -1;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_RECORDS = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_RECORDS - 1;
+    private static final int INITIAL_LONG_ID_BYTES = 4_096;
+
+    private ByteBuffer[] chunks;
+    private int chunkCount;
+    private int nextSlot; // Premier enregistrement jamais utilisé
+    private int[] freeSlots;
+    private int freeCount;
+    private int size;
+    private ByteBuffer longIds; // Identifiants longs, bout à bout
+    private int longIdsUsed;
+    private int longIdsGarbage; // Octets d'identifiants longs d'enregistrements libérés
+    private boolean closed;
+
+    /**
+     * Crée une zone de stockage vide. La mémoire directe est réservée par blocs
+     * de 65 536 enregistrements au fur et à mesure des besoins.
+     */
+    public ItemArena() {
+        this.chunks = new ByteBuffer[4];
+        this.freeSlots = new int[64];
+    }
+
+    /**
+     * Copie un élément dans la zone de stockage.
+     *
+     * @param item L'élément à stocker. Ne peut pas être null.
+     * @return Le handle de l'enregistrement créé.
+     * @throws IllegalArgumentException Si l'élément est null.
+     * @throws IllegalStateException Si la zone de stockage est fermée.
+     */
+    public int store(Chargeable item) {
+        if (item == null) {
+            throw new IllegalArgumentException("L'article à stocker ne peut pas être nul.");
+        }
+        ensureOpen();
+        int handle = allocate();
+        ByteBuffer chunk = chunks[handle >>> CHUNK_BITS];
+        int base = (handle & CHUNK_MASK) * RECORD_SIZE;
+
+        chunk.put(base + OFFSET_TYPE, typeOf(item));
+        chunk.putInt(base + OFFSET_WEIGHT, item.getWeight());
+        chunk.putDouble(base + OFFSET_VOLUME, item.getVolume());
+        chunk.putDouble(base + OFFSET_VALUE, item.getValue());
+        chunk.putLong(base + OFFSET_LATEST_DEPARTURE, item.getLatestDeparture());
+
+        byte[] id = item.getId().getBytes(StandardCharsets.UTF_8);
+        if (id.length <= MAX_INLINE_ID) {
+            chunk.put(base + OFFSET_ID_LENGTH, (byte) id.length);
+            for (int i = 0; i < id.length; i++) {
+                chunk.put(base + OFFSET_ID + i, id[i]);
+            }
+        } else {
+            // Marqué libre jusqu'à ce que l'identifiant soit copié : un compactage l'ignore
+            chunk.put(base + OFFSET_TYPE, FREE);
+            int position = reserveLongId(id.length);
+            for (int i = 0; i < id.length; i++) {
+                longIds.put(position + i, id[i]);
+            }
+            chunk.put(base + OFFSET_TYPE, typeOf(item));
+            chunk.put(base + OFFSET_ID_LENGTH, (byte) LONG_ID);
+            chunk.putInt(base + OFFSET_LONG_ID_POSITION, position);
+            chunk.putInt(base + OFFSET_LONG_ID_LENGTH, id.length);
+        }
+        size++;
+        return handle;
+    }
+
+    /**
+     * Libère un enregistrement. Son emplacement sera réutilisé par un prochain {@link #store(Chargeable)}.
+     *
+     * @param handle Le handle de l'enregistrement à libérer.
+     * @throws IllegalArgumentException Si le handle ne désigne pas un enregistrement occupé.
+     */
+    public void release(int handle) {
+        ByteBuffer chunk = checkHandle(handle);
+        int base = (handle & CHUNK_MASK) * RECORD_SIZE;
+        if ((chunk.get(base + OFFSET_ID_LENGTH) & 0xFF) == LONG_ID) {
+            longIdsGarbage += chunk.getInt(base + OFFSET_LONG_ID_LENGTH);
+        }
+        chunk.put(base + OFFSET_TYPE, FREE);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = handle;
+        size--;
+    }
+
+    /**
+     * Retourne une vue {@link Chargeable} sur un enregistrement. La vue ne copie rien :
+     * chaque accesseur lit directement la mémoire hors tas.
+     *
+     * @param handle Le handle de l'enregistrement.
+     * @return Une vue légère sur l'enregistrement.
+     * @throws IllegalArgumentException Si le handle ne désigne pas un enregistrement occupé.
+     */
+    public ArenaItem view(int handle) {
+        checkHandle(handle);
+        return new ArenaItem(this, handle);
+    }
+
+    /**
+     * Recrée un objet du tas ({@link Vrac}, {@link Palette} ou {@link CustomItem} pour un élément personnalisé)
+     * à partir d'un enregistrement. L'objet ne dépend plus de la zone : il reste valide après la libération
+     * de l'enregistrement et la réutilisation de son emplacement.
+     *
+     * @param handle Le handle de l'enregistrement.
+     * @return L'élément reconstruit.
+     */
+    public Chargeable materialize(int handle) {
+        String id = getId(handle);
+        int weight = getWeight(handle);
+        double volume = getVolume(handle);
+        double value = getValue(handle);
+        long latestDeparture = getLatestDeparture(handle);
+        switch (getType(handle)) {
+            case TYPE_VRAC:
+                return new Vrac(id, weight, volume, value, latestDeparture);
+            case TYPE_PALETTE:
+                return new Palette(id, weight, volume, value, latestDeparture);
+            default:
+                return new CustomItem(id, weight, volume, value, latestDeparture);
+        }
+    }
+
+    /**
+     * Retourne l'étiquette de type d'un enregistrement.
+     *
+     * @param handle Le handle de l'enregistrement.
+     * @return {@link #TYPE_VRAC}, {@link #TYPE_PALETTE} ou {@link #TYPE_CUSTOM}.
+     */
+    public byte getType(int handle) {
+        return checkHandle(handle).get((handle & CHUNK_MASK) * RECORD_SIZE + OFFSET_TYPE);
+    }
+
+    /**
+     * Retourne l'identifiant d'un enregistrement.
+     *
+     * @param handle Le handle de l'enregistrement.
+     * @return L'identifiant de l'élément.
+     */
+    public String getId(int handle) {
+        ByteBuffer chunk = checkHandle(handle);
+        int base = (handle & CHUNK_MASK) * RECORD_SIZE;
+        int length = chunk.get(base + OFFSET_ID_LENGTH) & 0xFF;
+        ByteBuffer source = chunk;
+        int start = base + OFFSET_ID;
+        if (length == LONG_ID) {
+            source = longIds;
+            start = chunk.getInt(base + OFFSET_LONG_ID_POSITION);
+            length = chunk.getInt(base + OFFSET_LONG_ID_LENGTH);
+        }
+        byte[] id = new byte[length];
+        for (int i = 0; i < length; i++) {
+            id[i] = source.get(start + i);
+        }
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Indique si un enregistrement porte un identifiant donné, en comparant ses octets en place,
+     * sans créer de chaîne.
+     *
+     * @param handle Le handle de l'enregistrement.
+     * @param id L'identifiant cherché, encodé en UTF-8.
+     * @return {@code true} si l'enregistrement porte cet identifiant, sinon {@code false}.
+     */
+    public boolean hasId(int handle, byte[] id) {
+        ByteBuffer chunk = checkHandle(handle);
+        int base = (handle & CHUNK_MASK) * RECORD_SIZE;
+        int length = chunk.get(base + OFFSET_ID_LENGTH) & 0xFF;
+        ByteBuffer source = chunk;
+        int start = base + OFFSET_ID;
+        if (length == LONG_ID) {
+            source = longIds;
+            start = chunk.getInt(base + OFFSET_LONG_ID_POSITION);
+            length = chunk.getInt(base + OFFSET_LONG_ID_LENGTH);
+        }
+        if (length != id.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (source.get(start + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retourne le poids d'un enregistrement.
+     *
+     * @param handle Le handle de l'enregistrement.
+     * @return Le poids de l'élément.
+     */
+    public int getWeight(int handle) {
+        return checkHandle(handle).getInt((handle & CHUNK_MASK) * RECORD_SIZE + OFFSET_WEIGHT);
+    }
+
+    /**
+     * Retourne le volume d'un enregistrement.
+     *
+     * @param handle Le handle de l'enregistrement.
+     * @return Le volume de l'élément.
+     */
+    public double getVolume(int handle) {
+        return checkHandle(handle).getDouble((handle & CHUNK_MASK) * RECORD_SIZE + OFFSET_VOLUME);
+    }
+
+    /**
+     * Retourne la valeur d'un enregistrement.
+     *
+     * @param handle Le handle de l'enregistrement.
+     * @return La valeur de l'élément.
+     */
+    public double getValue(int handle) {
+        return checkHandle(handle).getDouble((handle & CHUNK_MASK) * RECORD_SIZE + OFFSET_VALUE);
+    }
+
+    /**
+     * Retourne l'heure limite de départ d'un enregistrement.
+     *
+     * @param handle Le handle de l'enregistrement.
+     * @return L'heure limite de départ, ou {@link Long#MAX_VALUE} sans échéance.
+     */
+    public long getLatestDeparture(int handle) {
+        return checkHandle(handle).getLong((handle & CHUNK_MASK) * RECORD_SIZE + OFFSET_LATEST_DEPARTURE);
+    }
+
+    /**
+     * Retourne le nombre d'enregistrements occupés.
+     *
+     * @return Le nombre d'éléments stockés.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retourne la quantité de mémoire hors tas réservée par cette zone.
+     *
+     * @return Le nombre d'octets réservés.
+     */
+    public long getReservedBytes() {
+        return (long) chunkCount * CHUNK_RECORDS * RECORD_SIZE + (longIds == null ? 0 : longIds.capacity());
+    }
+
+    /**
+     * Ferme la zone de stockage et rend immédiatement ses blocs de mémoire directe au système.
+     * Si la JVM ne le permet pas, ils sont rendus par le ramasse-miettes. Tout accès ultérieur échoue,
+     * y compris par une vue obtenue auparavant.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int i = 0; i < chunkCount; i++) {
+            DirectMemory.free(chunks[i]);
+        }
+        if (longIds != null) {
+            DirectMemory.free(longIds);
+        }
+        chunks = new ByteBuffer[0];
+        chunkCount = 0;
+        freeSlots = new int[0];
+        freeCount = 0;
+        nextSlot = 0;
+        size = 0;
+        longIds = null;
+        longIdsUsed = 0;
+        longIdsGarbage = 0;
+    }
+
+    /**
+     * Réserve la place d'un identifiant long, en compactant ou en agrandissant la zone des identifiants longs au besoin.
+     */
+    private int reserveLongId(int length) {
+        if (longIds == null) {
+            longIds = ByteBuffer.allocateDirect(Math.max(INITIAL_LONG_ID_BYTES, length));
+        }
+        if (longIds.capacity() - longIdsUsed < length) {
+            int live = longIdsUsed - longIdsGarbage;
+            int capacity = longIds.capacity();
+            // Sans assez d'enregistrements libérés, la zone double ; sinon elle est seulement compactée
+            while (capacity - live < length || live > capacity / 2) {
+                capacity = Math.multiplyExact(capacity, 2);
+            }
+            ByteBuffer previous = longIds;
+            longIds = ByteBuffer.allocateDirect(capacity);
+            longIdsUsed = 0;
+            longIdsGarbage = 0;
+            for (int handle = 0; handle < nextSlot; handle++) {
+                ByteBuffer chunk = chunks[handle >>> CHUNK_BITS];
+                int base = (handle & CHUNK_MASK) * RECORD_SIZE;
+                if (chunk.get(base + OFFSET_TYPE) == FREE || (chunk.get(base + OFFSET_ID_LENGTH) & 0xFF) != LONG_ID) {
+                    continue;
+                }
+                int from = chunk.getInt(base + OFFSET_LONG_ID_POSITION);
+                int idLength = chunk.getInt(base + OFFSET_LONG_ID_LENGTH);
+                for (int i = 0; i < idLength; i++) {
+                    longIds.put(longIdsUsed + i, previous.get(from + i));
+                }
+                chunk.putInt(base + OFFSET_LONG_ID_POSITION, longIdsUsed);
+                longIdsUsed += idLength;
+            }
+            DirectMemory.free(previous);
+        }
+        int position = longIdsUsed;
+        longIdsUsed += length;
+        return position;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        int chunkIndex = nextSlot >>> CHUNK_BITS;
+        if (chunkIndex == chunkCount) {
+            if (chunkCount == (1 << (31 - CHUNK_BITS))) {
+                throw new IllegalStateException("La zone de stockage est pleine.");
+            }
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_SIZE)
+                    .order(ByteOrder.nativeOrder());
+        }
+        return nextSlot++;
+    }
+
+    private ByteBuffer checkHandle(int handle) {
+        ensureOpen();
+        if (handle < 0 || handle >= nextSlot) {
+            throw new IllegalArgumentException("Le handle " + handle + " n'existe pas.");
+        }
+        ByteBuffer chunk = chunks[handle >>> CHUNK_BITS];
+        if (chunk.get((handle & CHUNK_MASK) * RECORD_SIZE + OFFSET_TYPE) == FREE) {
+            throw new IllegalArgumentException("Le handle " + handle + " a été libéré.");
+        }
+        return chunk;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("La zone de stockage est fermée.");
+        }
+    }
+
+    private static byte typeOf(Chargeable item) {
+        if (item instanceof ArenaItem) {
+            return ((ArenaItem) item).getType();
+        }
+        if (item instanceof Vrac) {
+            return TYPE_VRAC;
+        }
+        if (item instanceof Palette) {
+            return TYPE_PALETTE;
+        }
+        return TYPE_CUSTOM;
+    }
+}
@@ -0,0 +1,169 @@
+package be.ipam.menegon.model.sync;
+
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Différence nette de l'état d'un camion entre deux numéros de séquence d'un {@link ChangeLog} :
+ * un élément chargé puis déchargé dans l'intervalle n'y figure pas.
+ *
+ * Pour l'appliquer, un client retire les éléments de {@link #getRemovedItemIds()} puis ajoute ceux de
+ * {@link #getAddedItems()} ; si {@link #isReset()} est vrai, il remplace d'abord sa copie du camion par
+ * un camion vide. L'application est idempotente : retirer un élément absent ou ajouter un élément
+ * déjà présent, repérés par leur ID, ne change rien.
+ *
+ * @author Dylan Menegon
+ */
+public final class CamionDelta {
+    private final String camionId;
+    private final boolean reset;
+    private final Map<String, Chargeable> added;
+    private final Set<String> removed;
+    private long version;
+    private int maxWeight;
+    private double maxVolume;
+    private int currentWeight;
+    private double currentVolume;
+
+    CamionDelta(String camionId, boolean reset) {
+        this.camionId = camionId;
+        this.reset = reset;
+        this.added = new LinkedHashMap<>();
+        this.removed = new LinkedHashSet<>();
+    }
+
+    /**
+     * Crée la différence qui reconstruit entièrement un camion à partir d'une de ses versions.
+     */
+    static CamionDelta of(CamionSnapshot camion) {
+        CamionDelta delta = new CamionDelta(camion.getId(), true);
+        for (Chargeable item : camion.getLoad()) {
+            delta.added.put(item.getId(), item);
+        }
+        delta.version = camion.getVersion();
+        delta.maxWeight = camion.getMaxWeight();
+        delta.maxVolume = camion.getMaxVolume();
+        delta.currentWeight = camion.getCurrentWeight();
+        delta.currentVolume = camion.getCurrentVolume();
+        return delta;
+    }
+
+    /**
+     * Ajoute une modification du camion à la différence. Un élément déchargé qui avait été chargé dans
+     * l'intervalle est simplement oublié : le client ne l'a jamais reçu, ou l'a déjà dans les retraits.
+     * Une correction des capacités ne touche pas aux éléments et ne met à jour que les chiffres du camion.
+     */
+    void apply(Change change) {
+        switch (change.getType()) {
+            case ITEMS_UNLOADED:
+                for (Chargeable item : change.getItems()) {
+                    if (added.remove(item.getId()) == null && !reset) {
+                        removed.add(item.getId());
+                    }
+                }
+                break;
+            case CAPACITY_ADJUSTED:
+                break;
+            default:
+                for (Chargeable item : change.getItems()) {
+                    added.put(item.getId(), item);
+                }
+                break;
+        }
+        version = change.getCamionVersion();
+        maxWeight = change.getMaxWeight();
+        maxVolume = change.getMaxVolume();
+        currentWeight = change.getCurrentWeight();
+        currentVolume = change.getCurrentVolume();
+    }
+
+    /**
+     * Retourne l'identifiant du camion.
+     *
+     * @return L'identifiant du camion.
+     */
+    public String getCamionId() {
+        return camionId;
+    }
+
+    /**
+     * Indique si le client doit remplacer sa copie du camion, par exemple parce que le camion a été ajouté
+     * dans l'intervalle ou que l'intervalle demandé n'est plus dans le journal.
+     *
+     * @return {@code true} si la différence reconstruit tout le camion, sinon {@code false}.
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    /**
+     * Retourne la version du camion atteinte à la fin de l'intervalle (voir {@link CamionSnapshot#getVersion()}).
+     *
+     * @return La version du camion.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Retourne le poids maximum du camion.
+     *
+     * @return Le poids maximum.
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Retourne le volume maximum du camion.
+     *
+     * @return Le volume maximum.
+     */
+    public double getMaxVolume() {
+        return maxVolume;
+    }
+
+    /**
+     * Retourne le poids chargé dans le camion à la fin de l'intervalle.
+     *
+     * @return Le poids chargé.
+     */
+    public int getCurrentWeight() {
+        return currentWeight;
+    }
+
+    /**
+     * Retourne le volume chargé dans le camion à la fin de l'intervalle.
+     *
+     * @return Le volume chargé.
+     */
+    public double getCurrentVolume() {
+        return currentVolume;
+    }
+
+    /**
+     * Retourne les éléments à ajouter, dans l'ordre de leur chargement.
+     *
+     * @return Une liste non modifiable des éléments ajoutés.
+     */
+    public List<Chargeable> getAddedItems() {
+        return Collections.unmodifiableList(new ArrayList<>(added.values()));
+    }
+
+    /**
+     * Retourne les identifiants des éléments à retirer.
+     *
+     * @return Un ensemble non modifiable des identifiants retirés.
+     */
+    public Set<String> getRemovedItemIds() {
+        return Collections.unmodifiableSet(removed);
+    }
+}
@@ -0,0 +1,131 @@
+package be.ipam.menegon.model.sync;
+
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Modification d'un camion retenue par un {@link ChangeLog}, avec l'état de ses capacités juste après.
+ * Seuls les chiffres du camion sont conservés, pas sa version complète, pour que la mémoire du journal
+ * ne dépende que du nombre et de la taille des modifications retenues.
+ *
+ * @author Dylan Menegon
+ */
+public final class Change {
+    private final long sequence;
+    private final ChangeType type;
+    private final String camionId;
+    private final long camionVersion;
+    private final int maxWeight;
+    private final double maxVolume;
+    private final int currentWeight;
+    private final double currentVolume;
+    private final List<Chargeable> items;
+
+    Change(long sequence, ChangeType type, CamionSnapshot camion, List<Chargeable> items) {
+        this.sequence = sequence;
+        this.type = type;
+        this.camionId = camion.getId();
+        this.camionVersion = camion.getVersion();
+        this.maxWeight = camion.getMaxWeight();
+        this.maxVolume = camion.getMaxVolume();
+        this.currentWeight = camion.getCurrentWeight();
+        this.currentVolume = camion.getCurrentVolume();
+        this.items = items;
+    }
+
+    Change(long sequence, String camionId) {
+        this.sequence = sequence;
+        this.type = ChangeType.CAMION_REMOVED;
+        this.camionId = camionId;
+        this.camionVersion = -1;
+        this.maxWeight = 0;
+        this.maxVolume = 0;
+        this.currentWeight = 0;
+        this.currentVolume = 0;
+        this.items = Collections.emptyList();
+    }
+
+    /**
+     * Retourne le numéro de séquence de la modification dans le journal.
+     *
+     * @return Le numéro de séquence.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Retourne la nature de la modification.
+     *
+     * @return La nature de la modification.
+     */
+    public ChangeType getType() {
+        return type;
+    }
+
+    /**
+     * Retourne l'identifiant du camion modifié.
+     *
+     * @return L'identifiant du camion.
+     */
+    public String getCamionId() {
+        return camionId;
+    }
+
+    /**
+     * Retourne la version du camion produite par la modification (voir {@link CamionSnapshot#getVersion()}).
+     *
+     * @return La version du camion, ou -1 pour un retrait.
+     */
+    public long getCamionVersion() {
+        return camionVersion;
+    }
+
+    /**
+     * Retourne le poids maximum du camion.
+     *
+     * @return Le poids maximum, ou 0 pour un retrait.
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Retourne le volume maximum du camion.
+     *
+     * @return Le volume maximum, ou 0 pour un retrait.
+     */
+    public double getMaxVolume() {
+        return maxVolume;
+    }
+
+    /**
+     * Retourne le poids chargé dans le camion après la modification.
+     *
+     * @return Le poids chargé, ou 0 pour un retrait.
+     */
+    public int getCurrentWeight() {
+        return currentWeight;
+    }
+
+    /**
+     * Retourne le volume chargé dans le camion après la modification.
+     *
+     * @return Le volume chargé, ou 0 pour un retrait.
+     */
+    public double getCurrentVolume() {
+        return currentVolume;
+    }
+
+    /**
+     * Retourne les éléments chargés ou déchargés, ou tout le chargement d'un camion ajouté.
+     *
+     * @return Une liste non modifiable des éléments, vide pour un retrait.
+     */
+    public List<Chargeable> getItems() {
+        return items;
+    }
+}
@@ -0,0 +1,249 @@
+package be.ipam.menegon.model.sync;
+
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.loadmaster.LoadmasterListener;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal borné des modifications d'un {@link Loadmaster}, qui permet à des clients distants de se tenir
+ * à jour en ne recevant que ce qui a changé depuis leur dernière demande.
+ *
+ * Chaque modification notifiée par le Loadmaster (ajout ou retrait d'un camion, chargement, déchargement
+ * ou correction du poids ou du volume chargé) reçoit un numéro de séquence et est retenue, avec les capacités du camion qui en résultent, dans un tampon
+ * circulaire de taille fixe. {@link #changesSince(long)} fusionne les modifications postérieures à un numéro
+ * en une différence nette par camion ({@link Delta}) ; son coût ne dépend que du nombre de modifications
+ * à renvoyer. Quand le numéro demandé est sorti du journal, la réponse décrit l'état complet des camions.
+ *
+ * Le numéro 1 désigne l'état au démarrage du journal : un client sans état demande les modifications
+ * depuis 0 et reçoit l'état complet. Une modification en cours de notification quand l'état complet est
+ * relevé peut y figurer déjà et revenir dans la réponse suivante, ce qui est sans effet puisque l'application
+ * d'une différence est idempotente. Les modifications faites directement sur un
+ * {@link be.ipam.menegon.model.truck.Camion} géré sont notifiées par le camion et donc journalisées elles aussi.
+ *
+ * @author Dylan Menegon
+ */
+public class ChangeLog implements LoadmasterListener, AutoCloseable {
+    /** Nombre de modifications retenues par défaut. */
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private final Loadmaster loadmaster;
+    private final Change[] ring; // Tampon circulaire, de la plus ancienne modification retenue à la plus récente
+    private final Map<String, ArrayDeque<Change>> byCamion; // Modifications retenues de chaque camion
+    private int head;
+    private int size;
+    private long sequence; // Numéro de la dernière modification
+    private long horizon; // Toutes les modifications postérieures à ce numéro sont retenues
+
+    /**
+     * Constructeur pour initialiser le journal d'un Loadmaster avec la capacité par défaut.
+     *
+     * @param loadmaster Le Loadmaster à suivre. Ne peut pas être null.
+     */
+    public ChangeLog(Loadmaster loadmaster) {
+        this(loadmaster, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructeur pour initialiser le journal d'un Loadmaster.
+     *
+     * @param loadmaster Le Loadmaster à suivre. Ne peut pas être null.
+     * @param capacity Le nombre de modifications retenues. Doit être strictement positif.
+     * @throws IllegalArgumentException Si le Loadmaster est null ou si la capacité n'est pas strictement positive.
+     */
+    public ChangeLog(Loadmaster loadmaster, int capacity) {
+        if (loadmaster == null) {
+            throw new IllegalArgumentException("Le Loadmaster à suivre ne peut pas être null.");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacité du journal doit être strictement positive.");
+        }
+        this.loadmaster = loadmaster;
+        this.ring = new Change[capacity];
+        this.byCamion = new HashMap<>();
+        this.sequence = 1;
+        this.horizon = 1;
+    }
+
+    /**
+     * Commence le suivi en s'abonnant au Loadmaster.
+     *
+     * @return Ce journal, pour enchaîner les appels.
+     */
+    public ChangeLog start() {
+        loadmaster.addListener(this);
+        return this;
+    }
+
+    /**
+     * Cesse de suivre le Loadmaster.
+     */
+    @Override
+    public void close() {
+        loadmaster.removeListener(this);
+    }
+
+    /**
+     * Retourne le numéro de séquence de la dernière modification journalisée.
+     *
+     * @return Le numéro de séquence courant.
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Retourne le plus petit numéro de séquence à partir duquel le journal peut encore répondre par une différence.
+     *
+     * @return Le plus ancien numéro couvert.
+     */
+    public synchronized long getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * Retourne le nombre de modifications retenues.
+     *
+     * @return Le nombre de modifications retenues.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Retourne les modifications de tous les camions postérieures à un numéro de séquence.
+     *
+     * @param since Le dernier numéro de séquence reçu par le client, ou 0 s'il n'a encore rien reçu.
+     * @return La différence nette depuis ce numéro, ou l'état complet des camions si le numéro n'est plus couvert.
+     */
+    public synchronized Delta changesSince(long since) {
+        if (since < horizon || since > sequence) {
+            Delta delta = new Delta(since, sequence, true);
+            for (CamionSnapshot camion : loadmaster.snapshot().getCamions().values()) {
+                delta.put(CamionDelta.of(camion));
+            }
+            return delta;
+        }
+        Delta delta = new Delta(since, sequence, false);
+        // Les numéros retenus se suivent : la première modification à renvoyer se trouve sans recherche
+        long oldest = sequence - size + 1;
+        for (long s = since + 1; s <= sequence; s++) {
+            delta.apply(ring[(int) ((head + s - oldest) % ring.length)]);
+        }
+        return delta;
+    }
+
+    /**
+     * Retourne les modifications d'un seul camion postérieures à un numéro de séquence.
+     *
+     * @param camionId L'identifiant du camion. Ne peut pas être null.
+     * @param since Le dernier numéro de séquence reçu par le client, ou 0 s'il n'a encore rien reçu.
+     * @return La différence nette du camion depuis ce numéro, ou son état complet si le numéro n'est plus couvert.
+     * @throws IllegalArgumentException Si l'identifiant est null.
+     */
+    public synchronized Delta changesSince(String camionId, long since) {
+        if (camionId == null) {
+            throw new IllegalArgumentException("L'identifiant du camion ne peut pas être null.");
+        }
+        if (since < horizon || since > sequence) {
+            Delta delta = new Delta(since, sequence, true);
+            CamionSnapshot camion = loadmaster.snapshot().getCamion(camionId);
+            if (camion == null) {
+                delta.remove(camionId);
+            } else {
+                delta.put(CamionDelta.of(camion));
+            }
+            return delta;
+        }
+        Delta delta = new Delta(since, sequence, false);
+        ArrayDeque<Change> changes = byCamion.get(camionId);
+        if (changes != null) {
+            List<Change> recent = new ArrayList<>();
+            for (Iterator<Change> it = changes.descendingIterator(); it.hasNext(); ) {
+                Change change = it.next();
+                if (change.getSequence() <= since) {
+                    break;
+                }
+                recent.add(change);
+            }
+            for (int i = recent.size() - 1; i >= 0; i--) {
+                delta.apply(recent.get(i));
+            }
+        }
+        return delta;
+    }
+
+    @Override
+    public void camionAdded(CamionSnapshot camion) {
+        synchronized (this) {
+            record(new Change(sequence + 1, ChangeType.CAMION_ADDED, camion, camion.getLoad()));
+        }
+    }
+
+    @Override
+    public void camionRemoved(String camionId) {
+        synchronized (this) {
+            record(new Change(sequence + 1, camionId));
+        }
+    }
+
+    @Override
+    public void itemLoaded(CamionSnapshot camion, Chargeable item) {
+        synchronized (this) {
+            record(new Change(sequence + 1, ChangeType.ITEMS_LOADED, camion, Collections.singletonList(item)));
+        }
+    }
+
+    @Override
+    public void itemsLoaded(CamionSnapshot camion, List<Chargeable> items) {
+        List<Chargeable> copy = Collections.unmodifiableList(new ArrayList<>(items));
+        synchronized (this) {
+            record(new Change(sequence + 1, ChangeType.ITEMS_LOADED, camion, copy));
+        }
+    }
+
+    @Override
+    public void itemsUnloaded(CamionSnapshot camion, List<Chargeable> items) {
+        List<Chargeable> copy = Collections.unmodifiableList(new ArrayList<>(items));
+        synchronized (this) {
+            record(new Change(sequence + 1, ChangeType.ITEMS_UNLOADED, camion, copy));
+        }
+    }
+
+    @Override
+    public void capacityAdjusted(CamionSnapshot camion) {
+        synchronized (this) {
+            record(new Change(sequence + 1, ChangeType.CAPACITY_ADJUSTED, camion, Collections.emptyList()));
+        }
+    }
+
+    /**
+     * Retient une modification, en oubliant la plus ancienne si le journal est plein.
+     */
+    private void record(Change change) {
+        if (size == ring.length) {
+            Change evicted = ring[head];
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+            horizon = evicted.getSequence();
+            ArrayDeque<Change> changes = byCamion.get(evicted.getCamionId());
+            changes.pollFirst();
+            if (changes.isEmpty()) {
+                byCamion.remove(evicted.getCamionId());
+            }
+        }
+        ring[(head + size) % ring.length] = change;
+        size++;
+        sequence = change.getSequence();
+        byCamion.computeIfAbsent(change.getCamionId(), id -> new ArrayDeque<>()).addLast(change);
+    }
+}
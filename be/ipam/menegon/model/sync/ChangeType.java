@@ -0,0 +1,19 @@
+package be.ipam.menegon.model.sync;
+
+/**
+ * Nature d'une modification retenue par un {@link ChangeLog}.
+ *
+ * @author Dylan Menegon
+ */
+public enum ChangeType {
+    /** Un camion, éventuellement déjà chargé, a été confié au Loadmaster. */
+    CAMION_ADDED,
+    /** Un camion a été retiré du Loadmaster. */
+    CAMION_REMOVED,
+    /** Un ou plusieurs éléments ont été chargés dans un camion. */
+    ITEMS_LOADED,
+    /** Un ou plusieurs éléments ont été déchargés d'un camion. */
+    ITEMS_UNLOADED,
+    /** Le poids ou le volume chargé d'un camion a été corrigé sans chargement ni déchargement. */
+    CAPACITY_ADJUSTED
+}
@@ -0,0 +1,119 @@
+package be.ipam.menegon.model.sync;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Réponse de {@link ChangeLog#changesSince(long)} : les différences nettes des camions modifiés depuis
+ * un numéro de séquence, et les camions retirés.
+ *
+ * Pour l'appliquer, un client retire d'abord les camions de {@link #getRemovedCamions()}, puis applique
+ * chaque {@link CamionDelta}, et retient {@link #getSequence()} pour sa prochaine demande. Si {@link #isFull()}
+ * est vrai, le numéro demandé n'était plus dans le journal : la réponse décrit alors tous les camions et le
+ * client oublie ceux qui n'y figurent pas.
+ *
+ * @author Dylan Menegon
+ */
+public final class Delta {
+    private final long since;
+    private final long sequence;
+    private final boolean full;
+    private final Map<String, CamionDelta> camions;
+    private final Set<String> removedCamions;
+
+    Delta(long since, long sequence, boolean full) {
+        this.since = since;
+        this.sequence = sequence;
+        this.full = full;
+        this.camions = new LinkedHashMap<>();
+        this.removedCamions = new LinkedHashSet<>();
+    }
+
+    /**
+     * Ajoute une modification à la différence, dans l'ordre du journal.
+     */
+    void apply(Change change) {
+        String camionId = change.getCamionId();
+        switch (change.getType()) {
+            case CAMION_ADDED:
+                // Le camion est reconstruit : un retrait antérieur dans l'intervalle devient inutile
+                removedCamions.remove(camionId);
+                CamionDelta added = new CamionDelta(camionId, true);
+                added.apply(change);
+                camions.put(camionId, added);
+                break;
+            case CAMION_REMOVED:
+                camions.remove(camionId);
+                removedCamions.add(camionId);
+                break;
+            default:
+                camions.computeIfAbsent(camionId, id -> new CamionDelta(id, false)).apply(change);
+                break;
+        }
+    }
+
+    void put(CamionDelta camion) {
+        camions.put(camion.getCamionId(), camion);
+    }
+
+    void remove(String camionId) {
+        removedCamions.add(camionId);
+    }
+
+    /**
+     * Retourne le numéro de séquence demandé.
+     *
+     * @return Le numéro de séquence de départ.
+     */
+    public long getSince() {
+        return since;
+    }
+
+    /**
+     * Retourne le numéro de séquence atteint, à passer à la prochaine demande.
+     *
+     * @return Le numéro de séquence de fin.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Indique si la réponse décrit tous les camions parce que le numéro demandé n'était plus dans le journal.
+     *
+     * @return {@code true} pour un état complet, sinon {@code false}.
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Indique si rien n'a changé depuis le numéro demandé.
+     *
+     * @return {@code true} si la réponse est vide, sinon {@code false}.
+     */
+    public boolean isEmpty() {
+        return !full && camions.isEmpty() && removedCamions.isEmpty();
+    }
+
+    /**
+     * Retourne les différences des camions modifiés ou ajoutés, identifiés par leur ID.
+     *
+     * @return Une carte non modifiable des différences, dans l'ordre de la première modification.
+     */
+    public Map<String, CamionDelta> getCamions() {
+        return Collections.unmodifiableMap(camions);
+    }
+
+    /**
+     * Retourne les identifiants des camions retirés.
+     *
+     * @return Un ensemble non modifiable des identifiants.
+     */
+    public Set<String> getRemovedCamions() {
+        return Collections.unmodifiableSet(removedCamions);
+    }
+}
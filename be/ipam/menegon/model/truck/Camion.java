@@ -2,11 +2,26 @@ package be.ipam.menegon.model.truck;
 
 import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
 import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.exceptions.StopOrderViolationException;
 import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.monitoring.LoadEvent;
+import be.ipam.menegon.model.monitoring.SortEvent;
+import be.ipam.menegon.model.monitoring.UnloadEvent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Représente un camion avec une capacité de poids et de volume limitée.
@@ -16,13 +31,26 @@ import java.util.List;
  * @author Dylan Menegon
  */
 public class Camion {
+    /** Valeur de {@link #getDeparture()} pour un camion qui n'a pas de créneau de départ. */
+    public static final long NO_DEPARTURE = Long.MIN_VALUE;
+
     private final String id;
     private final int maxWeight; // Poids maximum en int
     private final double maxVolume; // Volume maximum en double
+    private final double boxLength; // Dimensions intérieures de la caisse, 0 si inconnues
+    private final double boxWidth;
+    private final double boxHeight;
     private int currentWeight; // Poids actuel en int
     private double currentVolume; // Volume actuel en double
     private final List<Chargeable> load;
-    private final Loadmaster loadmaster;
+    private Loadmaster loadmaster;
+    private volatile long version; // Incrémentée à chaque modification du camion, lue sans verrou par les vues
+    private final LoadIndex[] indexes; // Index triés, créés à la première requête paginée
+    private volatile CamionSnapshot snapshot; // Dernière version publiée pour les lecteurs concurrents
+    private TreeMap<Integer, List<Chargeable>> stops; // Éléments regroupés par arrêt de livraison, créé au premier besoin
+    private Map<Chargeable, Integer> stopOf; // Arrêt de chaque élément rattaché à un arrêt
+    private boolean lifo; // Vérifie au chargement qu'aucun arrêt ultérieur ne bloque un arrêt antérieur
+    private volatile long departure; // Heure de départ prévue, NO_DEPARTURE sans créneau ; lue sans verrou par les tableaux de départ
 
     /**
      * Constructeur pour initialiser un camion avec un identifiant, une capacité maximale de poids,
@@ -35,6 +63,24 @@ public class Camion {
      * @throws IllegalArgumentException Si l'identifiant est null ou vide, ou si le poids ou le volume maximum sont négatifs, ou si le Loadmaster est null.
      */
     public Camion(String id, int maxWeight, double maxVolume, Loadmaster loadmaster) {
+        this(id, maxWeight, maxVolume, 0, 0, 0, loadmaster);
+    }
+
+    /**
+     * Constructeur pour initialiser un camion dont les dimensions intérieures de la caisse sont connues,
+     * ce qui permet de planifier le placement physique d'objets dimensionnés.
+     *
+     * @param id L'identifiant du camion. Ne peut pas être null ou vide.
+     * @param maxWeight Le poids maximum que le camion peut supporter. Doit être positif.
+     * @param maxVolume Le volume maximum que le camion peut supporter. Doit être positif.
+     * @param boxLength La longueur intérieure de la caisse, ou 0 si elle est inconnue.
+     * @param boxWidth La largeur intérieure de la caisse, ou 0 si elle est inconnue.
+     * @param boxHeight La hauteur intérieure de la caisse, ou 0 si elle est inconnue.
+     * @param loadmaster Le Loadmaster associé au camion. Ne peut pas être null.
+     * @throws IllegalArgumentException Si l'identifiant est null ou vide, si le poids, le volume ou une dimension sont négatifs, ou si le Loadmaster est null.
+     */
+    public Camion(String id, int maxWeight, double maxVolume, double boxLength, double boxWidth, double boxHeight,
+                  Loadmaster loadmaster) {
         if (id == null || id.trim().isEmpty()) {
             throw new IllegalArgumentException("L'ID ne peut pas être nul ou vide.");
         }
@@ -44,16 +90,25 @@ public class Camion {
         if (maxVolume < 0) {
             throw new IllegalArgumentException("Le volume maximum doit être positif.");
         }
+        if (boxLength < 0 || boxWidth < 0 || boxHeight < 0) {
+            throw new IllegalArgumentException("Les dimensions de la caisse doivent être positives.");
+        }
         if (loadmaster == null) {
             throw new IllegalArgumentException("Le Loadmaster du camion ne peut pas être null.");
         }
         this.id = id;
         this.maxWeight = maxWeight;
         this.maxVolume = maxVolume;
+        this.boxLength = boxLength;
+        this.boxWidth = boxWidth;
+        this.boxHeight = boxHeight;
         this.loadmaster = loadmaster;
         this.currentWeight = 0;
         this.currentVolume = 0;
         this.load = new ArrayList<>();
+        this.indexes = new LoadIndex[LoadOrder.KEY_COUNT];
+        this.snapshot = CamionSnapshot.empty(id, maxWeight, maxVolume);
+        this.departure = NO_DEPARTURE;
     }
 
     /**
@@ -65,6 +120,28 @@ public class Camion {
         return id;
     }
 
+    /**
+     * Retourne le Loadmaster associé au camion.
+     *
+     * @return Le Loadmaster du camion.
+     */
+    public Loadmaster getLoadmaster() {
+        return loadmaster;
+    }
+
+    /**
+     * Associe le camion à un autre Loadmaster, lors d'un transfert.
+     *
+     * @param loadmaster Le nouveau Loadmaster du camion. Ne peut pas être null.
+     * @throws IllegalArgumentException Si le Loadmaster est null.
+     */
+    public synchronized void setLoadmaster(Loadmaster loadmaster) {
+        if (loadmaster == null) {
+            throw new IllegalArgumentException("Le Loadmaster du camion ne peut pas être null.");
+        }
+        this.loadmaster = loadmaster;
+    }
+
     /**
      * Retourne le poids maximum que le camion peut supporter.
      *
@@ -83,6 +160,42 @@ public class Camion {
         return maxVolume;
     }
 
+    /**
+     * Indique si les dimensions intérieures de la caisse sont connues.
+     *
+     * @return {@code true} si les trois dimensions de la caisse sont renseignées, sinon {@code false}.
+     */
+    public boolean hasBoxDimensions() {
+        return boxLength > 0 && boxWidth > 0 && boxHeight > 0;
+    }
+
+    /**
+     * Retourne la longueur intérieure de la caisse.
+     *
+     * @return La longueur de la caisse, ou 0 si elle est inconnue.
+     */
+    public double getBoxLength() {
+        return boxLength;
+    }
+
+    /**
+     * Retourne la largeur intérieure de la caisse.
+     *
+     * @return La largeur de la caisse, ou 0 si elle est inconnue.
+     */
+    public double getBoxWidth() {
+        return boxWidth;
+    }
+
+    /**
+     * Retourne la hauteur intérieure de la caisse.
+     *
+     * @return La hauteur de la caisse, ou 0 si elle est inconnue.
+     */
+    public double getBoxHeight() {
+        return boxHeight;
+    }
+
     /**
      * Retourne le poids actuel du camion.
      *
@@ -108,7 +221,18 @@ public class Camion {
      * @throws MaxWeightReachedException Si le poids total après chargement dépasse la capacité maximale du camion.
      * @throws MaxVolumeReachedException Si le volume total après chargement dépasse la capacité maximale du camion.
      */
-    public void load(Chargeable item) throws MaxWeightReachedException, MaxVolumeReachedException {
+    public synchronized void load(Chargeable item) throws MaxWeightReachedException, MaxVolumeReachedException {
+        LoadEvent event = new LoadEvent(id, "load");
+        try {
+            loadOne(item);
+            event.succeed(1);
+        } catch (MaxWeightReachedException | MaxVolumeReachedException | RuntimeException e) {
+            event.fail(1, e);
+            throw e;
+        }
+    }
+
+    private void loadOne(Chargeable item) throws MaxWeightReachedException, MaxVolumeReachedException {
         if (item == null) {
             throw new IllegalArgumentException("L'article à charger ne peut pas être nul.");
         }
@@ -125,8 +249,73 @@ public class Camion {
 
         // Ajouter l'article à la liste de chargement
         load.add(item);
+        for (LoadIndex index : indexes) {
+            if (index != null) {
+                index.add(item);
+            }
+        }
         currentWeight += item.getWeight();
         currentVolume += item.getVolume();
+        version++;
+        snapshot = snapshot.loaded(item, currentWeight, currentVolume, version);
+        loadmaster.publishLoaded(this, item);
+    }
+
+    /**
+     * Charge plusieurs éléments en une seule opération : soit tous les éléments sont chargés, dans l'ordre,
+     * soit aucun ne l'est. Le poids, le volume et la version du camion ne sont mis à jour qu'une fois.
+     *
+     * @param items Les éléments à charger. Ne peut pas être null ni contenir null.
+     * @throws MaxWeightReachedException Si le poids total après chargement dépasse la capacité maximale du camion.
+     * @throws MaxVolumeReachedException Si le volume total après chargement dépasse la capacité maximale du camion.
+     * @throws IllegalArgumentException Si la liste ou l'un des éléments est null.
+     */
+    public synchronized void loadAll(List<? extends Chargeable> items) throws MaxWeightReachedException, MaxVolumeReachedException {
+        if (items == null) {
+            throw new IllegalArgumentException("La liste des articles à charger ne peut pas être nulle.");
+        }
+        LoadEvent event = new LoadEvent(id, "loadAll");
+        try {
+            loadBatch(items);
+            event.succeed(items.size());
+        } catch (MaxWeightReachedException | MaxVolumeReachedException | RuntimeException e) {
+            event.fail(items.size(), e);
+            throw e;
+        }
+    }
+
+    private void loadBatch(List<? extends Chargeable> items) throws MaxWeightReachedException, MaxVolumeReachedException {
+        int weight = currentWeight;
+        double volume = currentVolume;
+        for (Chargeable item : items) {
+            if (item == null) {
+                throw new IllegalArgumentException("L'article à charger ne peut pas être nul.");
+            }
+            weight += item.getWeight();
+            volume += item.getVolume();
+            if (weight > maxWeight) {
+                throw new MaxWeightReachedException("Le poids maximum du camion est atteint.", item);
+            }
+            if (volume > maxVolume) {
+                throw new MaxVolumeReachedException("Le volume maximum du camion est atteint.", item);
+            }
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+        load.addAll(items);
+        for (LoadIndex index : indexes) {
+            if (index != null) {
+                for (Chargeable item : items) {
+                    index.add(item);
+                }
+            }
+        }
+        currentWeight = weight;
+        currentVolume = volume;
+        version++;
+        snapshot = snapshot.loadedAll(items, currentWeight, currentVolume, version);
+        loadmaster.publishLoaded(this, Collections.unmodifiableList(new ArrayList<>(items)));
     }
 
     /**
@@ -135,22 +324,322 @@ public class Camion {
      * @param item L'élément à décharger. Ne peut pas être null.
      * @throws IllegalArgumentException Si l'élément à décharger n'est pas trouvé dans le camion ou est null.
      */
-    public void unload(Chargeable item) {
+    public synchronized void unload(Chargeable item) {
+        UnloadEvent event = new UnloadEvent(id, "unload");
+        try {
+            unloadOne(item);
+            event.succeed(1);
+        } catch (RuntimeException e) {
+            event.fail(1, e);
+            throw e;
+        }
+    }
+
+    private void unloadOne(Chargeable item) {
         if (item == null) {
             throw new IllegalArgumentException("L'article à décharger ne peut pas être nul.");
         }
 
-        if (!load.remove(item)) {
+        int position = load.indexOf(item);
+        if (position < 0) {
             throw new IllegalArgumentException("L'article à décharger n'est pas trouvé dans le camion.");
         }
+        // L'élément retiré peut être une autre instance égale à celle reçue (ex. Vrac comparé par ID)
+        Chargeable removed = load.remove(position);
+        for (LoadIndex index : indexes) {
+            if (index != null) {
+                index.remove(removed);
+            }
+        }
+        forgetStop(removed);
 
         // Mise à jour du poids et du volume après déchargement
-        currentWeight -= item.getWeight();
-        currentVolume -= item.getVolume();
+        currentWeight -= removed.getWeight();
+        currentVolume -= removed.getVolume();
+        version++;
+        snapshot = snapshot.unloaded(position, currentWeight, currentVolume, version);
+        loadmaster.publishUnloaded(this, Collections.singletonList(removed));
+    }
+
+    /**
+     * Charge un élément destiné à un arrêt de livraison. Les éléments sont regroupés par arrêt,
+     * ce qui permet de décharger tout un arrêt avec {@link #unloadStop(int)}.
+     * En mode LIFO, l'élément est refusé si des éléments d'un arrêt antérieur sont déjà chargés,
+     * car il les bloquerait.
+     *
+     * @param item L'élément à charger. Ne peut pas être null.
+     * @param stop Le numéro de l'arrêt, dans l'ordre de la tournée. Doit être positif.
+     * @throws MaxWeightReachedException Si le poids total après chargement dépasse la capacité maximale du camion.
+     * @throws MaxVolumeReachedException Si le volume total après chargement dépasse la capacité maximale du camion.
+     * @throws StopOrderViolationException Si le mode LIFO est actif et qu'un arrêt antérieur est déjà chargé.
+     * @throws IllegalArgumentException Si l'élément est null ou si le numéro d'arrêt est négatif.
+     */
+    public synchronized void load(Chargeable item, int stop)
+            throws MaxWeightReachedException, MaxVolumeReachedException, StopOrderViolationException {
+        LoadEvent event = new LoadEvent(id, "loadStop");
+        try {
+            loadForStop(item, stop);
+            event.succeed(1);
+        } catch (MaxWeightReachedException | MaxVolumeReachedException | StopOrderViolationException | RuntimeException e) {
+            event.fail(1, e);
+            throw e;
+        }
+    }
+
+    private void loadForStop(Chargeable item, int stop)
+            throws MaxWeightReachedException, MaxVolumeReachedException, StopOrderViolationException {
+        if (stop < 0) {
+            throw new IllegalArgumentException("Le numéro d'arrêt doit être positif.");
+        }
+        if (lifo && stops != null && !stops.isEmpty() && stops.firstKey() < stop) {
+            throw new StopOrderViolationException("L'élément pour l'arrêt " + stop
+                    + " bloquerait les éléments de l'arrêt " + stops.firstKey() + " déjà chargés.", item);
+        }
+        loadOne(item);
+        if (stops == null) {
+            stops = new TreeMap<>();
+            stopOf = new IdentityHashMap<>();
+        }
+        stops.computeIfAbsent(stop, s -> new ArrayList<>()).add(item);
+        stopOf.put(item, stop);
+    }
+
+    /**
+     * Décharge tous les éléments d'un arrêt de livraison en une seule opération :
+     * le poids, le volume et la version du camion ne sont mis à jour qu'une fois.
+     * Si les éléments de l'arrêt sont les derniers chargés (chargement LIFO), le coût est
+     * proportionnel au nombre d'éléments de l'arrêt ; sinon le chargement est compacté en un seul passage.
+     *
+     * @param stop Le numéro de l'arrêt.
+     * @return Les éléments déchargés, vide si aucun élément n'était destiné à cet arrêt.
+     */
+    public synchronized List<Chargeable> unloadStop(int stop) {
+        UnloadEvent event = new UnloadEvent(id, "unloadStop");
+        List<Chargeable> group = stops == null ? null : stops.remove(stop);
+        if (group == null) {
+            event.succeed(0);
+            return new ArrayList<>();
+        }
+        for (Chargeable item : group) {
+            stopOf.remove(item);
+        }
+        removeAll(group);
+        event.succeed(group.size());
+        return group;
+    }
+
+    /**
+     * Décharge tous les éléments qui satisfont un critère, par exemple tout le vrac
+     * ou tous les éléments dont l'ID commence par un préfixe donné.
+     * Le chargement est compacté en un seul passage et le poids, le volume et la version
+     * du camion ne sont mis à jour qu'une fois. Si le critère lève une exception,
+     * le camion n'est pas modifié.
+     *
+     * @param filter Le critère des éléments à décharger. Ne peut pas être null.
+     * @return Les éléments déchargés, dans l'ordre de chargement.
+     * @throws IllegalArgumentException Si le critère est null.
+     */
+    public synchronized List<Chargeable> unloadIf(Predicate<? super Chargeable> filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Le critère de déchargement ne peut pas être null.");
+        }
+        UnloadEvent event = new UnloadEvent(id, "unloadIf");
+        List<Chargeable> removed = new ArrayList<>();
+        int[] positions = new int[load.size()];
+        int[] visited = {0};
+        // ArrayList.removeIf évalue le critère sur tout le chargement, dans l'ordre, avant de le compacter
+        try {
+            load.removeIf(item -> {
+                int position = visited[0]++;
+                if (filter.test(item)) {
+                    positions[removed.size()] = position;
+                    removed.add(item);
+                    return true;
+                }
+                return false;
+            });
+        } catch (RuntimeException e) {
+            event.fail(0, e);
+            throw e;
+        }
+        if (!removed.isEmpty()) {
+            Set<Chargeable> identities = Collections.newSetFromMap(new IdentityHashMap<>());
+            identities.addAll(removed);
+            detach(removed, identities, Arrays.copyOf(positions, removed.size()));
+        }
+        event.succeed(removed.size());
+        return removed;
+    }
+
+    /**
+     * Retourne les éléments destinés à un arrêt de livraison.
+     *
+     * @param stop Le numéro de l'arrêt.
+     * @return Une liste non modifiable des éléments de l'arrêt.
+     */
+    public synchronized List<Chargeable> getStopItems(int stop) {
+        List<Chargeable> group = stops == null ? null : stops.get(stop);
+        return group == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(group));
+    }
+
+    /**
+     * Retourne les numéros des arrêts pour lesquels des éléments sont chargés, dans l'ordre de la tournée.
+     *
+     * @return Les numéros des arrêts.
+     */
+    public synchronized SortedSet<Integer> getStops() {
+        return stops == null ? Collections.emptySortedSet() : Collections.unmodifiableSortedSet(new TreeSet<>(stops.keySet()));
+    }
+
+    /**
+     * Active ou désactive la vérification LIFO lors du chargement par arrêt.
+     *
+     * @param lifo {@code true} pour refuser un élément qui bloquerait un arrêt antérieur.
+     */
+    public synchronized void setLifo(boolean lifo) {
+        this.lifo = lifo;
+    }
+
+    /**
+     * Indique si la vérification LIFO est active.
+     *
+     * @return {@code true} si la vérification LIFO est active, sinon {@code false}.
+     */
+    public synchronized boolean isLifo() {
+        return lifo;
+    }
+
+    /**
+     * Fixe le créneau de départ du camion. Pour que les observateurs du Loadmaster en soient avertis,
+     * passer par {@link Loadmaster#scheduleDeparture(String, long)}.
+     *
+     * @param departure L'heure de départ, en millisecondes depuis l'époque Unix, ou {@link #NO_DEPARTURE} pour retirer le créneau.
+     */
+    public void setDeparture(long departure) {
+        this.departure = departure;
+    }
+
+    /**
+     * Retourne le créneau de départ du camion.
+     *
+     * @return L'heure de départ, en millisecondes depuis l'époque Unix, ou {@link #NO_DEPARTURE} si le camion n'a pas de créneau.
+     */
+    public long getDeparture() {
+        return departure;
+    }
+
+    /**
+     * Indique si le camion a un créneau de départ.
+     *
+     * @return {@code true} si un créneau de départ est fixé, sinon {@code false}.
+     */
+    public boolean hasDeparture() {
+        return departure != NO_DEPARTURE;
+    }
+
+    /**
+     * Retire du chargement un groupe d'instances qui y sont présentes, en mettant à jour
+     * les compteurs, la version et les index une seule fois.
+     */
+    private void removeAll(List<Chargeable> removed) {
+        if (removed.isEmpty()) {
+            return;
+        }
+        Set<Chargeable> identities = Collections.newSetFromMap(new IdentityHashMap<>());
+        identities.addAll(removed);
+        int size = load.size();
+        int k = removed.size();
+        boolean atTail = k <= size;
+        for (int i = size - k; atTail && i < size; i++) {
+            atTail = identities.contains(load.get(i));
+        }
+        int[] positions = new int[k];
+        if (atTail) {
+            for (int i = 0; i < k; i++) {
+                positions[i] = size - k + i;
+            }
+            load.subList(size - k, size).clear();
+        } else {
+            int found = 0;
+            for (int i = 0; i < size; i++) {
+                if (identities.contains(load.get(i))) {
+                    positions[found++] = i;
+                }
+            }
+            load.removeIf(identities::contains);
+        }
+        detach(removed, identities, positions);
+    }
+
+    /**
+     * Met à jour les index, les arrêts, les compteurs et la version après le retrait d'un groupe d'éléments
+     * déjà ôtés du chargement, puis publie une seule nouvelle version. Les positions sont celles des éléments
+     * avant leur retrait, en ordre croissant.
+     */
+    private void detach(List<Chargeable> removed, Set<Chargeable> identities, int[] positions) {
+        int weight = 0;
+        double volume = 0;
+        for (Chargeable item : removed) {
+            weight += item.getWeight();
+            volume += item.getVolume();
+            for (LoadIndex index : indexes) {
+                if (index != null) {
+                    index.remove(item);
+                }
+            }
+        }
+        if (stopOf != null && !stopOf.isEmpty()) {
+            Set<Integer> touched = new TreeSet<>();
+            for (Chargeable item : removed) {
+                Integer stop = stopOf.remove(item);
+                if (stop != null) {
+                    touched.add(stop);
+                }
+            }
+            for (Integer stop : touched) {
+                List<Chargeable> group = stops.get(stop);
+                group.removeIf(identities::contains);
+                if (group.isEmpty()) {
+                    stops.remove(stop);
+                }
+            }
+        }
+        currentWeight -= weight;
+        currentVolume -= volume;
+        version++;
+        snapshot = snapshot.unloadedAll(positions, load, currentWeight, currentVolume, version);
+        loadmaster.publishUnloaded(this, Collections.unmodifiableList(removed));
+    }
+
+    private void forgetStop(Chargeable item) {
+        Integer stop = stopOf == null ? null : stopOf.remove(item);
+        if (stop != null) {
+            List<Chargeable> group = stops.get(stop);
+            for (int i = group.size() - 1; i >= 0; i--) {
+                if (group.get(i) == item) {
+                    group.remove(i);
+                    break;
+                }
+            }
+            if (group.isEmpty()) {
+                stops.remove(stop);
+            }
+        }
+    }
+
+    /**
+     * Retourne le numéro de version du camion, incrémenté à chaque chargement,
+     * déchargement ou mise à jour de la capacité utilisée.
+     *
+     * @return La version actuelle du camion.
+     */
+    public long getVersion() {
+        return version;
     }
 
     /**
      * Retourne la liste des éléments actuellement chargés dans le camion.
+     * La liste retournée est une copie privée ; pour un simple parcours, préférer {@link #getLoadView()}.
      *
      * @return Une liste des éléments actuellement chargés dans le camion.
      */
@@ -158,14 +647,27 @@ public class Camion {
         return new ArrayList<>(load);
     }
 
+    /**
+     * Retourne une vue en lecture seule sur le chargement, sans aucune copie.
+     * La vue suit les modifications du camion ; ses itérateurs et ses flux échouent
+     * avec une {@link java.util.ConcurrentModificationException} si le camion est modifié pendant le parcours.
+     *
+     * @return Une vue en lecture seule sur le chargement du camion.
+     */
+    public LoadView getLoadView() {
+        return new LoadView(this, load);
+    }
+
     /**
      * Retourne la liste des éléments actuellement chargés dans le camion triés par ID.
      *
      * @return Une liste des éléments triés par ID.
      */
     public List<Chargeable> getLoadSortedById() {
+        SortEvent event = new SortEvent(id, "byId");
         List<Chargeable> sortedLoad = new ArrayList<>(load);
         sortedLoad.sort(Comparator.comparing(Chargeable::getId));
+        event.succeed(sortedLoad.size());
         return sortedLoad;
     }
 
@@ -175,8 +677,10 @@ public class Camion {
      * @return Une liste des éléments triés par poids décroissant.
      */
     public List<Chargeable> getLoadSortedByWeight() {
+        SortEvent event = new SortEvent(id, "byWeight");
         List<Chargeable> sortedLoad = new ArrayList<>(load);
         sortedLoad.sort(Comparator.comparingDouble(Chargeable::getWeight).reversed());
+        event.succeed(sortedLoad.size());
         return sortedLoad;
     }
 
@@ -186,16 +690,189 @@ public class Camion {
      * @return Une liste des éléments triés par volume décroissant.
      */
     public List<Chargeable> getLoadSortedByVolume() {
+        SortEvent event = new SortEvent(id, "byVolume");
         List<Chargeable> sortedLoad = new ArrayList<>(load);
         sortedLoad.sort(Comparator.comparingDouble(Chargeable::getVolume).reversed());
+        event.succeed(sortedLoad.size());
         return sortedLoad;
     }
-    public void updateCurrentWeight(int delta) {
+    /**
+     * Retourne les {@code k} premiers éléments du chargement dans l'ordre demandé,
+     * sans trier tout le chargement : coût en O(n log k), ou O(k) si l'index de cet ordre existe déjà.
+     *
+     * @param order L'ordre de tri. Ne peut pas être null.
+     * @param k Le nombre d'éléments voulus. Doit être positif.
+     * @return Une liste d'au plus {@code k} éléments triés.
+     * @throws IllegalArgumentException Si l'ordre est null ou si {@code k} est négatif.
+     */
+    public synchronized List<Chargeable> getTopK(LoadOrder order, int k) {
+        if (order == null) {
+            throw new IllegalArgumentException("L'ordre de tri ne peut pas être nul.");
+        }
+        if (k < 0) {
+            throw new IllegalArgumentException("Le nombre d'éléments doit être positif.");
+        }
+        LoadIndex index = indexes[order.key()];
+        if (index != null) {
+            return index.page(order.isDescending(), null, k);
+        }
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+
+        // Tas borné dont la racine est le moins bon des k meilleurs éléments vus jusqu'ici
+        Comparator<Chargeable> comparator = order.comparator();
+        PriorityQueue<Chargeable> heap = new PriorityQueue<>(Math.min(k, load.size()) + 1, comparator.reversed());
+        for (Chargeable item : load) {
+            if (heap.size() < k) {
+                heap.add(item);
+            } else if (comparator.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<Chargeable> top = new ArrayList<>(heap);
+        top.sort(comparator);
+        return top;
+    }
+
+    /**
+     * Retourne une page du chargement trié, à partir d'un curseur.
+     * Le curseur est le dernier élément de la page précédente ({@code null} pour la première page).
+     * Un index trié est construit à la première demande pour cette clé, puis maintenu à chaque
+     * chargement et déchargement ; parcourir une page coûte ensuite O(log n + taille de la page).
+     * Des éléments indiscernables (même type, ID, poids et volume) ne sont jamais séparés entre deux pages.
+     *
+     * @param order L'ordre de tri. Ne peut pas être null.
+     * @param after Le dernier élément de la page précédente, ou {@code null} pour la première page.
+     * @param pageSize La taille de la page. Doit être positive.
+     * @return Les éléments de la page, vide s'il n'y a plus d'éléments.
+     * @throws IllegalArgumentException Si l'ordre est null ou si la taille de la page est négative.
+     */
+    public synchronized List<Chargeable> getPage(LoadOrder order, Chargeable after, int pageSize) {
+        if (order == null) {
+            throw new IllegalArgumentException("L'ordre de tri ne peut pas être nul.");
+        }
+        if (pageSize < 0) {
+            throw new IllegalArgumentException("La taille de la page doit être positive.");
+        }
+        return index(order.key()).page(order.isDescending(), after, pageSize);
+    }
+
+    /**
+     * Retourne un flux, par poids croissant, des éléments dont le poids est compris entre deux bornes incluses.
+     * L'index des poids est construit à la première requête puis maintenu à chaque chargement et déchargement.
+     * Les éléments sont copiés sous le verrou du camion : le flux n'est pas affecté par les modifications ultérieures.
+     *
+     * @param min Le poids minimal.
+     * @param max Le poids maximal.
+     * @return Un flux des éléments dont le poids est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public Stream<Chargeable> streamByWeight(int min, int max) {
+        checkRange(min, max);
+        List<Chargeable> items;
+        synchronized (this) {
+            items = LoadIndex.list(index(LoadOrder.WEIGHT_ASC.key()).weightRange(min, max));
+        }
+        return items.stream();
+    }
+
+    /**
+     * Compte les éléments dont le poids est compris entre deux bornes incluses, sans les copier.
+     *
+     * @param min Le poids minimal.
+     * @param max Le poids maximal.
+     * @return Le nombre d'éléments dont le poids est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public synchronized long countByWeight(int min, int max) {
+        checkRange(min, max);
+        return LoadIndex.count(index(LoadOrder.WEIGHT_ASC.key()).weightRange(min, max));
+    }
+
+    /**
+     * Retourne un flux, par volume croissant, des éléments dont le volume est compris entre deux bornes incluses.
+     * L'index des volumes est construit à la première requête puis maintenu à chaque chargement et déchargement.
+     * Les éléments sont copiés sous le verrou du camion : le flux n'est pas affecté par les modifications ultérieures.
+     *
+     * @param min Le volume minimal.
+     * @param max Le volume maximal.
+     * @return Un flux des éléments dont le volume est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public Stream<Chargeable> streamByVolume(double min, double max) {
+        checkRange(min, max);
+        List<Chargeable> items;
+        synchronized (this) {
+            items = LoadIndex.list(index(LoadOrder.VOLUME_ASC.key()).volumeRange(min, max));
+        }
+        return items.stream();
+    }
+
+    /**
+     * Compte les éléments dont le volume est compris entre deux bornes incluses, sans les copier.
+     *
+     * @param min Le volume minimal.
+     * @param max Le volume maximal.
+     * @return Le nombre d'éléments dont le volume est dans l'intervalle.
+     * @throws IllegalArgumentException Si la borne minimale dépasse la borne maximale.
+     */
+    public synchronized long countByVolume(double min, double max) {
+        checkRange(min, max);
+        return LoadIndex.count(index(LoadOrder.VOLUME_ASC.key()).volumeRange(min, max));
+    }
+
+    private static void checkRange(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            throw new IllegalArgumentException("La borne minimale ne peut pas dépasser la borne maximale.");
+        }
+    }
+
+    /**
+     * Retourne l'index d'une clé, en le construisant à la première demande. Le verrou du camion doit être détenu.
+     */
+    private LoadIndex index(int key) {
+        if (indexes[key] == null) {
+            indexes[key] = new LoadIndex(key, load);
+        }
+        return indexes[key];
+    }
+
+    /**
+     * Corrige le poids chargé sans charger ni décharger d'élément. Les observateurs du Loadmaster
+     * en sont avertis (voir {@link be.ipam.menegon.model.loadmaster.LoadmasterListener#capacityAdjusted(CamionSnapshot)}).
+     *
+     * @param delta La correction à appliquer au poids chargé.
+     */
+    public synchronized void updateCurrentWeight(int delta) {
         this.currentWeight += delta;
+        version++;
+        snapshot = snapshot.adjusted(currentWeight, currentVolume, version);
+        loadmaster.publishAdjustment(this);
     }
 
-    public void updateCurrentVolume(double delta) {
+    /**
+     * Corrige le volume chargé sans charger ni décharger d'élément. Les observateurs du Loadmaster
+     * en sont avertis (voir {@link be.ipam.menegon.model.loadmaster.LoadmasterListener#capacityAdjusted(CamionSnapshot)}).
+     *
+     * @param delta La correction à appliquer au volume chargé.
+     */
+    public synchronized void updateCurrentVolume(double delta) {
         this.currentVolume += delta;
+        version++;
+        snapshot = snapshot.adjusted(currentWeight, currentVolume, version);
+        loadmaster.publishAdjustment(this);
     }
 
+    /**
+     * Retourne la dernière version publiée de l'état du camion.
+     * Cette méthode ne prend aucun verrou et peut être appelée depuis n'importe quel thread,
+     * y compris pendant un chargement : la version retournée est toujours cohérente.
+     *
+     * @return La dernière version immuable de l'état du camion.
+     */
+    public CamionSnapshot snapshot() {
+        return snapshot;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,300 @@
+package be.ipam.menegon.model.truck;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Version immuable de l'état d'un {@link Camion}, publiée à chaque modification.
+ * Un lecteur qui obtient une version par {@link Camion#snapshot()} voit un état cohérent
+ * (chargement, poids et volume de la même version) sans prendre aucun verrou,
+ * même si le camion est modifié pendant sa lecture.
+ * Le chargement est un arbre AVL persistant indexé par position : chaque version partage avec la précédente
+ * tous les sous-arbres qui n'ont pas changé. Charger ou décharger un élément ne recrée que les nœuds
+ * d'un chemin, soit O(log n) allocations sous le verrou du camion, où que soit l'élément déchargé.
+ * Les anciennes versions sont récupérées par le ramasse-miettes dès qu'aucun lecteur ne les retient.
+ *
+ * @author Dylan Menegon
+ */
+public final class CamionSnapshot {
+    private final String id;
+    private final int maxWeight;
+    private final double maxVolume;
+    private final int currentWeight;
+    private final double currentVolume;
+    private final long version;
+    private final Node root; // Éléments dans l'ordre de chargement
+    private volatile LoadColumns columns; // Index en colonnes, construit à la première demande
+
+    private CamionSnapshot(String id, int maxWeight, double maxVolume, int currentWeight, double currentVolume,
+                           long version, Node root) {
+        this.id = id;
+        this.maxWeight = maxWeight;
+        this.maxVolume = maxVolume;
+        this.currentWeight = currentWeight;
+        this.currentVolume = currentVolume;
+        this.version = version;
+        this.root = root;
+    }
+
+    static CamionSnapshot empty(String id, int maxWeight, double maxVolume) {
+        return new CamionSnapshot(id, maxWeight, maxVolume, 0, 0, 0, null);
+    }
+
+    CamionSnapshot loaded(Chargeable item, int currentWeight, double currentVolume, long version) {
+        return new CamionSnapshot(id, maxWeight, maxVolume, currentWeight, currentVolume, version, Node.append(root, item));
+    }
+
+    CamionSnapshot loadedAll(List<? extends Chargeable> items, int currentWeight, double currentVolume, long version) {
+        Node rebuilt = root;
+        for (Chargeable item : items) {
+            rebuilt = Node.append(rebuilt, item);
+        }
+        return new CamionSnapshot(id, maxWeight, maxVolume, currentWeight, currentVolume, version, rebuilt);
+    }
+
+    /**
+     * Retire l'élément à une position du chargement.
+     */
+    CamionSnapshot unloaded(int position, int currentWeight, double currentVolume, long version) {
+        return new CamionSnapshot(id, maxWeight, maxVolume, currentWeight, currentVolume, version, Node.removeAt(root, position));
+    }
+
+    /**
+     * Retire plusieurs éléments en une seule version. Quand ils sont peu nombreux, chacun est retiré par sa position ;
+     * sinon l'arbre est reconstruit à partir du chargement restant, en O(n) comme le compactage du chargement lui-même.
+     *
+     * @param positions Les positions des éléments retirés dans le chargement précédent, en ordre croissant.
+     * @param remaining Le chargement après le retrait, dans l'ordre de chargement.
+     */
+    CamionSnapshot unloadedAll(int[] positions, List<Chargeable> remaining, int currentWeight, double currentVolume, long version) {
+        Node rebuilt;
+        if (positions.length <= size() / 8) {
+            rebuilt = root;
+            for (int i = positions.length - 1; i >= 0; i--) {
+                rebuilt = Node.removeAt(rebuilt, positions[i]);
+            }
+        } else {
+            rebuilt = Node.build(remaining, 0, remaining.size());
+        }
+        return new CamionSnapshot(id, maxWeight, maxVolume, currentWeight, currentVolume, version, rebuilt);
+    }
+
+    CamionSnapshot adjusted(int currentWeight, double currentVolume, long version) {
+        return new CamionSnapshot(id, maxWeight, maxVolume, currentWeight, currentVolume, version, root);
+    }
+
+    /**
+     * Retourne l'identifiant du camion.
+     *
+     * @return L'identifiant du camion.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Retourne le poids maximum du camion.
+     *
+     * @return Le poids maximum du camion.
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Retourne le volume maximum du camion.
+     *
+     * @return Le volume maximum du camion.
+     */
+    public double getMaxVolume() {
+        return maxVolume;
+    }
+
+    /**
+     * Retourne le poids du camion dans cette version.
+     *
+     * @return Le poids du camion.
+     */
+    public int getCurrentWeight() {
+        return currentWeight;
+    }
+
+    /**
+     * Retourne le volume du camion dans cette version.
+     *
+     * @return Le volume du camion.
+     */
+    public double getCurrentVolume() {
+        return currentVolume;
+    }
+
+    /**
+     * Retourne le numéro de version du camion, identique à {@link Camion#getVersion()} au moment de la publication.
+     *
+     * @return Le numéro de version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Retourne le nombre d'éléments chargés dans cette version.
+     *
+     * @return Le nombre d'éléments.
+     */
+    public int size() {
+        return Node.size(root);
+    }
+
+    /**
+     * Parcourt les éléments de cette version, du plus récent au plus ancien, sans rien copier.
+     *
+     * @param action L'action à appliquer à chaque élément.
+     */
+    public void forEach(Consumer<? super Chargeable> action) {
+        Node.forEachReversed(root, action);
+    }
+
+    /**
+     * Retourne les éléments de cette version dans l'ordre de chargement.
+     *
+     * @return Une liste non modifiable des éléments chargés.
+     */
+    public List<Chargeable> getLoad() {
+        List<Chargeable> load = new ArrayList<>(size());
+        Node.addTo(root, load);
+        return Collections.unmodifiableList(load);
+    }
+
+    /**
+     * Retourne l'index en colonnes de cette version, construit au premier appel puis réutilisé.
+     * Deux threads qui le demandent en même temps peuvent le construire chacun ; ils obtiennent le même contenu.
+     *
+     * @return L'index en colonnes du chargement.
+     */
+    public LoadColumns columns() {
+        LoadColumns built = columns;
+        if (built == null) {
+            built = new LoadColumns(this);
+            columns = built;
+        }
+        return built;
+    }
+
+    /**
+     * Retourne un flux sur les éléments de cette version dans l'ordre de chargement.
+     *
+     * @return Un flux des éléments chargés.
+     */
+    public Stream<Chargeable> stream() {
+        return getLoad().stream();
+    }
+
+    /**
+     * Nœud immuable de l'arbre : chaque nœud connaît la hauteur et la taille de son sous-arbre,
+     * ce qui permet de retrouver une position et de rééquilibrer sans rien modifier en place.
+     */
+    private static final class Node {
+        private final Chargeable item;
+        private final Node left;
+        private final Node right;
+        private final int height;
+        private final int size;
+
+        private Node(Chargeable item, Node left, Node right) {
+            this.item = item;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+
+        static int size(Node node) {
+            return node == null ? 0 : node.size;
+        }
+
+        static int height(Node node) {
+            return node == null ? 0 : node.height;
+        }
+
+        static Node append(Node node, Chargeable item) {
+            if (node == null) {
+                return new Node(item, null, null);
+            }
+            return balance(node.item, node.left, append(node.right, item));
+        }
+
+        static Node removeAt(Node node, int position) {
+            int leftSize = size(node.left);
+            if (position < leftSize) {
+                return balance(node.item, removeAt(node.left, position), node.right);
+            }
+            if (position > leftSize) {
+                return balance(node.item, node.left, removeAt(node.right, position - leftSize - 1));
+            }
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node first = node.right;
+            while (first.left != null) {
+                first = first.left;
+            }
+            return balance(first.item, node.left, removeAt(node.right, 0));
+        }
+
+        static Node build(List<Chargeable> items, int from, int to) {
+            if (from >= to) {
+                return null;
+            }
+            int middle = (from + to) >>> 1;
+            return new Node(items.get(middle), build(items, from, middle), build(items, middle + 1, to));
+        }
+
+        static void addTo(Node node, List<Chargeable> items) {
+            if (node != null) {
+                addTo(node.left, items);
+                items.add(node.item);
+                addTo(node.right, items);
+            }
+        }
+
+        static void forEachReversed(Node node, Consumer<? super Chargeable> action) {
+            if (node != null) {
+                forEachReversed(node.right, action);
+                action.accept(node.item);
+                forEachReversed(node.left, action);
+            }
+        }
+
+        private static Node balance(Chargeable item, Node left, Node right) {
+            int difference = height(left) - height(right);
+            if (difference > 1) {
+                if (height(left.left) < height(left.right)) {
+                    left = rotateLeft(left.item, left.left, left.right);
+                }
+                return new Node(left.item, left.left, new Node(item, left.right, right));
+            }
+            if (difference < -1) {
+                if (height(right.right) < height(right.left)) {
+                    right = rotateRight(right.item, right.left, right.right);
+                }
+                return new Node(right.item, new Node(item, left, right.left), right.right);
+            }
+            return new Node(item, left, right);
+        }
+
+        private static Node rotateLeft(Chargeable item, Node left, Node right) {
+            return new Node(right.item, new Node(item, left, right.left), right.right);
+        }
+
+        private static Node rotateRight(Chargeable item, Node left, Node right) {
+            return new Node(left.item, left.left, new Node(item, left.right, right));
+        }
+    }
+}
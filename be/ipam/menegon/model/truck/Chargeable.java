@@ -28,4 +28,25 @@ public interface Chargeable {
      * @return Le poids du matériel en unités de poids.
      */
     public int getWeight();
+
+    /**
+     * Retourne la valeur du matériel, utilisée pour choisir quoi charger quand tout ne tient pas dans un camion
+     * (voir {@link be.ipam.menegon.model.knapsack.KnapsackLoader}). Par défaut, tous les matériels valent 1.
+     *
+     * @return La valeur du matériel, positive ou nulle.
+     */
+    public default double getValue() {
+        return 1;
+    }
+
+    /**
+     * Retourne l'heure de départ la plus tardive acceptable pour le matériel : il ne doit être placé que dans
+     * un camion qui part au plus tard à cette heure (voir {@link be.ipam.menegon.model.loadmaster.DepartureBoard}).
+     * Par défaut, un matériel n'a pas d'échéance.
+     *
+     * @return L'heure limite de départ, en millisecondes depuis l'époque Unix, ou {@link Long#MAX_VALUE} sans échéance.
+     */
+    public default long getLatestDeparture() {
+        return Long.MAX_VALUE;
+    }
 }
@@ -0,0 +1,117 @@
+package be.ipam.menegon.model.truck;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Représente un colis dimensionné qui peut être chargé dans un camion.
+ * Son volume est celui de la boîte qui l'englobe.
+ *
+ * @author Dylan Menegon
+ */
+public class Colis implements DimensionedChargeable {
+
+    private final String id;
+    private final int weight;
+    private final double length;
+    private final double width;
+    private final double height;
+    private final boolean stackable;
+
+    /**
+     * Crée un nouveau colis avec les spécifications fournies.
+     *
+     * @param id L'identifiant unique du colis. Ne peut pas être null ou vide.
+     * @param weight Le poids du colis. Doit être positif.
+     * @param length La longueur du colis. Doit être positive.
+     * @param width La largeur du colis. Doit être positive.
+     * @param height La hauteur du colis. Doit être positive.
+     * @param stackable {@code true} si d'autres colis peuvent être posés dessus.
+     * @throws IllegalArgumentException Si l'ID est null ou vide, ou si le poids ou une dimension n'est pas positif.
+     */
+    public Colis(String id, int weight, double length, double width, double height, boolean stackable) {
+        if (id == null || id.trim().isEmpty()) {
+            throw new IllegalArgumentException("L'ID ne peut pas être null ou vide.");
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Le poids doit être positif.");
+        }
+        if (length <= 0 || width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Les dimensions doivent être positives.");
+        }
+        this.id = id;
+        this.weight = weight;
+        this.length = length;
+        this.width = width;
+        this.height = height;
+        this.stackable = stackable;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public double getVolume() {
+        return length * width * height;
+    }
+
+    @Override
+    public double getLength() {
+        return length;
+    }
+
+    @Override
+    public double getWidth() {
+        return width;
+    }
+
+    @Override
+    public double getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean isStackable() {
+        return stackable;
+    }
+
+    /**
+     * Retourne une représentation sous forme de chaîne de caractères du colis.
+     *
+     * @return Une chaîne de caractères représentant le colis, incluant son ID, son poids et ses dimensions.
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder()
+                .append("Colis [ID=").append(id)
+                .append(", Weight=").append(String.format(Locale.US, "%.2f", (double) weight)).append(" kg")
+                .append(", Size=").append(String.format(Locale.US, "%.2fx%.2fx%.2f", length, width, height)).append(" m")
+                .append(stackable ? "" : ", non gerbable")
+                .append("]").toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, weight, length, width, height, stackable);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Colis colis = (Colis) o;
+        return weight == colis.weight &&
+                Double.compare(colis.length, length) == 0 &&
+                Double.compare(colis.width, width) == 0 &&
+                Double.compare(colis.height, height) == 0 &&
+                stackable == colis.stackable &&
+                Objects.equals(id, colis.id);
+    }
+}
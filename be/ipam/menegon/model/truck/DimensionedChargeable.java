@@ -0,0 +1,39 @@
+package be.ipam.menegon.model.truck;
+
+/**
+ * Objet chargeable dont les dimensions sont connues, ce qui permet de vérifier
+ * qu'il tient physiquement dans la caisse d'un camion et pas seulement en volume.
+ * Les dimensions sont exprimées dans la même unité que celles de la caisse du camion.
+ *
+ * @author Dylan Menegon
+ */
+public interface DimensionedChargeable extends Chargeable {
+
+    /**
+     * Retourne la longueur de l'objet.
+     *
+     * @return La longueur de l'objet.
+     */
+    public double getLength();
+
+    /**
+     * Retourne la largeur de l'objet.
+     *
+     * @return La largeur de l'objet.
+     */
+    public double getWidth();
+
+    /**
+     * Retourne la hauteur de l'objet.
+     *
+     * @return La hauteur de l'objet.
+     */
+    public double getHeight();
+
+    /**
+     * Indique si d'autres objets peuvent être posés sur celui-ci.
+     *
+     * @return {@code true} si l'objet est gerbable, sinon {@code false}.
+     */
+    public boolean isStackable();
+}
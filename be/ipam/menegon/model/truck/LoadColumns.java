@@ -0,0 +1,123 @@
+package be.ipam.menegon.model.truck;
+
+import java.util.Arrays;
+
+/**
+ * Index en colonnes du chargement d'un {@link CamionSnapshot} : les éléments triés par poids croissant,
+ * avec leurs poids et leurs volumes dans des tableaux primitifs. Un intervalle de poids se trouve par
+ * recherche dichotomique et un filtre de volume parcourt un tableau contigu, sans suivre de pointeurs.
+ * L'index est construit à la première demande pour une version et reste valable tant qu'elle existe,
+ * car la version est immuable.
+ *
+ * @author Dylan Menegon
+ */
+public final class LoadColumns {
+    private final Chargeable[] items;
+    private final int[] weights;
+    private final double[] volumes;
+    private final double maxVolume;
+
+    LoadColumns(CamionSnapshot snapshot) {
+        int size = snapshot.size();
+        Chargeable[] loaded = new Chargeable[size];
+        long[] order = new long[size];
+        int[] next = {0};
+        snapshot.forEach(item -> {
+            int i = next[0]++;
+            loaded[i] = item;
+            // Poids puis position : un seul tri de primitifs
+            order[i] = ((long) item.getWeight() << 32) | i;
+        });
+        Arrays.sort(order);
+        items = new Chargeable[size];
+        weights = new int[size];
+        volumes = new double[size];
+        double largest = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            Chargeable item = loaded[(int) order[i]];
+            items[i] = item;
+            weights[i] = item.getWeight();
+            volumes[i] = item.getVolume();
+            largest = Math.max(largest, volumes[i]);
+        }
+        maxVolume = largest;
+    }
+
+    /**
+     * Retourne le nombre d'éléments indexés.
+     *
+     * @return Le nombre d'éléments.
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Retourne le plus grand volume des éléments indexés.
+     *
+     * @return Le plus grand volume, ou {@link Double#NEGATIVE_INFINITY} si l'index est vide.
+     */
+    public double getMaxVolume() {
+        return maxVolume;
+    }
+
+    /**
+     * Retourne la position du premier élément dont le poids est au moins égal à la valeur donnée.
+     *
+     * @param weight Le poids cherché.
+     * @return Une position entre 0 et {@link #size()}.
+     */
+    public int lowerBound(int weight) {
+        int low = 0;
+        int high = weights.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (weights[mid] < weight) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Retourne la position du premier élément dont le poids dépasse strictement la valeur donnée.
+     *
+     * @param weight Le poids cherché.
+     * @return Une position entre 0 et {@link #size()}.
+     */
+    public int upperBound(int weight) {
+        return weight == Integer.MAX_VALUE ? weights.length : lowerBound(weight + 1);
+    }
+
+    /**
+     * Retourne l'élément à une position de l'index.
+     *
+     * @param index La position.
+     * @return L'élément.
+     */
+    public Chargeable getItem(int index) {
+        return items[index];
+    }
+
+    /**
+     * Retourne le poids de l'élément à une position de l'index.
+     *
+     * @param index La position.
+     * @return Le poids.
+     */
+    public int getWeight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Retourne le volume de l'élément à une position de l'index.
+     *
+     * @param index La position.
+     * @return Le volume.
+     */
+    public double getVolume(int index) {
+        return volumes[index];
+    }
+}
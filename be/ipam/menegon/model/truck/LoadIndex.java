@@ -0,0 +1,141 @@
+package be.ipam.menegon.model.truck;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Index ordonné du chargement d'un camion selon une clé de {@link LoadOrder}.
+ * Les éléments indiscernables (même type, ID, poids et volume) partagent une entrée qui retient
+ * chacune de leurs instances, dans l'ordre de chargement. L'index est maintenu par {@link Camion}
+ * à chaque chargement et déchargement, sous son verrou.
+ *
+ * @author Dylan Menegon
+ */
+final class LoadIndex {
+    private final TreeMap<Chargeable, List<Chargeable>> entries;
+
+    LoadIndex(int key, List<Chargeable> load) {
+        this.entries = new TreeMap<>(LoadOrder.ascendingComparator(key));
+        for (Chargeable item : load) {
+            add(item);
+        }
+    }
+
+    void add(Chargeable item) {
+        entries.computeIfAbsent(item, k -> new ArrayList<>(1)).add(item);
+    }
+
+    /**
+     * Retire l'instance chargée elle-même, et non une autre instance égale de la même entrée.
+     */
+    void remove(Chargeable item) {
+        List<Chargeable> copies = entries.get(item);
+        if (copies == null) {
+            return;
+        }
+        for (int i = 0; i < copies.size(); i++) {
+            if (copies.get(i) == item) {
+                copies.remove(i);
+                break;
+            }
+        }
+        if (copies.isEmpty()) {
+            entries.remove(item);
+        }
+    }
+
+    /**
+     * Retourne au plus {@code limit} éléments situés strictement après {@code after} dans le sens demandé.
+     * Les exemplaires d'une même entrée ne sont jamais séparés entre deux pages.
+     */
+    List<Chargeable> page(boolean descending, Chargeable after, int limit) {
+        NavigableMap<Chargeable, List<Chargeable>> view = descending ? entries.descendingMap() : entries;
+        if (after != null) {
+            view = view.tailMap(after, false);
+        }
+        if (limit == 0) {
+            return Collections.emptyList();
+        }
+        List<Chargeable> result = new ArrayList<>(Math.min(limit, entries.size()));
+        for (List<Chargeable> copies : view.values()) {
+            result.addAll(copies);
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retourne la portion de l'index dont la clé est comprise entre deux bornes incluses.
+     * Les bornes sont des éléments sentinelles sans ID, placés avant tout élément réel de même clé.
+     */
+    NavigableMap<Chargeable, List<Chargeable>> weightRange(int min, int max) {
+        Chargeable low = new Bound(min, 0);
+        if (max == Integer.MAX_VALUE) {
+            return entries.tailMap(low, true);
+        }
+        return entries.subMap(low, true, new Bound(max + 1, 0), false);
+    }
+
+    NavigableMap<Chargeable, List<Chargeable>> volumeRange(double min, double max) {
+        Chargeable low = new Bound(0, min);
+        if (max == Double.POSITIVE_INFINITY) {
+            return entries.tailMap(low, true);
+        }
+        return entries.subMap(low, true, new Bound(0, Math.nextUp(max)), false);
+    }
+
+    /**
+     * Compte les éléments d'une portion de l'index sans les copier.
+     */
+    static long count(NavigableMap<Chargeable, List<Chargeable>> range) {
+        long count = 0;
+        for (List<Chargeable> copies : range.values()) {
+            count += copies.size();
+        }
+        return count;
+    }
+
+    /**
+     * Copie une portion de l'index dans une liste, avec chacune des instances chargées.
+     */
+    static List<Chargeable> list(NavigableMap<Chargeable, List<Chargeable>> range) {
+        List<Chargeable> result = new ArrayList<>();
+        for (List<Chargeable> copies : range.values()) {
+            result.addAll(copies);
+        }
+        return result;
+    }
+
+    /**
+     * Élément sentinelle servant de borne dans l'index : son ID null le place avant tout élément de même clé.
+     */
+    private static final class Bound implements Chargeable {
+        private final int weight;
+        private final double volume;
+
+        Bound(int weight, double volume) {
+            this.weight = weight;
+            this.volume = volume;
+        }
+
+        @Override
+        public String getId() {
+            return null;
+        }
+
+        @Override
+        public double getVolume() {
+            return volume;
+        }
+
+        @Override
+        public int getWeight() {
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package be.ipam.menegon.model.truck;
+
+import java.util.Comparator;
+
+/**
+ * Ordre de tri du chargement d'un camion : une clé (ID, poids ou volume) et un sens.
+ * Les comparateurs sont totaux : à clé égale, les éléments sont départagés par ID,
+ * puis par poids, volume et type, de sorte que seuls des éléments indiscernables sont ex aequo.
+ *
+ * @author Dylan Menegon
+ */
+public enum LoadOrder {
+    ID_ASC(0, false),
+    ID_DESC(0, true),
+    WEIGHT_ASC(1, false),
+    WEIGHT_DESC(1, true),
+    VOLUME_ASC(2, false),
+    VOLUME_DESC(2, true);
+
+    static final int KEY_COUNT = 3;
+
+    private static final Comparator<Chargeable> BY_ID = Comparator
+            .comparing(Chargeable::getId, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparingInt(Chargeable::getWeight)
+            .thenComparingDouble(Chargeable::getVolume)
+            .thenComparing(item -> item.getClass().getName());
+    private static final Comparator<Chargeable> BY_WEIGHT = Comparator
+            .comparingInt(Chargeable::getWeight)
+            .thenComparing(BY_ID);
+    private static final Comparator<Chargeable> BY_VOLUME = Comparator
+            .comparingDouble(Chargeable::getVolume)
+            .thenComparing(BY_ID);
+
+    private final int key;
+    private final boolean descending;
+
+    LoadOrder(int key, boolean descending) {
+        this.key = key;
+        this.descending = descending;
+    }
+
+    /**
+     * Indique si l'ordre est décroissant.
+     *
+     * @return {@code true} si l'ordre est décroissant, sinon {@code false}.
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Retourne le comparateur correspondant à cet ordre.
+     *
+     * @return Le comparateur des éléments dans cet ordre.
+     */
+    public Comparator<Chargeable> comparator() {
+        Comparator<Chargeable> ascending = ascendingComparator(key);
+        return descending ? ascending.reversed() : ascending;
+    }
+
+    int key() {
+        return key;
+    }
+
+    static Comparator<Chargeable> ascendingComparator(int key) {
+        switch (key) {
+            case 0:
+                return BY_ID;
+            case 1:
+                return BY_WEIGHT;
+            default:
+                return BY_VOLUME;
+        }
+    }
+}
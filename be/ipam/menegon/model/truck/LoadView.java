@@ -0,0 +1,175 @@
+package be.ipam.menegon.model.truck;
+
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Vue en lecture seule sur le chargement d'un {@link Camion}.
+ * La vue ne copie aucun élément : taille et accès par position lisent directement
+ * le chargement du camion. Les parcours (itérateur, {@code forEach}, flux) mémorisent
+ * la version du camion au départ et échouent rapidement si le camion est modifié entre-temps.
+ * Toute tentative de modification à travers la vue lève une {@link UnsupportedOperationException}.
+ *
+ * @author Dylan Menegon
+ */
+public class LoadView extends AbstractList<Chargeable> implements RandomAccess {
+    private final Camion camion;
+    private final List<Chargeable> load;
+    private final long createdVersion;
+
+    LoadView(Camion camion, List<Chargeable> load) {
+        this.camion = camion;
+        this.load = load;
+        this.createdVersion = camion.getVersion();
+    }
+
+    /**
+     * Retourne la version du camion au moment où la vue a été créée.
+     *
+     * @return La version du camion à la création de la vue.
+     */
+    public long getVersion() {
+        return createdVersion;
+    }
+
+    /**
+     * Indique si le camion a été modifié depuis la création de la vue.
+     *
+     * @return {@code true} si le chargement a changé depuis la création de la vue, sinon {@code false}.
+     */
+    public boolean isStale() {
+        return camion.getVersion() != createdVersion;
+    }
+
+    @Override
+    public Chargeable get(int index) {
+        return load.get(index);
+    }
+
+    @Override
+    public int size() {
+        return load.size();
+    }
+
+    @Override
+    public Iterator<Chargeable> iterator() {
+        return new Iterator<Chargeable>() {
+            private final long expectedVersion = camion.getVersion();
+            private int cursor;
+
+            @Override
+            public boolean hasNext() {
+                checkVersion(expectedVersion);
+                return cursor < load.size();
+            }
+
+            @Override
+            public Chargeable next() {
+                checkVersion(expectedVersion);
+                if (cursor >= load.size()) {
+                    throw new NoSuchElementException();
+                }
+                return element(cursor++, expectedVersion);
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super Chargeable> action) {
+        long expectedVersion = camion.getVersion();
+        for (int i = 0, n = load.size(); i < n; i++) {
+            action.accept(element(i, expectedVersion));
+        }
+    }
+
+    @Override
+    public Spliterator<Chargeable> spliterator() {
+        return new LoadSpliterator(0, -1, camion.getVersion());
+    }
+
+    /**
+     * Lit un élément après avoir vérifié la version : un déchargement concurrent qui raccourcit
+     * le chargement entre la vérification et la lecture est signalé de la même façon.
+     */
+    private Chargeable element(int index, long expectedVersion) {
+        checkVersion(expectedVersion);
+        try {
+            return load.get(index);
+        } catch (IndexOutOfBoundsException e) {
+            throw new ConcurrentModificationException("Le camion " + camion.getId() + " a été modifié pendant le parcours.");
+        }
+    }
+
+    private void checkVersion(long expectedVersion) {
+        if (camion.getVersion() != expectedVersion) {
+            throw new ConcurrentModificationException("Le camion " + camion.getId() + " a été modifié pendant le parcours.");
+        }
+    }
+
+    /**
+     * Découpeur par position, utilisable par les flux parallèles, qui vérifie la version du camion.
+     */
+    private final class LoadSpliterator implements Spliterator<Chargeable> {
+        private final long expectedVersion;
+        private int index;
+        private int fence; // -1 tant que la borne n'est pas fixée
+
+        LoadSpliterator(int origin, int fence, long expectedVersion) {
+            this.index = origin;
+            this.fence = fence;
+            this.expectedVersion = expectedVersion;
+        }
+
+        private int getFence() {
+            if (fence < 0) {
+                fence = load.size();
+            }
+            return fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Chargeable> action) {
+            checkVersion(expectedVersion);
+            if (index >= getFence()) {
+                return false;
+            }
+            action.accept(element(index++, expectedVersion));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Chargeable> action) {
+            int hi = getFence();
+            for (; index < hi; index++) {
+                action.accept(element(index, expectedVersion));
+            }
+        }
+
+        @Override
+        public Spliterator<Chargeable> trySplit() {
+            int lo = index;
+            int mid = (lo + getFence()) >>> 1;
+            if (lo >= mid) {
+                return null;
+            }
+            index = mid;
+            return new LoadSpliterator(lo, mid, expectedVersion);
+        }
+
+        @Override
+        public long estimateSize() {
+            return getFence() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+}
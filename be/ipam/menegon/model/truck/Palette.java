@@ -14,6 +14,8 @@ public class Palette implements Chargeable {
     private final String id;
     private final int weight;
     private final double volume;
+    private final double value;
+    private final long latestDeparture;
 
     /**
      * Crée une nouvelle palette avec les spécifications fournies.
@@ -24,6 +26,33 @@ public class Palette implements Chargeable {
      * @throws IllegalArgumentException Si l'ID est null ou vide, ou si le poids ou le volume sont négatifs.
      */
     public Palette(String id, int weight, double volume) {
+        this(id, weight, volume, 1);
+    }
+
+    /**
+     * Crée une nouvelle palette avec les spécifications fournies et une valeur.
+     *
+     * @param id L'identifiant unique de la palette. Ne peut pas être null ou vide.
+     * @param weight Le poids de la palette. Doit être positif.
+     * @param volume Le volume de la palette. Doit être positif.
+     * @param value La valeur de la palette, utilisée pour choisir quoi charger quand tout ne tient pas. Doit être positive ou nulle.
+     * @throws IllegalArgumentException Si l'ID est null ou vide, si le poids ou le volume sont négatifs, ou si la valeur est négative.
+     */
+    public Palette(String id, int weight, double volume, double value) {
+        this(id, weight, volume, value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Crée une nouvelle palette avec les spécifications fournies, une valeur et une heure limite de départ.
+     *
+     * @param id L'identifiant unique de la palette. Ne peut pas être null ou vide.
+     * @param weight Le poids de la palette. Doit être positif.
+     * @param volume Le volume de la palette. Doit être positif.
+     * @param value La valeur de la palette, utilisée pour choisir quoi charger quand tout ne tient pas. Doit être positive ou nulle.
+     * @param latestDeparture L'heure de départ la plus tardive acceptable, en millisecondes depuis l'époque Unix, ou {@link Long#MAX_VALUE} sans échéance.
+     * @throws IllegalArgumentException Si l'ID est null ou vide, si le poids ou le volume sont négatifs, ou si la valeur est négative.
+     */
+    public Palette(String id, int weight, double volume, double value, long latestDeparture) {
         if (id == null || id.trim().isEmpty()) {
             throw new IllegalArgumentException("L'ID ne peut pas être null ou vide.");
         }
@@ -36,9 +65,14 @@ public class Palette implements Chargeable {
         if (volume <= 0) {
             throw new IllegalArgumentException("Le volume doit être positif.");
         }
+        if (value < 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("La valeur doit être positive ou nulle.");
+        }
         this.id = id;
         this.weight = weight;
         this.volume = volume;
+        this.value = value;
+        this.latestDeparture = latestDeparture;
     }
 
 
@@ -72,6 +106,26 @@ public class Palette implements Chargeable {
         return volume;
     }
 
+    /**
+     * Retourne la valeur de la palette.
+     *
+     * @return La valeur de la palette.
+     */
+    @Override
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Retourne l'heure de départ la plus tardive acceptable pour la palette.
+     *
+     * @return L'heure limite de départ, ou {@link Long#MAX_VALUE} sans échéance.
+     */
+    @Override
+    public long getLatestDeparture() {
+        return latestDeparture;
+    }
+
     /**
      * Retourne une représentation sous forme de chaîne de caractères de la palette.
      *
@@ -14,6 +14,8 @@ public class Vrac implements Chargeable {
     private final String id;
     private final int weight;
     private final double volume;
+    private final double value;
+    private final long latestDeparture;
 
     /**
      * Crée un nouvel objet Vrac avec les spécifications fournies.
@@ -24,6 +26,33 @@ public class Vrac implements Chargeable {
      * @throws IllegalArgumentException Si l'ID est null ou vide, ou si le poids ou le volume sont négatifs.
      */
     public Vrac(String id, int weight, double volume) {
+        this(id, weight, volume, 1);
+    }
+
+    /**
+     * Crée un nouvel objet Vrac avec les spécifications fournies et une valeur.
+     *
+     * @param id L'identifiant unique du matériel en vrac. Ne peut pas être null ou vide.
+     * @param weight Le poids du matériel en vrac. Doit être positif.
+     * @param volume Le volume du matériel en vrac. Doit être positif.
+     * @param value La valeur du matériel en vrac, utilisée pour choisir quoi charger quand tout ne tient pas. Doit être positive ou nulle.
+     * @throws IllegalArgumentException Si l'ID est null ou vide, si le poids ou le volume sont négatifs, ou si la valeur est négative.
+     */
+    public Vrac(String id, int weight, double volume, double value) {
+        this(id, weight, volume, value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Crée un nouvel objet Vrac avec les spécifications fournies, une valeur et une heure limite de départ.
+     *
+     * @param id L'identifiant unique du matériel en vrac. Ne peut pas être null ou vide.
+     * @param weight Le poids du matériel en vrac. Doit être positif.
+     * @param volume Le volume du matériel en vrac. Doit être positif.
+     * @param value La valeur du matériel en vrac, utilisée pour choisir quoi charger quand tout ne tient pas. Doit être positive ou nulle.
+     * @param latestDeparture L'heure de départ la plus tardive acceptable, en millisecondes depuis l'époque Unix, ou {@link Long#MAX_VALUE} sans échéance.
+     * @throws IllegalArgumentException Si l'ID est null ou vide, si le poids ou le volume sont négatifs, ou si la valeur est négative.
+     */
+    public Vrac(String id, int weight, double volume, double value, long latestDeparture) {
         if (id == null || id.trim().isEmpty()) {
             throw new IllegalArgumentException("L'ID ne peut pas être null ou vide.");
         }
@@ -33,9 +62,14 @@ public class Vrac implements Chargeable {
         if (volume <= 0) {
             throw new IllegalArgumentException("Le volume doit être positif.");
         }
+        if (value < 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("La valeur doit être positive ou nulle.");
+        }
         this.id = id;
         this.weight = weight;
         this.volume = volume;
+        this.value = value;
+        this.latestDeparture = latestDeparture;
     }
 
     /**
@@ -68,6 +102,26 @@ public class Vrac implements Chargeable {
         return volume;
     }
 
+    /**
+     * Retourne la valeur du matériel en vrac.
+     *
+     * @return La valeur du matériel en vrac.
+     */
+    @Override
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Retourne l'heure de départ la plus tardive acceptable pour le matériel en vrac.
+     *
+     * @return L'heure limite de départ, ou {@link Long#MAX_VALUE} sans échéance.
+     */
+    @Override
+    public long getLatestDeparture() {
+        return latestDeparture;
+    }
+
     /**
      * Compare cette instance de Vrac avec une autre pour déterminer leur égalité.
      *
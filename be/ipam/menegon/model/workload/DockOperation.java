@@ -0,0 +1,17 @@
+package be.ipam.menegon.model.workload;
+
+/**
+ * Opérations de quai rejouées par le {@link WorkloadRunner}, dont les latences sont mesurées séparément.
+ *
+ * @author Dylan Menegon
+ */
+public enum DockOperation {
+    /** Chargement d'un élément ou d'un lot, refusé ou non. */
+    LOAD,
+    /** Déchargement d'un élément, isolé ou dans une rafale. */
+    UNLOAD,
+    /** Arrivée d'un camion vide à quai. */
+    ARRIVAL,
+    /** Départ d'un camion plein, avec tout son chargement. */
+    DEPARTURE
+}
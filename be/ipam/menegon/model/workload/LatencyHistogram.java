@@ -0,0 +1,80 @@
+package be.ipam.menegon.model.workload;
+
+/**
+ * Histogramme de latences à précision relative constante : les valeurs sont rangées dans des classes
+ * dont la largeur double à chaque puissance de 2, chacune découpée en 32 sous-classes.
+ * L'erreur sur un percentile est donc d'au plus 1/32 de la valeur, quelle que soit son ordre de grandeur,
+ * pour une taille fixe d'environ 15 Ko. Un histogramme n'est pas thread-safe : chaque chargeur a le sien,
+ * et ils sont fusionnés à la fin.
+ *
+ * @author Dylan Menegon
+ */
+final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB_COUNT; // Valeurs rangées telles quelles, sans perte
+    private static final int SIZE = LINEAR + (63 - SUB_BITS - 1) * SUB_COUNT;
+
+    private final long[] counts = new long[SIZE];
+    private long total;
+    private long max;
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[index(value)]++;
+        total++;
+        max = Math.max(max, value);
+    }
+
+    void merge(LatencyHistogram other) {
+        for (int i = 0; i < SIZE; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    long getCount() {
+        return total;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    /**
+     * Retourne la plus petite valeur de la classe qui contient le percentile demandé.
+     */
+    long percentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < SIZE; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, lowest(i));
+            }
+        }
+        return max;
+    }
+
+    private static int index(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // Au moins SUB_BITS + 1
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return LINEAR + (exponent - SUB_BITS - 1) * SUB_COUNT + sub;
+    }
+
+    private static long lowest(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int exponent = (index - LINEAR) / SUB_COUNT + SUB_BITS + 1;
+        long sub = (index - LINEAR) % SUB_COUNT;
+        return (1L << exponent) | (sub << (exponent - SUB_BITS));
+    }
+}
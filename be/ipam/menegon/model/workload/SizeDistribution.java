@@ -0,0 +1,103 @@
+package be.ipam.menegon.model.workload;
+
+import java.util.Random;
+
+/**
+ * Loi de tirage du poids ou du volume des éléments générés par une {@link WorkloadProfile}.
+ * Les valeurs tirées sont toujours comprises entre un minimum et un maximum.
+ *
+ * @author Dylan Menegon
+ */
+public final class SizeDistribution {
+    private final String description;
+    private final double min;
+    private final double max;
+    private final double mu;     // Paramètres de la loi log-normale, sigma nul pour une loi uniforme
+    private final double sigma;
+
+    private SizeDistribution(String description, double min, double max, double mu, double sigma) {
+        if (!(min > 0) || !(max >= min) || Double.isInfinite(max)) {
+            throw new IllegalArgumentException("Les bornes de la loi doivent être positives et ordonnées.");
+        }
+        this.description = description;
+        this.min = min;
+        this.max = max;
+        this.mu = mu;
+        this.sigma = sigma;
+    }
+
+    /**
+     * Retourne une loi uniforme entre deux bornes.
+     *
+     * @param min La plus petite valeur. Doit être strictement positive.
+     * @param max La plus grande valeur. Ne peut pas être inférieure au minimum.
+     * @return La loi uniforme.
+     * @throws IllegalArgumentException Si les bornes sont invalides.
+     */
+    public static SizeDistribution uniform(double min, double max) {
+        return new SizeDistribution("uniforme [" + min + ", " + max + "]", min, max, 0, 0);
+    }
+
+    /**
+     * Retourne une loi log-normale tronquée : la plupart des éléments sont proches de la médiane,
+     * quelques-uns sont beaucoup plus grands. C'est la forme habituelle des colis d'un dépôt.
+     *
+     * @param median La valeur médiane. Doit être comprise entre les bornes.
+     * @param sigma L'écart type du logarithme. Doit être strictement positif.
+     * @param min La plus petite valeur. Doit être strictement positive.
+     * @param max La plus grande valeur. Ne peut pas être inférieure au minimum.
+     * @return La loi log-normale tronquée.
+     * @throws IllegalArgumentException Si un paramètre est invalide.
+     */
+    public static SizeDistribution logNormal(double median, double sigma, double min, double max) {
+        if (!(median >= min && median <= max) || !(sigma > 0) || Double.isInfinite(sigma)) {
+            throw new IllegalArgumentException("La médiane doit être entre les bornes et sigma strictement positif.");
+        }
+        return new SizeDistribution("log-normale (médiane " + median + ", sigma " + sigma + ") [" + min + ", " + max + "]",
+                min, max, Math.log(median), sigma);
+    }
+
+    /**
+     * Tire une valeur.
+     *
+     * @param random Le générateur à utiliser.
+     * @return Une valeur comprise entre les bornes de la loi.
+     */
+    public double sample(Random random) {
+        double value = sigma == 0 ? min + random.nextDouble() * (max - min) : Math.exp(mu + sigma * random.nextGaussian());
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Tire une valeur entière, par exemple un poids en kilogrammes.
+     *
+     * @param random Le générateur à utiliser.
+     * @return Une valeur arrondie d'au moins 1.
+     */
+    public int sampleInt(Random random) {
+        return (int) Math.max(1, Math.round(sample(random)));
+    }
+
+    /**
+     * Retourne le minimum de la loi.
+     *
+     * @return Le minimum.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Retourne le maximum de la loi.
+     *
+     * @return Le maximum.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,430 @@
+package be.ipam.menegon.model.workload;
+
+/**
+ * Description immuable d'un trafic de quai à rejouer par le {@link WorkloadRunner} : nombre de chargeurs,
+ * camions à quai, mélange de vrac et de palettes, lois de poids et de volume, déchargements et rafales.
+ * Deux exécutions d'un même profil génèrent exactement le même trafic.
+ *
+ * Chaque méthode {@code with...} retourne un nouveau profil qui ne diffère que par le paramètre donné.
+ *
+ * @author Dylan Menegon
+ */
+public final class WorkloadProfile {
+    private String name;
+    private long seed;
+    private int loaderThreads;
+    private int operationsPerThread;
+    private int docksPerThread;
+    private boolean sharedDocks;
+    private int truckMaxWeight;
+    private double truckMaxVolume;
+    private double paletteShare;
+    private SizeDistribution vracWeight;
+    private SizeDistribution vracVolume;
+    private SizeDistribution paletteWeight;
+    private SizeDistribution paletteVolume;
+    private double unloadRate;
+    private double burstRate;
+    private int burstSize;
+    private int batchSize;
+    private int departureRejections;
+
+    private WorkloadProfile() {
+        name = "défaut";
+        seed = 1;
+        loaderThreads = Runtime.getRuntime().availableProcessors();
+        operationsPerThread = 100_000;
+        docksPerThread = 4;
+        truckMaxWeight = 20_000;
+        truckMaxVolume = 80.0;
+        paletteShare = 0.25;
+        vracWeight = SizeDistribution.logNormal(40, 0.8, 1, 500);
+        vracVolume = SizeDistribution.logNormal(0.2, 0.8, 0.01, 2.0);
+        paletteWeight = SizeDistribution.uniform(100, 1000);
+        paletteVolume = SizeDistribution.uniform(1.0, 2.0);
+        unloadRate = 0.15;
+        burstRate = 0.01;
+        burstSize = 20;
+        batchSize = 1;
+        departureRejections = 3;
+    }
+
+    private WorkloadProfile(WorkloadProfile other) {
+        name = other.name;
+        seed = other.seed;
+        loaderThreads = other.loaderThreads;
+        operationsPerThread = other.operationsPerThread;
+        docksPerThread = other.docksPerThread;
+        sharedDocks = other.sharedDocks;
+        truckMaxWeight = other.truckMaxWeight;
+        truckMaxVolume = other.truckMaxVolume;
+        paletteShare = other.paletteShare;
+        vracWeight = other.vracWeight;
+        vracVolume = other.vracVolume;
+        paletteWeight = other.paletteWeight;
+        paletteVolume = other.paletteVolume;
+        unloadRate = other.unloadRate;
+        burstRate = other.burstRate;
+        burstSize = other.burstSize;
+        batchSize = other.batchSize;
+        departureRejections = other.departureRejections;
+    }
+
+    /**
+     * Retourne le profil par défaut : un chargeur par processeur, 100 000 opérations chacun,
+     * quatre semi-remorques à quai par chargeur, un quart de palettes et des colis de vrac de taille log-normale.
+     *
+     * @return Le profil par défaut.
+     */
+    public static WorkloadProfile defaults() {
+        return new WorkloadProfile();
+    }
+
+    /**
+     * Change le nom du profil, repris dans le rapport.
+     *
+     * @param name Le nom. Ne peut pas être null ou vide.
+     * @return Le nouveau profil.
+     * @throws IllegalArgumentException Si le nom est null ou vide.
+     */
+    public WorkloadProfile withName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Le nom du profil ne peut pas être vide.");
+        }
+        WorkloadProfile copy = new WorkloadProfile(this);
+        copy.name = name.trim();
+        return copy;
+    }
+
+    /**
+     * Change la graine du trafic généré.
+     *
+     * @param seed La graine.
+     * @return Le nouveau profil.
+     */
+    public WorkloadProfile withSeed(long seed) {
+        WorkloadProfile copy = new WorkloadProfile(this);
+        copy.seed = seed;
+        return copy;
+    }
+
+    /**
+     * Change le nombre de chargeurs concurrents et le nombre d'opérations de chacun.
+     *
+     * @param loaderThreads Le nombre de chargeurs. Doit être strictement positif.
+     * @param operationsPerThread Le nombre d'opérations par chargeur. Doit être strictement positif.
+     * @return Le nouveau profil.
+     * @throws IllegalArgumentException Si un nombre n'est pas strictement positif.
+     */
+    public WorkloadProfile withLoaders(int loaderThreads, int operationsPerThread) {
+        if (loaderThreads <= 0 || operationsPerThread <= 0) {
+            throw new IllegalArgumentException("Le nombre de chargeurs et d'opérations doit être strictement positif.");
+        }
+        WorkloadProfile copy = new WorkloadProfile(this);
+        copy.loaderThreads = loaderThreads;
+        copy.operationsPerThread = operationsPerThread;
+        return copy;
+    }
+
+    /**
+     * Change les camions à quai : leur nombre par chargeur et leur capacité.
+     *
+     * @param docksPerThread Le nombre de camions à quai par chargeur. Doit être strictement positif.
+     * @param maxWeight Le poids maximum de chaque camion. Doit être strictement positif.
+     * @param maxVolume Le volume maximum de chaque camion. Doit être strictement positif.
+     * @return Le nouveau profil.
+     * @throws IllegalArgumentException Si un paramètre n'est pas strictement positif.
+     */
+    public WorkloadProfile withTrucks(int docksPerThread, int maxWeight, double maxVolume) {
+        if (docksPerThread <= 0 || maxWeight <= 0 || !(maxVolume > 0)) {
+            throw new IllegalArgumentException("Le nombre de quais et la capacité des camions doivent être strictement positifs.");
+        }
+        WorkloadProfile copy = new WorkloadProfile(this);
+        copy.docksPerThread = docksPerThread;
+        copy.truckMaxWeight = maxWeight;
+        copy.truckMaxVolume = maxVolume;
+        return copy;
+    }
+
+    /**
+     * Choisit entre des quais propres à chaque chargeur et des quais partagés. Avec des quais partagés,
+     * tous les chargeurs travaillent sur les mêmes camions d'un seul Loadmaster et se disputent leurs verrous ;
+     * les camions à quai sont alors au nombre de {@link #getDocksPerThread()} pour toute l'exécution,
+     * et le trafic reste reproductible mais plus ses résultats, qui dépendent de l'entrelacement des threads.
+     *
+     * @param sharedDocks {@code true} pour des quais partagés par tous les chargeurs.
+     * @return Le nouveau profil.
+     */
+    public WorkloadProfile withSharedDocks(boolean sharedDocks) {
+        WorkloadProfile copy = new WorkloadProfile(this);
+        copy.sharedDocks = sharedDocks;
+        return copy;
+    }
+
+    /**
+     * Change la loi de taille du vrac.
+     *
+     * @param weight La loi des poids. Ne peut pas être null.
+     * @param volume La loi des volumes. Ne peut pas être null.
+     * @return Le nouveau profil.
+     * @throws IllegalArgumentException Si une loi est null.
+     */
+    public WorkloadProfile withVrac(SizeDistribution weight, SizeDistribution volume) {
+        if (weight == null || volume == null) {
+            throw new IllegalArgumentException("Les lois de poids et de volume sont obligatoires.");
+        }
+        WorkloadProfile copy = new WorkloadProfile(this);
+        copy.vracWeight = weight;
+        copy.vracVolume = volume;
+        return copy;
+    }
+
+    /**
+     * Change la part et la loi de taille des palettes.
+     *
+     * @param share La part des palettes parmi les éléments chargés, entre 0 et 1.
+     * @param weight La loi des poids. Ne peut pas être null.
+     * @param volume La loi des volumes. Ne peut pas être null.
+     * @return Le nouveau profil.
+     * @throws IllegalArgumentException Si la part n'est pas entre 0 et 1 ou si une loi est null.
+     */
+    public WorkloadProfile withPalettes(double share, SizeDistribution weight, SizeDistribution volume) {
+        if (!(share >= 0 && share <= 1)) {
+            throw new IllegalArgumentException("La part des palettes doit être comprise entre 0 et 1.");
+        }
+        if (weight == null || volume == null) {
+            throw new IllegalArgumentException("Les lois de poids et de volume sont obligatoires.");
+        }
+        WorkloadProfile copy = new WorkloadProfile(this);
+        copy.paletteShare = share;
+        copy.paletteWeight = weight;
+        copy.paletteVolume = volume;
+        return copy;
+    }
+
+    /**
+     * Change la fréquence des déchargements.
+     *
+     * @param unloadRate La probabilité qu'une opération décharge un élément.
+     * @param burstRate La probabilité qu'une opération soit une rafale de déchargements.
+     * @param burstSize Le nombre d'éléments déchargés par une rafale. Doit être strictement positif.
+     * @return Le nouveau profil.
+     * @throws IllegalArgumentException Si les probabilités sont négatives ou dépassent 1 ensemble,
+     *                                  ou si la taille des rafales n'est pas strictement positive.
+     */
+    public WorkloadProfile withUnloads(double unloadRate, double burstRate, int burstSize) {
+        if (!(unloadRate >= 0 && burstRate >= 0 && unloadRate + burstRate <= 1)) {
+            throw new IllegalArgumentException("Les probabilités de déchargement doivent être positives et ne pas dépasser 1 ensemble.");
+        }
+        if (burstSize <= 0) {
+            throw new IllegalArgumentException("La taille des rafales doit être strictement positive.");
+        }
+        WorkloadProfile copy = new WorkloadProfile(this);
+        copy.unloadRate = unloadRate;
+        copy.burstRate = burstRate;
+        copy.burstSize = burstSize;
+        return copy;
+    }
+
+    /**
+     * Change le nombre d'éléments chargés par opération : 1 pour {@code Loadmaster.loadItem},
+     * davantage pour un chargement par lot avec {@code Loadmaster.loadItems}.
+     *
+     * @param batchSize La taille des lots. Doit être strictement positive.
+     * @return Le nouveau profil.
+     * @throws IllegalArgumentException Si la taille n'est pas strictement positive.
+     */
+    public WorkloadProfile withBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("La taille des lots doit être strictement positive.");
+        }
+        WorkloadProfile copy = new WorkloadProfile(this);
+        copy.batchSize = batchSize;
+        return copy;
+    }
+
+    /**
+     * Change le nombre de refus consécutifs après lequel un camion plein quitte le quai et est remplacé par un camion vide.
+     *
+     * @param departureRejections Le nombre de refus. Doit être strictement positif.
+     * @return Le nouveau profil.
+     * @throws IllegalArgumentException Si le nombre n'est pas strictement positif.
+     */
+    public WorkloadProfile withDepartureRejections(int departureRejections) {
+        if (departureRejections <= 0) {
+            throw new IllegalArgumentException("Le nombre de refus avant départ doit être strictement positif.");
+        }
+        WorkloadProfile copy = new WorkloadProfile(this);
+        copy.departureRejections = departureRejections;
+        return copy;
+    }
+
+    /**
+     * Retourne le nom du profil.
+     *
+     * @return Le nom du profil.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retourne la graine du trafic généré.
+     *
+     * @return La graine.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retourne le nombre de chargeurs concurrents.
+     *
+     * @return Le nombre de chargeurs.
+     */
+    public int getLoaderThreads() {
+        return loaderThreads;
+    }
+
+    /**
+     * Retourne le nombre d'opérations de chaque chargeur.
+     *
+     * @return Le nombre d'opérations par chargeur.
+     */
+    public int getOperationsPerThread() {
+        return operationsPerThread;
+    }
+
+    /**
+     * Retourne le nombre de camions à quai par chargeur, ou de camions à quai au total si les quais sont partagés.
+     *
+     * @return Le nombre de camions à quai.
+     */
+    public int getDocksPerThread() {
+        return docksPerThread;
+    }
+
+    /**
+     * Indique si les chargeurs partagent les mêmes quais.
+     *
+     * @return {@code true} si tous les chargeurs travaillent sur les mêmes camions.
+     */
+    public boolean isSharedDocks() {
+        return sharedDocks;
+    }
+
+    /**
+     * Retourne le poids maximum de chaque camion.
+     *
+     * @return Le poids maximum.
+     */
+    public int getTruckMaxWeight() {
+        return truckMaxWeight;
+    }
+
+    /**
+     * Retourne le volume maximum de chaque camion.
+     *
+     * @return Le volume maximum.
+     */
+    public double getTruckMaxVolume() {
+        return truckMaxVolume;
+    }
+
+    /**
+     * Retourne la part des palettes parmi les éléments chargés.
+     *
+     * @return La part des palettes, entre 0 et 1.
+     */
+    public double getPaletteShare() {
+        return paletteShare;
+    }
+
+    /**
+     * Retourne la loi des poids du vrac.
+     *
+     * @return La loi des poids.
+     */
+    public SizeDistribution getVracWeight() {
+        return vracWeight;
+    }
+
+    /**
+     * Retourne la loi des volumes du vrac.
+     *
+     * @return La loi des volumes.
+     */
+    public SizeDistribution getVracVolume() {
+        return vracVolume;
+    }
+
+    /**
+     * Retourne la loi des poids des palettes.
+     *
+     * @return La loi des poids.
+     */
+    public SizeDistribution getPaletteWeight() {
+        return paletteWeight;
+    }
+
+    /**
+     * Retourne la loi des volumes des palettes.
+     *
+     * @return La loi des volumes.
+     */
+    public SizeDistribution getPaletteVolume() {
+        return paletteVolume;
+    }
+
+    /**
+     * Retourne la probabilité qu'une opération décharge un élément.
+     *
+     * @return La probabilité de déchargement.
+     */
+    public double getUnloadRate() {
+        return unloadRate;
+    }
+
+    /**
+     * Retourne la probabilité qu'une opération soit une rafale de déchargements.
+     *
+     * @return La probabilité de rafale.
+     */
+    public double getBurstRate() {
+        return burstRate;
+    }
+
+    /**
+     * Retourne le nombre d'éléments déchargés par une rafale.
+     *
+     * @return La taille des rafales.
+     */
+    public int getBurstSize() {
+        return burstSize;
+    }
+
+    /**
+     * Retourne le nombre d'éléments chargés par opération.
+     *
+     * @return La taille des lots.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Retourne le nombre de refus consécutifs avant le départ d'un camion.
+     *
+     * @return Le nombre de refus.
+     */
+    public int getDepartureRejections() {
+        return departureRejections;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkloadProfile [Name=" + name + ", Seed=" + seed + ", Loaders=" + loaderThreads
+                + ", Operations=" + operationsPerThread + ", Docks=" + docksPerThread + ", SharedDocks=" + sharedDocks
+                + ", Batch=" + batchSize + ", Palettes=" + paletteShare + "]";
+    }
+}
@@ -0,0 +1,279 @@
+package be.ipam.menegon.model.workload;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Résultat de l'exécution d'un {@link WorkloadProfile} : débit, percentiles de latence par opération,
+ * taux de refus, contention entre chargeurs, allocation mémoire des chargeurs et activité du ramasse-miettes
+ * pendant l'exécution. Lorsque chaque chargeur a ses propres quais, les compteurs d'éléments, de refus et de
+ * départs ne dépendent que du profil : deux exécutions d'un même profil les reproduisent exactement, seules
+ * les mesures de temps et de mémoire varient. Avec des quais partagés, ils dépendent aussi de l'entrelacement
+ * des chargeurs.
+ *
+ * @author Dylan Menegon
+ */
+public final class WorkloadReport {
+    private final WorkloadProfile profile;
+    private final long elapsedNanos;
+    private final Map<DockOperation, LatencyHistogram> latencies;
+    private final long loadedItems;
+    private final long unloadedItems;
+    private final long weightRejections;
+    private final long volumeRejections;
+    private final long allocatedBytes;
+    private final long blockedCount;
+    private final long blockedMillis;
+    private final long staleOperations;
+    private final long gcCount;
+    private final long gcMillis;
+
+    WorkloadReport(WorkloadProfile profile, long elapsedNanos, Map<DockOperation, LatencyHistogram> latencies,
+                   long loadedItems, long unloadedItems, long weightRejections, long volumeRejections,
+                   long allocatedBytes, long blockedCount, long blockedMillis, long staleOperations,
+                   long gcCount, long gcMillis) {
+        this.profile = profile;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = new EnumMap<>(latencies);
+        this.loadedItems = loadedItems;
+        this.unloadedItems = unloadedItems;
+        this.weightRejections = weightRejections;
+        this.volumeRejections = volumeRejections;
+        this.allocatedBytes = allocatedBytes;
+        this.blockedCount = blockedCount;
+        this.blockedMillis = blockedMillis;
+        this.staleOperations = staleOperations;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+    }
+
+    /**
+     * Retourne le profil exécuté.
+     *
+     * @return Le profil.
+     */
+    public WorkloadProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Retourne la durée de l'exécution, du départ simultané des chargeurs à la fin du dernier.
+     *
+     * @return La durée en nanosecondes.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Retourne le nombre d'appels mesurés pour une opération.
+     *
+     * @param operation L'opération.
+     * @return Le nombre d'appels.
+     */
+    public long getCount(DockOperation operation) {
+        return latencies.get(operation).getCount();
+    }
+
+    /**
+     * Retourne le nombre total d'appels mesurés, toutes opérations confondues.
+     *
+     * @return Le nombre d'appels.
+     */
+    public long getOperationCount() {
+        long count = 0;
+        for (LatencyHistogram histogram : latencies.values()) {
+            count += histogram.getCount();
+        }
+        return count;
+    }
+
+    /**
+     * Retourne le débit de l'exécution.
+     *
+     * @return Le nombre d'appels par seconde.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : getOperationCount() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Retourne un percentile de la latence d'une opération, à 1/32 près.
+     *
+     * @param operation L'opération.
+     * @param percentile Le percentile voulu, entre 0 et 100 (par exemple 99.9).
+     * @return La latence en nanosecondes, 0 si l'opération n'a pas été appelée.
+     * @throws IllegalArgumentException Si le percentile n'est pas entre 0 et 100.
+     */
+    public long getLatency(DockOperation operation, double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Le percentile doit être compris entre 0 et 100.");
+        }
+        return latencies.get(operation).percentile(percentile);
+    }
+
+    /**
+     * Retourne la plus grande latence observée pour une opération.
+     *
+     * @param operation L'opération.
+     * @return La latence en nanosecondes.
+     */
+    public long getMaxLatency(DockOperation operation) {
+        return latencies.get(operation).getMax();
+    }
+
+    /**
+     * Retourne le nombre d'éléments chargés.
+     *
+     * @return Le nombre d'éléments chargés.
+     */
+    public long getLoadedItems() {
+        return loadedItems;
+    }
+
+    /**
+     * Retourne le nombre d'éléments déchargés un par un ou en rafale, sans compter les départs de camions.
+     *
+     * @return Le nombre d'éléments déchargés.
+     */
+    public long getUnloadedItems() {
+        return unloadedItems;
+    }
+
+    /**
+     * Retourne le nombre de chargements refusés pour dépassement du poids maximum.
+     *
+     * @return Le nombre de refus pour le poids.
+     */
+    public long getWeightRejections() {
+        return weightRejections;
+    }
+
+    /**
+     * Retourne le nombre de chargements refusés pour dépassement du volume maximum.
+     *
+     * @return Le nombre de refus pour le volume.
+     */
+    public long getVolumeRejections() {
+        return volumeRejections;
+    }
+
+    /**
+     * Retourne la part des chargements refusés.
+     *
+     * @return Le taux de refus, entre 0 et 1.
+     */
+    public double getRejectionRate() {
+        long loads = getCount(DockOperation.LOAD);
+        return loads == 0 ? 0 : (double) (weightRejections + volumeRejections) / loads;
+    }
+
+    /**
+     * Retourne la mémoire allouée par les chargeurs pendant l'exécution.
+     *
+     * @return Le nombre d'octets alloués, ou -1 si la JVM ne mesure pas l'allocation par thread.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Retourne le débit d'allocation des chargeurs.
+     *
+     * @return Le nombre d'octets alloués par seconde, ou -1 si la JVM ne mesure pas l'allocation par thread.
+     */
+    public double getAllocationRate() {
+        if (allocatedBytes < 0) {
+            return -1;
+        }
+        return elapsedNanos == 0 ? 0 : allocatedBytes * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Retourne le nombre de fois où un chargeur a attendu un verrou détenu par un autre thread,
+     * par exemple celui d'un camion chargé par un autre chargeur.
+     *
+     * @return Le nombre d'attentes de verrou.
+     */
+    public long getBlockedCount() {
+        return blockedCount;
+    }
+
+    /**
+     * Retourne le temps cumulé des chargeurs passé à attendre un verrou détenu par un autre thread.
+     *
+     * @return Le temps en millisecondes, ou -1 si la JVM ne mesure pas la contention des threads.
+     */
+    public long getBlockedMillis() {
+        return blockedMillis;
+    }
+
+    /**
+     * Retourne le nombre d'opérations perdues parce que leur camion avait quitté le quai entre-temps,
+     * ce qui n'arrive qu'avec des quais partagés.
+     *
+     * @return Le nombre d'opérations perdues.
+     */
+    public long getStaleOperations() {
+        return staleOperations;
+    }
+
+    /**
+     * Retourne le nombre de passages du ramasse-miettes pendant l'exécution, tous collecteurs confondus.
+     *
+     * @return Le nombre de passages.
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Retourne le temps cumulé des passages du ramasse-miettes pendant l'exécution.
+     *
+     * @return Le temps en millisecondes.
+     */
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    /**
+     * Met plusieurs rapports côte à côte, une ligne par profil, pour comparer des variantes.
+     *
+     * @param reports Les rapports à comparer.
+     * @return Un tableau en texte brut.
+     */
+    public static String table(List<WorkloadReport> reports) {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "%-20s %12s %10s %10s %10s %8s %10s %10s %8s %8s%n",
+                "Profil", "Ops/s", "p50 (µs)", "p99 (µs)", "p99.9 (µs)", "Refus", "Attentes", "Mo/s", "GC", "GC (ms)"));
+        for (WorkloadReport report : reports) {
+            sb.append(String.format(Locale.ROOT, "%-20s %12.0f %10.1f %10.1f %10.1f %7.2f%% %10d %10.1f %8d %8d%n",
+                    report.profile.getName(), report.getThroughput(),
+                    report.getLatency(DockOperation.LOAD, 50) / 1e3, report.getLatency(DockOperation.LOAD, 99) / 1e3,
+                    report.getLatency(DockOperation.LOAD, 99.9) / 1e3, report.getRejectionRate() * 100,
+                    report.blockedCount, report.getAllocationRate() / (1024 * 1024), report.gcCount, report.gcMillis));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+                "%s : %d opérations en %.1f ms, %.0f ops/s%n", profile.getName(), getOperationCount(),
+                elapsedNanos / 1e6, getThroughput()));
+        for (DockOperation operation : DockOperation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            sb.append(String.format(Locale.ROOT, "  %-9s %10d appels  p50 %8.1f µs  p99 %8.1f µs  p99.9 %8.1f µs  max %8.1f µs%n",
+                    operation, histogram.getCount(), histogram.percentile(50) / 1e3, histogram.percentile(99) / 1e3,
+                    histogram.percentile(99.9) / 1e3, histogram.getMax() / 1e3));
+        }
+        sb.append(String.format(Locale.ROOT, "  Chargés %d, déchargés %d, refus %.2f %% (poids %d, volume %d)%n",
+                loadedItems, unloadedItems, getRejectionRate() * 100, weightRejections, volumeRejections));
+        sb.append(String.format(Locale.ROOT, "  Contention %d attentes de verrou en %d ms, %d opérations sur un camion parti%n",
+                blockedCount, blockedMillis, staleOperations));
+        sb.append(String.format(Locale.ROOT, "  Allocation %.1f Mo/s, GC %d passages en %d ms",
+                getAllocationRate() / (1024 * 1024), gcCount, gcMillis));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,446 @@
+package be.ipam.menegon.model.workload;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.exceptions.TruckNotSettedException;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Banc d'essai de bout en bout : rejoue à travers l'API réelle ({@link Loadmaster} et {@link Camion})
+ * le trafic de quai décrit par un {@link WorkloadProfile}, avec plusieurs chargeurs concurrents,
+ * et mesure débit, latences, refus, allocation et ramasse-miettes.
+ *
+ * Chaque chargeur tire son trafic d'un générateur dérivé de la graine du profil. Par défaut, il tient ses
+ * propres quais, c'est-à-dire un Loadmaster et ses camions : le trafic et ses résultats sont donc reproductibles
+ * quel que soit l'entrelacement des threads, et les chargeurs ne se disputent que les structures partagées par
+ * toute la flotte, comme l'annuaire des camions et l'emplacement des éléments. Avec des quais partagés
+ * ({@link WorkloadProfile#withSharedDocks(boolean)}), tous les chargeurs chargent et déchargent les mêmes camions,
+ * et se disputent leurs verrous ; le rapport mesure alors les attentes de verrou et les opérations perdues
+ * parce que leur camion avait quitté le quai.
+ *
+ * Le trafic d'un chargeur est une suite d'opérations tirées au hasard sur l'un de ses camions :
+ * chargements (un élément ou un lot), déchargements isolés et rafales de déchargements. Un chargeur
+ * ne décharge que les éléments qu'il a chargés lui-même.
+ * Un camion qui refuse plusieurs chargements de suite part avec tout son chargement et un camion vide prend sa place.
+ *
+ * @author Dylan Menegon
+ */
+public final class WorkloadRunner {
+    private static final AtomicLong runs = new AtomicLong(); // Distingue les identifiants de deux exécutions
+
+    private WorkloadRunner() {
+    }
+
+    /**
+     * Exécute un profil et retourne ses mesures.
+     *
+     * @param profile Le profil à exécuter. Ne peut pas être null.
+     * @return Le rapport de l'exécution.
+     * @throws IllegalArgumentException Si le profil est null.
+     * @throws IllegalStateException Si un chargeur échoue ou si l'exécution est interrompue.
+     */
+    public static WorkloadReport run(WorkloadProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("Le profil ne peut pas être null.");
+        }
+        long run = runs.incrementAndGet();
+        int threads = profile.getLoaderThreads();
+        List<Docks> docks = new ArrayList<>(threads);
+        List<Loader> loaders = new ArrayList<>(threads);
+        ThreadMXBean monitor = ManagementFactory.getThreadMXBean();
+        boolean contention = monitor.isThreadContentionMonitoringSupported()
+                && !monitor.isThreadContentionMonitoringEnabled();
+        if (contention) {
+            monitor.setThreadContentionMonitoringEnabled(true);
+        }
+        try {
+            if (profile.isSharedDocks()) {
+                docks.add(new Docks(profile, "W" + run + "-S-", true));
+            }
+            for (int i = 0; i < threads; i++) {
+                if (!profile.isSharedDocks()) {
+                    docks.add(new Docks(profile, "W" + run + "-" + i + "-", false));
+                }
+                loaders.add(new Loader(profile, docks.get(docks.size() - 1), run, i));
+            }
+            return measure(profile, loaders);
+        } finally {
+            // Les camions quittent la flotte, qui est partagée par toute la JVM
+            for (Docks dock : docks) {
+                dock.close();
+            }
+            if (contention) {
+                monitor.setThreadContentionMonitoringEnabled(false);
+            }
+        }
+    }
+
+    private static WorkloadReport measure(WorkloadProfile profile, List<Loader> loaders) {
+        int threads = loaders.size();
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "workload-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> tasks = new ArrayList<>(threads);
+            for (Loader loader : loaders) {
+                tasks.add(executor.submit(() -> loader.run(ready, start)));
+            }
+            ready.await();
+            long gcCount = gcCount();
+            long gcMillis = gcMillis();
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+            gcCount = gcCount() - gcCount;
+            gcMillis = gcMillis() - gcMillis;
+
+            Map<DockOperation, LatencyHistogram> latencies = new EnumMap<>(DockOperation.class);
+            for (DockOperation operation : DockOperation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+            }
+            long loaded = 0;
+            long unloaded = 0;
+            long weightRejections = 0;
+            long volumeRejections = 0;
+            long allocated = 0;
+            long blockedCount = 0;
+            long blockedMillis = 0;
+            long stale = 0;
+            for (Loader loader : loaders) {
+                for (DockOperation operation : DockOperation.values()) {
+                    latencies.get(operation).merge(loader.latencies.get(operation));
+                }
+                loaded += loader.loaded;
+                unloaded += loader.unloaded;
+                weightRejections += loader.weightRejections;
+                volumeRejections += loader.volumeRejections;
+                allocated = allocated < 0 || loader.allocated < 0 ? -1 : allocated + loader.allocated;
+                blockedCount += loader.blockedCount;
+                blockedMillis = blockedMillis < 0 || loader.blockedMillis < 0 ? -1 : blockedMillis + loader.blockedMillis;
+                stale += loader.stale;
+            }
+            return new WorkloadReport(profile, elapsed, latencies, loaded, unloaded, weightRejections, volumeRejections,
+                    allocated, blockedCount, blockedMillis, stale, gcCount, gcMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Le banc d'essai a été interrompu.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Un chargeur a échoué : " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            start.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Exécute plusieurs profils l'un après l'autre pour les comparer. Chaque profil est d'abord exécuté
+     * une fois à blanc, pour que le compilateur et le tas soient dans le même état pour tous.
+     *
+     * @param profiles Les profils à comparer. Ne peut pas être null.
+     * @return Les rapports des exécutions mesurées, dans l'ordre des profils.
+     * @throws IllegalArgumentException Si la liste ou un profil est null.
+     */
+    public static List<WorkloadReport> compare(List<WorkloadProfile> profiles) {
+        if (profiles == null) {
+            throw new IllegalArgumentException("La liste des profils ne peut pas être null.");
+        }
+        List<WorkloadReport> reports = new ArrayList<>(profiles.size());
+        for (WorkloadProfile profile : profiles) {
+            run(profile);
+            reports.add(run(profile));
+        }
+        return reports;
+    }
+
+    /**
+     * Compare le chargement élément par élément, le chargement par lots et le chargement sur des quais partagés
+     * sur le profil par défaut.
+     * Arguments facultatifs : la graine, le nombre de chargeurs et le nombre d'opérations par chargeur.
+     *
+     * @param args Les arguments en ligne de commande.
+     */
+    public static void main(String[] args) {
+        WorkloadProfile profile = WorkloadProfile.defaults();
+        if (args.length > 0) {
+            profile = profile.withSeed(Long.parseLong(args[0]));
+        }
+        if (args.length > 2) {
+            profile = profile.withLoaders(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        }
+        List<WorkloadReport> reports = compare(Arrays.asList(profile.withName("unitaire"),
+                profile.withName("lots de 16").withBatchSize(16), profile.withName("quais partagés").withSharedDocks(true)));
+        for (WorkloadReport report : reports) {
+            System.out.println(report);
+        }
+        System.out.println();
+        System.out.print(WorkloadReport.table(reports));
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Des quais : un Loadmaster et les camions qui y attendent, propres à un chargeur ou partagés par tous.
+     * Le camion d'un quai ne change que sous le verrou de ce quai.
+     */
+    private static final class Docks {
+        private final WorkloadProfile profile;
+        private final String prefix;
+        private final boolean shared;
+        private final Loadmaster loadmaster;
+        private final AtomicReferenceArray<String> trucks; // Identifiant du camion à chaque quai
+        private final AtomicIntegerArray rejections; // Refus consécutifs de chaque camion
+        private final Object[] locks;
+        private final AtomicLong arrivals = new AtomicLong();
+
+        Docks(WorkloadProfile profile, String prefix, boolean shared) {
+            this.profile = profile;
+            this.prefix = prefix;
+            this.shared = shared;
+            this.loadmaster = new Loadmaster("QUAI-" + prefix);
+            this.trucks = new AtomicReferenceArray<>(profile.getDocksPerThread());
+            this.rejections = new AtomicIntegerArray(profile.getDocksPerThread());
+            this.locks = new Object[profile.getDocksPerThread()];
+            for (int dock = 0; dock < locks.length; dock++) {
+                locks[dock] = new Object();
+                trucks.set(dock, prefix + "C" + arrivals.getAndIncrement());
+                loadmaster.addCamion(new Camion(trucks.get(dock), profile.getTruckMaxWeight(), profile.getTruckMaxVolume(), loadmaster));
+            }
+        }
+
+        int size() {
+            return locks.length;
+        }
+
+        /**
+         * Fait partir le camion d'un quai et le remplace par un camion vide, sauf si un autre chargeur l'a déjà fait.
+         */
+        void replace(int dock, String camionId, Map<DockOperation, LatencyHistogram> latencies) {
+            synchronized (locks[dock]) {
+                if (!trucks.get(dock).equals(camionId)) {
+                    return;
+                }
+                long begin = System.nanoTime();
+                loadmaster.removeCamion(camionId);
+                latencies.get(DockOperation.DEPARTURE).record(System.nanoTime() - begin);
+                rejections.set(dock, 0);
+
+                Camion camion = new Camion(prefix + "C" + arrivals.getAndIncrement(), profile.getTruckMaxWeight(),
+                        profile.getTruckMaxVolume(), loadmaster);
+                begin = System.nanoTime();
+                loadmaster.addCamion(camion);
+                latencies.get(DockOperation.ARRIVAL).record(System.nanoTime() - begin);
+                trucks.set(dock, camion.getId());
+            }
+        }
+
+        void close() {
+            for (int dock = 0; dock < locks.length; dock++) {
+                synchronized (locks[dock]) {
+                    String camionId = trucks.get(dock);
+                    if (camionId != null && loadmaster.getCamions().containsKey(camionId)) {
+                        loadmaster.removeCamion(camionId);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Un chargeur : ses quais, son générateur de trafic et ses mesures.
+     */
+    private static final class Loader {
+        private final WorkloadProfile profile;
+        private final Docks docks;
+        private final String prefix;
+        private final Random random;
+        private final List<List<Chargeable>> loads; // Éléments chargés par ce chargeur dans chaque camion
+        private final String[] loadedInto; // Camion auquel se rapportent ces éléments, à chaque quai
+        private final Map<DockOperation, LatencyHistogram> latencies = new EnumMap<>(DockOperation.class);
+        private long items;
+        private long loaded;
+        private long unloaded;
+        private long weightRejections;
+        private long volumeRejections;
+        private long allocated;
+        private long blockedCount;
+        private long blockedMillis;
+        private long stale;
+
+        Loader(WorkloadProfile profile, Docks docks, long run, int index) {
+            this.profile = profile;
+            this.docks = docks;
+            this.prefix = "W" + run + "-" + index + "-";
+            this.random = new Random(profile.getSeed() * 31 + index);
+            this.loads = new ArrayList<>(docks.size());
+            this.loadedInto = new String[docks.size()];
+            for (int dock = 0; dock < docks.size(); dock++) {
+                loads.add(new ArrayList<>());
+            }
+            for (DockOperation operation : DockOperation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+            }
+        }
+
+        Void run(CountDownLatch ready, CountDownLatch start)
+                throws InterruptedException, TruckNotSettedException, MaxWeightReachedException, MaxVolumeReachedException {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            boolean measured = threads instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled();
+            ready.countDown();
+            start.await();
+
+            long allocatedBefore = measured ? allocatedBytes(threads) : 0;
+            ThreadInfo before = threads.getThreadInfo(Thread.currentThread().getId());
+            for (int i = 0; i < profile.getOperationsPerThread(); i++) {
+                double draw = random.nextDouble();
+                int dock = random.nextInt(docks.size());
+                if (draw < profile.getBurstRate()) {
+                    for (int k = 0; k < profile.getBurstSize() && unload(dock); k++) {
+                        // Rafale : déchargements successifs sur le même camion
+                    }
+                } else if (draw < profile.getBurstRate() + profile.getUnloadRate()) {
+                    unload(dock);
+                } else {
+                    load(dock);
+                }
+            }
+            allocated = measured ? allocatedBytes(threads) - allocatedBefore : -1;
+            ThreadInfo after = threads.getThreadInfo(Thread.currentThread().getId());
+            blockedCount = after.getBlockedCount() - before.getBlockedCount();
+            blockedMillis = before.getBlockedTime() < 0 ? -1 : after.getBlockedTime() - before.getBlockedTime();
+            return null;
+        }
+
+        private void load(int dock)
+                throws TruckNotSettedException, MaxWeightReachedException, MaxVolumeReachedException {
+            List<Chargeable> batch = new ArrayList<>(profile.getBatchSize());
+            for (int k = 0; k < profile.getBatchSize(); k++) {
+                batch.add(nextItem());
+            }
+            String camionId = docks.trucks.get(dock);
+            long begin = System.nanoTime();
+            try {
+                if (batch.size() == 1) {
+                    docks.loadmaster.loadItem(camionId, batch.get(0));
+                } else {
+                    docks.loadmaster.loadItems(camionId, batch);
+                }
+                latencies.get(DockOperation.LOAD).record(System.nanoTime() - begin);
+                loadsOf(dock, camionId).addAll(batch);
+                loaded += batch.size();
+                docks.rejections.set(dock, 0);
+            } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+                latencies.get(DockOperation.LOAD).record(System.nanoTime() - begin);
+                if (e instanceof MaxWeightReachedException) {
+                    weightRejections++;
+                } else {
+                    volumeRejections++;
+                }
+                if (docks.rejections.incrementAndGet(dock) >= profile.getDepartureRejections()) {
+                    docks.replace(dock, camionId, latencies);
+                }
+            } catch (TruckNotSettedException e) {
+                // Avec des quais partagés, un autre chargeur a pu faire partir le camion entre-temps
+                if (!docks.shared) {
+                    throw e;
+                }
+                stale++;
+            }
+        }
+
+        private boolean unload(int dock) {
+            String camionId = docks.trucks.get(dock);
+            List<Chargeable> load = loadsOf(dock, camionId);
+            if (load.isEmpty()) {
+                return false;
+            }
+            int position = random.nextInt(load.size());
+            Chargeable item = load.get(position);
+            load.set(position, load.get(load.size() - 1));
+            load.remove(load.size() - 1);
+            long begin = System.nanoTime();
+            try {
+                docks.loadmaster.unloadItem(camionId, item);
+            } catch (IllegalArgumentException e) {
+                // Avec des quais partagés, l'élément a pu partir avec son camion entre-temps
+                if (!docks.shared) {
+                    throw e;
+                }
+                stale++;
+                return false;
+            }
+            latencies.get(DockOperation.UNLOAD).record(System.nanoTime() - begin);
+            unloaded++;
+            docks.rejections.set(dock, 0);
+            return true;
+        }
+
+        /**
+         * Retourne les éléments chargés par ce chargeur dans le camion d'un quai ; ceux d'un camion parti sont oubliés.
+         */
+        private List<Chargeable> loadsOf(int dock, String camionId) {
+            List<Chargeable> load = loads.get(dock);
+            if (!camionId.equals(loadedInto[dock])) {
+                load.clear();
+                loadedInto[dock] = camionId;
+            }
+            return load;
+        }
+
+        private Chargeable nextItem() {
+            String id = prefix + "I" + items++;
+            if (random.nextDouble() < profile.getPaletteShare()) {
+                return new Palette(id, profile.getPaletteWeight().sampleInt(random), profile.getPaletteVolume().sample(random));
+            }
+            return new Vrac(id, profile.getVracWeight().sampleInt(random), profile.getVracVolume().sample(random));
+        }
+
+        private static long allocatedBytes(ThreadMXBean threads) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
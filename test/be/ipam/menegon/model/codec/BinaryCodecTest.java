@@ -0,0 +1,164 @@
+package test.be.ipam.menegon.model.codec;
+
+import be.ipam.menegon.model.codec.BinaryCodec;
+import be.ipam.menegon.model.codec.CustomItem;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BinaryCodecTest extends TestCase {
+    private String prefix;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        prefix = "041-" + System.nanoTime() + "-";
+    }
+
+    @Test
+    public void testItemRoundTrip() {
+        List<Chargeable> items = Arrays.asList(
+                new Vrac("V" + prefix + "é€", 1200, 2.5, 42.5),
+                new Palette("P" + prefix, 80, 0.000001),
+                new CustomItem("X" + prefix, 15, 0.25, 0.0));
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        for (Chargeable item : items) {
+            int start = buffer.position();
+            BinaryCodec.encodeItem(buffer, item);
+            assertEquals(BinaryCodec.encodedSize(item), buffer.position() - start);
+        }
+        buffer.flip();
+        for (Chargeable item : items) {
+            Chargeable decoded = BinaryCodec.decodeItem(buffer);
+            assertEquals(item.getClass(), decoded.getClass());
+            assertEquals(item.getId(), decoded.getId());
+            assertEquals(item.getWeight(), decoded.getWeight());
+            assertEquals(item.getVolume(), decoded.getVolume(), 0.0);
+            assertEquals(item.getValue(), decoded.getValue(), 0.0);
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testDeadlineRoundTrip() {
+        long now = System.currentTimeMillis();
+        List<Chargeable> items = Arrays.asList(
+                new Vrac("V" + prefix, 10, 1.0, 3.0, now + 3_600_000),
+                new Palette("P" + prefix, 20, 2.0, 1.0, Long.MAX_VALUE),
+                new CustomItem("X" + prefix, 30, 3.0, 2.0, -1),
+                new Palette("Q" + prefix, 40, 4.0, 1.0, Long.MIN_VALUE));
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        for (Chargeable item : items) {
+            int start = buffer.position();
+            BinaryCodec.encodeItem(buffer, item);
+            assertEquals(BinaryCodec.encodedSize(item), buffer.position() - start);
+        }
+        buffer.flip();
+        for (Chargeable item : items) {
+            assertEquals(item.getLatestDeparture(), BinaryCodec.decodeItem(buffer).getLatestDeparture());
+        }
+        assertFalse(buffer.hasRemaining());
+
+        // L'absence d'échéance tient en un seul octet
+        Chargeable none = new Vrac("V" + prefix, 10, 1.0);
+        Chargeable due = new Vrac("V" + prefix, 10, 1.0, 1.0, now);
+        assertTrue(BinaryCodec.encodedSize(none) < BinaryCodec.encodedSize(due));
+    }
+
+    @Test
+    public void testItemsAcrossSmallBuffer() {
+        List<Chargeable> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(new Vrac("V" + prefix + i, (i + 1) * 37, (i + 1) / 8.0));
+        }
+        // Le tampon ne contient que quelques éléments : encodage et décodage reprennent par morceaux
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        List<Chargeable> decoded = new ArrayList<>();
+        int next = 0;
+        while (next < items.size()) {
+            next = BinaryCodec.encodeItems(buffer, items, next);
+            buffer.flip();
+            assertTrue(BinaryCodec.decodeItems(buffer, decoded::add) > 0);
+            buffer.compact();
+        }
+        assertEquals(items, decoded);
+    }
+
+    @Test
+    public void testPartialItemIsKept() {
+        Chargeable item = new Palette("P" + prefix, 500, 3.0);
+        ByteBuffer full = ByteBuffer.allocate(64);
+        BinaryCodec.encodeItem(full, item);
+        full.flip();
+
+        ByteBuffer partial = ByteBuffer.allocate(64);
+        partial.put(full.array(), 0, full.limit() - 1).flip();
+        assertEquals(0, BinaryCodec.decodeItems(partial, decoded -> fail("Aucun élément ne devrait être décodé.")));
+        assertEquals(0, partial.position());
+    }
+
+    @Test
+    public void testHeader() {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        BinaryCodec.writeHeader(buffer);
+        buffer.flip();
+        BinaryCodec.readHeader(buffer);
+
+        try {
+            BinaryCodec.readHeader(ByteBuffer.wrap(new byte[]{42}));
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Version de schéma non prise en charge : 42.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testLoadmasterRoundTrip() {
+        try {
+            Loadmaster loadmaster = new Loadmaster("CodecLoadmaster");
+            String firstId = "C" + prefix + "A";
+            String secondId = "C" + prefix + "B";
+            loadmaster.addCamion(new Camion(firstId, 1000, 20.0, loadmaster));
+            loadmaster.addCamion(new Camion(secondId, 500, 5.0, loadmaster));
+            loadmaster.loadItem(firstId, new Palette("P" + prefix + "1", 300, 4.0));
+            loadmaster.loadItem(firstId, new Vrac("V" + prefix + "1", 120, 1.75));
+
+            ByteBuffer buffer = ByteBuffer.allocate(1024);
+            BinaryCodec.writeHeader(buffer);
+            BinaryCodec.encodeLoadmaster(buffer, loadmaster.snapshot());
+            buffer.flip();
+
+            // Les camions ne peuvent être gérés que par un seul Loadmaster à la fois
+            loadmaster.removeCamion(firstId);
+            loadmaster.removeCamion(secondId);
+
+            BinaryCodec.readHeader(buffer);
+            Loadmaster decoded = BinaryCodec.decodeLoadmaster(buffer);
+            assertFalse(buffer.hasRemaining());
+            assertEquals(loadmaster.getNom(), decoded.getNom());
+
+            CamionSnapshot first = decoded.snapshot().getCamions().get(firstId);
+            assertEquals(1000, first.getMaxWeight());
+            assertEquals(20.0, first.getMaxVolume(), 0.0);
+            assertEquals(420, first.getCurrentWeight());
+            assertEquals(5.75, first.getCurrentVolume(), 1e-9);
+            assertEquals("P" + prefix + "1", first.getLoad().get(0).getId());
+            assertEquals(0, decoded.snapshot().getCamions().get(secondId).size());
+
+            decoded.removeCamion(firstId);
+            decoded.removeCamion(secondId);
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package test.be.ipam.menegon.model.export;
+
+import be.ipam.menegon.model.codec.BinaryCodec;
+import be.ipam.menegon.model.export.ManifestExporter;
+import be.ipam.menegon.model.export.ManifestFormat;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ManifestExporterTest extends TestCase {
+    private Path directory;
+    private Loadmaster loadmaster;
+    private String prefix;
+    private String longId;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        directory = Files.createTempDirectory("manifest-test");
+        prefix = "040-" + System.nanoTime() + "-";
+        // Un ID plus long que les tampons oblige à les vider en cours d'écriture
+        longId = "V" + prefix + "RETOUR, « entrepôt » \"nord\" 0000000000000000000000000";
+        loadmaster = new Loadmaster("ExportLoadmaster");
+        for (int i = 0; i < 5; i++) {
+            loadmaster.addCamion(new Camion("C" + prefix + i, 10000, 100.0, loadmaster));
+        }
+        for (int i = 0; i < 4; i++) {
+            loadmaster.loadItem("C" + prefix + i, i == 1 ? new Palette("P" + prefix + i, 100 + i, 1.5, 250.0, 1_234L)
+                    : new Palette("P" + prefix + i, 100 + i, 1.5));
+        }
+        loadmaster.loadItem("C" + prefix + 0, new Vrac(longId, 7, 0.25));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+        super.tearDown();
+    }
+
+    @Test
+    public void testTextFormats() {
+        try (ManifestExporter exporter = new ManifestExporter(2, 32)) {
+            Path csv = directory.resolve("manifest.csv");
+            long size = exporter.export(loadmaster, csv, ManifestFormat.CSV);
+            assertEquals(Files.size(csv), size);
+            List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+            // En-tête, cinq éléments et une ligne pour le camion vide
+            assertEquals(7, lines.size());
+            assertTrue(lines.get(0).startsWith("camion_id,"));
+            assertTrue(lines.contains("C" + prefix + "4,10000,100.0,0,0.0,,,,"));
+            assertTrue(lines.contains("C" + prefix + "0,10000,100.0,107,1.75,Vrac,\"" + longId.replace("\"", "\"\"") + "\",7,0.25"));
+
+            Path jsonl = directory.resolve("manifest.jsonl");
+            exporter.export(loadmaster, jsonl, ManifestFormat.JSON_LINES);
+            lines = Files.readAllLines(jsonl, StandardCharsets.UTF_8);
+            assertEquals(10, lines.size());
+            assertTrue(lines.contains("{\"record\":\"item\",\"camion\":\"C" + prefix + "1\",\"type\":\"Palette\",\"id\":\"P"
+                    + prefix + "1\",\"weight\":101,\"volume\":1.5}"));
+
+            // Les tampons sont réutilisés : un second export produit le même fichier
+            Path again = directory.resolve("again.csv");
+            exporter.export(loadmaster, again, ManifestFormat.CSV);
+            assertEquals(Files.readAllLines(csv, StandardCharsets.UTF_8), Files.readAllLines(again, StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testBinaryFormat() {
+        try (ManifestExporter exporter = new ManifestExporter(3, 16)) {
+            Path binary = directory.resolve("manifest.bin");
+            exporter.export(loadmaster, binary, ManifestFormat.BINARY);
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(binary));
+            assertEquals(ManifestFormat.MAGIC, in.getInt());
+            assertEquals(BinaryCodec.SCHEMA_VERSION, in.get());
+            int items = 0;
+            for (int c = 0; c < 5; c++) {
+                String id = readString(in);
+                assertTrue(id.startsWith("C" + prefix));
+                assertEquals(10000, in.getInt());
+                assertEquals(100.0, in.getDouble(), 0.0001);
+                in.getInt();
+                in.getDouble();
+                int count = in.getInt();
+                for (int i = 0; i < count; i++) {
+                    // Les éléments suivent le schéma de BinaryCodec, valeur et heure limite comprises
+                    Chargeable item = BinaryCodec.decodeItem(in);
+                    assertEquals(item.getId().equals(longId) ? Vrac.class : Palette.class, item.getClass());
+                    if (item.getId().equals("P" + prefix + 1)) {
+                        assertEquals(250.0, item.getValue(), 0.0001);
+                        assertEquals(1_234L, item.getLatestDeparture());
+                    }
+                    items++;
+                }
+            }
+            assertEquals(5, items);
+            assertFalse(in.hasRemaining());
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
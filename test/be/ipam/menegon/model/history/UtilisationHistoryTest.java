@@ -0,0 +1,134 @@
+package test.be.ipam.menegon.model.history;
+
+import be.ipam.menegon.model.history.Resolution;
+import be.ipam.menegon.model.history.UtilisationAggregate;
+import be.ipam.menegon.model.history.UtilisationHistory;
+import be.ipam.menegon.model.history.UtilisationSample;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class UtilisationHistoryTest extends TestCase {
+    private static final long MINUTE = 60_000L;
+
+    private AtomicLong clock;
+    private Loadmaster loadmaster;
+    private UtilisationHistory history;
+    private String prefix;
+    private String camionId;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        prefix = "042-" + System.nanoTime() + "-";
+        camionId = "C" + prefix + "A";
+        clock = new AtomicLong(10 * Resolution.DAY.getMillis());
+        loadmaster = new Loadmaster("HistoryLoadmaster");
+        loadmaster.addCamion(new Camion(camionId, 1000, 10.0, loadmaster));
+        history = new UtilisationHistory(loadmaster, 4, clock::get).start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        history.close();
+        super.tearDown();
+    }
+
+    @Test
+    public void testSamples() {
+        try {
+            long start = clock.get();
+            for (int i = 1; i <= 6; i++) {
+                clock.addAndGet(1000);
+                loadmaster.loadItem(camionId, new Vrac("V" + prefix + i, 100, 0.5));
+            }
+            // Seuls les 4 derniers relevés sont conservés
+            List<UtilisationSample> samples = history.getSamples(camionId, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(4, samples.size());
+            assertEquals(start + 3000, samples.get(0).getTime());
+            assertEquals(300, samples.get(0).getWeight());
+            assertEquals(600, samples.get(3).getWeight());
+            assertEquals(0.6, samples.get(3).getFillRatio(), 1e-9);
+
+            samples = history.getSamples(camionId, start + 4000, start + 6000);
+            assertEquals(2, samples.size());
+            assertEquals(400, samples.get(0).getWeight());
+            assertEquals(500, samples.get(1).getWeight());
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testDirectChangesAreSampled() {
+        try {
+            Camion camion = loadmaster.getCamions().get(camionId);
+            clock.addAndGet(1000);
+            camion.load(new Vrac("V" + prefix + "D", 100, 0.5));
+            clock.addAndGet(1000);
+            camion.updateCurrentWeight(50);
+            List<UtilisationSample> samples = history.getSamples(camionId, clock.get() - 1000, Long.MAX_VALUE);
+            assertEquals(2, samples.size());
+            assertEquals(100, samples.get(0).getWeight());
+            assertEquals(150, samples.get(1).getWeight());
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testAggregates() {
+        try {
+            long start = clock.get();
+            // Vide pendant 30 s, à moitié plein (en volume) pendant 30 s, puis plein en poids
+            clock.addAndGet(MINUTE / 2);
+            loadmaster.loadItem(camionId, new Palette("P" + prefix + "1", 100, 5.0));
+            clock.addAndGet(MINUTE / 2);
+            loadmaster.loadItem(camionId, new Palette("P" + prefix + "2", 900, 1.0));
+            clock.addAndGet(2 * MINUTE);
+
+            List<UtilisationAggregate> minutes = history.getAggregates(camionId, Resolution.MINUTE, start, Long.MAX_VALUE);
+            assertEquals(3, minutes.size());
+            UtilisationAggregate first = minutes.get(0);
+            assertEquals(start, first.getStart());
+            assertEquals(0.0, first.getMin(), 1e-6);
+            assertEquals(0.5, first.getMax(), 1e-6);
+            assertEquals(0.25, first.getAverage(), 1e-6);
+            // L'intervalle en cours reflète le chargement actuel jusqu'à maintenant
+            assertEquals(1.0, minutes.get(2).getAverage(), 1e-6);
+
+            List<UtilisationAggregate> hours = history.getAggregates(camionId, Resolution.HOUR, start, start + 1);
+            assertEquals(1, hours.size());
+            assertEquals((0.0 * 30 + 0.5 * 30 + 1.0 * 120) / 180, hours.get(0).getAverage(), 1e-6);
+            assertEquals(1.0, hours.get(0).getMax(), 1e-6);
+
+            // Après deux jours sans modification, les agrégats journaliers couvrent toute la période
+            clock.addAndGet(2 * Resolution.DAY.getMillis());
+            List<UtilisationAggregate> days = history.getAggregates(camionId, Resolution.DAY, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(3, days.size());
+            assertEquals(1.0, days.get(2).getAverage(), 1e-6);
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRemovedCamion() {
+        assertTrue(history.getCamionIds().contains(camionId));
+        loadmaster.removeCamion(camionId);
+        assertFalse(history.getCamionIds().contains(camionId));
+        try {
+            history.getSamples(camionId, 0, 1);
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Le camion " + camionId + " n'est pas suivi.", e.getMessage());
+        }
+        assertTrue(UtilisationHistory.bytesPerTruck(4) < 64 * 1024);
+    }
+}
@@ -0,0 +1,128 @@
+package test.be.ipam.menegon.model.knapsack;
+
+import be.ipam.menegon.model.knapsack.KnapsackLoader;
+import be.ipam.menegon.model.knapsack.KnapsackSolution;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class KnapsackLoaderTest extends TestCase {
+    private String prefix;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        prefix = "044-" + System.nanoTime() + "-";
+    }
+
+    @Test
+    public void testExactSolution() {
+        Chargeable a = new Palette("A" + prefix, 5, 0.5, 10);
+        Chargeable b = new Palette("B" + prefix, 4, 0.4, 40);
+        Chargeable c = new Vrac("C" + prefix, 6, 0.3, 30);
+        Chargeable d = new Vrac("D" + prefix, 3, 0.2, 50);
+
+        KnapsackSolution solution = new KnapsackLoader().solve(10, 1.0, Arrays.asList(a, b, c, d));
+        assertTrue(solution.isExact());
+        assertEquals(Arrays.asList(b, d), solution.getItems());
+        assertEquals(90.0, solution.getValue(), 1e-9);
+        assertEquals(7, solution.getWeight());
+
+        // Le volume devient la contrainte déterminante
+        solution = new KnapsackLoader().solve(10, 0.5, Arrays.asList(a, b, c, d));
+        assertEquals(Arrays.asList(c, d), solution.getItems());
+    }
+
+    @Test
+    public void testMatchesExhaustiveSearch() {
+        Random random = new Random(44);
+        for (int round = 0; round < 20; round++) {
+            List<Chargeable> items = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                items.add(new Vrac("V" + prefix + round + "-" + i, 1 + random.nextInt(40),
+                        (1 + random.nextInt(30)) / 10.0, random.nextInt(100)));
+            }
+            int weightCapacity = 60 + random.nextInt(60);
+            double volumeCapacity = (50 + random.nextInt(50)) / 10.0;
+
+            KnapsackSolution solution = new KnapsackLoader().solve(weightCapacity, volumeCapacity, items);
+            assertTrue(solution.isExact());
+            assertTrue(solution.getWeight() <= weightCapacity);
+            assertTrue(solution.getVolume() <= volumeCapacity + 1e-9);
+            assertEquals(bestValue(items, weightCapacity, volumeCapacity), solution.getValue(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testApproximation() {
+        List<Chargeable> items = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            items.add(new Palette("P" + prefix + i, 1 + random.nextInt(500), 0.1 + random.nextDouble(), 1 + random.nextInt(50)));
+        }
+        // La grille est trop petite pour la marge de poids : l'approximation gloutonne est utilisée
+        KnapsackSolution solution = new KnapsackLoader(16, KnapsackLoader.DEFAULT_MAX_DECISIONS).solve(20000, 40.0, items);
+        assertFalse(solution.isExact());
+        assertTrue(solution.getWeight() <= 20000);
+        assertTrue(solution.getVolume() <= 40.0);
+        assertTrue(solution.getValue() >= 50);
+    }
+
+    @Test
+    public void testLoadBest() {
+        Loadmaster loadmaster = new Loadmaster("KnapsackLoadmaster");
+        String camionId = "C" + prefix;
+        Camion camion = new Camion(camionId, 100, 2.0, loadmaster);
+        try {
+            loadmaster.addCamion(camion);
+            loadmaster.loadItem(camionId, new Vrac("V" + prefix + "0", 40, 0.5));
+            List<Chargeable> candidates = Arrays.asList(
+                    new Palette("P" + prefix + "1", 50, 1.0, 5),
+                    new Palette("P" + prefix + "2", 30, 0.5, 4),
+                    new Palette("P" + prefix + "3", 30, 0.9, 4),
+                    new Palette("P" + prefix + "4", 20, 1.5, 7));
+            long version = camion.getVersion();
+
+            KnapsackSolution solution = new KnapsackLoader().loadBest(loadmaster, camionId, candidates);
+            assertEquals(Arrays.asList(candidates.get(1), candidates.get(2)), solution.getItems());
+            // Tout le sous-ensemble est chargé en une seule opération
+            assertEquals(version + 1, camion.getVersion());
+            assertEquals(100, camion.getCurrentWeight());
+            assertEquals(3, camion.snapshot().size());
+            assertNotNull(Loadmaster.findItem("P" + prefix + "3"));
+
+            loadmaster.removeCamion(camionId);
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    private static double bestValue(List<Chargeable> items, int weightCapacity, double volumeCapacity) {
+        double best = 0;
+        for (int mask = 0; mask < 1 << items.size(); mask++) {
+            int weight = 0;
+            double volume = 0;
+            double value = 0;
+            for (int i = 0; i < items.size(); i++) {
+                if ((mask & (1 << i)) != 0) {
+                    weight += items.get(i).getWeight();
+                    volume += items.get(i).getVolume();
+                    value += items.get(i).getValue();
+                }
+            }
+            if (weight <= weightCapacity && volume <= volumeCapacity + 1e-9) {
+                best = Math.max(best, value);
+            }
+        }
+        return best;
+    }
+}
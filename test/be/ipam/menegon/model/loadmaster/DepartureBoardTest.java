@@ -0,0 +1,146 @@
+package test.be.ipam.menegon.model.loadmaster;
+
+import be.ipam.menegon.model.loadmaster.DepartureBoard;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DepartureBoardTest extends TestCase {
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private String prefix;
+    private Loadmaster loadmaster;
+    private DepartureBoard board;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        prefix = "049-" + System.nanoTime() + "-";
+        loadmaster = new Loadmaster("DEPARTS");
+        board = new DepartureBoard(loadmaster, clock::get).start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        board.close();
+        for (String id : new ArrayList<>(loadmaster.getCamions().keySet())) {
+            loadmaster.removeCamion(id);
+        }
+        super.tearDown();
+    }
+
+    private String addCamion(String name, int maxWeight, long departure) {
+        String id = prefix + name;
+        loadmaster.addCamion(new Camion(id, maxWeight, 1_000.0, loadmaster));
+        if (departure != Camion.NO_DEPARTURE) {
+            loadmaster.scheduleDeparture(id, departure);
+        }
+        return id;
+    }
+
+    private Vrac item(String name, int weight) {
+        return new Vrac(prefix + name, weight, 1.0);
+    }
+
+    @Test
+    public void testEarliestCompatibleDeparture() throws Exception {
+        String a = addCamion("A", 100, 2_000);
+        String b = addCamion("B", 100, 3_000);
+        String c = addCamion("C", 100, 5_000);
+        String d = addCamion("D", 100, Camion.NO_DEPARTURE);
+        addCamion("E", 100, 500); // Déjà parti
+        assertEquals(4, board.size());
+
+        assertEquals(a, board.assign(item("1", 60), 4_000));
+        assertEquals(b, board.assign(item("2", 60), 4_000));
+        assertNull(board.assign(item("3", 10), 1_500));
+        assertEquals(c, board.assign(item("4", 60)));
+        assertEquals(a, board.assign(new Vrac(prefix + "5", 30, 1.0, 1, 2_000)));
+        assertNull(Loadmaster.findItem(prefix + "3"));
+
+        // A est parti ; un déchargement libère de la place dans B
+        clock.set(2_500);
+        assertEquals(b, board.assign(item("6", 10)));
+        loadmaster.unloadItem(b, Loadmaster.findItem(prefix + "2").getItem());
+        assertEquals(b, board.assign(item("7", 90), 3_000));
+
+        // D reçoit un créneau plus tôt que B
+        loadmaster.scheduleDeparture(d, 2_600);
+        assertEquals(d, board.findCamion(5, 1.0, 2_700));
+        assertEquals(d, board.assign(item("8", 5), 2_700));
+
+        // Un chargement fait directement sur le camion est notifié, comme une correction du poids chargé
+        clock.set(3_100);
+        loadmaster.getCamions().get(c).load(item("9", 40));
+        assertNull(board.findCamion(10, 1.0, Long.MAX_VALUE));
+        loadmaster.getCamions().get(c).updateCurrentWeight(-20);
+        assertEquals(c, board.assign(item("10", 10)));
+
+        loadmaster.removeCamion(c);
+        assertEquals(4, board.size());
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        Random random = new Random(49);
+        int trucks = 400;
+        long[] departures = new long[trucks];
+        int[] capacities = new int[trucks];
+        int[] loads = new int[trucks];
+        String[] ids = new String[trucks];
+        for (int t = 0; t < trucks; t++) {
+            // Créneaux croissants pour que l'ordre du tableau soit celui des indices
+            departures[t] = 1_000 + t * 10L + random.nextInt(5);
+            capacities[t] = 500 + random.nextInt(5_000);
+            ids[t] = addCamion("T" + t, capacities[t], departures[t]);
+        }
+        for (int i = 0; i < 30_000; i++) {
+            clock.set(1_000 + i / 10);
+            int weight = 1 + random.nextInt(400);
+            long deadline = random.nextInt(10) == 0 ? Long.MAX_VALUE : clock.get() + random.nextInt(3_000);
+            int expected = -1;
+            for (int t = 0; t < trucks && expected < 0; t++) {
+                if (departures[t] >= clock.get() && departures[t] <= deadline && loads[t] + weight <= capacities[t]) {
+                    expected = t;
+                }
+            }
+            Chargeable item = new Vrac(prefix + "I" + i, weight, 0.01);
+            String camionId = board.assign(item, deadline);
+            if (expected < 0) {
+                assertNull(camionId);
+            } else {
+                assertEquals(ids[expected], camionId);
+                loads[expected] += weight;
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        try {
+            new DepartureBoard(null);
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Le Loadmaster et l'horloge sont obligatoires.", e.getMessage());
+        }
+        try {
+            board.assign(null);
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("L'article à placer ne peut pas être nul.", e.getMessage());
+        }
+        try {
+            loadmaster.scheduleDeparture(prefix + "inconnu", 2_000);
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Le camion avec l'ID " + prefix + "inconnu n'existe pas.", e.getMessage());
+        }
+        assertEquals(Long.MAX_VALUE, item("x", 1).getLatestDeparture());
+    }
+}
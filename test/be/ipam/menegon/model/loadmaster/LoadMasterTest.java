@@ -2,14 +2,21 @@ package test.be.ipam.menegon.model.loadmaster;
 
 import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
 import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.exceptions.TruckNotSettedException;
+import be.ipam.menegon.model.loadmaster.FleetDirectory;
+import be.ipam.menegon.model.loadmaster.ItemLocation;
 import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.loadmaster.LoadmasterSnapshot;
 import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
 import be.ipam.menegon.model.truck.Chargeable;
 import be.ipam.menegon.model.truck.Palette;
 import be.ipam.menegon.model.truck.Vrac;
 import junit.framework.TestCase;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -280,12 +287,327 @@ public class LoadMasterTest extends TestCase {
             fail("Une exception inattendue a été levée lors du test de suppression de camion : " + e.getMessage());
         }
     }
-}
 
+    @Test
+    public void testRangeQueries() {
+        Loadmaster localLoadmaster = new Loadmaster("RangeLoadmaster");
+        Camion localCamion1 = new Camion("C029A", 10000, 50.0, localLoadmaster);
+        Camion localCamion2 = new Camion("C029B", 10000, 50.0, localLoadmaster);
+
+        try {
+            localLoadmaster.addCamion(localCamion1);
+            localLoadmaster.addCamion(localCamion2);
+            localLoadmaster.loadItem("C029A", new Palette("P201", 1200, 2.0));
+            localLoadmaster.loadItem("C029A", new Vrac("V201", 300, 4.0));
+            localLoadmaster.loadItem("C029B", new Palette("P202", 950, 1.5));
+
+            assertEquals(2, localLoadmaster.countItemsByWeight(801, Integer.MAX_VALUE));
+            assertEquals(2, localLoadmaster.streamItemsByWeight(801, Integer.MAX_VALUE).count());
+            assertEquals(1, localLoadmaster.countItemsByVolume(2.5, 5.0));
+            assertEquals("V201", localLoadmaster.streamItemsByVolume(2.5, 5.0).findFirst().get().getId());
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée lors des requêtes par intervalle : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFindItem() {
+        Loadmaster localLoadmaster1 = new Loadmaster("LocateLoadmaster1");
+        Loadmaster localLoadmaster2 = new Loadmaster("LocateLoadmaster2");
+        Camion localCamion1 = new Camion("C030A", 10000, 50.0, localLoadmaster1);
+        Camion localCamion2 = new Camion("C030B", 10000, 50.0, localLoadmaster2);
+
+        try {
+            localLoadmaster1.addCamion(localCamion1);
+            localLoadmaster2.addCamion(localCamion2);
+            localLoadmaster1.loadItem("C030A", new Palette("P301", 100, 1.0));
+            localLoadmaster2.loadItem("C030B", new Vrac("V301", 50, 2.0));
+
+            // Retrouver un élément sans connaître son camion
+            ItemLocation location = Loadmaster.findItem("V301");
+            assertNotNull("L'élément devrait être localisé", location);
+            assertEquals(localLoadmaster2, location.getLoadmaster());
+            assertEquals(localCamion2, location.getCamion());
+
+            // Un ID déjà chargé dans un autre camion est refusé, même avec des champs différents
+            try {
+                localLoadmaster2.loadItem("C030B", new Palette("P301", 7, 0.5));
+                fail("Une IllegalArgumentException devrait être levée pour un ID déjà chargé.");
+            } catch (IllegalArgumentException e) {
+                assertEquals("L'article avec l'ID P301 est déjà chargé dans le camion C030A.", e.getMessage());
+            }
+
+            // Un dépassement est signalé avant un doublon, et un élément refusé n'est jamais localisé
+            try {
+                localLoadmaster2.loadItem("C030B", new Palette("P301", 20_000, 0.5));
+                fail("Une MaxWeightReachedException devrait être levée.");
+            } catch (MaxWeightReachedException e) {
+                assertEquals("Le poids maximum du camion est atteint.", e.getMessage());
+            }
+            try {
+                localLoadmaster2.loadItems("C030B", Arrays.asList(new Vrac("V302", 10, 30.0), new Vrac("V303", 10, 30.0)));
+                fail("Une MaxVolumeReachedException devrait être levée.");
+            } catch (MaxVolumeReachedException e) {
+                assertEquals("V303", e.getItem().getId());
+            }
+            assertNull(Loadmaster.findItem("V302"));
+            assertNull(Loadmaster.findItem("V303"));
+            assertEquals(50, localCamion2.getCurrentWeight());
+
+            // Décharger un élément où qu'il soit
+            Loadmaster.unloadItemById("P301");
+            assertNull(Loadmaster.findItem("P301"));
+            assertEquals(0, localCamion1.getCurrentWeight());
+
+            // La suppression d'un camion oublie ses éléments
+            localLoadmaster2.removeCamion("C030B");
+            assertNull(Loadmaster.findItem("V301"));
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée lors de la localisation : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testTransferCamion() {
+        Loadmaster source = new Loadmaster("SourceLoadmaster");
+        Loadmaster target = new Loadmaster("TargetLoadmaster");
+        Camion localCamion = new Camion("C031", 10000, 50.0, source);
+
+        try {
+            source.addCamion(localCamion);
+            source.loadItem("C031", new Palette("P311", 200, 3.0));
+            assertEquals(source, FleetDirectory.getOwner("C031"));
+
+            // Le camion change de Loadmaster avec son chargement
+            source.transferCamion("C031", target);
+            assertFalse(source.getCamions().containsKey("C031"));
+            assertEquals(localCamion, target.getCamions().get("C031"));
+            assertEquals(target, FleetDirectory.getOwner("C031"));
+            assertEquals(localCamion, FleetDirectory.findCamion("C031"));
+            assertEquals(target, localCamion.getLoadmaster());
+            assertEquals(200, localCamion.getCurrentWeight());
+            assertEquals(target, Loadmaster.findItem("P311").getLoadmaster());
+
+            // L'ancien Loadmaster ne peut plus transférer ce camion
+            try {
+                source.transferCamion("C031", target);
+                fail("Une IllegalArgumentException devrait être levée pour un camion absent.");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Le camion avec cet identifiant n'existe pas.", e.getMessage());
+            }
+
+            target.removeCamion("C031");
+            assertNull(FleetDirectory.getOwner("C031"));
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée lors du transfert : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testConcurrentTransfers() throws InterruptedException {
+        Loadmaster left = new Loadmaster("LeftLoadmaster");
+        Loadmaster right = new Loadmaster("RightLoadmaster");
+        int count = 20;
+        for (int i = 0; i < count; i++) {
+            left.addCamion(new Camion("C030-" + i, 1000, 10.0, left));
+        }
+        List<Throwable> errors = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        List<String> loaded = new ArrayList<>();
+        // Des chargements par le propriétaire du moment s'intercalent entre les transferts
+        threads.add(new Thread(() -> {
+            try {
+                for (int round = 0; round < 2_000; round++) {
+                    String id = "C030-" + (round % count);
+                    String itemId = "V030-" + round;
+                    try {
+                        FleetDirectory.getOwner(id).loadItem(id, new Vrac(itemId, 1, 0.001));
+                        loaded.add(itemId);
+                    } catch (TruckNotSettedException e) {
+                        // Le camion a changé de propriétaire entre-temps
+                    }
+                }
+            } catch (Throwable e) {
+                synchronized (errors) {
+                    errors.add(e);
+                }
+            }
+        }));
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int round = 0; round < 500; round++) {
+                        String id = "C030-" + ((round + offset) % count);
+                        Loadmaster owner = FleetDirectory.getOwner(id);
+                        Loadmaster other = owner == left ? right : left;
+                        try {
+                            owner.transferCamion(id, other);
+                        } catch (IllegalArgumentException e) {
+                            // Un autre thread a transféré ce camion entre-temps
+                        }
+                        // Les cartes se parcourent pendant les transferts
+                        for (Camion camion : other.getCamions().values()) {
+                            assertNotNull(camion.getId());
+                        }
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+
+        // Chaque camion est dans la carte de son propriétaire, et seulement dans celle-là
+        assertEquals(count, left.getCamions().size() + right.getCamions().size());
+        assertFalse(loaded.isEmpty());
+        for (String itemId : loaded) {
+            ItemLocation location = Loadmaster.findItem(itemId);
+            assertEquals(FleetDirectory.getOwner(location.getCamion().getId()), location.getLoadmaster());
+        }
+        for (int i = 0; i < count; i++) {
+            String id = "C030-" + i;
+            Loadmaster owner = FleetDirectory.getOwner(id);
+            assertTrue(owner.getCamions().containsKey(id));
+            assertEquals(owner, owner.getCamions().get(id).getLoadmaster());
+            owner.removeCamion(id);
+        }
+        assertTrue(left.getCamions().isEmpty());
+        assertTrue(right.getCamions().isEmpty());
+    }
 
+    @Test
+    public void testSnapshotDuringConcurrentLoading() {
+        Loadmaster localLoadmaster = new Loadmaster("SnapshotLoadmaster");
+        Camion localCamion = new Camion("C033", 1000000, 100000.0, localLoadmaster);
 
+        try {
+            localLoadmaster.addCamion(localCamion);
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 2000; i++) {
+                        localCamion.load(new Vrac("V33-" + i, 3, 1.0));
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            writer.start();
+
+            // Chaque version lue est cohérente : le poids correspond toujours au chargement
+            while (writer.isAlive()) {
+                CamionSnapshot version = localLoadmaster.snapshot().getCamion("C033");
+                assertEquals(version.size() * 3, version.getCurrentWeight());
+                assertEquals(version.size(), version.getLoad().size());
+            }
+            writer.join();
+
+            LoadmasterSnapshot last = localLoadmaster.snapshot();
+            assertEquals(2000, last.getCamion("C033").size());
+            assertEquals(localCamion.getVersion(), last.getCamion("C033").getVersion());
+
+            // Sans nouvelle modification, la même version est réutilisée ; un chargement en fait assembler une nouvelle
+            assertSame(last, localLoadmaster.snapshot());
+            localLoadmaster.loadItem("C033", new Vrac("V33-LAST", 3, 1.0));
+            LoadmasterSnapshot after = localLoadmaster.snapshot();
+            assertEquals(last.getSequence() + 1, after.getSequence());
+            assertEquals(2001, after.getCamion("C033").size());
+            assertEquals(2000, last.getCamion("C033").size());
+
+            localLoadmaster.removeCamion("C033");
+            assertNull(localLoadmaster.snapshot().getCamion("C033"));
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée lors de la lecture concurrente : " + e.getMessage());
+        }
+    }
 
+    @Test
+    public void testUnloadIf() {
+        Loadmaster fleet = new Loadmaster("FleetLoadmaster");
+        Camion first = new Camion("C036A", 10000, 50.0, fleet);
+        Camion second = new Camion("C036B", 10000, 50.0, fleet);
 
+        try {
+            fleet.addCamion(first);
+            fleet.addCamion(second);
+            fleet.loadItem("C036A", new Vrac("RET-361", 10, 1.0));
+            fleet.loadItem("C036A", new Palette("P361", 200, 3.0));
+            fleet.loadItem("C036A", new Vrac("RET-362", 20, 2.0));
+            fleet.loadItem("C036B", new Palette("P362", 300, 4.0));
+
+            Map<String, List<Chargeable>> unloaded = fleet.unloadIf(item -> item.getId().startsWith("RET-"));
+            assertEquals(1, unloaded.size());
+            assertEquals(2, unloaded.get("C036A").size());
+            assertEquals("RET-361", unloaded.get("C036A").get(0).getId());
+            assertEquals(200, first.getCurrentWeight());
+            assertEquals(3.0, first.getCurrentVolume(), 0.0001);
+            assertEquals(1, first.snapshot().size());
+            assertEquals(300, second.getCurrentWeight());
+            assertNull(Loadmaster.findItem("RET-361"));
+            assertNotNull(Loadmaster.findItem("P361"));
+
+            fleet.removeCamion("C036A");
+            fleet.removeCamion("C036B");
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
 
+    @Test
+    public void testPendingItems() {
+        Loadmaster fleet = new Loadmaster("PendingLoadmaster");
+        Camion first = new Camion("C043A", 1000, 10.0, fleet);
+        List<String> placed = new ArrayList<>();
+
+        try {
+            fleet.addCamion(first);
+            fleet.loadItem("C043A", new Palette("P431", 900, 2.0));
 
+            // Une longue file d'éléments trop lourds pour la marge actuelle
+            for (int i = 0; i < 100000; i++) {
+                fleet.enqueueItem(new Vrac("Q043-" + i, 200 + i % 500, 0.01), 0, i, location -> placed.add(location.getItem().getId()));
+            }
+            fleet.enqueueItem(new Vrac("Q043-LATE", 300, 1.0), 5, 2000, location -> placed.add(location.getItem().getId()));
+            fleet.enqueueItem(new Vrac("Q043-URGENT", 400, 1.0), 5, 1000, location -> placed.add(location.getItem().getId()));
+            fleet.enqueueItem(new Vrac("Q043-BULKY", 10, 9.5), 9, 0, location -> placed.add(location.getItem().getId()));
+            // Un élément qui tient tout de suite est chargé sans attendre
+            fleet.enqueueItem(new Vrac("Q043-SMALL", 50, 1.0), 0, 0, location -> placed.add(location.getItem().getId()));
+            assertEquals(1, placed.size());
+            assertEquals("Q043-SMALL", placed.get(0));
+            assertEquals(100003, fleet.getPendingCount());
+
+            // Le déchargement libère 900 kg : les éléments prioritaires passent en premier, par échéance
+            fleet.unloadItem("C043A", first.getLoadView().get(0));
+            assertEquals("Q043-URGENT", placed.get(1));
+            assertEquals("Q043-LATE", placed.get(2));
+            assertEquals("Q043-0", placed.get(3));
+            assertEquals(4, placed.size());
+            assertEquals(950, first.getCurrentWeight());
+            assertNotNull(Loadmaster.findItem("Q043-URGENT"));
+            assertNull(Loadmaster.findItem("Q043-BULKY"));
+
+            assertNotNull(fleet.cancelPending("Q043-BULKY"));
+            assertNull(fleet.cancelPending("Q043-BULKY"));
+            assertEquals(99999, fleet.getPendingCount());
 
+            try {
+                fleet.enqueueItem(new Vrac("Q043-1", 1, 0.1), 0, 0, location -> { });
+                fail("Une IllegalArgumentException devrait être levée.");
+            } catch (IllegalArgumentException e) {
+                assertEquals("L'article avec l'ID Q043-1 est déjà en attente.", e.getMessage());
+            }
+
+            fleet.removeCamion("C043A");
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package test.be.ipam.menegon.model.monitoring;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.monitoring.TruckEvent;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class FlightEventsTest extends TestCase {
+    private static final List<String> EVENTS = Arrays.asList("be.ipam.menegon.Load", "be.ipam.menegon.Unload",
+            "be.ipam.menegon.Sort", "be.ipam.menegon.Registration", "be.ipam.menegon.ExceptionCreation",
+            "be.ipam.menegon.FleetUtilisation");
+
+    @Test
+    public void testEventsAreRecorded() throws Exception {
+        String prefix = "046-" + System.nanoTime() + "-";
+        String camionId = "C" + prefix + "A";
+        Path file = Files.createTempFile("events-", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : EVENTS) {
+                recording.enable(name).withoutThreshold().withPeriod(Duration.ofMillis(50));
+            }
+            recording.start();
+
+            Loadmaster loadmaster = new Loadmaster("FlightLoadmaster");
+            loadmaster.addCamion(new Camion(camionId, 1000, 10.0, loadmaster));
+            loadmaster.loadItem(camionId, new Palette("P" + prefix + "1", 600, 2.0));
+            loadmaster.loadItems(camionId, Arrays.asList(new Vrac("V" + prefix + "1", 100, 1.0),
+                    new Vrac("V" + prefix + "2", 50, 1.0)));
+            try {
+                loadmaster.loadItem(camionId, new Palette("P" + prefix + "3", 10, 9.0));
+                fail("Une MaxVolumeReachedException devrait être levée.");
+            } catch (MaxVolumeReachedException e) {
+                // Refus attendu, mesuré comme un chargement direct
+            }
+            try {
+                loadmaster.getCamions().get(camionId).load(new Palette("P" + prefix + "2", 900, 1.0));
+                fail("Une MaxWeightReachedException devrait être levée.");
+            } catch (MaxWeightReachedException e) {
+                // Refus attendu
+            }
+            loadmaster.getCamions().get(camionId).getLoadSortedByWeight();
+            loadmaster.unloadIf(item -> item.getId().startsWith("V" + prefix));
+            Thread.sleep(200);
+            loadmaster.removeCamion(camionId);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> !event.hasField("truckId") || camionId.equals(event.getString("truckId")))
+                .collect(Collectors.toList());
+        Files.deleteIfExists(file);
+
+        assertEquals(1, count(events, "be.ipam.menegon.Load", "load", TruckEvent.OK, 1));
+        assertEquals(1, count(events, "be.ipam.menegon.Load", "loadAll", TruckEvent.OK, 2));
+        assertEquals(1, count(events, "be.ipam.menegon.Load", "load", "MaxWeightReachedException", 1));
+        assertEquals(1, count(events, "be.ipam.menegon.Load", "load", "MaxVolumeReachedException", 1));
+        assertEquals(1, count(events, "be.ipam.menegon.Sort", "byWeight", TruckEvent.OK, 3));
+        assertEquals(1, count(events, "be.ipam.menegon.Unload", "unloadIf", TruckEvent.OK, 2));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("be.ipam.menegon.Registration")
+                && event.getString("operation").equals("register") && event.getBoolean("accepted")));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("be.ipam.menegon.ExceptionCreation")
+                && event.getClass("exceptionType").getName().equals(MaxWeightReachedException.class.getName())));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("be.ipam.menegon.FleetUtilisation")
+                && event.getInt("truckCount") > 0 && event.getLong("currentWeight") >= 600));
+    }
+
+    private static long count(List<RecordedEvent> events, String name, String operation, String outcome, int itemCount) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .filter(event -> operation.equals(event.getString("operation")) && outcome.equals(event.getString("outcome")))
+                .filter(event -> event.getInt("itemCount") == itemCount)
+                .count();
+    }
+}
@@ -0,0 +1,108 @@
+package test.be.ipam.menegon.model.placement;
+
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.placement.Placement;
+import be.ipam.menegon.model.placement.PlacementEngine;
+import be.ipam.menegon.model.placement.PlacementPlan;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.Colis;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PlacementEngineTest extends TestCase {
+
+    private final List<Loadmaster> loadmasters = new ArrayList<>();
+
+    @Override
+    protected void tearDown() throws Exception {
+        for (Loadmaster loadmaster : loadmasters) {
+            for (String id : new ArrayList<>(loadmaster.getCamions().keySet())) {
+                loadmaster.removeCamion(id);
+            }
+        }
+        super.tearDown();
+    }
+
+    @Test
+    public void testFullSemiTrailer() {
+        // Semi-remorque standard : 13,6 m x 2,45 m x 2,7 m, 33 europalettes de 1,2 m x 0,8 m
+        Loadmaster loadmaster = new Loadmaster("PlacementLoadmaster");
+        Camion camion = new Camion("C034", 24000, 90.0, 13.6, 2.45, 2.7, loadmaster);
+        loadmaster.addCamion(camion);
+        loadmasters.add(loadmaster);
+        List<Colis> pallets = new ArrayList<>();
+        for (int i = 0; i < 34; i++) {
+            pallets.add(new Colis("EUR" + i, 600, 1.2, 0.8, 1.8, false));
+        }
+
+        try {
+            PlacementPlan plan = PlacementEngine.loadInto(camion, pallets);
+            assertEquals(33, plan.getPlacements().size());
+            assertEquals(1, plan.getUnplaced().size());
+            assertEquals(33 * 600, camion.getCurrentWeight());
+            assertSame(camion, Loadmaster.findItem("EUR0").getCamion());
+
+            // Aucune palette ne dépasse de la caisse ni n'est posée sur une autre palette non gerbable
+            for (Placement placement : plan.getPlacements()) {
+                assertEquals(0.0, placement.getZ(), 0.0001);
+                assertTrue(placement.getX() + placement.getLength() <= 13.6 + 0.0001);
+                assertTrue(placement.getY() + placement.getWidth() <= 2.45 + 0.0001);
+            }
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testVolumeRejectionLoadsNothing() {
+        // La caisse accueille les trois colis, mais le volume déclaré du camion n'en admet que deux
+        Loadmaster loadmaster = new Loadmaster("PlacementLoadmaster");
+        Camion camion = new Camion("C035", 1000, 2.5, 3.0, 1.0, 1.0, loadmaster);
+        loadmaster.addCamion(camion);
+        loadmasters.add(loadmaster);
+        List<Colis> boxes = List.of(new Colis("BOX1", 10, 1.0, 1.0, 1.0, true),
+                new Colis("BOX2", 10, 1.0, 1.0, 1.0, true),
+                new Colis("BOX3", 10, 1.0, 1.0, 1.0, true));
+        try {
+            PlacementEngine.loadInto(camion, boxes);
+            fail("Une MaxVolumeReachedException devrait être levée.");
+        } catch (MaxVolumeReachedException e) {
+            // Aucun colis n'est chargé ni localisé
+            assertEquals(0, camion.getCurrentWeight());
+            assertTrue(camion.getLoad().isEmpty());
+            for (Colis box : boxes) {
+                assertNull(Loadmaster.findItem(box.getId()));
+            }
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testStackingAndWeight() {
+        PlacementEngine engine = new PlacementEngine(1.0, 1.0, 2.0, 100);
+        try {
+            Placement bottom = engine.place(new Colis("B1", 40, 1.0, 1.0, 1.0, true));
+            Placement top = engine.place(new Colis("B2", 40, 1.0, 1.0, 1.0, false));
+            assertEquals(0.0, bottom.getZ(), 0.0001);
+            assertEquals(1.0, top.getZ(), 0.0001);
+
+            // La caisse est pleine en hauteur et le dessus n'est pas gerbable
+            assertNull(engine.place(new Colis("B3", 10, 0.5, 0.5, 0.5, true)));
+
+            try {
+                engine.place(new Colis("B4", 30, 0.1, 0.1, 0.1, true));
+                fail("Une MaxWeightReachedException devrait être levée.");
+            } catch (MaxWeightReachedException e) {
+                assertEquals("Le poids maximum du camion est atteint.", e.getMessage());
+            }
+        } catch (MaxWeightReachedException e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+}
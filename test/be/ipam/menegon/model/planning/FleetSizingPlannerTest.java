@@ -0,0 +1,71 @@
+package test.be.ipam.menegon.model.planning;
+
+import be.ipam.menegon.model.planning.FleetPlan;
+import be.ipam.menegon.model.planning.FleetSizingPlanner;
+import be.ipam.menegon.model.planning.TruckType;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class FleetSizingPlannerTest extends TestCase {
+    private final TruckType van = new TruckType("Camionnette", 1000, 10.0, 100);
+    private final TruckType semi = new TruckType("Semi-remorque", 20000, 80.0, 900);
+
+    @Test
+    public void testSmallManifest() {
+        FleetSizingPlanner planner = new FleetSizingPlanner(Arrays.asList(van, semi));
+
+        // Quatre palettes de 600 kg ne tiennent qu'une par camionnette, mais toutes dans une semi-remorque
+        FleetPlan plan = planner.plan(IntStream.range(0, 4).mapToObj(i -> new Palette("P045-" + i, 600, 2.0)));
+        assertEquals(4, plan.getItemCount());
+        assertEquals(2400, plan.getTotalWeight());
+        assertEquals(400.0, plan.getCost(), 1e-9);
+        assertEquals(Integer.valueOf(4), plan.getTrucks().get(van));
+        // Une fraction de semi-remorque suffirait en continu
+        assertEquals(108.0, plan.getContinuousLowerBound(), 1e-9);
+        assertTrue(plan.getLowerBound() <= plan.getCost());
+
+        // Un élément trop lourd pour une camionnette impose la semi-remorque
+        plan = planner.plan(Stream.of(new Vrac("V045-1", 5000, 10.0), new Vrac("V045-2", 100, 1.0)));
+        assertEquals(1, plan.getTruckCount());
+        assertEquals(Integer.valueOf(1), plan.getTrucks().get(semi));
+        assertEquals(900.0, plan.getDimensionLowerBound(), 1e-9);
+        assertEquals(0.0, plan.getGap(), 1e-9);
+
+        assertEquals(0.0, planner.plan(Stream.empty()).getCost(), 0.0);
+    }
+
+    @Test
+    public void testItemThatFitsNowhere() {
+        try {
+            new FleetSizingPlanner(Arrays.asList(van, semi)).plan(Stream.of(new Vrac("V045-X", 30000, 1.0)));
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("L'article V045-X ne tient dans aucun type de camion.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testMillionItems() {
+        Random random = new Random(45);
+        Stream<Chargeable> items = Stream.generate(() -> (Chargeable) new Vrac("V045", 1 + random.nextInt(300),
+                0.01 + random.nextDouble() * 1.5)).limit(1_000_000);
+        long start = System.nanoTime();
+        FleetPlan plan = new FleetSizingPlanner(Arrays.asList(van, semi, new TruckType("Porteur", 8000, 40.0, 420)))
+                .plan(items);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(1_000_000, plan.getItemCount());
+        assertTrue(plan.getLowerBound() > 0);
+        assertTrue(plan.getLowerBound() <= plan.getCost());
+        assertTrue("Écart relatif trop grand : " + plan.getRelativeGap(), plan.getRelativeGap() < 0.05);
+        assertTrue("Planification trop lente : " + millis + " ms", millis < 10_000);
+    }
+}
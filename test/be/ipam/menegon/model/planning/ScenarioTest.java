@@ -0,0 +1,145 @@
+package test.be.ipam.menegon.model.planning;
+
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.planning.FleetSnapshot;
+import be.ipam.menegon.model.planning.Scenario;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ScenarioTest extends TestCase {
+    private Loadmaster loadmaster;
+    private Camion camion1;
+    private Camion camion2;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        loadmaster = new Loadmaster("PlanningLoadmaster");
+        camion1 = new Camion("C032A-" + System.nanoTime(), 1000, 20.0, loadmaster);
+        camion2 = new Camion("C032B-" + System.nanoTime(), 1000, 20.0, loadmaster);
+        loadmaster.addCamion(camion1);
+        loadmaster.addCamion(camion2);
+        loadmaster.loadItem(camion1.getId(), new Palette("P32-" + System.nanoTime(), 500, 5.0));
+    }
+
+    @Test
+    public void testScenarioDoesNotTouchLiveTrucks() {
+        try {
+            FleetSnapshot snapshot = FleetSnapshot.of(loadmaster);
+            Scenario scenario = snapshot.fork();
+            scenario.load(camion2.getId(), new Vrac("V321", 300, 2.0));
+
+            // Le camion réel est inchangé ; le camion non modifié est partagé avec l'instantané
+            assertEquals(0, camion2.getCurrentWeight());
+            assertEquals(300, scenario.getTruck(camion2.getId()).getCurrentWeight());
+            assertSame(snapshot.getTruck(camion1.getId()), scenario.getTruck(camion1.getId()));
+            assertEquals(1, scenario.getModifiedTruckCount());
+
+            // Un scénario dérivé évolue indépendamment
+            Scenario child = scenario.fork();
+            child.load(camion2.getId(), new Vrac("V322", 600, 2.0));
+            assertEquals(300, scenario.getTruck(camion2.getId()).getCurrentWeight());
+            assertEquals(900, child.getTruck(camion2.getId()).getCurrentWeight());
+
+            try {
+                child.load(camion1.getId(), new Vrac("V323", 600, 2.0));
+                fail("Une MaxWeightReachedException devrait être levée.");
+            } catch (MaxWeightReachedException e) {
+                assertEquals("Le poids maximum du camion est atteint.", e.getMessage());
+            }
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRunScenariosAndCommit() {
+        try {
+            FleetSnapshot snapshot = FleetSnapshot.of(loadmaster);
+            List<FleetSnapshot.Plan> plans = new ArrayList<>();
+            for (int i = 1; i <= 8; i++) {
+                int weight = i * 100;
+                plans.add(scenario -> scenario.load(camion2.getId(), new Vrac("V33-" + weight, weight, 1.0)));
+            }
+            List<Scenario> scenarios = snapshot.runScenarios(plans, ForkJoinPool.commonPool());
+            assertEquals(8, scenarios.size());
+            assertNull(scenarios.get(7).getFailure());
+
+            // Le scénario retenu est appliqué aux camions réels
+            scenarios.get(7).commit();
+            assertEquals(800, camion2.getCurrentWeight());
+            assertNotNull(Loadmaster.findItem("V33-800"));
+
+            // Un autre scénario du même instantané est désormais en conflit
+            try {
+                scenarios.get(0).commit();
+                fail("Une IllegalStateException devrait être levée pour un camion modifié.");
+            } catch (IllegalStateException e) {
+                assertEquals("Le camion " + camion2.getId() + " a été modifié depuis l'instantané.", e.getMessage());
+            }
+            assertEquals(800, camion2.getCurrentWeight());
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRejectedCommitLeavesFleetUnchanged() {
+        Camion other = new Camion("C032C-" + System.nanoTime(), 1000, 20.0, loadmaster);
+        try {
+            loadmaster.addCamion(other);
+            Chargeable palette = camion1.getLoad().get(0);
+            String duplicate = "V32D-" + System.nanoTime();
+            FleetSnapshot snapshot = FleetSnapshot.of(loadmaster);
+            Scenario scenario = snapshot.fork();
+            // Le premier camion, dans l'ordre des identifiants, est déchargé et chargé ; le second reçoit un doublon
+            scenario.unload(camion1.getId(), palette);
+            scenario.load(camion1.getId(), new Vrac("V32A-" + System.nanoTime(), 100, 1.0));
+            scenario.load(camion2.getId(), new Vrac(duplicate, 100, 1.0));
+
+            // Entre-temps, un élément de même ID est chargé dans un camion que le scénario ne touche pas
+            loadmaster.loadItem(other.getId(), new Vrac(duplicate, 10, 0.1));
+            try {
+                scenario.commit();
+                fail("Une IllegalArgumentException devrait être levée pour un ID déjà chargé.");
+            } catch (IllegalArgumentException e) {
+                assertEquals("L'article avec l'ID " + duplicate + " est déjà chargé dans le camion " + other.getId() + ".", e.getMessage());
+            }
+            assertEquals(1, camion1.getLoad().size());
+            assertSame(palette, camion1.getLoad().get(0));
+            assertEquals(500, camion1.getCurrentWeight());
+            assertEquals(0, camion2.getCurrentWeight());
+            assertSame(camion1, Loadmaster.findItem(palette.getId()).getCamion());
+            assertSame(other, Loadmaster.findItem(duplicate).getCamion());
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCommitMovesItemBetweenTrucks() {
+        try {
+            Chargeable palette = camion1.getLoad().get(0);
+            Scenario scenario = FleetSnapshot.of(loadmaster).fork();
+            scenario.unload(camion1.getId(), palette);
+            scenario.load(camion2.getId(), palette);
+            scenario.commit();
+
+            assertEquals(0, camion1.getCurrentWeight());
+            assertEquals(500, camion2.getCurrentWeight());
+            assertSame(palette, camion2.getLoad().get(0));
+            assertSame(camion2, Loadmaster.findItem(palette.getId()).getCamion());
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package test.be.ipam.menegon.model.query;
+
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.query.FleetQuery;
+import be.ipam.menegon.model.query.ItemRow;
+import be.ipam.menegon.model.query.LoadAggregate;
+import be.ipam.menegon.model.query.TruckRow;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class FleetQueryTest extends TestCase {
+    private static final int TRUCKS = 500;
+    private static final int ITEMS_PER_TRUCK = 2_000;
+
+    private final List<Loadmaster> loadmasters = new ArrayList<>();
+
+    @Override
+    protected void tearDown() throws Exception {
+        for (Loadmaster loadmaster : loadmasters) {
+            for (String id : new ArrayList<>(loadmaster.getCamions().keySet())) {
+                loadmaster.removeCamion(id);
+            }
+        }
+        super.tearDown();
+    }
+
+    @Test
+    public void testMillionItems() throws Exception {
+        String prefix = "048-" + System.nanoTime() + "-";
+        Random random = new Random(48);
+        for (int l = 0; l < 2; l++) {
+            Loadmaster loadmaster = new Loadmaster("QUERY-" + l);
+            loadmasters.add(loadmaster);
+            for (int t = 0; t < TRUCKS / 2; t++) {
+                String camionId = "C" + prefix + l + "-" + t;
+                // Certains camions sont presque vides en volume, d'autres bien remplis
+                double maxVolume = t % 3 == 0 ? 20_000.0 : 3_000.0;
+                loadmaster.addCamion(new Camion(camionId, 10_000_000, maxVolume, loadmaster));
+                List<Chargeable> items = new ArrayList<>(ITEMS_PER_TRUCK);
+                for (int i = 0; i < ITEMS_PER_TRUCK; i++) {
+                    String id = prefix + l + "-" + t + "-" + i;
+                    items.add(random.nextInt(20) == 0
+                            ? new Palette("P" + id, 200 + random.nextInt(1_300), 1.0 + random.nextDouble())
+                            : new Vrac("V" + id, 1 + random.nextInt(300), 0.01 + random.nextDouble()));
+                }
+                loadmaster.loadItems(camionId, items);
+            }
+        }
+        Loadmaster[] sources = loadmasters.toArray(new Loadmaster[0]);
+        FleetQuery all = FleetQuery.over(sources);
+        assertEquals(TRUCKS * (long) ITEMS_PER_TRUCK, all.count());
+
+        // Camions à moins de 40 % de leur volume qui portent une palette de plus d'une tonne, par Loadmaster
+        FleetQuery heavyPalettes = all.whereTruck(truck -> truck.getVolumeRatio() < 0.4)
+                .whereItemType(Palette.class)
+                .whereItemWeight(1_001, Integer.MAX_VALUE);
+        Map<String, List<String>> byLoadmaster = heavyPalettes.groupTrucks(TruckRow::getLoadmaster,
+                Collectors.mapping(TruckRow::getId, Collectors.toList()));
+
+        Map<String, Set<String>> expectedTrucks = new HashMap<>();
+        long expectedCount = 0;
+        long expectedWeight = 0;
+        for (Loadmaster loadmaster : loadmasters) {
+            for (CamionSnapshot camion : loadmaster.snapshot().getCamions().values()) {
+                if (camion.getCurrentVolume() / camion.getMaxVolume() >= 0.4) {
+                    continue;
+                }
+                for (Chargeable item : camion.getLoad()) {
+                    if (item instanceof Palette && item.getWeight() > 1_000) {
+                        expectedTrucks.computeIfAbsent(loadmaster.getNom(), nom -> new HashSet<>()).add(camion.getId());
+                        expectedCount++;
+                        expectedWeight += item.getWeight();
+                    }
+                }
+            }
+        }
+        assertFalse(expectedTrucks.isEmpty());
+        assertEquals(expectedTrucks.keySet(), byLoadmaster.keySet());
+        for (Map.Entry<String, List<String>> entry : byLoadmaster.entrySet()) {
+            assertEquals(expectedTrucks.get(entry.getKey()), new HashSet<>(entry.getValue()));
+        }
+        LoadAggregate aggregate = heavyPalettes.aggregate();
+        assertEquals(expectedCount, aggregate.getCount());
+        assertEquals(expectedWeight, aggregate.getTotalWeight());
+        assertTrue(aggregate.getMinWeight() > 1_000);
+        assertEquals(expectedCount, heavyPalettes.items().count());
+        assertEquals(expectedCount, heavyPalettes.select(ItemRow::getItem).filter(item -> item instanceof Palette).count());
+
+        // Les index en colonnes sont construits : une question sur toute la flotte répond en quelques millisecondes
+        FleetQuery medium = all.whereItemWeight(100, 120).whereItemVolume(0.5, 0.6);
+        long start = System.nanoTime();
+        long count = medium.count();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long brute = 0;
+        for (Loadmaster loadmaster : loadmasters) {
+            for (CamionSnapshot camion : loadmaster.snapshot().getCamions().values()) {
+                brute += camion.getLoad().stream()
+                        .filter(item -> item.getWeight() >= 100 && item.getWeight() <= 120
+                                && item.getVolume() >= 0.5 && item.getVolume() <= 0.6)
+                        .count();
+            }
+        }
+        assertEquals(brute, count);
+        assertTrue("Requête trop lente : " + millis + " ms", millis < 500);
+
+        Map<String, LoadAggregate> perLoadmaster = medium.groupItems(ItemRow::getLoadmaster);
+        assertEquals(brute, perLoadmaster.values().stream().mapToLong(LoadAggregate::getCount).sum());
+
+        // La requête porte sur l'état figé à sa création
+        String camionId = loadmasters.get(0).getCamions().keySet().iterator().next();
+        loadmasters.get(0).loadItem(camionId, new Vrac("V" + prefix + "extra", 110, 0.55));
+        assertEquals(count, medium.count());
+        assertEquals(count + 1, FleetQuery.over(sources).whereItemWeight(100, 120).whereItemVolume(0.5, 0.6).count());
+        assertTrue(FleetQuery.fleet().trucks().anyMatch(truck -> truck.getId().equals(camionId)));
+    }
+
+    @Test
+    public void testAdjustedTotalsDoNotHideItems() throws Exception {
+        String prefix = "048A-" + System.nanoTime() + "-";
+        Loadmaster loadmaster = new Loadmaster("QUERY-ADJUSTED");
+        loadmasters.add(loadmaster);
+        Camion camion = new Camion("C" + prefix, 1000, 10.0, loadmaster);
+        loadmaster.addCamion(camion);
+        Chargeable vrac = new Vrac("V" + prefix, 50, 1.0);
+        loadmaster.loadItem(camion.getId(), vrac);
+
+        // Les totaux corrigés ne reflètent plus le chargement, mais l'élément reste trouvé
+        camion.updateCurrentWeight(-50);
+        camion.updateCurrentVolume(-1.0);
+        FleetQuery query = FleetQuery.over(loadmaster).whereItemWeight(40, 60).whereItemVolume(0.5, 2.0);
+        assertEquals(1, query.count());
+        assertEquals(Arrays.asList(vrac), query.items().map(ItemRow::getItem).collect(Collectors.toList()));
+        assertEquals(1, query.aggregate().getCount());
+        assertEquals(0, FleetQuery.over(loadmaster).whereItemVolume(1.5, 2.0).count());
+    }
+
+    @Test
+    public void testInvalidFilters() {
+        FleetQuery query = FleetQuery.over(new Loadmaster("QUERY-EMPTY"));
+        assertEquals(0, query.count());
+        assertEquals(0, query.aggregate().getCount());
+        try {
+            query.whereItemWeight(10, 5);
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("La borne minimale ne peut pas dépasser la borne maximale.", e.getMessage());
+        }
+        try {
+            FleetQuery.over((Loadmaster) null);
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Le Loadmaster ne peut pas être null.", e.getMessage());
+        }
+        assertEquals(Arrays.asList(), query.whereItemType(Vrac.class).items().collect(Collectors.toList()));
+    }
+}
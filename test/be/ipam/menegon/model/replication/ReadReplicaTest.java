@@ -0,0 +1,113 @@
+package test.be.ipam.menegon.model.replication;
+
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.replication.ReadReplica;
+import be.ipam.menegon.model.replication.ReplicaSet;
+import be.ipam.menegon.model.replication.ReplicationPrimary;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class ReadReplicaTest extends TestCase {
+    private static final String HOST = InetAddress.getLoopbackAddress().getHostAddress();
+
+    private Loadmaster loadmaster;
+    private ReplicationPrimary primary;
+    private ReadReplica first;
+    private ReadReplica second;
+    private String camionId;
+    private String prefix;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        prefix = "038-" + System.nanoTime() + "-";
+        camionId = "C" + prefix + "A";
+        loadmaster = new Loadmaster("PrimaryLoadmaster");
+        loadmaster.addCamion(new Camion(camionId, 1000, 50.0, loadmaster));
+        loadmaster.loadItem(camionId, new Palette("P" + prefix + "1", 200, 4.0));
+        primary = new ReplicationPrimary(loadmaster, 0).start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (first != null) {
+            first.close();
+        }
+        if (second != null) {
+            second.close();
+        }
+        primary.close();
+        super.tearDown();
+    }
+
+    @Test
+    public void testReplicasFollowPrimary() {
+        try {
+            // Le premier réplica démarre à partir d'un instantané du chargement existant
+            first = new ReadReplica(HOST, primary.getPort()).start();
+            assertTrue(first.awaitSequence(primary.getSequence(), 5, TimeUnit.SECONDS));
+            waitUntilFresh(first);
+            assertEquals(200, first.getCamion(camionId).getCurrentWeight());
+
+            String otherId = "C" + prefix + "B";
+            loadmaster.addCamion(new Camion(otherId, 500, 10.0, loadmaster));
+            loadmaster.loadItem(otherId, new Vrac("V" + prefix + "1", 50, 1.0));
+            loadmaster.loadItem(camionId, new Vrac("V" + prefix + "2", 30, 1.0));
+            loadmaster.loadItem(camionId, new Vrac("V" + prefix + "3", 40, 1.0));
+            loadmaster.loadItem(camionId, new Vrac("V" + prefix + "4", 20, 1.0));
+            loadmaster.unloadIf(item -> item.getId().equals("V" + prefix + "2") || item.getId().equals("V" + prefix + "4"));
+            // Une correction directe du camion est répliquée comme les chargements
+            loadmaster.getCamions().get(camionId).updateCurrentWeight(15);
+            loadmaster.getCamions().get(camionId).updateCurrentVolume(0.5);
+
+            // Le second réplica rattrape le même état à partir d'un instantané plus récent
+            second = new ReadReplica(HOST, primary.getPort()).start();
+            long written = primary.getSequence();
+            assertTrue(first.awaitSequence(written, 5, TimeUnit.SECONDS));
+            assertTrue(second.awaitSequence(written, 5, TimeUnit.SECONDS));
+            waitUntilFresh(second);
+
+            for (ReadReplica replica : Arrays.asList(first, second)) {
+                CamionSnapshot camion = replica.getCamion(camionId);
+                assertEquals(255, camion.getCurrentWeight());
+                assertEquals(loadmaster.snapshot().getCamion(camionId).getCurrentVolume(), camion.getCurrentVolume(), 1e-9);
+                assertEquals(2, camion.size());
+                assertEquals(50, replica.getCamion(otherId).getCurrentWeight());
+                assertEquals(2, replica.countItemsByWeight(40, 50));
+            }
+
+            loadmaster.removeCamion(otherId);
+            assertTrue(first.awaitSequence(primary.getSequence(), 5, TimeUnit.SECONDS));
+            assertNull(first.getCamion(otherId));
+
+            // Les lectures sont réparties entre les réplicas à jour
+            ReplicaSet replicas = new ReplicaSet(Arrays.asList(first, second));
+            assertNotSame(replicas.pick(1000), replicas.pick(1000));
+
+            second.close();
+            first.close();
+            try {
+                replicas.pick(1000);
+                fail("Une IllegalStateException devrait être levée.");
+            } catch (IllegalStateException e) {
+                assertEquals("Aucun réplica n'a été mis à jour depuis moins de 1000 ms.", e.getMessage());
+            }
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    private static void waitUntilFresh(ReadReplica replica) throws InterruptedException {
+        for (int i = 0; i < 100 && !replica.isFresh(1000); i++) {
+            Thread.sleep(ReplicationPrimary.HEARTBEAT_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package test.be.ipam.menegon.model.report;
+
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.report.ReportCache;
+import be.ipam.menegon.model.report.ReportFormat;
+import be.ipam.menegon.model.report.TruckReport;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class ReportCacheTest extends TestCase {
+    private Loadmaster loadmaster;
+    private Camion camion;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        loadmaster = new Loadmaster("ReportLoadmaster");
+        camion = new Camion("C039", 1000, 50.0, loadmaster);
+        camion.load(new Palette("P391", 200, 4.0));
+    }
+
+    @Test
+    public void testReportIsServedUntilTruckChanges() {
+        try {
+            ReportCache cache = new ReportCache();
+            TruckReport first = cache.get(camion, ReportFormat.TEXT);
+            assertTrue(first.getContent().startsWith("Détails du camion C039:"));
+            assertSame(first, cache.get(camion, ReportFormat.TEXT));
+            assertEquals(1, cache.getHits());
+
+            // Chaque format a sa propre entrée
+            TruckReport json = cache.get(camion, ReportFormat.JSON);
+            assertTrue(json.getContent().contains("\"currentWeight\":200"));
+            assertFalse(json.getETag().equals(first.getETag()));
+
+            // Une requête conditionnelle avec l'étiquette à jour ne rend rien
+            assertNull(cache.getIfChanged(camion, ReportFormat.TEXT, first.getETag()));
+
+            camion.load(new Vrac("V391", 30, 1.0));
+            TruckReport updated = cache.getIfChanged(camion, ReportFormat.TEXT, first.getETag());
+            assertNotNull(updated);
+            assertEquals(camion.getVersion(), updated.getVersion());
+            assertTrue(updated.getContent().contains("V391"));
+            assertEquals(3, cache.getMisses());
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        ReportCache cache = new ReportCache(2);
+        Camion other = new Camion("C039B", 1000, 50.0, loadmaster);
+        TruckReport text = cache.get(camion, ReportFormat.TEXT);
+        cache.get(other, ReportFormat.TEXT);
+        cache.get(camion, ReportFormat.TEXT);
+        cache.get(camion, ReportFormat.JSON);
+
+        // Le rapport du second camion, le moins récemment utilisé, a été évincé
+        assertEquals(2, cache.size());
+        assertSame(text, cache.get(camion, ReportFormat.TEXT));
+        long misses = cache.getMisses();
+        cache.get(other, ReportFormat.TEXT);
+        assertEquals(misses + 1, cache.getMisses());
+    }
+}
@@ -0,0 +1,176 @@
+package test.be.ipam.menegon.model.shard;
+
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.shard.ShardNode;
+import be.ipam.menegon.model.shard.ShardRouter;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Chaque nœud tourne dans sa propre JVM, comme en production : les nœuds ne partagent ni
+ * l'annuaire de la flotte ni l'emplacement des éléments, qui sont propres à chaque processus.
+ */
+public class ShardRouterTest extends TestCase {
+    private static final String HOST = InetAddress.getLoopbackAddress().getHostAddress();
+    private static final Pattern PORT = Pattern.compile("(\\d+)");
+
+    private final List<Process> processes = new ArrayList<>();
+    private final List<Integer> ports = new ArrayList<>();
+    private final List<ShardRouter> routers = new ArrayList<>();
+    private ShardRouter router;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        router = router();
+        for (int i = 0; i < 3; i++) {
+            ports.add(fork());
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        for (ShardRouter r : routers) {
+            r.close();
+        }
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            process.waitFor();
+        }
+        super.tearDown();
+    }
+
+    private ShardRouter router() {
+        ShardRouter r = new ShardRouter();
+        routers.add(r);
+        return r;
+    }
+
+    /**
+     * Lance un nœud dans une nouvelle JVM sur un port libre et retourne ce port, annoncé par le nœud.
+     */
+    private int fork() throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ShardNode.class.getName(), "0")
+                .redirectErrorStream(true)
+                .start();
+        processes.add(process);
+        BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = out.readLine();
+        if (line == null) {
+            throw new IOException("Le nœud s'est arrêté avant d'annoncer son port.");
+        }
+        Matcher matcher = PORT.matcher(line);
+        if (!matcher.find()) {
+            throw new IOException("Annonce du nœud illisible : " + line);
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    @Test
+    public void testRoutingAndRebalancing() {
+        try {
+            router.addNode(HOST, ports.get(0));
+            router.addNode(HOST, ports.get(1));
+
+            String prefix = "C037-" + System.nanoTime() + "-";
+            for (int i = 0; i < 30; i++) {
+                router.addCamion(prefix + i, 1000, 50.0);
+                router.loadItem(prefix + i, new Palette("P" + prefix + i, 100 + i, 2.0));
+            }
+            router.loadItem(prefix + 0, new Vrac("V" + prefix + 0, 5, 0.5));
+
+            // Le chargement est refusé par le nœud du camion et l'exception est restituée telle quelle
+            try {
+                router.loadItem(prefix + 1, new Palette("X" + prefix + 1, 950, 1.0));
+                fail("Une MaxWeightReachedException devrait être levée.");
+            } catch (MaxWeightReachedException e) {
+                assertEquals("Le poids maximum du camion est atteint.", e.getMessage());
+            }
+
+            // Un troisième nœud récupère sa part des camions, avec leur chargement ; aucun n'est en double
+            int moved = router.addNode(HOST, ports.get(2));
+            assertTrue(moved > 0);
+            assertTrue(moved < 30);
+            List<String> ids = router.getCamionIds();
+            assertEquals(30, ids.size());
+            assertEquals(30, new HashSet<>(ids).size());
+            for (int i = 0; i < 30; i++) {
+                assertEquals(new Palette("P" + prefix + i, 100 + i, 2.0), router.getLoad(prefix + i).get(0));
+            }
+            List<Chargeable> load = router.getLoad(prefix + 0);
+            assertEquals(2, load.size());
+            assertEquals(new Palette("P" + prefix + 0, 100, 2.0), load.get(0));
+
+            // Les requêtes sur toute la flotte interrogent tous les nœuds
+            assertEquals(31, router.countItemsByVolume(0.0, 10.0));
+            assertEquals(10, router.countItemsByWeight(120, 129));
+
+            router.unloadItem(prefix + 0, new Vrac("V" + prefix + 0, 5, 0.5));
+            assertEquals(1, router.getLoad(prefix + 0).size());
+            for (int i = 0; i < 30; i++) {
+                router.removeCamion(prefix + i);
+            }
+            assertTrue(router.getCamionIds().isEmpty());
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRefusedImportKeepsCamionOnSource() {
+        try {
+            router.addNode(HOST, ports.get(0));
+            String prefix = "C037R-" + System.nanoTime() + "-";
+            for (int i = 0; i < 30; i++) {
+                router.addCamion(prefix + i, 1000, 50.0);
+                router.loadItem(prefix + i, new Palette("P" + prefix + i, 100 + i, 2.0));
+            }
+
+            // Un autre routeur crée sur le futur nœud des camions de mêmes ID : le nœud refusera tout import
+            ShardRouter squatter = router();
+            squatter.addNode(HOST, ports.get(1));
+            for (int i = 0; i < 30; i++) {
+                squatter.addCamion(prefix + i, 10, 1.0);
+            }
+            try {
+                router.addNode(HOST, ports.get(1));
+                fail("Une IllegalArgumentException devrait être levée pour un import refusé.");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Le camion existe déjà dans ce Loadmaster.", e.getMessage());
+            }
+
+            // Le nœud refusé est retiré : le même routeur trouve chaque camion sur le nœud d'origine,
+            // avec son chargement, et le camion n'est plus figé
+            assertEquals(List.of(HOST + ":" + ports.get(0)), router.getNodes());
+            assertEquals(30, router.getCamionIds().size());
+            for (int i = 0; i < 30; i++) {
+                assertEquals(HOST + ":" + ports.get(0), router.ownerOf(prefix + i));
+                List<Chargeable> load = router.getLoad(prefix + i);
+                assertEquals(1, load.size());
+                assertEquals(100 + i, load.get(0).getWeight());
+                router.loadItem(prefix + i, new Vrac("V" + prefix + i, 5, 0.5));
+            }
+            assertEquals(60, router.countItemsByVolume(0.0, 10.0));
+        } catch (Exception e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package test.be.ipam.menegon.model.storage;
+
+import be.ipam.menegon.model.codec.CustomItem;
+import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
+import be.ipam.menegon.model.storage.ArenaItem;
+import be.ipam.menegon.model.storage.ArenaLoad;
+import be.ipam.menegon.model.storage.ItemArena;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Palette;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class ItemArenaTest extends TestCase {
+    private ItemArena arena;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        arena = new ItemArena();
+    }
+
+    @Test
+    public void testStoreAndView() {
+        int vrac = arena.store(new Vrac("V001", 10, 2.5));
+        int palette = arena.store(new Palette("P001", 800, 1.2));
+
+        ArenaItem view = arena.view(vrac);
+        assertEquals("V001", view.getId());
+        assertEquals(10, view.getWeight());
+        assertEquals(2.5, view.getVolume(), 0.0001);
+        assertEquals(ItemArena.TYPE_VRAC, view.getType());
+
+        // La reconstruction redonne les objets d'origine
+        assertEquals(new Palette("P001", 800, 1.2), arena.materialize(palette));
+        assertEquals(2, arena.size());
+    }
+
+    @Test
+    public void testLongIdAndRelease() {
+        String longId = "PALETTE-RETOUR-0000000000000000000000000001";
+        int handle = arena.store(new Palette(longId, 5, 1.0));
+        assertEquals(longId, arena.getId(handle));
+
+        arena.release(handle);
+        assertEquals(0, arena.size());
+        try {
+            arena.view(handle);
+            fail("Une IllegalArgumentException devrait être levée pour un handle libéré.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Le handle " + handle + " a été libéré.", e.getMessage());
+        }
+
+        // L'emplacement libéré est réutilisé
+        assertEquals(handle, arena.store(new Vrac("V002", 1, 0.1)));
+    }
+
+    @Test
+    public void testArenaLoad() {
+        ArenaLoad load = new ArenaLoad(arena, 100, 10.0);
+        try {
+            load.load(new Vrac("V001", 40, 4.0));
+            load.load(new Palette("P001", 50, 5.0));
+            assertEquals(90, load.getCurrentWeight());
+            assertEquals(9.0, load.getCurrentVolume(), 0.0001);
+            assertEquals("P001", load.get(1).getId());
+
+            try {
+                load.load(new Vrac("V002", 20, 0.5));
+                fail("Une MaxWeightReachedException devrait être levée.");
+            } catch (MaxWeightReachedException e) {
+                assertEquals("Le poids maximum du camion est atteint.", e.getMessage());
+            }
+
+            Chargeable unloaded = load.unload("V001");
+            assertEquals(new Vrac("V001", 40, 4.0), unloaded);
+            assertEquals(50, load.getCurrentWeight());
+            assertEquals(1, load.size());
+            assertEquals(1, arena.size());
+
+            load.clear();
+            assertEquals(0, arena.size());
+        } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testUnloadedCopyOutlivesSlot() {
+        ArenaLoad load = new ArenaLoad(arena, 100, 10.0);
+        try {
+            load.load(new CustomItem("X001", 10, 1.0, 7.5, 1_000L));
+            load.load(new Vrac("V001", 20, 2.0, 3.0, 2_000L));
+            Chargeable custom = load.unload("X001");
+            Chargeable vrac = load.unload("V001");
+
+            // Les emplacements libérés sont réutilisés : les copies déchargées n'en dépendent pas
+            load.load(new Palette("P001", 30, 3.0));
+            load.load(new Palette("P002", 40, 4.0));
+            assertEquals(CustomItem.class, custom.getClass());
+            assertEquals("X001", custom.getId());
+            assertEquals(10, custom.getWeight());
+            assertEquals(7.5, custom.getValue(), 0.0);
+            assertEquals(1_000L, custom.getLatestDeparture());
+            assertEquals(3.0, vrac.getValue(), 0.0);
+            assertEquals(2_000L, vrac.getLatestDeparture());
+            assertEquals(Long.MAX_VALUE, load.get(0).getLatestDeparture());
+        } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testLongIdsStayOffHeap() {
+        ArenaLoad load = new ArenaLoad(arena, Integer.MAX_VALUE, 1e9);
+        String prefix = "PALETTE-RETOUR-ENTREPOT-CENTRAL-";
+        try {
+            // Assez d'identifiants longs, chargés et déchargés, pour agrandir puis compacter leur zone
+            for (int i = 0; i < 20_000; i++) {
+                load.load(new Palette(prefix + i, 1, 0.1));
+                if (i % 2 == 1) {
+                    assertEquals(prefix + (i - 1), load.unload(prefix + (i - 1)).getId());
+                }
+            }
+        } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+        assertEquals(load.size(), arena.size());
+        for (int i = 0; i < load.size(); i++) {
+            ArenaItem item = load.get(i);
+            assertTrue(arena.hasId(item.getHandle(), item.getId().getBytes(StandardCharsets.UTF_8)));
+            assertTrue(item.getId().startsWith(prefix));
+        }
+        assertFalse(arena.hasId(load.get(0).getHandle(), "V001".getBytes(StandardCharsets.UTF_8)));
+        try {
+            load.unload(prefix + "inconnu");
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("L'article à décharger n'est pas trouvé dans le camion.", e.getMessage());
+        }
+
+        arena.close();
+        assertEquals(0, arena.getReservedBytes());
+        try {
+            arena.size();
+            arena.view(0);
+            fail("Une IllegalStateException devrait être levée.");
+        } catch (IllegalStateException e) {
+            assertEquals("La zone de stockage est fermée.", e.getMessage());
+        }
+    }
+}
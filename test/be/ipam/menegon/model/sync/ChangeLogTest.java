@@ -0,0 +1,242 @@
+package test.be.ipam.menegon.model.sync;
+
+import be.ipam.menegon.model.loadmaster.Loadmaster;
+import be.ipam.menegon.model.sync.CamionDelta;
+import be.ipam.menegon.model.sync.ChangeLog;
+import be.ipam.menegon.model.sync.Delta;
+import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
+import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.Vrac;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class ChangeLogTest extends TestCase {
+    private String prefix;
+    private Loadmaster loadmaster;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        prefix = "050-" + System.nanoTime() + "-";
+        loadmaster = new Loadmaster("SYNC");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        for (String id : new ArrayList<>(loadmaster.getCamions().keySet())) {
+            loadmaster.removeCamion(id);
+        }
+        super.tearDown();
+    }
+
+    private Vrac item(String name, int weight) {
+        return new Vrac(prefix + name, weight, 1.0);
+    }
+
+    /**
+     * Copie tenue par un client : les éléments de chaque camion, identifiés par leur ID.
+     */
+    private static void apply(Map<String, Set<String>> client, Delta delta) {
+        if (delta.isFull()) {
+            client.keySet().retainAll(delta.getCamions().keySet());
+        }
+        for (String camionId : delta.getRemovedCamions()) {
+            client.remove(camionId);
+        }
+        for (CamionDelta camion : delta.getCamions().values()) {
+            Set<String> items = camion.isReset() ? new HashSet<>() : client.computeIfAbsent(camion.getCamionId(), id -> new HashSet<>());
+            items.removeAll(camion.getRemovedItemIds());
+            for (Chargeable item : camion.getAddedItems()) {
+                items.add(item.getId());
+            }
+            client.put(camion.getCamionId(), items);
+        }
+    }
+
+    private Map<String, Set<String>> serverState() {
+        Map<String, Set<String>> state = new HashMap<>();
+        for (CamionSnapshot camion : loadmaster.snapshot().getCamions().values()) {
+            Set<String> items = new HashSet<>();
+            camion.forEach(item -> items.add(item.getId()));
+            state.put(camion.getId(), items);
+        }
+        return state;
+    }
+
+    @Test
+    public void testNetChanges() throws Exception {
+        String a = prefix + "A";
+        String b = prefix + "B";
+        loadmaster.addCamion(new Camion(a, 1_000, 100.0, loadmaster));
+        Vrac old = item("old", 100);
+        loadmaster.loadItem(a, old);
+
+        try (ChangeLog log = new ChangeLog(loadmaster).start()) {
+            Delta initial = log.changesSince(0);
+            assertTrue(initial.isFull());
+            assertEquals(1, initial.getSequence());
+            assertEquals(Collections.singletonList(old), initial.getCamions().get(a).getAddedItems());
+            assertTrue(log.changesSince(1).isEmpty());
+
+            Vrac first = item("1", 10);
+            Vrac second = item("2", 20);
+            loadmaster.loadItem(a, first);
+            loadmaster.loadItems(a, Arrays.asList(second, item("3", 30)));
+            loadmaster.unloadItem(a, item("3", 30));
+            loadmaster.unloadItem(a, old);
+            loadmaster.addCamion(new Camion(b, 500, 50.0, loadmaster));
+            loadmaster.loadItem(b, item("4", 40));
+
+            Delta delta = log.changesSince(1);
+            assertFalse(delta.isFull());
+            assertEquals(log.getSequence(), delta.getSequence());
+            assertEquals(7, delta.getSequence());
+            CamionDelta camionA = delta.getCamions().get(a);
+            assertFalse(camionA.isReset());
+            assertEquals(Arrays.asList(first, second), camionA.getAddedItems());
+            assertEquals(Collections.singleton(old.getId()), camionA.getRemovedItemIds());
+            assertEquals(30, camionA.getCurrentWeight());
+            assertEquals(1_000, camionA.getMaxWeight());
+            assertEquals(loadmaster.getCamions().get(a).getVersion(), camionA.getVersion());
+            CamionDelta camionB = delta.getCamions().get(b);
+            assertTrue(camionB.isReset());
+            assertEquals(1, camionB.getAddedItems().size());
+            assertEquals(40, camionB.getCurrentWeight());
+
+            // Un camion ajouté puis retiré dans l'intervalle n'est plus qu'un retrait
+            loadmaster.removeCamion(b);
+            delta = log.changesSince(1);
+            assertFalse(delta.getCamions().containsKey(b));
+            assertEquals(Collections.singleton(b), delta.getRemovedCamions());
+
+            // Pour un seul camion, seules ses modifications sont parcourues
+            Delta onlyA = log.changesSince(a, 3);
+            assertEquals(Collections.singleton(a), onlyA.getCamions().keySet());
+            assertEquals(Collections.emptyList(), onlyA.getCamions().get(a).getAddedItems());
+            assertEquals(new HashSet<>(Arrays.asList(prefix + "3", old.getId())), onlyA.getCamions().get(a).getRemovedItemIds());
+            assertTrue(log.changesSince(b, log.getSequence()).isEmpty());
+            assertEquals(Collections.singleton(b), log.changesSince(b, 0).getRemovedCamions());
+        }
+    }
+
+    @Test
+    public void testDirectChangesAreRecorded() throws Exception {
+        String a = prefix + "A";
+        Camion camion = new Camion(a, 1_000, 100.0, loadmaster);
+        loadmaster.addCamion(camion);
+
+        try (ChangeLog log = new ChangeLog(loadmaster).start()) {
+            // Chargement et corrections faits sur le camion lui-même, sans passer par le Loadmaster
+            Vrac direct = item("direct", 100);
+            camion.load(direct);
+            camion.updateCurrentWeight(15);
+            camion.updateCurrentVolume(0.5);
+            assertEquals(4, log.getSequence());
+
+            Delta delta = log.changesSince(1);
+            CamionDelta camionA = delta.getCamions().get(a);
+            assertEquals(Collections.singletonList(direct), camionA.getAddedItems());
+            assertTrue(camionA.getRemovedItemIds().isEmpty());
+            assertEquals(115, camionA.getCurrentWeight());
+            assertEquals(1.5, camionA.getCurrentVolume(), 1e-9);
+            assertEquals(camion.getVersion(), camionA.getVersion());
+
+            // Une correction seule ne transmet aucun élément, seulement les nouveaux chiffres
+            CamionDelta adjusted = log.changesSince(3).getCamions().get(a);
+            assertTrue(adjusted.getAddedItems().isEmpty());
+            assertTrue(adjusted.getRemovedItemIds().isEmpty());
+            assertEquals(115, adjusted.getCurrentWeight());
+            assertEquals(1.5, adjusted.getCurrentVolume(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testClientConvergesThroughEviction() throws Exception {
+        Random random = new Random(50);
+        List<String> camions = new ArrayList<>();
+        for (int t = 0; t < 5; t++) {
+            camions.add(prefix + "T" + t);
+            loadmaster.addCamion(new Camion(camions.get(t), 1_000_000, 10_000.0, loadmaster));
+        }
+        ChangeLog log = new ChangeLog(loadmaster, 64).start();
+        Map<String, Set<String>> client = new HashMap<>();
+        long since = 0;
+        int fulls = 0;
+        int removed = 0;
+        List<Vrac> loaded = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            int action = random.nextInt(10);
+            if (action < 5 || loaded.isEmpty()) {
+                String camionId = camions.get(random.nextInt(camions.size()));
+                if (loadmaster.getCamions().containsKey(camionId)) {
+                    Vrac item = item("I" + i, 1 + random.nextInt(100));
+                    loadmaster.loadItem(camionId, item);
+                    loaded.add(item);
+                }
+            } else if (action < 9) {
+                Vrac item = loaded.remove(random.nextInt(loaded.size()));
+                if (Loadmaster.findItem(item.getId()) != null) {
+                    Loadmaster.unloadItemById(item.getId());
+                }
+            } else {
+                // Un camion part avec son chargement et un autre arrive
+                String camionId = camions.get(random.nextInt(camions.size()));
+                if (loadmaster.getCamions().containsKey(camionId)) {
+                    loadmaster.removeCamion(camionId);
+                    String next = prefix + "R" + removed++;
+                    camions.add(next);
+                    loadmaster.addCamion(new Camion(next, 1_000_000, 10_000.0, loadmaster));
+                }
+            }
+            // Le client se synchronise à intervalles irréguliers, mais reste hors ligne un tiers du temps
+            if ((i / 250) % 3 != 2 && random.nextInt(8) == 0) {
+                Delta delta = log.changesSince(since);
+                if (delta.isFull()) {
+                    fulls++;
+                }
+                apply(client, delta);
+                since = delta.getSequence();
+                assertEquals(serverState(), client);
+            }
+        }
+        apply(client, log.changesSince(since));
+        assertEquals(serverState(), client);
+        assertTrue(fulls > 1);
+        assertEquals(64, log.size());
+        assertEquals(log.getSequence() - 64, log.getHorizon());
+        log.close();
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        try {
+            new ChangeLog(null);
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Le Loadmaster à suivre ne peut pas être null.", e.getMessage());
+        }
+        try {
+            new ChangeLog(loadmaster, 0);
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("La capacité du journal doit être strictement positive.", e.getMessage());
+        }
+        try {
+            new ChangeLog(loadmaster).changesSince(null, 0);
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("L'identifiant du camion ne peut pas être null.", e.getMessage());
+        }
+    }
+}
@@ -2,16 +2,24 @@ package test.be.ipam.menegon.model.truck;
 
 import be.ipam.menegon.model.exceptions.MaxWeightReachedException;
 import be.ipam.menegon.model.exceptions.MaxVolumeReachedException;
+import be.ipam.menegon.model.exceptions.StopOrderViolationException;
 import be.ipam.menegon.model.loadmaster.Loadmaster;
 import be.ipam.menegon.model.truck.Camion;
+import be.ipam.menegon.model.truck.CamionSnapshot;
 import be.ipam.menegon.model.truck.Chargeable;
+import be.ipam.menegon.model.truck.LoadOrder;
+import be.ipam.menegon.model.truck.LoadView;
 import be.ipam.menegon.model.truck.Palette;
 import be.ipam.menegon.model.truck.Vrac;
 import junit.framework.TestCase;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CamionTest extends TestCase {
 
@@ -387,5 +395,233 @@ public class CamionTest extends TestCase {
             fail("Une exception inattendue a été levée lors du tri par volume : " + e.getMessage());
         }
     }
-}
 
+    @Test
+    public void testGetLoadView() {
+        try {
+            camion.load(palette);
+            camion.load(vrac);
+
+            // La vue suit le chargement sans copie
+            LoadView view = camion.getLoadView();
+            assertEquals(2, view.size());
+            assertEquals(palette, view.get(0));
+            assertEquals(15, view.stream().mapToInt(Chargeable::getWeight).sum());
+
+            // La vue est en lecture seule
+            try {
+                view.add(vrac);
+                fail("Une UnsupportedOperationException aurait dû être levée.");
+            } catch (UnsupportedOperationException e) {
+                // Comportement attendu
+            }
+
+            // Un parcours en cours échoue si le camion est modifié
+            try {
+                for (Chargeable item : view) {
+                    camion.unload(item);
+                }
+                fail("Une ConcurrentModificationException aurait dû être levée.");
+            } catch (ConcurrentModificationException e) {
+                assertEquals("Le camion C001 a été modifié pendant le parcours.", e.getMessage());
+            }
+            assertEquals(1, camion.getLoadView().size());
+            assertTrue(view.isStale());
+
+            // forEach et les flux échouent dès l'élément qui suit la modification, sans dépasser le chargement
+            int round = 0;
+            for (Runnable traversal : new Runnable[]{
+                    () -> camion.getLoadView().forEach(camion::unload),
+                    () -> camion.getLoadView().stream().forEach(camion::unload)}) {
+                camion.load(new Vrac("VUE" + round++, 1, 0.1));
+                camion.load(new Vrac("VUE" + round++, 1, 0.1));
+                int before = camion.getLoadView().size();
+                try {
+                    traversal.run();
+                    fail("Une ConcurrentModificationException aurait dû être levée.");
+                } catch (ConcurrentModificationException e) {
+                    assertEquals("Le camion C001 a été modifié pendant le parcours.", e.getMessage());
+                }
+                assertEquals(before - 1, camion.getLoadView().size());
+            }
+        } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testGetTopKAndPage() {
+        try {
+            for (int i = 1; i <= 9; i++) {
+                camion.load(new Palette("P10" + i, i * 10, i));
+            }
+
+            // Les 3 éléments les plus lourds, du plus lourd au plus léger
+            List<Chargeable> top = camion.getTopK(LoadOrder.WEIGHT_DESC, 3);
+            assertEquals(3, top.size());
+            assertEquals("P109", top.get(0).getId());
+            assertEquals("P107", top.get(2).getId());
+
+            // Pagination par volume croissant à l'aide d'un curseur
+            List<Chargeable> page1 = camion.getPage(LoadOrder.VOLUME_ASC, null, 4);
+            List<Chargeable> page2 = camion.getPage(LoadOrder.VOLUME_ASC, page1.get(page1.size() - 1), 4);
+            List<Chargeable> page3 = camion.getPage(LoadOrder.VOLUME_ASC, page2.get(page2.size() - 1), 4);
+            assertEquals("P101", page1.get(0).getId());
+            assertEquals("P105", page2.get(0).getId());
+            assertEquals(1, page3.size());
+            assertEquals("P109", page3.get(0).getId());
+
+            // L'index est maintenu lors d'un déchargement
+            camion.unload(new Palette("P101", 10, 1));
+            assertEquals("P102", camion.getPage(LoadOrder.VOLUME_ASC, null, 1).get(0).getId());
+            assertEquals("P108", camion.getPage(LoadOrder.ID_DESC, camion.getTopK(LoadOrder.ID_DESC, 1).get(0), 1).get(0).getId());
+
+            // Des éléments indiscernables restent des instances distinctes dans les pages
+            Vrac first = new Vrac("V100", 1, 0.1);
+            Vrac second = new Vrac("V100", 1, 0.1);
+            camion.load(first);
+            camion.load(second);
+            List<Chargeable> lightest = camion.getPage(LoadOrder.WEIGHT_ASC, null, 2);
+            assertSame(first, lightest.get(0));
+            assertSame(second, lightest.get(1));
+            camion.unload(first);
+            assertSame(second, camion.getTopK(LoadOrder.WEIGHT_ASC, 1).get(0));
+        } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRangeQueries() {
+        try {
+            camion.load(new Vrac("V101", 900, 3.0));
+            camion.load(new Vrac("V102", 500, 4.5));
+            camion.load(new Palette("P101", 850, 1.0));
+            camion.load(new Palette("P102", 800, 2.0));
+
+            // Poids entre 800 et 900 inclus, par poids croissant
+            List<Chargeable> heavy = camion.streamByWeight(800, 900).collect(Collectors.toList());
+            assertEquals(3, heavy.size());
+            assertEquals("P102", heavy.get(0).getId());
+            assertEquals("V101", heavy.get(2).getId());
+            assertEquals(3, camion.countByWeight(800, 900));
+
+            // Le flux est une copie : un déchargement après sa création ne l'affecte pas
+            Stream<Chargeable> pending = camion.streamByWeight(800, 900);
+            camion.unload(new Palette("P101", 850, 1.0));
+            assertEquals(3, pending.count());
+            assertEquals(2, camion.countByWeight(800, 900));
+            camion.load(new Palette("P101", 850, 1.0));
+
+            // Volume entre 2 et 5 inclus ; l'index suit les déchargements
+            assertEquals(3, camion.countByVolume(2.0, 5.0));
+            camion.unload(new Vrac("V102", 1, 0.1));
+            assertEquals(2, camion.countByVolume(2.0, 5.0));
+            assertEquals(0, camion.countByWeight(0, 499));
+
+            try {
+                camion.countByVolume(5.0, 2.0);
+                fail("Une IllegalArgumentException aurait dû être levée pour des bornes inversées.");
+            } catch (IllegalArgumentException e) {
+                assertEquals("La borne minimale ne peut pas dépasser la borne maximale.", e.getMessage());
+            }
+        } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSnapshot() {
+        try {
+            camion.load(palette);
+            CamionSnapshot before = camion.snapshot();
+            camion.load(vrac);
+            camion.unload(palette);
+
+            // L'ancienne version est intacte
+            assertEquals(1, before.size());
+            assertEquals(5, before.getCurrentWeight());
+            assertEquals(palette, before.getLoad().get(0));
+
+            // La nouvelle version reflète les modifications
+            CamionSnapshot after = camion.snapshot();
+            assertEquals(camion.getVersion(), after.getVersion());
+            assertEquals(1, after.size());
+            assertEquals(vrac, after.getLoad().get(0));
+            assertEquals(20.0, after.getCurrentVolume(), 0.01);
+        } catch (MaxWeightReachedException | MaxVolumeReachedException e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSnapshotFollowsRandomChanges() {
+        try {
+            Random random = new Random(42);
+            Camion grand = new Camion("C900", 1_000_000, 1_000_000.0, loadmaster);
+            CamionSnapshot first = grand.snapshot();
+            int next = 0;
+            for (int i = 0; i < 2000; i++) {
+                List<Chargeable> load = grand.getLoad();
+                switch (random.nextInt(5)) {
+                    case 0 -> grand.load(new Vrac("R" + next++, 1, 1.0), random.nextInt(4));
+                    case 1 -> grand.loadAll(List.of(new Vrac("R" + next++, 1, 1.0), new Vrac("R" + next++, 1, 1.0)));
+                    case 2 -> {
+                        if (!load.isEmpty()) {
+                            grand.unload(load.get(random.nextInt(load.size())));
+                        }
+                    }
+                    case 3 -> {
+                        int modulo = 2 + random.nextInt(20);
+                        grand.unloadIf(item -> item.getId().hashCode() % modulo == 0);
+                    }
+                    default -> grand.unloadStop(random.nextInt(4));
+                }
+                // La version publiée suit exactement le chargement, dans le même ordre
+                CamionSnapshot snapshot = grand.snapshot();
+                assertEquals(grand.getLoad(), snapshot.getLoad());
+                assertEquals(grand.getCurrentWeight(), snapshot.getCurrentWeight());
+            }
+            // Les versions précédentes ne sont jamais modifiées
+            assertEquals(0, first.size());
+        } catch (MaxWeightReachedException | MaxVolumeReachedException | StopOrderViolationException e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testUnloadStop() {
+        try {
+            camion.setLifo(true);
+            // Chargement en ordre inverse de la tournée : le dernier arrêt au fond
+            camion.load(new Vrac("V010", 3, 1.0), 2);
+            camion.load(new Vrac("V011", 4, 1.0), 1);
+            camion.load(palette, 1);
+
+            // Un élément pour l'arrêt 2 bloquerait l'arrêt 1
+            try {
+                camion.load(vrac, 2);
+                fail("Une StopOrderViolationException devrait être levée.");
+            } catch (StopOrderViolationException e) {
+                assertEquals(vrac, e.getItem());
+            }
+
+            long version = camion.getVersion();
+            List<Chargeable> unloaded = camion.unloadStop(1);
+            assertEquals(2, unloaded.size());
+            assertEquals(version + 1, camion.getVersion());
+            assertEquals(3, camion.getCurrentWeight());
+            assertEquals(1, camion.getLoad().size());
+            assertEquals(1, camion.snapshot().size());
+            assertEquals("V010", camion.snapshot().getLoad().get(0).getId());
+            assertTrue(camion.getStopItems(1).isEmpty());
+            assertEquals(1, camion.getStops().size());
+
+            // Un arrêt inconnu ne modifie rien
+            assertTrue(camion.unloadStop(7).isEmpty());
+            assertEquals(version + 1, camion.getVersion());
+        } catch (MaxWeightReachedException | MaxVolumeReachedException | StopOrderViolationException e) {
+            fail("Une exception inattendue a été levée : " + e.getMessage());
+        }
+    }
+}
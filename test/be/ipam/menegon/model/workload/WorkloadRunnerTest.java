@@ -0,0 +1,97 @@
+package test.be.ipam.menegon.model.workload;
+
+import be.ipam.menegon.model.loadmaster.FleetDirectory;
+import be.ipam.menegon.model.workload.DockOperation;
+import be.ipam.menegon.model.workload.SizeDistribution;
+import be.ipam.menegon.model.workload.WorkloadProfile;
+import be.ipam.menegon.model.workload.WorkloadReport;
+import be.ipam.menegon.model.workload.WorkloadRunner;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class WorkloadRunnerTest extends TestCase {
+    // Petits camions pour provoquer des refus et des départs
+    private final WorkloadProfile profile = WorkloadProfile.defaults()
+            .withName("test")
+            .withSeed(47)
+            .withLoaders(4, 20_000)
+            .withTrucks(3, 2_000, 10.0)
+            .withPalettes(0.3, SizeDistribution.uniform(100, 400), SizeDistribution.uniform(0.5, 1.5));
+
+    @Test
+    public void testSameSeedSameTraffic() {
+        int fleet = FleetDirectory.size();
+        WorkloadReport first = WorkloadRunner.run(profile);
+        WorkloadReport second = WorkloadRunner.run(profile);
+
+        // Seules les mesures de temps et de mémoire varient d'une exécution à l'autre
+        for (DockOperation operation : DockOperation.values()) {
+            assertEquals(first.getCount(operation), second.getCount(operation));
+        }
+        assertEquals(first.getLoadedItems(), second.getLoadedItems());
+        assertEquals(first.getUnloadedItems(), second.getUnloadedItems());
+        assertEquals(first.getWeightRejections(), second.getWeightRejections());
+        assertEquals(first.getVolumeRejections(), second.getVolumeRejections());
+        assertEquals(fleet, FleetDirectory.size());
+
+        assertEquals(first.getCount(DockOperation.ARRIVAL), first.getCount(DockOperation.DEPARTURE));
+        assertTrue(first.getCount(DockOperation.DEPARTURE) > 0);
+        assertTrue(first.getRejectionRate() > 0 && first.getRejectionRate() < 1);
+        assertTrue(first.getLoadedItems() >= first.getUnloadedItems());
+        assertTrue(first.getThroughput() > 0);
+        assertTrue(first.getLatency(DockOperation.LOAD, 50) <= first.getLatency(DockOperation.LOAD, 99));
+        assertTrue(first.getLatency(DockOperation.LOAD, 99) <= first.getMaxLatency(DockOperation.LOAD));
+        assertTrue(first.getAllocatedBytes() != 0);
+        assertEquals(0, first.getStaleOperations());
+
+        WorkloadReport other = WorkloadRunner.run(profile.withSeed(48));
+        assertFalse(first.getLoadedItems() == other.getLoadedItems()
+                && first.getWeightRejections() == other.getWeightRejections());
+    }
+
+    @Test
+    public void testSharedDocks() {
+        int fleet = FleetDirectory.size();
+        // Tous les chargeurs se disputent les trois mêmes camions
+        WorkloadReport report = WorkloadRunner.run(profile.withName("partagé").withLoaders(4, 5_000).withSharedDocks(true));
+        assertTrue(report.getProfile().isSharedDocks());
+        assertEquals(fleet, FleetDirectory.size());
+        assertEquals(report.getCount(DockOperation.ARRIVAL), report.getCount(DockOperation.DEPARTURE));
+        assertTrue(report.getCount(DockOperation.DEPARTURE) > 0);
+        assertTrue(report.getLoadedItems() > 0);
+        assertTrue(report.getBlockedCount() >= 0);
+        assertTrue(report.getStaleOperations() >= 0);
+        assertTrue(report.toString().contains("attentes de verrou"));
+    }
+
+    @Test
+    public void testCompareBatchLoading() {
+        WorkloadProfile small = profile.withLoaders(2, 2_000);
+        List<WorkloadReport> reports = WorkloadRunner.compare(Arrays.asList(small, small.withName("lots").withBatchSize(8)));
+        assertEquals(2, reports.size());
+        assertEquals("lots", reports.get(1).getProfile().getName());
+        // Un lot refusé ne charge aucun de ses éléments
+        assertEquals(0, reports.get(1).getLoadedItems() % 8);
+        String table = WorkloadReport.table(reports);
+        assertTrue(table.contains("test") && table.contains("lots"));
+    }
+
+    @Test
+    public void testInvalidProfile() {
+        try {
+            WorkloadProfile.defaults().withUnloads(0.6, 0.5, 10);
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Les probabilités de déchargement doivent être positives et ne pas dépasser 1 ensemble.", e.getMessage());
+        }
+        try {
+            SizeDistribution.logNormal(10, 0.5, 20, 30);
+            fail("Une IllegalArgumentException devrait être levée.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("La médiane doit être entre les bornes et sigma strictement positif.", e.getMessage());
+        }
+    }
+}